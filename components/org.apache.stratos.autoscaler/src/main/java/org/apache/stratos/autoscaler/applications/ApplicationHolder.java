@@ -19,13 +19,13 @@
 
 package org.apache.stratos.autoscaler.applications;
 
-import com.google.gson.Gson;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.autoscaler.util.AutoscalerUtil;
 import org.apache.stratos.common.concurrent.locks.ReadWriteLock;
 import org.apache.stratos.messaging.domain.application.Application;
 import org.apache.stratos.messaging.domain.application.Applications;
+import org.apache.stratos.messaging.util.Util;
 
 
 public class ApplicationHolder {
@@ -116,7 +116,6 @@ public class ApplicationHolder {
     }
 
     private static String toJson(Object object) {
-        Gson gson = new Gson();
-        return gson.toJson(object);
+        return Util.getGson().toJson(object);
     }
 }
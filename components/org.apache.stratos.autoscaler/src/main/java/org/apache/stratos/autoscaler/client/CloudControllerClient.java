@@ -149,40 +149,65 @@ public class CloudControllerClient {
                         clusterId, partition.getId(), networkPartitionId));
             }
 
-            XMLConfiguration conf = ConfUtil.getInstance(null).getConfiguration();
-            long expiryTime = conf.getLong(StratosConstants.OBSOLETED_VM_MEMBER_EXPIRY_TIMEOUT, 86400000);
+            InstanceContext instanceContext = createInstanceContext(partition, clusterId, clusterInstanceId,
+                    networkPartitionId, isPrimary, minMemberCount);
+
+            long startTime = System.currentTimeMillis();
+            MemberContext memberContext = stub.startInstance(instanceContext);
             if (log.isDebugEnabled()) {
-                log.debug("Member obsolete expiry time is set to: " + expiryTime);
+                long endTime = System.currentTimeMillis();
+                log.debug(String.format("Service call startInstance() returned in %dms", (endTime - startTime)));
             }
+            return memberContext;
+        } catch (CloudControllerServiceCartridgeNotFoundExceptionException e) {
+            String message = e.getFaultMessage().getCartridgeNotFoundException().getMessage();
+            log.error(message, e);
+            throw new SpawningException(message, e);
+        } catch (RemoteException e) {
+            log.error(e.getMessage(), e);
+            throw new SpawningException(e.getMessage(), e);
+        } catch (CloudControllerServiceInvalidIaasProviderExceptionException e) {
+            String message = e.getFaultMessage().getInvalidIaasProviderException().getMessage();
+            log.error(message, e);
+            throw new SpawningException(message, e);
+        } catch (CloudControllerServiceCloudControllerExceptionException e) {
+            String message = e.getMessage();
+            log.error(message, e);
+            throw new SpawningException(message, e);
+        }
+    }
 
-            InstanceContext instanceContext = new InstanceContext();
-            instanceContext.setClusterId(clusterId);
-            instanceContext.setClusterInstanceId(clusterInstanceId);
-            instanceContext.setPartition(partition);
-            instanceContext.setInitTime(System.currentTimeMillis());
-            instanceContext.setObsoleteExpiryTime(expiryTime);
-            instanceContext.setNetworkPartitionId(networkPartitionId);
-
-            Properties memberContextProps = new Properties();
-            Property isPrimaryProp = new Property();
-            isPrimaryProp.setName("PRIMARY");
-            isPrimaryProp.setValue(String.valueOf(isPrimary));
-
-            Property minCountProp = new Property();
-            minCountProp.setName(StratosConstants.MIN_COUNT);
-            minCountProp.setValue(String.valueOf(minMemberCount));
+    /**
+     * Spawn an instance in each of the given partitions using a single service call. Partitions may be
+     * repeated to spawn more than one instance in a partition.
+     *
+     * @return member contexts of the instances spawned, which may be fewer than the partitions given
+     * if some of the instances could not be spawned
+     */
+    public synchronized MemberContext[] startInstances(List<Partition> partitions,
+                                                       String clusterId, String clusterInstanceId,
+                                                       String networkPartitionId, boolean isPrimary,
+                                                       int minMemberCount) throws SpawningException {
+        try {
+            if (log.isInfoEnabled()) {
+                log.info(String.format("Trying to spawn instances via cloud controller: " +
+                                "[cluster] %s [instance-count] %d [network-partition-id] %s",
+                        clusterId, partitions.size(), networkPartitionId));
+            }
 
-            memberContextProps.addProperty(isPrimaryProp);
-            memberContextProps.addProperty(minCountProp);
-            instanceContext.setProperties(AutoscalerUtil.toStubProperties(memberContextProps));
+            InstanceContext[] instanceContexts = new InstanceContext[partitions.size()];
+            for (int i = 0; i < instanceContexts.length; i++) {
+                instanceContexts[i] = createInstanceContext(partitions.get(i), clusterId, clusterInstanceId,
+                        networkPartitionId, isPrimary, minMemberCount);
+            }
 
             long startTime = System.currentTimeMillis();
-            MemberContext memberContext = stub.startInstance(instanceContext);
+            MemberContext[] memberContexts = stub.startInstances(instanceContexts);
             if (log.isDebugEnabled()) {
                 long endTime = System.currentTimeMillis();
-                log.debug(String.format("Service call startInstance() returned in %dms", (endTime - startTime)));
+                log.debug(String.format("Service call startInstances() returned in %dms", (endTime - startTime)));
             }
-            return memberContext;
+            return (memberContexts == null) ? new MemberContext[0] : memberContexts;
         } catch (CloudControllerServiceCartridgeNotFoundExceptionException e) {
             String message = e.getFaultMessage().getCartridgeNotFoundException().getMessage();
             log.error(message, e);
@@ -201,6 +226,38 @@ public class CloudControllerClient {
         }
     }
 
+    private InstanceContext createInstanceContext(Partition partition, String clusterId, String clusterInstanceId,
+                                                  String networkPartitionId, boolean isPrimary,
+                                                  int minMemberCount) {
+        XMLConfiguration conf = ConfUtil.getInstance(null).getConfiguration();
+        long expiryTime = conf.getLong(StratosConstants.OBSOLETED_VM_MEMBER_EXPIRY_TIMEOUT, 86400000);
+        if (log.isDebugEnabled()) {
+            log.debug("Member obsolete expiry time is set to: " + expiryTime);
+        }
+
+        InstanceContext instanceContext = new InstanceContext();
+        instanceContext.setClusterId(clusterId);
+        instanceContext.setClusterInstanceId(clusterInstanceId);
+        instanceContext.setPartition(partition);
+        instanceContext.setInitTime(System.currentTimeMillis());
+        instanceContext.setObsoleteExpiryTime(expiryTime);
+        instanceContext.setNetworkPartitionId(networkPartitionId);
+
+        Properties memberContextProps = new Properties();
+        Property isPrimaryProp = new Property();
+        isPrimaryProp.setName("PRIMARY");
+        isPrimaryProp.setValue(String.valueOf(isPrimary));
+
+        Property minCountProp = new Property();
+        minCountProp.setName(StratosConstants.MIN_COUNT);
+        minCountProp.setValue(String.valueOf(minMemberCount));
+
+        memberContextProps.addProperty(isPrimaryProp);
+        memberContextProps.addProperty(minCountProp);
+        instanceContext.setProperties(AutoscalerUtil.toStubProperties(memberContextProps));
+        return instanceContext;
+    }
+
     public synchronized void terminateInstances(String clusterId) throws TerminationException {
         try {
             if (log.isInfoEnabled()) {
@@ -307,6 +364,36 @@ public class CloudControllerClient {
         }
     }
 
+    public synchronized void terminateMemberInstances(List<String> memberIds) throws TerminationException {
+        try {
+            if (log.isInfoEnabled()) {
+                log.info(String.format("Terminating instances via cloud controller: [members] %s", memberIds));
+            }
+            long startTime = System.currentTimeMillis();
+            stub.terminateMemberInstances(memberIds.toArray(new String[memberIds.size()]));
+            if (log.isDebugEnabled()) {
+                long endTime = System.currentTimeMillis();
+                log.debug(String.format("Service call terminateMemberInstances() returned in %dms", (endTime - startTime)));
+            }
+        } catch (RemoteException e) {
+            String msg = e.getMessage();
+            log.error(msg, e);
+            throw new TerminationException(msg, e);
+        } catch (CloudControllerServiceInvalidMemberExceptionException e) {
+            String msg = e.getFaultMessage().getInvalidMemberException().getMessage();
+            log.error(msg, e);
+            throw new TerminationException(msg, e);
+        } catch (CloudControllerServiceInvalidCartridgeTypeExceptionException e) {
+            String msg = e.getFaultMessage().getInvalidCartridgeTypeException().getMessage();
+            log.error(msg, e);
+            throw new TerminationException(msg, e);
+        } catch (CloudControllerServiceCloudControllerExceptionException e) {
+            String msg = e.getMessage();
+            log.error(msg, e);
+            throw new TerminationException(msg, e);
+        }
+    }
+
     public CartridgeInfo getCartrdgeInformation(String cartridgeType) throws CartridgeInformationException {
 
         try {
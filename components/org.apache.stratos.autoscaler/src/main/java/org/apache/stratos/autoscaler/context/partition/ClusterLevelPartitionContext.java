@@ -81,6 +81,9 @@ public class ClusterLevelPartitionContext extends PartitionContext implements Se
         this.activeMembers = new ArrayList<MemberContext>();
         this.terminationPendingMembers = new ArrayList<MemberContext>();
         this.pendingMembers = new ArrayList<MemberContext>();
+        this.obsoletedMembers = new ConcurrentHashMap<String, MemberContext>();
+        this.memberStatsContexts = new ConcurrentHashMap<String, MemberStatsContext>();
+        this.terminationPendingStartedTime = new HashMap<String, Long>();
     }
 
     public ClusterLevelPartitionContext(int max, Partition partition, String networkPartitionId, String clusterId) {
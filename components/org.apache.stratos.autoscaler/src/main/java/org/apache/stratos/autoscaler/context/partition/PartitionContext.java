@@ -93,4 +93,8 @@ public abstract class PartitionContext implements Serializable {
     public int getMax() {
         return max;
     }
+
+    public void setMax(int max) {
+        this.max = max;
+    }
 }
@@ -27,6 +27,7 @@ import org.apache.stratos.autoscaler.event.receiver.health.AutoscalerHealthStatE
 import org.apache.stratos.autoscaler.event.receiver.topology.AutoscalerTopologyEventReceiver;
 import org.apache.stratos.autoscaler.exception.AutoScalerException;
 import org.apache.stratos.autoscaler.exception.policy.InvalidPolicyException;
+import org.apache.stratos.autoscaler.monitor.cluster.ClusterMonitorScheduler;
 import org.apache.stratos.autoscaler.pojo.policy.PolicyManager;
 import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
 import org.apache.stratos.autoscaler.pojo.policy.deployment.DeploymentPolicy;
@@ -210,8 +211,8 @@ public class AutoscalerServiceComponent {
         // Shutdown group monitor executor service
         shutdownExecutorService(AutoscalerConstants.GROUP_MONITOR_THREAD_POOL_ID);
 
-        // Shutdown cluster monitor scheduler executor service
-        shutdownScheduledExecutorService(AutoscalerConstants.CLUSTER_MONITOR_SCHEDULER_ID);
+        // Shutdown cluster monitor scheduler
+        ClusterMonitorScheduler.shutdown();
 
         // Shutdown cluster monitor executor service
         shutdownExecutorService(AutoscalerConstants.CLUSTER_MONITOR_THREAD_POOL_ID);
@@ -224,13 +225,6 @@ public class AutoscalerServiceComponent {
         }
     }
 
-    private void shutdownScheduledExecutorService(String executorServiceId) {
-        ExecutorService executorService = StratosThreadPool.getScheduledExecutorService(executorServiceId, 1);
-        if(executorService != null) {
-            shutdownExecutorService(executorService);
-        }
-    }
-
     private void shutdownExecutorService(ExecutorService executorService) {
         try {
             executorService.shutdownNow();
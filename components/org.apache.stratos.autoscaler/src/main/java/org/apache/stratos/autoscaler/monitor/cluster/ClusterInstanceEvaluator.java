@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.monitor.cluster;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.rule.AutoscalerRuleEvaluator;
+import org.apache.stratos.autoscaler.rule.RuleTasksDelegator;
+import org.apache.stratos.autoscaler.rule.ScalingDecisionEngine;
+import org.apache.stratos.autoscaler.rule.ScalingDecisionEngineFactory;
+import org.apache.stratos.common.constants.StratosConstants;
+import org.apache.stratos.common.statistics.LatencyHistogram;
+import org.apache.stratos.common.threading.SerialExecutor;
+import org.drools.runtime.StatefulKnowledgeSession;
+import org.drools.runtime.rule.FactHandle;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Rule evaluation lane of a cluster instance. Each cluster instance has its own scaling decision
+ * engine, drools sessions and fact handles which are only accessed by tasks executed in the lane.
+ * Tasks of a lane run one at a time, while lanes of different cluster instances run in parallel on
+ * the shared executor. Engine and session getters and evaluate methods must only be called from
+ * tasks executed in the lane.
+ *
+ * Scaling evaluations triggered by health statistics are scheduled through the scaling evaluation
+ * trigger of the cluster instance, which is notified of the members spawned and terminated by the engine.
+ * The time taken by each task in the lane is recorded in the given evaluation time histogram.
+ */
+public class ClusterInstanceEvaluator {
+
+    private static final Log log = LogFactory.getLog(ClusterInstanceEvaluator.class);
+
+    private final String clusterId;
+    private final String instanceId;
+    private final SerialExecutor lane;
+    private final AutoscalerRuleEvaluator autoscalerRuleEvaluator;
+    private final RuleTasksDelegator delegator;
+    private final ScalingEvaluationTrigger scalingEvaluationTrigger;
+    private final LatencyHistogram evaluationTime;
+
+    private volatile String scalingDecisionEngineName;
+    private ScalingDecisionEngine scalingDecisionEngine;
+    private StatefulKnowledgeSession dependentScaleCheckKnowledgeSession;
+    private FactHandle dependentScaleCheckFactHandle;
+    private boolean dependentScaleCheckUnavailable;
+    private volatile boolean disposed;
+
+    public ClusterInstanceEvaluator(String clusterId, String instanceId, Executor executor,
+                                    AutoscalerRuleEvaluator autoscalerRuleEvaluator,
+                                    ScalingEvaluationTrigger scalingEvaluationTrigger,
+                                    LatencyHistogram evaluationTime) {
+        this.clusterId = clusterId;
+        this.instanceId = instanceId;
+        this.lane = new SerialExecutor(clusterId + "/" + instanceId, executor);
+        this.autoscalerRuleEvaluator = autoscalerRuleEvaluator;
+        this.scalingEvaluationTrigger = scalingEvaluationTrigger;
+        this.delegator = new ScalingActionRecordingDelegator(scalingEvaluationTrigger);
+        this.evaluationTime = evaluationTime;
+        this.scalingDecisionEngineName = ScalingDecisionEngineFactory.getEngineName(null);
+    }
+
+    /**
+     * Set the scaling decision engine to be used by the tasks executed afterwards.
+     * @param engineName name of the scaling decision engine
+     */
+    public void setScalingDecisionEngineName(String engineName) {
+        this.scalingDecisionEngineName = engineName;
+    }
+
+    /**
+     * Execute a task in the lane of this cluster instance. The scaling decision engine and the
+     * dependent scaling session are created on first use and replaced before the task runs if
+     * the engine has been changed or the drools file has been changed respectively.
+     * @param task task to be executed
+     */
+    public void execute(final Runnable task) {
+        if (disposed) {
+            return;
+        }
+        lane.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (disposed) {
+                    return;
+                }
+                long startTime = System.nanoTime();
+                try {
+                    refreshScalingDecisionEngine();
+                    refreshDependentScaleCheckSession();
+                    task.run();
+                } finally {
+                    evaluationTime.updateSince(startTime);
+                }
+            }
+        });
+    }
+
+    /**
+     * Request a scaling evaluation on the arrival of health statistics. Requests are debounced by the
+     * scaling evaluation trigger, the task is executed in the lane once the evaluation is due.
+     * @param task evaluation task
+     * @return true if a new evaluation has been scheduled, false if the request has been merged into
+     * a pending evaluation
+     */
+    public boolean requestEvaluation(final Runnable task) {
+        if (disposed) {
+            return false;
+        }
+        return scalingEvaluationTrigger.request(new Runnable() {
+            @Override
+            public void run() {
+                execute(task);
+            }
+        });
+    }
+
+    /**
+     * Dispose the engine and sessions once the tasks already submitted to the lane have been executed.
+     */
+    public void dispose() {
+        scalingEvaluationTrigger.cancel();
+        lane.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (disposed) {
+                    return;
+                }
+                disposed = true;
+                if (scalingDecisionEngine != null) {
+                    scalingDecisionEngine.dispose();
+                }
+                if (dependentScaleCheckKnowledgeSession != null) {
+                    dependentScaleCheckKnowledgeSession.dispose();
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Cluster instance evaluator disposed: [cluster] %s [instance] %s",
+                            clusterId, instanceId));
+                }
+            }
+        });
+    }
+
+    private void refreshScalingDecisionEngine() {
+        String engineName = scalingDecisionEngineName;
+        if ((scalingDecisionEngine != null) && scalingDecisionEngine.getName().equalsIgnoreCase(engineName)) {
+            return;
+        }
+        if (scalingDecisionEngine != null) {
+            scalingDecisionEngine.dispose();
+        }
+        scalingDecisionEngine = ScalingDecisionEngineFactory.createEngine(engineName, autoscalerRuleEvaluator,
+                delegator);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Scaling decision engine created: [cluster] %s [instance] %s [engine] %s",
+                    clusterId, instanceId, scalingDecisionEngine.getName()));
+        }
+    }
+
+    /**
+     * Replace the dependent scaling session if the drools file has been changed. Replaced sessions
+     * are disposed since no other thread accesses them.
+     */
+    /**
+     * If the dependent scaling drools file has never been compiled, the session is not created and
+     * the dependent scale check is skipped until the file is fixed, other tasks are still executed.
+     */
+    private void refreshDependentScaleCheckSession() {
+        if (!autoscalerRuleEvaluator.isKnowledgeBaseAvailable(StratosConstants.DEPENDENT_SCALE_CHECK_DROOL_FILE)) {
+            if (!dependentScaleCheckUnavailable) {
+                dependentScaleCheckUnavailable = true;
+                log.error(String.format("Dependent scaling knowledge base is not available, dependent scale " +
+                        "check is skipped: [cluster-id] %s [instance-id] %s", clusterId, instanceId));
+            }
+            return;
+        }
+        if (dependentScaleCheckUnavailable) {
+            dependentScaleCheckUnavailable = false;
+            log.info(String.format("Dependent scaling knowledge base is available, dependent scale check " +
+                    "is resumed: [cluster-id] %s [instance-id] %s", clusterId, instanceId));
+        }
+        if ((dependentScaleCheckKnowledgeSession == null) || autoscalerRuleEvaluator.isKnowledgeBaseUpdated(
+                StratosConstants.DEPENDENT_SCALE_CHECK_DROOL_FILE, dependentScaleCheckKnowledgeSession)) {
+            if (dependentScaleCheckKnowledgeSession != null) {
+                dependentScaleCheckKnowledgeSession.dispose();
+            }
+            dependentScaleCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
+                    StratosConstants.DEPENDENT_SCALE_CHECK_DROOL_FILE);
+            dependentScaleCheckFactHandle = null;
+        }
+    }
+
+    public void evaluateDependentScaleCheck(Object fact) {
+        if (dependentScaleCheckKnowledgeSession == null) {
+            return;
+        }
+        dependentScaleCheckFactHandle = AutoscalerRuleEvaluator.evaluate(dependentScaleCheckKnowledgeSession,
+                dependentScaleCheckFactHandle, fact, delegator);
+    }
+
+    public ScalingDecisionEngine getScalingDecisionEngine() {
+        return scalingDecisionEngine;
+    }
+
+    public ScalingEvaluationTrigger getScalingEvaluationTrigger() {
+        return scalingEvaluationTrigger;
+    }
+
+    /**
+     * @return dependent scaling session, null if the dependent scaling knowledge base is not available
+     */
+    public StatefulKnowledgeSession getDependentScaleCheckKnowledgeSession() {
+        return dependentScaleCheckKnowledgeSession;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public boolean isDisposed() {
+        return disposed;
+    }
+}
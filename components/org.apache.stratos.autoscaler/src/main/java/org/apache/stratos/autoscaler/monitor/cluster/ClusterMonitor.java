@@ -42,7 +42,10 @@ import org.apache.stratos.autoscaler.monitor.events.MonitorStatusEvent;
 import org.apache.stratos.autoscaler.monitor.events.ScalingEvent;
 import org.apache.stratos.autoscaler.monitor.events.ScalingUpBeyondMaxEvent;
 import org.apache.stratos.autoscaler.monitor.events.builder.MonitorStatusEventBuilder;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
 import org.apache.stratos.autoscaler.rule.AutoscalerRuleEvaluator;
+import org.apache.stratos.autoscaler.rule.ScalingDecisionContext;
+import org.apache.stratos.autoscaler.rule.ScalingDecisionEngineFactory;
 import org.apache.stratos.autoscaler.status.processor.cluster.ClusterStatusActiveProcessor;
 import org.apache.stratos.autoscaler.status.processor.cluster.ClusterStatusInactiveProcessor;
 import org.apache.stratos.autoscaler.status.processor.cluster.ClusterStatusTerminatedProcessor;
@@ -53,7 +56,6 @@ import org.apache.stratos.autoscaler.util.ServiceReferenceHolder;
 import org.apache.stratos.cloud.controller.stub.domain.MemberContext;
 import org.apache.stratos.common.Properties;
 import org.apache.stratos.common.Property;
-import org.apache.stratos.common.constants.StratosConstants;
 import org.apache.stratos.common.threading.StratosThreadPool;
 import org.apache.stratos.messaging.domain.application.ApplicationStatus;
 import org.apache.stratos.messaging.domain.application.GroupStatus;
@@ -68,41 +70,39 @@ import org.apache.stratos.messaging.event.health.stat.*;
 import org.apache.stratos.messaging.event.topology.*;
 import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 import org.drools.runtime.StatefulKnowledgeSession;
-import org.drools.runtime.rule.FactHandle;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Is responsible for monitoring a service cluster. This runs periodically
  * and perform minimum instance check and scaling check using the underlying
- * rules engine.
+ * rules engine. When event driven scaling is enabled, the checks of a cluster
+ * instance are also run shortly after its health statistics are received.
  */
 public class ClusterMonitor extends Monitor implements Runnable {
 
-    private final ScheduledExecutorService scheduler;
     private final ExecutorService executorService;
+    private volatile ClusterMonitorScheduler.MonitorTask monitorTask;
 
-    protected FactHandle minCheckFactHandle;
-    protected FactHandle obsoleteCheckFactHandle;
-    protected FactHandle scaleCheckFactHandle;
-    protected FactHandle dependentScaleCheckFactHandle;
     protected boolean hasFaultyMember = false;
     protected boolean stop = false;
     protected AbstractClusterContext clusterContext;
-    protected StatefulKnowledgeSession minCheckKnowledgeSession;
-    protected StatefulKnowledgeSession obsoleteCheckKnowledgeSession;
-    protected StatefulKnowledgeSession scaleCheckKnowledgeSession;
-    protected StatefulKnowledgeSession dependentScaleCheckKnowledgeSession;
     protected AutoscalerRuleEvaluator autoscalerRuleEvaluator;
+    // Key: cluster instance id, each cluster instance is evaluated in its own lane with its own sessions
+    private final ConcurrentMap<String, ClusterInstanceEvaluator> instanceIdToEvaluatorMap;
     protected String serviceType;
     private AtomicBoolean monitoringStarted;
     protected String clusterId;
     private Cluster cluster;
     private int monitoringIntervalMilliseconds;
+    private boolean eventDrivenScalingEnabled;
+    private long eventDrivenScalingDebounceInterval;
+    private long eventDrivenScalingMinimumSpacing;
+    private long eventDrivenScalingCooldown;
     private boolean isDestroyed;
     //has scaling dependents
     private boolean hasScalingDependents;
@@ -116,27 +116,15 @@ public class ClusterMonitor extends Monitor implements Runnable {
 
     public ClusterMonitor(Cluster cluster, boolean hasScalingDependents, boolean groupScalingEnabledSubtree) {
 
-        scheduler = StratosThreadPool.getScheduledExecutorService(AutoscalerConstants.CLUSTER_MONITOR_SCHEDULER_ID, 1);
         int threadPoolSize = Integer.getInteger(AutoscalerConstants.CLUSTER_MONITOR_THREAD_POOL_SIZE, 10);
         executorService = StratosThreadPool.getExecutorService(
                 AutoscalerConstants.CLUSTER_MONITOR_THREAD_POOL_ID, threadPoolSize);
 
         networkPartitionIdToClusterLevelNetworkPartitionCtxts = new HashMap<String, ClusterLevelNetworkPartitionContext>();
         readConfigurations();
+        // Knowledge bases are compiled once and shared by all cluster monitors
         autoscalerRuleEvaluator = new AutoscalerRuleEvaluator();
-        autoscalerRuleEvaluator.parseAndBuildKnowledgeBaseForDroolsFile(StratosConstants.OBSOLETE_CHECK_DROOL_FILE);
-        autoscalerRuleEvaluator.parseAndBuildKnowledgeBaseForDroolsFile(StratosConstants.SCALE_CHECK_DROOL_FILE);
-        autoscalerRuleEvaluator.parseAndBuildKnowledgeBaseForDroolsFile(StratosConstants.MIN_CHECK_DROOL_FILE);
-        autoscalerRuleEvaluator.parseAndBuildKnowledgeBaseForDroolsFile(StratosConstants.DEPENDENT_SCALE_CHECK_DROOL_FILE);
-
-        this.obsoleteCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.OBSOLETE_CHECK_DROOL_FILE);
-        this.scaleCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.SCALE_CHECK_DROOL_FILE);
-        this.minCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.MIN_CHECK_DROOL_FILE);
-        this.dependentScaleCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
-                StratosConstants.DEPENDENT_SCALE_CHECK_DROOL_FILE);
+        instanceIdToEvaluatorMap = new ConcurrentHashMap<String, ClusterInstanceEvaluator>();
 
         this.groupScalingEnabledSubtree = groupScalingEnabledSubtree;
         this.setCluster(new Cluster(cluster));
@@ -147,7 +135,8 @@ public class ClusterMonitor extends Monitor implements Runnable {
     }
 
     public void startScheduler() {
-        scheduler.scheduleAtFixedRate(this, 0, getMonitorIntervalMilliseconds(), TimeUnit.MILLISECONDS);
+        monitorTask = ClusterMonitorScheduler.getInstance().schedule(
+                "cluster-monitor-" + getClusterId(), this, getMonitorIntervalMilliseconds());
     }
 
     @Override
@@ -220,57 +209,6 @@ public class ClusterMonitor extends Monitor implements Runnable {
         this.monitoringIntervalMilliseconds = monitorIntervalMilliseconds;
     }
 
-    public FactHandle getMinCheckFactHandle() {
-        return minCheckFactHandle;
-    }
-
-    public void setMinCheckFactHandle(FactHandle minCheckFactHandle) {
-        this.minCheckFactHandle = minCheckFactHandle;
-    }
-
-    public FactHandle getObsoleteCheckFactHandle() {
-        return obsoleteCheckFactHandle;
-    }
-
-    public void setObsoleteCheckFactHandle(FactHandle obsoleteCheckFactHandle) {
-        this.obsoleteCheckFactHandle = obsoleteCheckFactHandle;
-    }
-
-    public FactHandle getScaleCheckFactHandle() {
-        return scaleCheckFactHandle;
-    }
-
-    public void setScaleCheckFactHandle(FactHandle scaleCheckFactHandle) {
-        this.scaleCheckFactHandle = scaleCheckFactHandle;
-    }
-
-    public StatefulKnowledgeSession getMinCheckKnowledgeSession() {
-        return minCheckKnowledgeSession;
-    }
-
-    public void setMinCheckKnowledgeSession(
-            StatefulKnowledgeSession minCheckKnowledgeSession) {
-        this.minCheckKnowledgeSession = minCheckKnowledgeSession;
-    }
-
-    public StatefulKnowledgeSession getObsoleteCheckKnowledgeSession() {
-        return obsoleteCheckKnowledgeSession;
-    }
-
-    public void setObsoleteCheckKnowledgeSession(
-            StatefulKnowledgeSession obsoleteCheckKnowledgeSession) {
-        this.obsoleteCheckKnowledgeSession = obsoleteCheckKnowledgeSession;
-    }
-
-    public StatefulKnowledgeSession getScaleCheckKnowledgeSession() {
-        return scaleCheckKnowledgeSession;
-    }
-
-    public void setScaleCheckKnowledgeSession(
-            StatefulKnowledgeSession scaleCheckKnowledgeSession) {
-        this.scaleCheckKnowledgeSession = scaleCheckKnowledgeSession;
-    }
-
     public boolean isDestroyed() {
         return isDestroyed;
     }
@@ -346,14 +284,6 @@ public class ClusterMonitor extends Monitor implements Runnable {
         this.monitoringStarted.set(monitoringStarted);
     }
 
-    public StatefulKnowledgeSession getDependentScaleCheckKnowledgeSession() {
-        return dependentScaleCheckKnowledgeSession;
-    }
-
-    public void setDependentScaleCheckKnowledgeSession(StatefulKnowledgeSession dependentScaleCheckKnowledgeSession) {
-        this.dependentScaleCheckKnowledgeSession = dependentScaleCheckKnowledgeSession;
-    }
-
     public AbstractClusterContext getClusterContext() {
         return clusterContext;
     }
@@ -418,6 +348,7 @@ public class ClusterMonitor extends Monitor implements Runnable {
                 clusterInstanceId);
         if (null != clusterInstanceContext) {
             clusterInstanceContext.setAverageLoadAverage(value);
+            requestScalingEvaluation(clusterInstanceContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
@@ -428,22 +359,17 @@ public class ClusterMonitor extends Monitor implements Runnable {
 
     @Override
     public void run() {
-        while (!isDestroyed()) {
-            try {
-                if (log.isDebugEnabled()) {
-                    log.debug("Cluster monitor is running.. " + this.toString());
-                }
-                monitor();
-            } catch (Exception e) {
-                log.error("Cluster monitor: Monitor failed." + this.toString(), e);
-            }
-            try {
-                Thread.sleep(getMonitorIntervalMilliseconds());
-            } catch (InterruptedException ignore) {
+        if (isDestroyed()) {
+            return;
+        }
+        try {
+            if (log.isDebugEnabled()) {
+                log.debug("Cluster monitor is running.. " + this.toString());
             }
+            monitor();
+        } catch (Exception e) {
+            log.error("Cluster monitor: Monitor failed." + this.toString(), e);
         }
-
-
     }
 
     private boolean isPrimaryMember(MemberContext memberContext) {
@@ -465,7 +391,10 @@ public class ClusterMonitor extends Monitor implements Runnable {
         return false;
     }
 
-    public synchronized void monitor() {
+    public void monitor() {
+        Set<String> instanceIds = new HashSet<String>();
+        AutoscalePolicy autoscalePolicy = ((ClusterContext) clusterContext).getAutoscalePolicy();
+        String scalingDecisionEngineName = ScalingDecisionEngineFactory.getEngineName(autoscalePolicy);
 
         for (ClusterLevelNetworkPartitionContext networkPartitionContext : getNetworkPartitionCtxts()) {
 
@@ -474,127 +403,202 @@ public class ClusterMonitor extends Monitor implements Runnable {
 
             for (final InstanceContext pInstanceContext : clusterInstanceContexts) {
                 final ClusterInstanceContext instanceContext = (ClusterInstanceContext) pInstanceContext;
-                ClusterInstance instance = (ClusterInstance) this.instanceIdToInstanceMap.
-                        get(instanceContext.getId());
+                final ClusterInstanceEvaluator evaluator = getClusterInstanceEvaluator(instanceContext.getId());
+                final ScalingDecisionContext obsoleteCheckContext = new ScalingDecisionContext(getClusterId());
+                evaluator.setScalingDecisionEngineName(scalingDecisionEngineName);
+                instanceIds.add(instanceContext.getId());
 
-                if ((instance.getStatus().getCode() <= ClusterStatus.Active.getCode()) ||
-                        (instance.getStatus() == ClusterStatus.Inactive && !hasStartupDependents)
-                                && !this.hasFaultyMember) {
+                if (isScalingEvaluationAllowed(instanceContext.getId())) {
+                    evaluator.execute(createScalingEvaluationTask(instanceContext, evaluator, autoscalePolicy));
+                }
 
+                for (final ClusterLevelPartitionContext partitionContext : instanceContext.getPartitionCtxts()) {
                     Runnable monitoringRunnable = new Runnable() {
                         @Override
                         public void run() {
-
-                            if (log.isDebugEnabled()) {
-                                log.debug("Monitor is running for [cluster] : " + getClusterId());
-                            }
-                            // store primary members in the cluster instance context
-                            List<String> primaryMemberListInClusterInstance = new ArrayList<String>();
-
-                            for (ClusterLevelPartitionContext partitionContext :
-                                                            instanceContext.getPartitionCtxts()) {
-
-                                // get active primary members in this cluster instance context
-                                for (MemberContext memberContext : partitionContext.getActiveMembers()) {
-                                    if (isPrimaryMember(memberContext)) {
-                                        primaryMemberListInClusterInstance.add(memberContext.getMemberId());
-                                    }
-                                }
-
-                                // get pending primary members in this cluster instance context
-                                for (MemberContext memberContext : partitionContext.getPendingMembers()) {
-                                    if (isPrimaryMember(memberContext)) {
-                                        primaryMemberListInClusterInstance.add(memberContext.getMemberId());
-                                    }
-                                }
-
-                                obsoleteCheckFactHandle = AutoscalerRuleEvaluator.evaluate(
-                                        getObsoleteCheckKnowledgeSession(), obsoleteCheckFactHandle, partitionContext);
-
-                            }
-
-                            getScaleCheckKnowledgeSession().setGlobal("primaryMembers", primaryMemberListInClusterInstance);
-                            getMinCheckKnowledgeSession().setGlobal("clusterId", getClusterId());
-                            getMinCheckKnowledgeSession().setGlobal("isPrimary", hasPrimary);
-                            //FIXME when parent chosen the partition
-                            String paritionAlgo = instanceContext.getPartitionAlgorithm();
-
-                            getMinCheckKnowledgeSession().setGlobal("algorithmName",
-                                    paritionAlgo);
-
-                            if (log.isDebugEnabled()) {
-                                log.debug(String.format("Running minimum check for cluster instance %s ",
-                                        instanceContext.getId() + " for the cluster: " + clusterId));
-                            }
-
-                            minCheckFactHandle = AutoscalerRuleEvaluator.evaluate(getMinCheckKnowledgeSession(),
-                                    minCheckFactHandle, instanceContext);
-
-
-                            //checking the status of the cluster
-                            boolean rifReset = instanceContext.isRifReset();
-                            boolean memoryConsumptionReset = instanceContext.isMemoryConsumptionReset();
-                            boolean loadAverageReset = instanceContext.isLoadAverageReset();
-                            boolean averageRequestServedPerInstanceReset
-                                    = instanceContext.isAverageRequestServedPerInstanceReset();
-
-                            if (log.isDebugEnabled()) {
-                                log.debug("Execution point of scaling Rule, [Is rif Reset] : " + rifReset
-                                        + " [Is memoryConsumption Reset] : " + memoryConsumptionReset
-                                        + " [Is loadAverage Reset] : " + loadAverageReset);
-                            }
-
-                            if (rifReset || memoryConsumptionReset || loadAverageReset) {
-
-                                log.info("Executing scaling rule as statistics have been reset");
-                                ClusterContext vmClusterContext = (ClusterContext) clusterContext;
-
-                                getScaleCheckKnowledgeSession().setGlobal("clusterId", getClusterId());
-                                getScaleCheckKnowledgeSession().setGlobal("rifReset", rifReset);
-                                getScaleCheckKnowledgeSession().setGlobal("mcReset", memoryConsumptionReset);
-                                getScaleCheckKnowledgeSession().setGlobal("laReset", loadAverageReset);
-                                getScaleCheckKnowledgeSession().setGlobal("isPrimary", hasPrimary);
-                                getScaleCheckKnowledgeSession().setGlobal("algorithmName", paritionAlgo);
-                                getScaleCheckKnowledgeSession().setGlobal("autoscalePolicy",
-                                        vmClusterContext.getAutoscalePolicy());
-                                getScaleCheckKnowledgeSession().setGlobal("arspiReset",
-                                        averageRequestServedPerInstanceReset);
-                                getScaleCheckKnowledgeSession().setGlobal("primaryMembers",
-                                        primaryMemberListInClusterInstance);
-
-                                if (log.isDebugEnabled()) {
-                                    log.debug(String.format("Running scale check for [cluster instance context] %s ",
-                                            instanceContext.getId()));
-                                    log.debug(" Primary members : " + primaryMemberListInClusterInstance);
-                                }
-
-                                scaleCheckFactHandle = AutoscalerRuleEvaluator.evaluate(getScaleCheckKnowledgeSession()
-                                        , scaleCheckFactHandle, instanceContext);
-
-                                instanceContext.setRifReset(false);
-                                instanceContext.setMemoryConsumptionReset(false);
-                                instanceContext.setLoadAverageReset(false);
-                            } else if (log.isDebugEnabled()) {
-                                log.debug(String.format("Scale rule will not run since the LB statistics have not " +
-                                                "received before this cycle for [cluster instance context] %s [cluster] %s",
-                                        instanceContext.getId(), clusterId));
-                            }
-
+                            evaluator.getScalingDecisionEngine().runObsoleteCheck(partitionContext,
+                                    obsoleteCheckContext);
                         }
                     };
-                    executorService.execute(monitoringRunnable);
+                    evaluator.execute(monitoringRunnable);
                 }
+            }
+        }
+        removeClusterInstanceEvaluators(instanceIds);
+    }
 
-                for (final ClusterLevelPartitionContext partitionContext : instanceContext.getPartitionCtxts()) {
-                    Runnable monitoringRunnable = new Runnable() {
-                        @Override
-                        public void run() {
-                            obsoleteCheckFactHandle = AutoscalerRuleEvaluator.evaluate(
-                                    getObsoleteCheckKnowledgeSession(), obsoleteCheckFactHandle, partitionContext);
+    private boolean isScalingEvaluationAllowed(String instanceId) {
+        ClusterInstance instance = (ClusterInstance) this.instanceIdToInstanceMap.get(instanceId);
+        if (instance == null) {
+            return false;
+        }
+        return (instance.getStatus().getCode() <= ClusterStatus.Active.getCode()) ||
+                (instance.getStatus() == ClusterStatus.Inactive && !hasStartupDependents)
+                        && !this.hasFaultyMember;
+    }
+
+    /**
+     * Create the task running the obsolete, minimum and scale checks of a cluster instance. The scale
+     * check is only run if statistics have been received since the previous scale check.
+     */
+    private Runnable createScalingEvaluationTask(final ClusterInstanceContext instanceContext,
+                                                 final ClusterInstanceEvaluator evaluator,
+                                                 final AutoscalePolicy autoscalePolicy) {
+        return new Runnable() {
+            @Override
+            public void run() {
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Monitor is running for [cluster] : " + getClusterId());
+                }
+                evaluator.getScalingEvaluationTrigger().recordEvaluation();
+                ScalingDecisionContext obsoleteCheckContext = new ScalingDecisionContext(getClusterId());
+                // store primary members in the cluster instance context
+                List<String> primaryMemberListInClusterInstance = new ArrayList<String>();
+
+                for (ClusterLevelPartitionContext partitionContext :
+                                                instanceContext.getPartitionCtxts()) {
+
+                    // get active primary members in this cluster instance context
+                    for (MemberContext memberContext : partitionContext.getActiveMembers()) {
+                        if (isPrimaryMember(memberContext)) {
+                            primaryMemberListInClusterInstance.add(memberContext.getMemberId());
                         }
-                    };
-                    executorService.execute(monitoringRunnable);
+                    }
+
+                    // get pending primary members in this cluster instance context
+                    for (MemberContext memberContext : partitionContext.getPendingMembers()) {
+                        if (isPrimaryMember(memberContext)) {
+                            primaryMemberListInClusterInstance.add(memberContext.getMemberId());
+                        }
+                    }
+
+                    evaluator.getScalingDecisionEngine().runObsoleteCheck(partitionContext,
+                            obsoleteCheckContext);
+
                 }
+
+                ScalingDecisionContext decisionContext = new ScalingDecisionContext(getClusterId());
+                decisionContext.setPrimary(hasPrimary);
+                decisionContext.setPrimaryMembers(primaryMemberListInClusterInstance);
+                //FIXME when parent chosen the partition
+                decisionContext.setAlgorithmName(instanceContext.getPartitionAlgorithm());
+
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Running minimum check for cluster instance %s ",
+                            instanceContext.getId() + " for the cluster: " + clusterId));
+                }
+
+                evaluator.getScalingDecisionEngine().runMinCheck(instanceContext, decisionContext);
+
+
+                //checking the status of the cluster
+                boolean rifReset = instanceContext.isRifReset();
+                boolean memoryConsumptionReset = instanceContext.isMemoryConsumptionReset();
+                boolean loadAverageReset = instanceContext.isLoadAverageReset();
+                boolean averageRequestServedPerInstanceReset
+                        = instanceContext.isAverageRequestServedPerInstanceReset();
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Execution point of scaling Rule, [Is rif Reset] : " + rifReset
+                            + " [Is memoryConsumption Reset] : " + memoryConsumptionReset
+                            + " [Is loadAverage Reset] : " + loadAverageReset);
+                }
+
+                if (rifReset || memoryConsumptionReset || loadAverageReset) {
+
+                    log.info("Executing scaling rule as statistics have been reset");
+
+                    decisionContext.setRifReset(rifReset);
+                    decisionContext.setMcReset(memoryConsumptionReset);
+                    decisionContext.setLaReset(loadAverageReset);
+                    decisionContext.setArspiReset(averageRequestServedPerInstanceReset);
+                    decisionContext.setAutoscalePolicy(autoscalePolicy);
+
+                    if (log.isDebugEnabled()) {
+                        log.debug(String.format("Running scale check for [cluster instance context] %s ",
+                                instanceContext.getId()));
+                        log.debug(" Primary members : " + primaryMemberListInClusterInstance);
+                    }
+
+                    evaluator.getScalingDecisionEngine().runScaleCheck(instanceContext, decisionContext);
+
+                    instanceContext.setRifReset(false);
+                    instanceContext.setMemoryConsumptionReset(false);
+                    instanceContext.setLoadAverageReset(false);
+                } else if (log.isDebugEnabled()) {
+                    log.debug(String.format("Scale rule will not run since the LB statistics have not " +
+                                    "received before this cycle for [cluster instance context] %s [cluster] %s",
+                            instanceContext.getId(), clusterId));
+                }
+
+            }
+        };
+    }
+
+    /**
+     * Request a scaling evaluation of a cluster instance on the arrival of its health statistics when
+     * event driven scaling is enabled. Evaluations are only requested once a complete set of statistics
+     * (average, gradient and second derivative) of requests in flight, memory consumption or load average
+     * has been received, and are debounced per cluster instance.
+     */
+    private void requestScalingEvaluation(final ClusterInstanceContext instanceContext) {
+        if (!eventDrivenScalingEnabled || isDestroyed()) {
+            return;
+        }
+        if (!(instanceContext.isRifReset() || instanceContext.isMemoryConsumptionReset() ||
+                instanceContext.isLoadAverageReset())) {
+            return;
+        }
+        // Evaluators are created by the periodic evaluation, statistics of unknown instances are evaluated then
+        final ClusterInstanceEvaluator evaluator = instanceIdToEvaluatorMap.get(instanceContext.getId());
+        if (evaluator == null) {
+            return;
+        }
+        boolean scheduled = evaluator.requestEvaluation(new Runnable() {
+            @Override
+            public void run() {
+                if (isDestroyed() || !isScalingEvaluationAllowed(instanceContext.getId())) {
+                    return;
+                }
+                AutoscalePolicy autoscalePolicy = ((ClusterContext) clusterContext).getAutoscalePolicy();
+                createScalingEvaluationTask(instanceContext, evaluator, autoscalePolicy).run();
+            }
+        });
+        if (scheduled && log.isDebugEnabled()) {
+            log.debug(String.format("Event driven scaling evaluation requested: [cluster] %s [instance] %s",
+                    getClusterId(), instanceContext.getId()));
+        }
+    }
+
+    private ClusterInstanceEvaluator getClusterInstanceEvaluator(String instanceId) {
+        ClusterInstanceEvaluator evaluator = instanceIdToEvaluatorMap.get(instanceId);
+        if (evaluator == null) {
+            ScalingEvaluationTrigger scalingEvaluationTrigger = new ScalingEvaluationTrigger(
+                    "scaling-evaluation-" + getClusterId() + "/" + instanceId, ClusterMonitorScheduler.getInstance(),
+                    eventDrivenScalingDebounceInterval, eventDrivenScalingMinimumSpacing, eventDrivenScalingCooldown);
+            evaluator = new ClusterInstanceEvaluator(getClusterId(), instanceId, executorService,
+                    autoscalerRuleEvaluator, scalingEvaluationTrigger,
+                    ClusterMonitorScheduler.getInstance().getEvaluationTime());
+            ClusterInstanceEvaluator existingEvaluator = instanceIdToEvaluatorMap.putIfAbsent(instanceId, evaluator);
+            if (existingEvaluator != null) {
+                evaluator = existingEvaluator;
+            }
+        }
+        return evaluator;
+    }
+
+    /**
+     * Dispose evaluators of cluster instances which have been removed.
+     */
+    private void removeClusterInstanceEvaluators(Set<String> activeInstanceIds) {
+        Iterator<Map.Entry<String, ClusterInstanceEvaluator>> iterator =
+                instanceIdToEvaluatorMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, ClusterInstanceEvaluator> entry = iterator.next();
+            if (!activeInstanceIds.contains(entry.getKey())) {
+                entry.getValue().dispose();
+                iterator.remove();
             }
         }
     }
@@ -606,14 +610,28 @@ public class ClusterMonitor extends Monitor implements Runnable {
         if (log.isDebugEnabled()) {
             log.debug("ClusterMonitor task interval set to : " + getMonitorIntervalMilliseconds());
         }
+        eventDrivenScalingEnabled = conf.getBoolean(AutoscalerConstants.EVENT_DRIVEN_SCALING_ENABLED, false);
+        eventDrivenScalingDebounceInterval = conf.getLong(
+                AutoscalerConstants.EVENT_DRIVEN_SCALING_DEBOUNCE_INTERVAL, 2000);
+        eventDrivenScalingMinimumSpacing = conf.getLong(AutoscalerConstants.EVENT_DRIVEN_SCALING_MINIMUM_SPACING, 15000);
+        eventDrivenScalingCooldown = conf.getLong(AutoscalerConstants.EVENT_DRIVEN_SCALING_COOLDOWN, 60000);
+        if (eventDrivenScalingEnabled && log.isDebugEnabled()) {
+            log.debug(String.format("Event driven scaling enabled: [debounce-interval] %d ms " +
+                    "[minimum-spacing] %d ms [cooldown] %d ms", eventDrivenScalingDebounceInterval,
+                    eventDrivenScalingMinimumSpacing, eventDrivenScalingCooldown));
+        }
     }
 
     @Override
     public void destroy() {
-        getMinCheckKnowledgeSession().dispose();
-        getObsoleteCheckKnowledgeSession().dispose();
-        getScaleCheckKnowledgeSession().dispose();
+        if (monitorTask != null) {
+            monitorTask.cancel();
+        }
         setDestroyed(true);
+        for (ClusterInstanceEvaluator evaluator : instanceIdToEvaluatorMap.values()) {
+            evaluator.dispose();
+        }
+        instanceIdToEvaluatorMap.clear();
         if (log.isDebugEnabled()) {
             log.debug("ClusterMonitor Drools session has been disposed. " + this.toString());
         }
@@ -707,13 +725,26 @@ public class ClusterMonitor extends Monitor implements Runnable {
                 vmClusterContext.getAutoscalePolicy().getInstanceRoundingFactor());
         clusterInstanceContext.setRequiredInstanceCountBasedOnDependencies(roundedRequiredInstanceCount);
 
-        getDependentScaleCheckKnowledgeSession().setGlobal("clusterId", getClusterId());
-        getDependentScaleCheckKnowledgeSession().setGlobal("roundedRequiredInstanceCount", roundedRequiredInstanceCount);
-        getDependentScaleCheckKnowledgeSession().setGlobal("algorithmName", clusterInstanceContext.getPartitionAlgorithm());
-        getDependentScaleCheckKnowledgeSession().setGlobal("isPrimary", hasPrimary);
-        getDependentScaleCheckKnowledgeSession().setGlobal("primaryMembers", primaryMemberListInClusterInstance);
-        dependentScaleCheckFactHandle = AutoscalerRuleEvaluator.evaluate(getDependentScaleCheckKnowledgeSession()
-                , dependentScaleCheckFactHandle, clusterInstanceContext);
+        final ClusterInstanceEvaluator evaluator = getClusterInstanceEvaluator(instanceId);
+        final ClusterInstanceContext instanceContext = clusterInstanceContext;
+        final int requiredInstanceCountBasedOnDependencies = roundedRequiredInstanceCount;
+        final List<String> primaryMembers = primaryMemberListInClusterInstance;
+        evaluator.execute(new Runnable() {
+            @Override
+            public void run() {
+                StatefulKnowledgeSession ksession = evaluator.getDependentScaleCheckKnowledgeSession();
+                if (ksession == null) {
+                    // Dependent scaling knowledge base is not available, reported by the evaluator
+                    return;
+                }
+                ksession.setGlobal("clusterId", getClusterId());
+                ksession.setGlobal("roundedRequiredInstanceCount", requiredInstanceCountBasedOnDependencies);
+                ksession.setGlobal("algorithmName", instanceContext.getPartitionAlgorithm());
+                ksession.setGlobal("isPrimary", hasPrimary);
+                ksession.setGlobal("primaryMembers", primaryMembers);
+                evaluator.evaluateDependentScaleCheck(instanceContext);
+            }
+        });
 
     }
 
@@ -749,6 +780,7 @@ public class ClusterMonitor extends Monitor implements Runnable {
                 networkPartitionId, instanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setLoadAverageGradient(value);
+            requestScalingEvaluation(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
@@ -772,6 +804,7 @@ public class ClusterMonitor extends Monitor implements Runnable {
                 networkPartitionId, clusterInstanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setLoadAverageSecondDerivative(value);
+            requestScalingEvaluation(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
@@ -795,6 +828,7 @@ public class ClusterMonitor extends Monitor implements Runnable {
                 networkPartitionId, clusterInstanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setAverageMemoryConsumption(value);
+            requestScalingEvaluation(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String
@@ -819,6 +853,7 @@ public class ClusterMonitor extends Monitor implements Runnable {
                 networkPartitionId, clusterInstanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setMemoryConsumptionGradient(value);
+            requestScalingEvaluation(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
@@ -842,6 +877,7 @@ public class ClusterMonitor extends Monitor implements Runnable {
                 networkPartitionId, clusterInstanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setMemoryConsumptionSecondDerivative(value);
+            requestScalingEvaluation(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
@@ -898,6 +934,7 @@ public class ClusterMonitor extends Monitor implements Runnable {
                 networkPartitionId, clusterInstanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setAverageRequestsInFlight(value);
+            requestScalingEvaluation(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
@@ -921,6 +958,7 @@ public class ClusterMonitor extends Monitor implements Runnable {
                 networkPartitionId, clusterInstanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setRequestsInFlightGradient(value);
+            requestScalingEvaluation(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
@@ -944,6 +982,7 @@ public class ClusterMonitor extends Monitor implements Runnable {
                 networkPartitionId, clusterInstanceId);
         if (null != clusterLevelNetworkPartitionContext) {
             clusterLevelNetworkPartitionContext.setRequestsInFlightSecondDerivative(value);
+            requestScalingEvaluation(clusterLevelNetworkPartitionContext);
         } else {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Network partition context is not available for :" +
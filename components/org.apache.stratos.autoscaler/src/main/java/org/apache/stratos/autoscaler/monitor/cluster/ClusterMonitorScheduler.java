@@ -0,0 +1,376 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.monitor.cluster;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.util.AutoscalerConstants;
+import org.apache.stratos.common.statistics.LatencyHistogram;
+import org.apache.stratos.common.threading.StratosThreadPool;
+
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduler for cluster monitor evaluation cycles. Monitor tasks are kept in a delay queue ordered
+ * by their next execution time. A single dispatcher thread takes due tasks from the queue and hands
+ * them over to a worker pool, hence the number of threads does not grow with the number of clusters.
+ *
+ * A task is queued again only after its evaluation completes, so the same monitor never runs
+ * concurrently. Intervals are jittered per cycle to avoid evaluating all clusters at once. When an
+ * evaluation does not complete within its interval the missed cycles are skipped and counted as
+ * overruns. Evaluation lag (time between the scheduled time and the actual start) and task time are
+ * recorded by the scheduler. Monitor tasks hand the rule evaluations over to the lanes of the cluster
+ * instances, hence the evaluation time is recorded by the lanes once the evaluations complete. These
+ * statistics are logged periodically.
+ */
+public class ClusterMonitorScheduler {
+
+    private static final Log log = LogFactory.getLog(ClusterMonitorScheduler.class);
+
+    private static final int DEFAULT_THREAD_POOL_SIZE = 20;
+    private static final int DEFAULT_JITTER_PERCENTAGE = 10;
+    private static final long DEFAULT_STATISTICS_INTERVAL = 300000;
+    private static final long POLL_TIMEOUT = 1000;
+
+    private static volatile ClusterMonitorScheduler instance;
+
+    private final DelayQueue<MonitorTask> taskQueue;
+    private final ExecutorService workerPool;
+    private final double jitterFactor;
+    private final long statisticsInterval;
+    private final LatencyHistogram evaluationLag;
+    private final LatencyHistogram taskTime;
+    private final LatencyHistogram evaluationTime;
+    private final AtomicLong overrunCount;
+    private final AtomicLong scheduledTaskCount;
+    private final Thread dispatcher;
+    private volatile boolean running;
+
+    ClusterMonitorScheduler(ExecutorService workerPool, int jitterPercentage, long statisticsInterval) {
+        this.taskQueue = new DelayQueue<MonitorTask>();
+        this.workerPool = workerPool;
+        this.jitterFactor = Math.min(50, Math.max(0, jitterPercentage)) / 100.0;
+        this.statisticsInterval = statisticsInterval;
+        this.evaluationLag = new LatencyHistogram("cluster-monitor-evaluation-lag");
+        this.taskTime = new LatencyHistogram("cluster-monitor-task-time");
+        this.evaluationTime = new LatencyHistogram("cluster-monitor-evaluation-time");
+        this.overrunCount = new AtomicLong();
+        this.scheduledTaskCount = new AtomicLong();
+        this.running = true;
+        this.dispatcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatch();
+            }
+        }, "cluster-monitor-scheduler");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public static ClusterMonitorScheduler getInstance() {
+        if (instance == null) {
+            synchronized (ClusterMonitorScheduler.class) {
+                if (instance == null) {
+                    int threadPoolSize = Integer.getInteger(
+                            AutoscalerConstants.CLUSTER_MONITOR_SCHEDULER_THREAD_POOL_SIZE, DEFAULT_THREAD_POOL_SIZE);
+                    int jitterPercentage = Integer.getInteger(
+                            AutoscalerConstants.CLUSTER_MONITOR_SCHEDULER_JITTER_PERCENTAGE, DEFAULT_JITTER_PERCENTAGE);
+                    ExecutorService workerPool = StratosThreadPool.getExecutorService(
+                            AutoscalerConstants.CLUSTER_MONITOR_SCHEDULER_ID, threadPoolSize);
+                    instance = new ClusterMonitorScheduler(workerPool, jitterPercentage, DEFAULT_STATISTICS_INTERVAL);
+                    if (log.isInfoEnabled()) {
+                        log.info(String.format("Cluster monitor scheduler started: [thread-pool-size] %d " +
+                                "[jitter-percentage] %d", threadPoolSize, jitterPercentage));
+                    }
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Stop the scheduler if it has been started.
+     */
+    public static void shutdown() {
+        synchronized (ClusterMonitorScheduler.class) {
+            if (instance != null) {
+                instance.stop();
+                instance = null;
+            }
+        }
+    }
+
+    /**
+     * Schedule a task to be executed periodically. The first execution is delayed by a random
+     * fraction of the jitter to spread monitors started together.
+     *
+     * @param name           name of the task used in logs
+     * @param runnable       task to be executed
+     * @param intervalMillis execution interval in milliseconds
+     * @return scheduled task which can be used to cancel further executions
+     */
+    public MonitorTask schedule(String name, Runnable runnable, long intervalMillis) {
+        if (!running) {
+            throw new IllegalStateException("Cluster monitor scheduler has been stopped");
+        }
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervalMillis));
+        MonitorTask task = new MonitorTask(name, runnable, intervalNanos);
+        long initialDelay = (long) (intervalNanos * jitterFactor * task.random.nextDouble());
+        task.scheduledTime = System.nanoTime() + initialDelay;
+        scheduledTaskCount.incrementAndGet();
+        taskQueue.offer(task);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Monitor task scheduled: [task] %s [interval] %d ms [initial-delay] %d ms", name,
+                    intervalMillis, TimeUnit.NANOSECONDS.toMillis(initialDelay)));
+        }
+        return task;
+    }
+
+    /**
+     * Schedule a task to be executed once after the given delay.
+     *
+     * @param name        name of the task used in logs
+     * @param runnable    task to be executed
+     * @param delayMillis delay in milliseconds
+     * @return scheduled task which can be used to cancel the execution
+     */
+    public MonitorTask scheduleOnce(String name, Runnable runnable, long delayMillis) {
+        if (!running) {
+            throw new IllegalStateException("Cluster monitor scheduler has been stopped");
+        }
+        long delay = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        MonitorTask task = new MonitorTask(name, runnable, 0);
+        task.scheduledTime = System.nanoTime() + delay;
+        scheduledTaskCount.incrementAndGet();
+        taskQueue.offer(task);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("One time monitor task scheduled: [task] %s [delay] %d ms", name, delayMillis));
+        }
+        return task;
+    }
+
+    void stop() {
+        running = false;
+        dispatcher.interrupt();
+        workerPool.shutdownNow();
+        taskQueue.clear();
+    }
+
+    private void dispatch() {
+        long nextStatisticsTime = System.currentTimeMillis() + statisticsInterval;
+        while (running) {
+            try {
+                MonitorTask task = taskQueue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if ((task != null) && !task.isCancelled()) {
+                    try {
+                        workerPool.execute(task);
+                    } catch (RejectedExecutionException e) {
+                        if (running) {
+                            log.error("Cluster monitor worker pool rejected a monitor task, the task is queued " +
+                                    "again: [task] " + task.getName(), e);
+                            task.requeue();
+                        }
+                    }
+                }
+                if (System.currentTimeMillis() >= nextStatisticsTime) {
+                    logStatistics();
+                    nextStatisticsTime = System.currentTimeMillis() + statisticsInterval;
+                }
+            } catch (InterruptedException ignore) {
+            } catch (Exception e) {
+                log.error("Error in cluster monitor scheduler", e);
+            }
+        }
+    }
+
+    private void logStatistics() {
+        if (taskTime.getCount() == 0) {
+            return;
+        }
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Cluster monitor scheduler statistics: [tasks] %d [queued] %d [executions] %d " +
+                    "[lag-mean] %d ms [lag-p99] %d ms [lag-max] %d ms [task-time-p99] %d ms [evaluations] %d " +
+                    "[evaluation-time-p99] %d ms [evaluation-time-max] %d ms [overruns] %d",
+                    scheduledTaskCount.get(), taskQueue.size(), taskTime.getCount(),
+                    (long) evaluationLag.getMeanMicros() / 1000, evaluationLag.getPercentileMicros(99) / 1000,
+                    evaluationLag.getMaxMicros() / 1000, taskTime.getPercentileMicros(99) / 1000,
+                    evaluationTime.getCount(), evaluationTime.getPercentileMicros(99) / 1000,
+                    evaluationTime.getMaxMicros() / 1000, overrunCount.get()));
+        }
+        evaluationLag.reset();
+        taskTime.reset();
+        evaluationTime.reset();
+    }
+
+    /**
+     * @return time between the scheduled time and the actual start time of evaluations
+     */
+    public LatencyHistogram getEvaluationLag() {
+        return evaluationLag;
+    }
+
+    /**
+     * @return time taken by monitor tasks on the scheduler workers
+     */
+    public LatencyHistogram getTaskTime() {
+        return taskTime;
+    }
+
+    /**
+     * @return time taken by rule evaluations in the lanes of the cluster instances
+     */
+    public LatencyHistogram getEvaluationTime() {
+        return evaluationTime;
+    }
+
+    /**
+     * @return number of evaluation cycles skipped since an evaluation did not complete within its interval
+     */
+    public long getOverrunCount() {
+        return overrunCount.get();
+    }
+
+    /**
+     * @return number of tasks which are scheduled and not cancelled
+     */
+    public long getScheduledTaskCount() {
+        return scheduledTaskCount.get();
+    }
+
+    /**
+     * A periodic or one time monitor task ordered by its next execution time.
+     */
+    public class MonitorTask implements Delayed, Runnable {
+
+        private final String name;
+        private final Runnable runnable;
+        private final long intervalNanos;
+        // Jitter of each task is drawn from its own random, tasks are rescheduled by concurrent workers
+        private final Random random;
+        private volatile long scheduledTime;
+        private volatile boolean cancelled;
+
+        private MonitorTask(String name, Runnable runnable, long intervalNanos) {
+            this.name = name;
+            this.runnable = runnable;
+            this.intervalNanos = intervalNanos;
+            this.random = new Random();
+        }
+
+        @Override
+        public void run() {
+            long startTime = System.nanoTime();
+            evaluationLag.update(Math.max(0, startTime - scheduledTime));
+            try {
+                runnable.run();
+            } catch (Throwable e) {
+                log.error("Monitor task failed: [task] " + name, e);
+            } finally {
+                long endTime = System.nanoTime();
+                taskTime.update(endTime - startTime);
+                reschedule(endTime);
+            }
+        }
+
+        private void reschedule(long endTime) {
+            if (cancelled || !running) {
+                return;
+            }
+            if (intervalNanos == 0) {
+                // One time task
+                cancel();
+                return;
+            }
+            long nextTime = scheduledTime + nextInterval(intervalNanos);
+            if (nextTime <= endTime) {
+                long missedCycles = (endTime - nextTime) / intervalNanos + 1;
+                overrunCount.addAndGet(missedCycles);
+                nextTime += missedCycles * intervalNanos;
+                if (log.isWarnEnabled()) {
+                    log.warn(String.format("Monitor task overrun, %d cycles skipped: [task] %s [interval] %d ms " +
+                            "[elapsed] %d ms", missedCycles, name, TimeUnit.NANOSECONDS.toMillis(intervalNanos),
+                            TimeUnit.NANOSECONDS.toMillis(endTime - scheduledTime)));
+                }
+            }
+            scheduledTime = nextTime;
+            taskQueue.offer(this);
+        }
+
+        /**
+         * Queue the task again after its interval, or after the poll timeout if it is a one time task,
+         * since its execution was rejected.
+         */
+        private void requeue() {
+            if (cancelled || !running) {
+                return;
+            }
+            long delay = (intervalNanos > 0) ? intervalNanos : TimeUnit.MILLISECONDS.toNanos(POLL_TIMEOUT);
+            scheduledTime = System.nanoTime() + delay;
+            taskQueue.offer(this);
+        }
+
+        private long nextInterval(long intervalNanos) {
+            if (jitterFactor == 0) {
+                return intervalNanos;
+            }
+            double jitter = (random.nextDouble() * 2 - 1) * jitterFactor;
+            return (long) (intervalNanos * (1 + jitter));
+        }
+
+        /**
+         * Cancel further executions, an execution in progress is not interrupted.
+         */
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                scheduledTaskCount.decrementAndGet();
+                taskQueue.remove(this);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(scheduledTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            if (other instanceof MonitorTask) {
+                long difference = scheduledTime - ((MonitorTask) other).scheduledTime;
+                return (difference < 0) ? -1 : ((difference > 0) ? 1 : 0);
+            }
+            long difference = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+            return (difference < 0) ? -1 : ((difference > 0) ? 1 : 0);
+        }
+    }
+}
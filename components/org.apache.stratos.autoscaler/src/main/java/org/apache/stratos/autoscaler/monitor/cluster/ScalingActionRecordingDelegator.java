@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.monitor.cluster;
+
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.rule.RuleTasksDelegator;
+import org.apache.stratos.autoscaler.rule.SpawnBatch;
+
+/**
+ * Rule tasks delegator of a cluster instance which records the members spawned and terminated by
+ * the scaling decision engine in the scaling evaluation trigger, hence evaluations triggered by
+ * health statistics are not executed within the cooldown period.
+ */
+class ScalingActionRecordingDelegator extends RuleTasksDelegator {
+
+    private final ScalingEvaluationTrigger scalingEvaluationTrigger;
+
+    ScalingActionRecordingDelegator(ScalingEvaluationTrigger scalingEvaluationTrigger) {
+        this.scalingEvaluationTrigger = scalingEvaluationTrigger;
+    }
+
+    @Override
+    public void delegateSpawn(ClusterLevelPartitionContext partitionContext, String clusterId,
+                              String clusterInstanceId, boolean isPrimary) {
+        super.delegateSpawn(partitionContext, clusterId, clusterInstanceId, isPrimary);
+        scalingEvaluationTrigger.recordScalingAction();
+    }
+
+    @Override
+    public void delegateSpawns(SpawnBatch spawnBatch) {
+        super.delegateSpawns(spawnBatch);
+        if (!spawnBatch.isEmpty()) {
+            scalingEvaluationTrigger.recordScalingAction();
+        }
+    }
+
+    @Override
+    public void delegateTerminate(ClusterLevelPartitionContext partitionContext, String memberId) {
+        super.delegateTerminate(partitionContext, memberId);
+        scalingEvaluationTrigger.recordScalingAction();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.autoscaler.monitor.cluster;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Schedules scaling evaluations of a cluster instance on the arrival of health statistics.
+ *
+ * Statistics of a cluster instance arrive as a burst of separate events, hence requests are debounced:
+ * the first request schedules an evaluation after the debounce interval and further requests are merged
+ * into it until it runs. An evaluation is not scheduled earlier than the minimum spacing after the
+ * previous evaluation, including periodic evaluations, nor within the cooldown period after a scaling
+ * action, to give spawned or terminated members time to be reflected in the statistics.
+ */
+public class ScalingEvaluationTrigger {
+
+    private static final Log log = LogFactory.getLog(ScalingEvaluationTrigger.class);
+
+    private final String name;
+    private final ClusterMonitorScheduler scheduler;
+    private final long debounceIntervalNanos;
+    private final long minimumSpacingNanos;
+    private final long cooldownNanos;
+    private final AtomicBoolean pending;
+    private final AtomicLong triggeredCount;
+    private final AtomicLong mergedCount;
+    private volatile long lastEvaluationTime;
+    private volatile long lastScalingActionTime;
+    private volatile ClusterMonitorScheduler.MonitorTask scheduledTask;
+    private volatile boolean cancelled;
+
+    public ScalingEvaluationTrigger(String name, ClusterMonitorScheduler scheduler, long debounceIntervalMillis,
+                                    long minimumSpacingMillis, long cooldownMillis) {
+        this.name = name;
+        this.scheduler = scheduler;
+        this.debounceIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, debounceIntervalMillis));
+        this.minimumSpacingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, minimumSpacingMillis));
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, cooldownMillis));
+        this.pending = new AtomicBoolean(false);
+        this.triggeredCount = new AtomicLong();
+        this.mergedCount = new AtomicLong();
+        // Neither spacing nor cooldown applies to the first request
+        long now = System.nanoTime();
+        this.lastEvaluationTime = now - minimumSpacingNanos;
+        this.lastScalingActionTime = now - cooldownNanos;
+    }
+
+    /**
+     * Request an evaluation. The evaluation is executed by a scheduler thread unless an evaluation
+     * is already pending, in which case the request is merged into the pending evaluation.
+     *
+     * @param evaluation evaluation to be executed
+     * @return true if a new evaluation has been scheduled
+     */
+    public boolean request(final Runnable evaluation) {
+        if (cancelled) {
+            return false;
+        }
+        if (!pending.compareAndSet(false, true)) {
+            mergedCount.incrementAndGet();
+            return false;
+        }
+
+        long now = System.nanoTime();
+        long dueTime = now + debounceIntervalNanos;
+        dueTime = Math.max(dueTime, lastEvaluationTime + minimumSpacingNanos);
+        dueTime = Math.max(dueTime, lastScalingActionTime + cooldownNanos);
+        long delayMillis = TimeUnit.NANOSECONDS.toMillis(dueTime - now);
+
+        triggeredCount.incrementAndGet();
+        scheduledTask = scheduler.scheduleOnce(name, new Runnable() {
+            @Override
+            public void run() {
+                // Requests arriving from now on schedule a new evaluation
+                pending.set(false);
+                if (cancelled) {
+                    return;
+                }
+                recordEvaluation();
+                evaluation.run();
+            }
+        }, delayMillis);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Scaling evaluation scheduled: [trigger] %s [delay] %d ms", name, delayMillis));
+        }
+        return true;
+    }
+
+    /**
+     * Record an evaluation which has not been triggered by this trigger, such as a periodic evaluation.
+     */
+    public void recordEvaluation() {
+        lastEvaluationTime = System.nanoTime();
+    }
+
+    /**
+     * Record a scaling action, evaluations are not triggered within the cooldown period afterwards.
+     */
+    public void recordScalingAction() {
+        lastScalingActionTime = System.nanoTime();
+    }
+
+    /**
+     * Cancel the pending evaluation and ignore further requests.
+     */
+    public void cancel() {
+        cancelled = true;
+        ClusterMonitorScheduler.MonitorTask task = scheduledTask;
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    public boolean isPending() {
+        return pending.get();
+    }
+
+    /**
+     * @return number of evaluations scheduled
+     */
+    public long getTriggeredCount() {
+        return triggeredCount.get();
+    }
+
+    /**
+     * @return number of requests merged into a pending evaluation
+     */
+    public long getMergedCount() {
+        return mergedCount.get();
+    }
+}
@@ -27,6 +27,7 @@ import org.apache.stratos.autoscaler.exception.policy.InvalidPolicyException;
 import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
 import org.apache.stratos.autoscaler.pojo.policy.deployment.DeploymentPolicy;
 import org.apache.stratos.autoscaler.registry.RegistryManager;
+import org.apache.stratos.autoscaler.rule.ScalingDecisionEngineFactory;
 import org.apache.stratos.autoscaler.util.ServiceReferenceHolder;
 import org.apache.stratos.common.clustering.DistributedObjectProvider;
 
@@ -78,6 +79,7 @@ public class PolicyManager {
         if(StringUtils.isEmpty(policy.getId())){
             throw new AutoScalerException("Autoscaling policy id cannot be empty");
         }
+        validateScalingDecisionEngine(policy);
         this.addASPolicyToInformationModel(policy);
         RegistryManager.getInstance().persistAutoscalerPolicy(policy);
         if (log.isInfoEnabled()) {
@@ -90,6 +92,7 @@ public class PolicyManager {
         if(StringUtils.isEmpty(policy.getId())){
             throw new AutoScalerException("Autoscaling policy id cannot be empty");
         }
+        validateScalingDecisionEngine(policy);
         this.updateASPolicyInInformationModel(policy);
         RegistryManager.getInstance().persistAutoscalerPolicy(policy);
         if (log.isInfoEnabled()) {
@@ -98,6 +101,14 @@ public class PolicyManager {
         return true;
     }
 
+    private void validateScalingDecisionEngine(AutoscalePolicy policy) throws InvalidPolicyException {
+        String engineName = policy.getScalingDecisionEngine();
+        if (StringUtils.isNotBlank(engineName) && !ScalingDecisionEngineFactory.isEngineAvailable(engineName.trim())) {
+            throw new InvalidPolicyException(String.format("Scaling decision engine not found: [autoscaling-policy] %s " +
+                    "[engine] %s", policy.getId(), engineName));
+        }
+    }
+
 	public boolean removeAutoscalePolicy(String policyID) throws InvalidPolicyException {
 		if (StringUtils.isEmpty(policyID)) {
 			throw new AutoScalerException("Autoscaling policy id cannot be empty");
@@ -34,6 +34,7 @@ public class AutoscalePolicy implements Serializable {
 	private boolean isPublic;
 	private int tenantId;
     private float instanceRoundingFactor;
+    private String scalingDecisionEngine;
 
     /**
      * Gets the value of the loadThresholds property.
@@ -184,4 +185,16 @@ public class AutoscalePolicy implements Serializable {
     public void setInstanceRoundingFactor(float instanceRoundingFactor) {
         this.instanceRoundingFactor = instanceRoundingFactor;
     }
+
+    /**
+     * Gets the name of the engine making scaling decisions of clusters using this policy,
+     * drools or compiled.
+     */
+    public String getScalingDecisionEngine() {
+        return scalingDecisionEngine;
+    }
+
+    public void setScalingDecisionEngine(String scalingDecisionEngine) {
+        this.scalingDecisionEngine = scalingDecisionEngine;
+    }
 }
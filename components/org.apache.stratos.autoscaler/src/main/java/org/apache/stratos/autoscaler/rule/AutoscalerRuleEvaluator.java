@@ -32,35 +32,51 @@ import org.drools.runtime.rule.FactHandle;
 import org.wso2.carbon.utils.CarbonUtils;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Properties;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class is responsible for evaluating the current details of topology, statistics, and health
  * status against the rules set(written in Drools)
+ *
+ * Knowledge bases are compiled once per drools file and shared by all cluster monitors, each monitor
+ * only creates its own sessions. A knowledge base is recompiled when the content of its drools file
+ * changes, sessions created afterwards use the new knowledge base. If a changed drools file could not
+ * be compiled the last valid knowledge base is kept, the file is not compiled again until it changes.
  */
 public class AutoscalerRuleEvaluator {
 	
 	private static final Log log = LogFactory.getLog(AutoscalerRuleEvaluator.class);
 
-    private static Map<String, KnowledgeBase> knowledgeBases;
+    // Map<DroolsFilePath, CachedKnowledgeBase>
+    private static final ConcurrentHashMap<String, CachedKnowledgeBase> knowledgeBaseCache =
+            new ConcurrentHashMap<String, CachedKnowledgeBase>();
+    private static final Object compileLock = new Object();
 
     public AutoscalerRuleEvaluator(){
-        knowledgeBases = new HashMap<String, KnowledgeBase>();
     }
 
+    /**
+     * Make sure the knowledge base of the given drools file is compiled, the file is parsed only
+     * if it has not been compiled before or its content has changed.
+     * @param drlFileName drools file name
+     */
     public void parseAndBuildKnowledgeBaseForDroolsFile(String drlFileName){
-        knowledgeBases.put(drlFileName, readKnowledgeBase(drlFileName));
-
-        if (log.isDebugEnabled()) {
-            log.debug("Drools file is parsed successfully: " + drlFileName);
-        }
+        getKnowledgeBase(drlFileName);
     }
     
     public static FactHandle evaluate(StatefulKnowledgeSession ksession, FactHandle handle, Object obj) {
+        return evaluate(ksession, handle, obj, new RuleTasksDelegator());
+    }
+
+    public static FactHandle evaluate(StatefulKnowledgeSession ksession, FactHandle handle, Object obj,
+                                      RuleTasksDelegator delegator) {
         if (handle == null) {
-            ksession.setGlobal("delegator", new RuleTasksDelegator());
+            ksession.setGlobal("delegator", delegator);
             handle = ksession.insert(obj);
         } else {
             ksession.update(handle, obj);
@@ -74,26 +90,195 @@ public class AutoscalerRuleEvaluator {
 
     public StatefulKnowledgeSession getStatefulSession(String drlFileName) {
         StatefulKnowledgeSession ksession;
-        ksession = knowledgeBases.get(drlFileName).newStatefulKnowledgeSession();
+        ksession = getKnowledgeBase(drlFileName).newStatefulKnowledgeSession();
         ksession.setGlobal("log", RuleLog.getInstance());
         return ksession;
     }
 
-    private static KnowledgeBase readKnowledgeBase(String drlFileName) {
-        KnowledgeBuilder kbuilder = KnowledgeBuilderFactory.newKnowledgeBuilder();
+    /**
+     * Check whether the given session was created from an outdated knowledge base of the drools file.
+     * @param drlFileName drools file name
+     * @param ksession session to be checked
+     * @return true if the drools file has been changed after the session was created
+     */
+    public boolean isKnowledgeBaseUpdated(String drlFileName, StatefulKnowledgeSession ksession) {
+        return ksession.getKnowledgeBase() != getKnowledgeBase(drlFileName);
+    }
+
+    /**
+     * Check whether a knowledge base of the given drools file is available, without throwing
+     * if the file could not be read or has never been compiled successfully.
+     * @param drlFileName drools file name
+     * @return true if sessions could be created for the drools file
+     */
+    public boolean isKnowledgeBaseAvailable(String drlFileName) {
+        return isKnowledgeBaseAvailable(getDroolsFile(drlFileName));
+    }
+
+    private static KnowledgeBase getKnowledgeBase(String drlFileName) {
+        return getKnowledgeBase(getDroolsFile(drlFileName));
+    }
+
+    static KnowledgeBase getKnowledgeBase(File drlFile) {
+        return getCachedKnowledgeBase(drlFile).getKnowledgeBase();
+    }
+
+    static boolean isKnowledgeBaseAvailable(File drlFile) {
+        if (!drlFile.isFile()) {
+            return false;
+        }
+        try {
+            return getCachedKnowledgeBase(drlFile).knowledgeBase != null;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static CachedKnowledgeBase getCachedKnowledgeBase(File drlFile) {
+        String drlFilePath = drlFile.getAbsolutePath();
+        CachedKnowledgeBase cached = knowledgeBaseCache.get(drlFilePath);
+        if ((cached != null) && cached.isUpToDate(drlFile)) {
+            return cached;
+        }
+
+        synchronized (compileLock) {
+            cached = knowledgeBaseCache.get(drlFilePath);
+            if ((cached != null) && cached.isUpToDate(drlFile)) {
+                return cached;
+            }
+            long lastModified = drlFile.lastModified();
+            long length = drlFile.length();
+            String contentHash = calculateContentHash(drlFile);
+            if ((cached != null) && cached.getContentHash().equals(contentHash)) {
+                // File was touched without changing its content
+                CachedKnowledgeBase touched = new CachedKnowledgeBase(cached.knowledgeBase, contentHash,
+                        lastModified, length, cached.compilationError);
+                knowledgeBaseCache.put(drlFilePath, touched);
+                return touched;
+            }
+
+            KnowledgeBase knowledgeBase;
+            try {
+                knowledgeBase = readKnowledgeBase(drlFile);
+            } catch (IllegalArgumentException e) {
+                // Remember the invalid file state, hence it is not compiled again until it changes
+                KnowledgeBase lastKnowledgeBase = (cached != null) ? cached.knowledgeBase : null;
+                CachedKnowledgeBase failed = new CachedKnowledgeBase(lastKnowledgeBase, contentHash,
+                        lastModified, length, e);
+                knowledgeBaseCache.put(drlFilePath, failed);
+                if (lastKnowledgeBase == null) {
+                    log.error("Could not compile drools file: " + drlFilePath, e);
+                } else {
+                    log.error("Could not compile changed drools file, using the last valid knowledge base: " +
+                            drlFilePath, e);
+                }
+                return failed;
+            }
+            CachedKnowledgeBase compiled = new CachedKnowledgeBase(knowledgeBase, contentHash,
+                    lastModified, length, null);
+            knowledgeBaseCache.put(drlFilePath, compiled);
+            if (cached == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Drools file is parsed successfully: " + drlFilePath);
+                }
+            } else {
+                log.info("Drools file has been changed, knowledge base was rebuilt: " + drlFilePath);
+            }
+            return compiled;
+        }
+    }
+
+    private static File getDroolsFile(String drlFileName) {
         String configDir = CarbonUtils.getCarbonConfigDirPath();
         String droolsDir = configDir + File.separator + StratosConstants.DROOLS_DIR_NAME;
-        Resource resource = ResourceFactory.newFileResource(droolsDir + File.separator + drlFileName);
+        return new File(droolsDir + File.separator + drlFileName);
+    }
+
+    private static String calculateContentHash(File drlFile) {
+        InputStream inputStream = null;
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+            inputStream = new FileInputStream(drlFile);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+            StringBuilder hash = new StringBuilder();
+            for (byte b : messageDigest.digest()) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not calculate drools file hash: " + drlFile.getAbsolutePath(), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read drools file: " + drlFile.getAbsolutePath(), e);
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+
+    private static KnowledgeBase readKnowledgeBase(File drlFile) {
+        KnowledgeBuilder kbuilder = KnowledgeBuilderFactory.newKnowledgeBuilder();
+        Resource resource = ResourceFactory.newFileResource(drlFile);
 		kbuilder.add(resource, ResourceType.DRL);
         KnowledgeBuilderErrors errors = kbuilder.getErrors();
         if (errors.size() > 0) {
-            for (KnowledgeBuilderError error: errors) {
-                log.error(error.getMessage());
+            StringBuilder sb = new StringBuilder();
+            for (KnowledgeBuilderError error : errors) {
+                sb.append(error.getMessage());
             }
-            throw new IllegalArgumentException("Could not parse knowledge");
+            throw new IllegalArgumentException(String.format("Could not parse drools file: %s %s",
+                    drlFile.getAbsolutePath(), sb.toString()));
         }
         KnowledgeBase kbase = KnowledgeBaseFactory.newKnowledgeBase();
         kbase.addKnowledgePackages(kbuilder.getKnowledgePackages());
         return kbase;
     }
+
+    /**
+     * Compiled knowledge base of a drools file along with the file state it was compiled from.
+     * If the file state could not be compiled, the last valid knowledge base and the compilation
+     * error are kept.
+     */
+    private static class CachedKnowledgeBase {
+        private final KnowledgeBase knowledgeBase;
+        private final String contentHash;
+        private final long lastModified;
+        private final long length;
+        private final IllegalArgumentException compilationError;
+
+        private CachedKnowledgeBase(KnowledgeBase knowledgeBase, String contentHash, long lastModified, long length,
+                                    IllegalArgumentException compilationError) {
+            this.knowledgeBase = knowledgeBase;
+            this.contentHash = contentHash;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.compilationError = compilationError;
+        }
+
+        private boolean isUpToDate(File drlFile) {
+            return (drlFile.lastModified() == lastModified) && (drlFile.length() == length);
+        }
+
+        /**
+         * @return knowledge base, the last valid one if the drools file could not be compiled
+         * @throws IllegalArgumentException if the drools file has never been compiled successfully
+         */
+        private KnowledgeBase getKnowledgeBase() {
+            if (knowledgeBase == null) {
+                throw new IllegalArgumentException(compilationError.getMessage(), compilationError);
+            }
+            return knowledgeBase;
+        }
+
+        private String getContentHash() {
+            return contentHash;
+        }
+    }
 }
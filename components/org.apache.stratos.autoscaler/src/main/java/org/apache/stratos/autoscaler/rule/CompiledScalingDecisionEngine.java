@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.algorithm.AutoscaleAlgorithm;
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.member.MemberStatsContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.LoadAverage;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.LoadThresholds;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.MemoryConsumption;
+
+import java.util.ArrayList;
+
+/**
+ * Scaling decision engine implementing the stock obsoletecheck.drl, mincheck.drl and scaling.drl
+ * rules in plain Java. Decisions are the same as the drools rules, but evaluations do not go
+ * through a rule session, hence no working memory is kept and no facts are inserted per tick.
+ * Changes made to the drools files are not picked up by this engine.
+ */
+public class CompiledScalingDecisionEngine implements ScalingDecisionEngine {
+
+    private static final Log log = LogFactory.getLog(CompiledScalingDecisionEngine.class);
+
+    public static final String NAME = "compiled";
+
+    // Number of consecutive scale down decisions required before a member is terminated
+    private static final int SCALE_DOWN_REQUESTS_THRESHOLD = 2;
+
+    private final RuleTasksDelegator delegator;
+
+    public CompiledScalingDecisionEngine(RuleTasksDelegator delegator) {
+        this.delegator = delegator;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void runObsoleteCheck(ClusterLevelPartitionContext partitionContext, ScalingDecisionContext context) {
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Running obsolete instances check: [partition] %s [network-partition] %s " +
+                    "[cluster] %s", partitionContext.getPartitionId(), partitionContext.getNetworkPartitionId(),
+                    context.getClusterId()));
+        }
+        if (!partitionContext.getObsoletedMembers().isEmpty()) {
+            // Members are removed from the obsolete list when their termination events are received
+            delegator.terminateObsoleteInstances(
+                    new ArrayList<String>(partitionContext.getObsoletedMembers().keySet()));
+        }
+        // The pending termination cleanup rule of obsoletecheck.drl matches member ids against the member
+        // contexts of the termination pending list and hence never fires, members pending termination
+        // are moved to the obsolete list by the partition context once they expire.
+    }
+
+    @Override
+    public void runMinCheck(ClusterInstanceContext instanceContext, ScalingDecisionContext context) {
+        AutoscaleAlgorithm autoscaleAlgorithm = delegator.getAutoscaleAlgorithm(context.getAlgorithmName());
+        if (autoscaleAlgorithm == null) {
+            return;
+        }
+
+        int minInstanceCount = instanceContext.getMinInstanceCount();
+        int currentCount = context.isPrimary() ? context.getPrimaryMembers().size() :
+                instanceContext.getNonTerminatedMemberCount();
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Running minimum check: [network-partition] %s [cluster-instance] %s " +
+                    "[cluster] %s [primary] %s [member count] %d [minimum member count] %d",
+                    instanceContext.getNetworkPartitionId(), instanceContext.getId(), context.getClusterId(),
+                    context.isPrimary(), currentCount, minInstanceCount));
+        }
+        if (currentCount >= minInstanceCount) {
+            return;
+        }
+
+        int additionalInstances = minInstanceCount - currentCount;
+        SpawnBatch spawnBatch = delegator.createSpawnBatch(context.getClusterId(), instanceContext.getId(),
+                context.isPrimary());
+        int count = 0;
+        while (count != additionalInstances) {
+            ClusterLevelPartitionContext partitionContext = (ClusterLevelPartitionContext)
+                    autoscaleAlgorithm.getNextScaleUpPartitionContext(instanceContext.getPartitionCtxtsAsAnArray());
+            if (partitionContext == null) {
+                break;
+            }
+            log.info("[min-check] Partition available, hence trying to spawn an instance to fulfil minimum count! " +
+                    "[cluster] " + context.getClusterId());
+            delegator.delegateSpawn(spawnBatch, partitionContext);
+            count++;
+        }
+        delegator.delegateSpawns(spawnBatch);
+    }
+
+    @Override
+    public void runScaleCheck(ClusterInstanceContext instanceContext, ScalingDecisionContext context) {
+        if ((context.getAutoscalePolicy() == null) || (context.getAutoscalePolicy().getLoadThresholds() == null)) {
+            return;
+        }
+        AutoscaleAlgorithm autoscaleAlgorithm = delegator.getAutoscaleAlgorithm(context.getAlgorithmName());
+        if (autoscaleAlgorithm == null) {
+            return;
+        }
+        LoadThresholds loadThresholds = context.getAutoscalePolicy().getLoadThresholds();
+        String clusterId = context.getClusterId();
+
+        double rifPredictedValue = delegator.getPredictedValueForNextMinute(
+                instanceContext.getAverageRequestsInFlight(), instanceContext.getRequestsInFlightGradient(),
+                instanceContext.getRequestsInFlightSecondDerivative(), 1);
+        double mcPredictedValue = delegator.getMemoryConsumptionPredictedValue(instanceContext);
+        double laPredictedValue = delegator.getLoadAveragePredictedValue(instanceContext);
+        int activeInstancesCount = instanceContext.getActiveMemberCount();
+
+        int numberOfInstancesRequiredBasedOnRif = delegator.getNumberOfInstancesRequiredBasedOnRif(
+                (float) rifPredictedValue, instanceContext.getRequestsServedPerInstance(),
+                instanceContext.getAverageRequestsServedPerInstance(), context.isArspiReset());
+        int numberOfInstancesRequiredBasedOnMemoryConsumption =
+                delegator.getNumberOfInstancesRequiredBasedOnMemoryConsumption(
+                        loadThresholds.getMemoryConsumptionThreshold(), mcPredictedValue, activeInstancesCount);
+        int numberOfInstancesRequiredBasedOnLoadAverage = delegator.getNumberOfInstancesRequiredBasedOnLoadAverage(
+                loadThresholds.getLoadAverageThreshold(), laPredictedValue, activeInstancesCount);
+        int numberOfRequiredInstances = delegator.getMaxNumberOfInstancesRequired(
+                numberOfInstancesRequiredBasedOnRif, numberOfInstancesRequiredBasedOnMemoryConsumption,
+                context.isMcReset(), numberOfInstancesRequiredBasedOnLoadAverage, context.isLaReset());
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("[scaling] Number of required instances based on stats: %d " +
+                    "[active instances count] %d [network-partition] %s [cluster] %s [rif predicted] %s " +
+                    "[mc predicted] %s [la predicted] %s", numberOfRequiredInstances, activeInstancesCount,
+                    instanceContext.getNetworkPartitionId(), clusterId, rifPredictedValue, mcPredictedValue,
+                    laPredictedValue));
+        }
+
+        if (activeInstancesCount < numberOfRequiredInstances) {
+            scaleUp(instanceContext, context, autoscaleAlgorithm, numberOfRequiredInstances);
+        } else if (activeInstancesCount > numberOfRequiredInstances) {
+            scaleDown(instanceContext, context, autoscaleAlgorithm, numberOfRequiredInstances);
+        } else if (log.isDebugEnabled()) {
+            log.debug("[scaling] No decision made to either scale up or scale down ... ");
+        }
+    }
+
+    private void scaleUp(ClusterInstanceContext instanceContext, ScalingDecisionContext context,
+                         AutoscaleAlgorithm autoscaleAlgorithm, int numberOfRequiredInstances) {
+        String clusterId = context.getClusterId();
+        int nonTerminatedMembers = instanceContext.getNonTerminatedMemberCount();
+        int clusterMaxMembers = instanceContext.getMaxInstanceCount();
+        if (nonTerminatedMembers >= clusterMaxMembers) {
+            log.info(String.format("[scale-up] Trying to scale up over max, hence not scaling up cluster itself and " +
+                    "notifying to parent for possible group scaling or app bursting. [cluster] %s [instance id] %s " +
+                    "[max] %d", clusterId, instanceContext.getId(), clusterMaxMembers));
+            delegator.delegateScalingOverMaxNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                    instanceContext.getId());
+            return;
+        }
+
+        int additionalInstances;
+        if (clusterMaxMembers < numberOfRequiredInstances) {
+            additionalInstances = clusterMaxMembers - nonTerminatedMembers;
+            log.info(String.format("[scale-up] Required member count based on stat based scaling is higher than max, " +
+                    "hence notifying to parent for possible group scaling or app bursting. [cluster] %s " +
+                    "[instance id] %s [max] %d", clusterId, instanceContext.getId(), clusterMaxMembers));
+            delegator.delegateScalingOverMaxNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                    instanceContext.getId());
+        } else {
+            additionalInstances = numberOfRequiredInstances - nonTerminatedMembers;
+        }
+
+        instanceContext.resetScaleDownRequestsCount();
+
+        if (instanceContext.hasScalingDependants()) {
+            if (log.isDebugEnabled()) {
+                log.debug("[scale-up] Notifying dependencies [cluster] " + clusterId);
+            }
+            delegator.delegateScalingDependencyNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                    instanceContext.getId(), numberOfRequiredInstances, instanceContext.getMinInstanceCount());
+            return;
+        }
+
+        SpawnBatch spawnBatch = delegator.createSpawnBatch(clusterId, instanceContext.getId(), context.isPrimary());
+        int count = 0;
+        while (count != additionalInstances) {
+            ClusterLevelPartitionContext partitionContext = (ClusterLevelPartitionContext)
+                    autoscaleAlgorithm.getNextScaleUpPartitionContext(instanceContext.getPartitionCtxtsAsAnArray());
+            if (partitionContext == null) {
+                break;
+            }
+            log.info("[scale-up] Partition available, hence trying to spawn an instance to scale up!");
+            delegator.delegateSpawn(spawnBatch, partitionContext);
+            count++;
+        }
+        delegator.delegateSpawns(spawnBatch);
+    }
+
+    private void scaleDown(ClusterInstanceContext instanceContext, ScalingDecisionContext context,
+                           AutoscaleAlgorithm autoscaleAlgorithm, int numberOfRequiredInstances) {
+        String clusterId = context.getClusterId();
+        if (instanceContext.getNonTerminatedMemberCount() <= instanceContext.getMinInstanceCount()) {
+            log.info(String.format("[scale-down] Min is reached, hence not scaling down [cluster] %s " +
+                    "[instance id] %s", clusterId, instanceContext.getId()));
+            if (instanceContext.isInGroupScalingEnabledSubtree()) {
+                delegator.delegateScalingDownBeyondMinNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                        instanceContext.getId());
+            }
+            return;
+        }
+
+        if (instanceContext.getScaleDownRequestsCount() <= SCALE_DOWN_REQUESTS_THRESHOLD) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("[scale-down] Not reached scale down requests threshold. [cluster] %s " +
+                        "[count] %d", clusterId, instanceContext.getScaleDownRequestsCount()));
+            }
+            instanceContext.increaseScaleDownRequestsCount();
+            return;
+        }
+
+        if (instanceContext.hasScalingDependants()) {
+            if (log.isDebugEnabled()) {
+                log.debug("[scale-down] Notifying dependencies [cluster] " + clusterId);
+            }
+            delegator.delegateScalingDependencyNotification(clusterId, instanceContext.getNetworkPartitionId(),
+                    instanceContext.getId(), numberOfRequiredInstances, instanceContext.getMinInstanceCount());
+            return;
+        }
+
+        ClusterLevelPartitionContext partitionContext = (ClusterLevelPartitionContext)
+                autoscaleAlgorithm.getNextScaleDownPartitionContext(instanceContext.getPartitionCtxtsAsAnArray());
+        if (partitionContext == null) {
+            return;
+        }
+        log.info("[scale-down] Partition available to scale down ");
+
+        // Primary members are never selected for termination
+        MemberStatsContext selectedMemberStatsContext = null;
+        double lowestOverallLoad = 0.0;
+        for (MemberStatsContext memberStatsContext : partitionContext.getMemberStatsContexts().values()) {
+            if (context.getPrimaryMembers().contains(memberStatsContext.getMemberId())) {
+                continue;
+            }
+            LoadAverage loadAverage = memberStatsContext.getLoadAverage();
+            MemoryConsumption memoryConsumption = memberStatsContext.getMemoryConsumption();
+            double predictedCpu = delegator.getPredictedValueForNextMinute(loadAverage.getAverage(),
+                    loadAverage.getGradient(), loadAverage.getSecondDerivative(), 1);
+            double predictedMemoryConsumption = delegator.getPredictedValueForNextMinute(
+                    memoryConsumption.getAverage(), memoryConsumption.getGradient(),
+                    memoryConsumption.getSecondDerivative(), 1);
+            double overallLoad = (predictedCpu + predictedMemoryConsumption) / 2;
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("[scale-down] [partition] %s [cluster] %s [member] %s [overall load] %s",
+                        partitionContext.getPartitionId(), clusterId, memberStatsContext.getMemberId(),
+                        overallLoad));
+            }
+            if ((selectedMemberStatsContext == null) || (overallLoad < lowestOverallLoad)) {
+                selectedMemberStatsContext = memberStatsContext;
+                lowestOverallLoad = overallLoad;
+            }
+        }
+
+        if (selectedMemberStatsContext != null) {
+            log.info("[scale-down] Trying to terminating an instace to scale down!");
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("[scale-down] [partition] %s [cluster] %s Member with lowest overall load: %s",
+                        partitionContext.getPartitionId(), clusterId, selectedMemberStatsContext.getMemberId()));
+            }
+            delegator.delegateTerminate(partitionContext, selectedMemberStatsContext.getMemberId());
+        }
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
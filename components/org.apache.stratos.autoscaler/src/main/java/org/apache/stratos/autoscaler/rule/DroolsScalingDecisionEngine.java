@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.common.constants.StratosConstants;
+import org.drools.runtime.StatefulKnowledgeSession;
+import org.drools.runtime.rule.FactHandle;
+
+/**
+ * Scaling decision engine which runs the drools files of the autoscaler configuration. Sessions are
+ * created on first use and replaced when their drools files are changed.
+ */
+public class DroolsScalingDecisionEngine implements ScalingDecisionEngine {
+
+    public static final String NAME = "drools";
+
+    private final AutoscalerRuleEvaluator autoscalerRuleEvaluator;
+    private final RuleTasksDelegator delegator;
+
+    private StatefulKnowledgeSession minCheckKnowledgeSession;
+    private StatefulKnowledgeSession obsoleteCheckKnowledgeSession;
+    private StatefulKnowledgeSession scaleCheckKnowledgeSession;
+    private FactHandle minCheckFactHandle;
+    private FactHandle obsoleteCheckFactHandle;
+    private FactHandle scaleCheckFactHandle;
+
+    public DroolsScalingDecisionEngine(AutoscalerRuleEvaluator autoscalerRuleEvaluator, RuleTasksDelegator delegator) {
+        this.autoscalerRuleEvaluator = autoscalerRuleEvaluator;
+        this.delegator = delegator;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void runObsoleteCheck(ClusterLevelPartitionContext partitionContext, ScalingDecisionContext context) {
+        if (isOutdated(StratosConstants.OBSOLETE_CHECK_DROOL_FILE, obsoleteCheckKnowledgeSession)) {
+            disposeSession(obsoleteCheckKnowledgeSession);
+            obsoleteCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
+                    StratosConstants.OBSOLETE_CHECK_DROOL_FILE);
+            obsoleteCheckFactHandle = null;
+        }
+        obsoleteCheckKnowledgeSession.setGlobal("clusterId", context.getClusterId());
+        obsoleteCheckFactHandle = AutoscalerRuleEvaluator.evaluate(obsoleteCheckKnowledgeSession,
+                obsoleteCheckFactHandle, partitionContext, delegator);
+    }
+
+    @Override
+    public void runMinCheck(ClusterInstanceContext instanceContext, ScalingDecisionContext context) {
+        if (isOutdated(StratosConstants.MIN_CHECK_DROOL_FILE, minCheckKnowledgeSession)) {
+            disposeSession(minCheckKnowledgeSession);
+            minCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
+                    StratosConstants.MIN_CHECK_DROOL_FILE);
+            minCheckFactHandle = null;
+        }
+        minCheckKnowledgeSession.setGlobal("clusterId", context.getClusterId());
+        minCheckKnowledgeSession.setGlobal("isPrimary", context.isPrimary());
+        minCheckKnowledgeSession.setGlobal("primaryMemberCount", context.getPrimaryMembers().size());
+        minCheckKnowledgeSession.setGlobal("algorithmName", context.getAlgorithmName());
+        minCheckFactHandle = AutoscalerRuleEvaluator.evaluate(minCheckKnowledgeSession, minCheckFactHandle,
+                instanceContext, delegator);
+    }
+
+    @Override
+    public void runScaleCheck(ClusterInstanceContext instanceContext, ScalingDecisionContext context) {
+        if (isOutdated(StratosConstants.SCALE_CHECK_DROOL_FILE, scaleCheckKnowledgeSession)) {
+            disposeSession(scaleCheckKnowledgeSession);
+            scaleCheckKnowledgeSession = autoscalerRuleEvaluator.getStatefulSession(
+                    StratosConstants.SCALE_CHECK_DROOL_FILE);
+            scaleCheckFactHandle = null;
+        }
+        scaleCheckKnowledgeSession.setGlobal("clusterId", context.getClusterId());
+        scaleCheckKnowledgeSession.setGlobal("rifReset", context.isRifReset());
+        scaleCheckKnowledgeSession.setGlobal("mcReset", context.isMcReset());
+        scaleCheckKnowledgeSession.setGlobal("laReset", context.isLaReset());
+        scaleCheckKnowledgeSession.setGlobal("isPrimary", context.isPrimary());
+        scaleCheckKnowledgeSession.setGlobal("algorithmName", context.getAlgorithmName());
+        scaleCheckKnowledgeSession.setGlobal("autoscalePolicy", context.getAutoscalePolicy());
+        scaleCheckKnowledgeSession.setGlobal("arspiReset", context.isArspiReset());
+        scaleCheckKnowledgeSession.setGlobal("primaryMembers", context.getPrimaryMembers());
+        scaleCheckFactHandle = AutoscalerRuleEvaluator.evaluate(scaleCheckKnowledgeSession, scaleCheckFactHandle,
+                instanceContext, delegator);
+    }
+
+    @Override
+    public void dispose() {
+        disposeSession(minCheckKnowledgeSession);
+        disposeSession(obsoleteCheckKnowledgeSession);
+        disposeSession(scaleCheckKnowledgeSession);
+        minCheckKnowledgeSession = null;
+        obsoleteCheckKnowledgeSession = null;
+        scaleCheckKnowledgeSession = null;
+    }
+
+    private boolean isOutdated(String drlFileName, StatefulKnowledgeSession ksession) {
+        return (ksession == null) || autoscalerRuleEvaluator.isKnowledgeBaseUpdated(drlFileName, ksession);
+    }
+
+    private void disposeSession(StatefulKnowledgeSession ksession) {
+        if (ksession != null) {
+            ksession.dispose();
+        }
+    }
+}
@@ -38,6 +38,10 @@ import org.apache.stratos.autoscaler.exception.cartridge.TerminationException;
 import org.apache.stratos.autoscaler.monitor.cluster.ClusterMonitor;
 import org.apache.stratos.autoscaler.util.AutoscalerConstants;
 import org.apache.stratos.cloud.controller.stub.domain.MemberContext;
+import org.apache.stratos.cloud.controller.stub.domain.Partition;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This will have utility methods that need to be executed from rule file...
@@ -216,6 +220,81 @@ public class RuleTasksDelegator {
         }
     }
 
+    public SpawnBatch createSpawnBatch(String clusterId, String clusterInstanceId, boolean isPrimary) {
+        return new SpawnBatch(clusterId, clusterInstanceId, isPrimary);
+    }
+
+    /**
+     * Add an instance to be spawned in the given partition to a spawn batch. Instances are spawned
+     * once the batch is delegated using {@link #delegateSpawns(SpawnBatch)}.
+     */
+    public void delegateSpawn(SpawnBatch spawnBatch, ClusterLevelPartitionContext clusterMonitorPartitionContext) {
+        spawnBatch.add(clusterMonitorPartitionContext);
+    }
+
+    /**
+     * Spawn the instances of a spawn batch using a single cloud controller call and add the members
+     * started to the pending members of their partitions.
+     */
+    public void delegateSpawns(SpawnBatch spawnBatch) {
+        if (spawnBatch.isEmpty()) {
+            return;
+        }
+        spawnInstances(spawnBatch);
+    }
+
+    /**
+     * Spawn the instances of a non empty spawn batch.
+     */
+    protected void spawnInstances(SpawnBatch spawnBatch) {
+        String clusterId = spawnBatch.getClusterId();
+        String clusterInstanceId = spawnBatch.getClusterInstanceId();
+        List<ClusterLevelPartitionContext> partitionContexts = spawnBatch.getPartitionContexts();
+        try {
+            String nwPartitionId = partitionContexts.get(0).getNetworkPartitionId();
+
+            // Calculate accumulation of minimum counts of all the partition of current network partition
+            ClusterMonitor clusterMonitor = (ClusterMonitor) AutoscalerContext.getInstance().getClusterMonitor(clusterId);
+            ClusterContext clusterContext = (ClusterContext) clusterMonitor.getClusterContext();
+            ClusterLevelNetworkPartitionContext clusterLevelNetworkPartitionContext = clusterContext.getNetworkPartitionCtxt(nwPartitionId);
+            ClusterInstanceContext clusterInstanceContext =
+                    (ClusterInstanceContext) clusterLevelNetworkPartitionContext.
+                            getInstanceContext(clusterInstanceId);
+            int minimumCountOfNetworkPartition = clusterInstanceContext.getMinInstanceCount();
+
+            List<Partition> partitions = new ArrayList<Partition>(partitionContexts.size());
+            for (ClusterLevelPartitionContext partitionContext : partitionContexts) {
+                partitions.add(partitionContext.getPartition());
+            }
+            MemberContext[] memberContexts = CloudControllerClient.getInstance().startInstances(partitions,
+                    clusterId, clusterInstanceId, nwPartitionId, spawnBatch.isPrimary(),
+                    minimumCountOfNetworkPartition);
+
+            for (MemberContext memberContext : memberContexts) {
+                if (memberContext == null) {
+                    continue;
+                }
+                ClusterLevelPartitionContext partitionContext = clusterInstanceContext.
+                        getPartitionCtxt(memberContext.getPartition().getId());
+                partitionContext.addPendingMember(memberContext);
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Pending member added, [member] %s [partition] %s", memberContext.getMemberId(),
+                            memberContext.getPartition().getId()));
+                }
+            }
+            if (memberContexts.length < partitions.size()) {
+                log.error(String.format("Some of the instances could not be started: [cluster-id] %s " +
+                        "[instance-id] %s [requested] %d [started] %d", clusterId, clusterInstanceId,
+                        partitions.size(), memberContexts.length));
+            }
+        } catch (Exception e) {
+            String message = String.format("Could not start instances: [cluster-id] %s [instance-id] %s",
+                    clusterId, clusterInstanceId);
+            log.error(message, e);
+            throw new RuntimeException(message, e);
+        }
+    }
+
     public void delegateScalingDependencyNotification(String clusterId, String networkPartitionId, String instanceId,
                                                       int requiredInstanceCount, int minimumInstanceCount) {
 
@@ -299,6 +378,19 @@ public class RuleTasksDelegator {
         }
     }
 
+    public void terminateObsoleteInstances(List<String> memberIds) {
+        if (memberIds.isEmpty()) {
+            return;
+        }
+        try {
+            CloudControllerClient.getInstance().terminateMemberInstances(memberIds);
+        } catch (Exception e) {
+            log.error("Cannot terminate instances", e);
+        } catch (TerminationException e) {
+            log.error("Cannot terminate instances", e);
+        }
+    }
+
     //Grouping
     public void delegateTerminateAll(String clusterId) {
         try {
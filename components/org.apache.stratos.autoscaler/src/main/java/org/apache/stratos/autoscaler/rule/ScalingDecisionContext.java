@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inputs of a scaling decision other than the cluster instance and partition contexts, these were
+ * previously passed to the drools sessions as globals.
+ */
+public class ScalingDecisionContext {
+
+    private String clusterId;
+    private boolean primary;
+    private String algorithmName;
+    private List<String> primaryMembers = Collections.emptyList();
+    private AutoscalePolicy autoscalePolicy;
+    private boolean rifReset;
+    private boolean mcReset;
+    private boolean laReset;
+    private boolean arspiReset;
+
+    public ScalingDecisionContext(String clusterId) {
+        this.clusterId = clusterId;
+    }
+
+    public String getClusterId() {
+        return clusterId;
+    }
+
+    public boolean isPrimary() {
+        return primary;
+    }
+
+    public void setPrimary(boolean primary) {
+        this.primary = primary;
+    }
+
+    public String getAlgorithmName() {
+        return algorithmName;
+    }
+
+    public void setAlgorithmName(String algorithmName) {
+        this.algorithmName = algorithmName;
+    }
+
+    public List<String> getPrimaryMembers() {
+        return primaryMembers;
+    }
+
+    public void setPrimaryMembers(List<String> primaryMembers) {
+        this.primaryMembers = primaryMembers;
+    }
+
+    public AutoscalePolicy getAutoscalePolicy() {
+        return autoscalePolicy;
+    }
+
+    public void setAutoscalePolicy(AutoscalePolicy autoscalePolicy) {
+        this.autoscalePolicy = autoscalePolicy;
+    }
+
+    public boolean isRifReset() {
+        return rifReset;
+    }
+
+    public void setRifReset(boolean rifReset) {
+        this.rifReset = rifReset;
+    }
+
+    public boolean isMcReset() {
+        return mcReset;
+    }
+
+    public void setMcReset(boolean mcReset) {
+        this.mcReset = mcReset;
+    }
+
+    public boolean isLaReset() {
+        return laReset;
+    }
+
+    public void setLaReset(boolean laReset) {
+        this.laReset = laReset;
+    }
+
+    public boolean isArspiReset() {
+        return arspiReset;
+    }
+
+    public void setArspiReset(boolean arspiReset) {
+        this.arspiReset = arspiReset;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+
+/**
+ * Makes scaling decisions of a cluster instance and executes them through {@link RuleTasksDelegator}.
+ * An engine instance is used by a single cluster instance and is never accessed concurrently, hence
+ * implementations may keep state between evaluations without locking.
+ *
+ * The engine used by a cluster is selected by the scaling decision engine of its autoscale policy,
+ * see {@link ScalingDecisionEngineFactory}.
+ */
+public interface ScalingDecisionEngine {
+
+    /**
+     * @return name of the engine as given in autoscale policies
+     */
+    public String getName();
+
+    /**
+     * Terminate obsolete members and clean up members pending termination of a partition.
+     */
+    public void runObsoleteCheck(ClusterLevelPartitionContext partitionContext, ScalingDecisionContext context);
+
+    /**
+     * Spawn members required to satisfy the minimum instance count of a cluster instance.
+     */
+    public void runMinCheck(ClusterInstanceContext instanceContext, ScalingDecisionContext context);
+
+    /**
+     * Scale a cluster instance up or down based on the predicted load and the thresholds of its
+     * autoscale policy.
+     */
+    public void runScaleCheck(ClusterInstanceContext instanceContext, ScalingDecisionContext context);
+
+    /**
+     * Release resources held by the engine, it is not used afterwards.
+     */
+    public void dispose();
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
+import org.apache.stratos.autoscaler.util.AutoscalerConstants;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates scaling decision engines. The engine is selected by the scaling decision engine of the
+ * autoscale policy, if the policy does not define one the system property
+ * {@link AutoscalerConstants#SCALING_DECISION_ENGINE} is used and drools is the default.
+ */
+public class ScalingDecisionEngineFactory {
+
+    private static final Log log = LogFactory.getLog(ScalingDecisionEngineFactory.class);
+
+    // Unknown engine names already reported, engine names are resolved on every monitor cycle
+    private static final Set<String> unknownEngineNames =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private ScalingDecisionEngineFactory() {
+    }
+
+    /**
+     * @param autoscalePolicy autoscale policy of the cluster, may be null
+     * @return name of the scaling decision engine to be used, drools if the configured engine is not found
+     */
+    public static String getEngineName(AutoscalePolicy autoscalePolicy) {
+        String engineName;
+        if ((autoscalePolicy != null) && StringUtils.isNotBlank(autoscalePolicy.getScalingDecisionEngine())) {
+            engineName = autoscalePolicy.getScalingDecisionEngine().trim();
+        } else {
+            engineName = System.getProperty(AutoscalerConstants.SCALING_DECISION_ENGINE,
+                    DroolsScalingDecisionEngine.NAME);
+        }
+        if (isEngineAvailable(engineName)) {
+            return engineName.toLowerCase();
+        }
+        if (unknownEngineNames.add(engineName)) {
+            log.warn(String.format("Scaling decision engine not found, using drools: [engine] %s", engineName));
+        }
+        return DroolsScalingDecisionEngine.NAME;
+    }
+
+    /**
+     * @param engineName name of a scaling decision engine
+     * @return true if an engine with the given name is available
+     */
+    public static boolean isEngineAvailable(String engineName) {
+        return CompiledScalingDecisionEngine.NAME.equalsIgnoreCase(engineName) ||
+                DroolsScalingDecisionEngine.NAME.equalsIgnoreCase(engineName);
+    }
+
+    /**
+     * @param engineName name of the engine as returned by {@link #getEngineName(AutoscalePolicy)}
+     */
+    public static ScalingDecisionEngine createEngine(String engineName, AutoscalerRuleEvaluator autoscalerRuleEvaluator,
+                                                     RuleTasksDelegator delegator) {
+        if (CompiledScalingDecisionEngine.NAME.equalsIgnoreCase(engineName)) {
+            return new CompiledScalingDecisionEngine(delegator);
+        }
+        return new DroolsScalingDecisionEngine(autoscalerRuleEvaluator, delegator);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instances to be spawned in a cluster instance within a single rule evaluation. Partitions are
+ * added as they are selected by the autoscale algorithm and the instances are spawned using a
+ * single cloud controller call by {@link RuleTasksDelegator#delegateSpawns(SpawnBatch)}.
+ */
+public class SpawnBatch {
+
+    private final String clusterId;
+    private final String clusterInstanceId;
+    private final boolean isPrimary;
+    private final List<ClusterLevelPartitionContext> partitionContexts;
+
+    public SpawnBatch(String clusterId, String clusterInstanceId, boolean isPrimary) {
+        this.clusterId = clusterId;
+        this.clusterInstanceId = clusterInstanceId;
+        this.isPrimary = isPrimary;
+        this.partitionContexts = new ArrayList<ClusterLevelPartitionContext>();
+    }
+
+    public void add(ClusterLevelPartitionContext partitionContext) {
+        partitionContexts.add(partitionContext);
+    }
+
+    public String getClusterId() {
+        return clusterId;
+    }
+
+    public String getClusterInstanceId() {
+        return clusterInstanceId;
+    }
+
+    public boolean isPrimary() {
+        return isPrimary;
+    }
+
+    /**
+     * @return partition of each instance to be spawned, a partition is repeated for each instance
+     */
+    public List<ClusterLevelPartitionContext> getPartitionContexts() {
+        return partitionContexts;
+    }
+
+    public boolean isEmpty() {
+        return partitionContexts.isEmpty();
+    }
+}
@@ -60,6 +60,14 @@ public final class AutoscalerConstants {
     public static final String VMLb_Cluster_MONITOR_INTERVAL = "autoscaler.monitorInterval.vm.lb";
     public static final String KubernetesService_Cluster_MONITOR_INTERVAL = "autoscaler.monitorInterval.kubernetes.service";
 
+    /**
+     * Event driven scaling evaluation
+     */
+    public static final String EVENT_DRIVEN_SCALING_ENABLED = "autoscaler.eventDrivenScaling.enabled";
+    public static final String EVENT_DRIVEN_SCALING_DEBOUNCE_INTERVAL = "autoscaler.eventDrivenScaling.debounceInterval";
+    public static final String EVENT_DRIVEN_SCALING_MINIMUM_SPACING = "autoscaler.eventDrivenScaling.minimumSpacing";
+    public static final String EVENT_DRIVEN_SCALING_COOLDOWN = "autoscaler.eventDrivenScaling.cooldown";
+
     /**
      * PortRange min max
      */
@@ -76,8 +84,11 @@ public final class AutoscalerConstants {
     public static final String GROUP_MONITOR_THREAD_POOL_ID = "group.monitor.thread.pool";
     public static final String GROUP_MONITOR_THREAD_POOL_SIZE = "group.monitor.thread.pool.size";
     public static final String CLUSTER_MONITOR_SCHEDULER_ID = "cluster.monitor.scheduler";
+    public static final String CLUSTER_MONITOR_SCHEDULER_THREAD_POOL_SIZE = "cluster.monitor.scheduler.thread.pool.size";
+    public static final String CLUSTER_MONITOR_SCHEDULER_JITTER_PERCENTAGE = "cluster.monitor.scheduler.jitter.percentage";
     public static final String CLUSTER_MONITOR_THREAD_POOL_ID = "cluster.monitor.thread.pool";
     public static final String CLUSTER_MONITOR_THREAD_POOL_SIZE = "cluster.monitor.thread.pool.size";
+    public static final String SCALING_DECISION_ENGINE = "autoscaler.scaling.decision.engine";
 	public static final String ROUND_ROBIN_ALGORITHM_ID = "round-robin";
 	public static final String ONE_AFTER_ANOTHER_ALGORITHM_ID = "one-after-another";
 	public static final String MEMBER_FAULT_EVENT_NAME = "member_fault";
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.monitor.cluster;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cluster monitor scheduler.
+ */
+public class ClusterMonitorSchedulerTest {
+
+    private ClusterMonitorScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new ClusterMonitorScheduler(Executors.newFixedThreadPool(4), 10, 60000);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    public void testTasksExecutedPeriodically() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(3);
+        ClusterMonitorScheduler.MonitorTask task = scheduler.schedule("periodic", new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 50);
+        assertTrue("Task was not executed periodically", latch.await(5, TimeUnit.SECONDS));
+        assertEquals(1, scheduler.getScheduledTaskCount());
+        assertTrue(scheduler.getTaskTime().getCount() >= 2);
+        assertEquals(0, scheduler.getEvaluationTime().getCount());
+
+        task.cancel();
+        assertEquals(0, scheduler.getScheduledTaskCount());
+    }
+
+    @Test
+    public void testCancelledTaskNotExecuted() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        ClusterMonitorScheduler.MonitorTask task = scheduler.schedule("cancelled", new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        }, 50);
+        Thread.sleep(200);
+        task.cancel();
+        Thread.sleep(100);
+        int executions = count.get();
+        Thread.sleep(300);
+        assertEquals("Cancelled task was executed", executions, count.get());
+    }
+
+    @Test
+    public void testOverrunDoesNotRunTaskConcurrently() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(3);
+        scheduler.schedule("slow", new Runnable() {
+            @Override
+            public void run() {
+                int current = running.incrementAndGet();
+                if (current > maxRunning.get()) {
+                    maxRunning.set(current);
+                }
+                try {
+                    Thread.sleep(120);
+                } catch (InterruptedException ignore) {
+                }
+                running.decrementAndGet();
+                latch.countDown();
+            }
+        }, 20);
+        assertTrue("Slow task was not executed", latch.await(5, TimeUnit.SECONDS));
+        assertEquals("Task was executed concurrently", 1, maxRunning.get());
+        assertTrue("Overruns were not detected", scheduler.getOverrunCount() > 0);
+    }
+
+    @Test
+    public void testRejectedTaskQueuedAgain() throws Exception {
+        final AtomicInteger rejections = new AtomicInteger(2);
+        ThreadPoolExecutor workerPool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>()) {
+            @Override
+            public void execute(Runnable command) {
+                if (rejections.getAndDecrement() > 0) {
+                    throw new RejectedExecutionException("Rejected by test");
+                }
+                super.execute(command);
+            }
+        };
+        ClusterMonitorScheduler rejectingScheduler = new ClusterMonitorScheduler(workerPool, 0, 60000);
+        try {
+            final CountDownLatch latch = new CountDownLatch(2);
+            rejectingScheduler.schedule("rejected", new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            }, 50);
+            assertTrue("Rejected task was not executed again", latch.await(5, TimeUnit.SECONDS));
+            assertEquals(1, rejectingScheduler.getScheduledTaskCount());
+        } finally {
+            rejectingScheduler.stop();
+        }
+    }
+
+    @Test
+    public void testOneTimeTaskExecutedOnce() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        scheduler.scheduleOnce("once", new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        }, 50);
+        assertEquals(1, scheduler.getScheduledTaskCount());
+        Thread.sleep(400);
+        assertEquals("One time task was not executed once", 1, count.get());
+        assertEquals(0, scheduler.getScheduledTaskCount());
+    }
+}
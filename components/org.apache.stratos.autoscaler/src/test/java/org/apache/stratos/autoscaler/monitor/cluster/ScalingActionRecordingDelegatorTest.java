@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.monitor.cluster;
+
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.rule.SpawnBatch;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test that members spawned in batches by the scaling decision engine start the cooldown period.
+ */
+public class ScalingActionRecordingDelegatorTest {
+
+    private ClusterMonitorScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new ClusterMonitorScheduler(Executors.newFixedThreadPool(2), 0, 60000);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    public void testBatchedSpawnStartsCooldown() throws Exception {
+        ScalingEvaluationTrigger trigger = new ScalingEvaluationTrigger("batch", scheduler, 0, 0, 600);
+        TestDelegator delegator = new TestDelegator(trigger);
+
+        SpawnBatch spawnBatch = delegator.createSpawnBatch("cluster-1", "instance-1", false);
+        ClusterLevelPartitionContext partitionContext = new ClusterLevelPartitionContext(60000);
+        delegator.delegateSpawn(spawnBatch, partitionContext);
+        delegator.delegateSpawn(spawnBatch, partitionContext);
+        delegator.delegateSpawns(spawnBatch);
+        assertEquals(1, delegator.spawnCount.get());
+
+        final AtomicInteger count = new AtomicInteger();
+        trigger.request(new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        });
+        Thread.sleep(300);
+        assertEquals("Evaluation executed within the cooldown period", 0, count.get());
+        Thread.sleep(800);
+        assertEquals("Evaluation was not executed after the cooldown period", 1, count.get());
+    }
+
+    @Test
+    public void testEmptyBatchDoesNotStartCooldown() throws Exception {
+        ScalingEvaluationTrigger trigger = new ScalingEvaluationTrigger("empty-batch", scheduler, 0, 0, 600);
+        TestDelegator delegator = new TestDelegator(trigger);
+
+        delegator.delegateSpawns(delegator.createSpawnBatch("cluster-1", "instance-1", false));
+        assertEquals(0, delegator.spawnCount.get());
+
+        final AtomicInteger count = new AtomicInteger();
+        trigger.request(new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        });
+        Thread.sleep(300);
+        assertEquals("Evaluation was delayed without a scaling action", 1, count.get());
+    }
+
+    private static class TestDelegator extends ScalingActionRecordingDelegator {
+
+        private final AtomicInteger spawnCount = new AtomicInteger();
+
+        private TestDelegator(ScalingEvaluationTrigger scalingEvaluationTrigger) {
+            super(scalingEvaluationTrigger);
+        }
+
+        @Override
+        protected void spawnInstances(SpawnBatch spawnBatch) {
+            spawnCount.incrementAndGet();
+        }
+    }
+}
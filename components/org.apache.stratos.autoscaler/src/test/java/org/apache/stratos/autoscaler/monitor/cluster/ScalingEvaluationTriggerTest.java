@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.autoscaler.monitor.cluster;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test debouncing, minimum spacing and cooldown of event driven scaling evaluations.
+ */
+public class ScalingEvaluationTriggerTest {
+
+    private ClusterMonitorScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new ClusterMonitorScheduler(Executors.newFixedThreadPool(2), 0, 60000);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    public void testRequestsMergedWithinDebounceInterval() throws Exception {
+        ScalingEvaluationTrigger trigger = new ScalingEvaluationTrigger("debounce", scheduler, 100, 0, 0);
+        final AtomicInteger count = new AtomicInteger();
+        Runnable evaluation = new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        };
+        assertTrue(trigger.request(evaluation));
+        for (int i = 0; i < 4; i++) {
+            assertFalse(trigger.request(evaluation));
+        }
+        Thread.sleep(400);
+        assertEquals("Requests were not merged into a single evaluation", 1, count.get());
+        assertEquals(1, trigger.getTriggeredCount());
+        assertEquals(4, trigger.getMergedCount());
+        assertFalse(trigger.isPending());
+
+        // A request after the evaluation schedules a new evaluation
+        assertTrue(trigger.request(evaluation));
+        Thread.sleep(400);
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    public void testMinimumSpacingBetweenEvaluations() throws Exception {
+        ScalingEvaluationTrigger trigger = new ScalingEvaluationTrigger("spacing", scheduler, 0, 500, 0);
+        final AtomicLong evaluationTime = new AtomicLong();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Runnable evaluation = new Runnable() {
+            @Override
+            public void run() {
+                evaluationTime.set(System.nanoTime());
+                latch.countDown();
+            }
+        };
+        trigger.recordEvaluation();
+        long requestTime = System.nanoTime();
+        assertTrue(trigger.request(evaluation));
+        assertTrue("Evaluation was not executed", latch.await(5, TimeUnit.SECONDS));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(evaluationTime.get() - requestTime);
+        assertTrue("Evaluation executed before the minimum spacing: " + elapsed + " ms", elapsed >= 400);
+    }
+
+    @Test
+    public void testNoEvaluationWithinCooldown() throws Exception {
+        ScalingEvaluationTrigger trigger = new ScalingEvaluationTrigger("cooldown", scheduler, 0, 0, 600);
+        final AtomicInteger count = new AtomicInteger();
+        trigger.recordScalingAction();
+        assertTrue(trigger.request(new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        }));
+        Thread.sleep(300);
+        assertEquals("Evaluation executed within the cooldown period", 0, count.get());
+        Thread.sleep(800);
+        assertEquals("Evaluation was not executed after the cooldown period", 1, count.get());
+    }
+
+    @Test
+    public void testCancelledTriggerDoesNotEvaluate() throws Exception {
+        ScalingEvaluationTrigger trigger = new ScalingEvaluationTrigger("cancelled", scheduler, 100, 0, 0);
+        final AtomicInteger count = new AtomicInteger();
+        Runnable evaluation = new Runnable() {
+            @Override
+            public void run() {
+                count.incrementAndGet();
+            }
+        };
+        assertTrue(trigger.request(evaluation));
+        trigger.cancel();
+        assertFalse(trigger.request(evaluation));
+        Thread.sleep(300);
+        assertEquals(0, count.get());
+        assertEquals(0, scheduler.getScheduledTaskCount());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.drools.KnowledgeBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests hot reloading of drools files by the autoscaler rule evaluator.
+ */
+public class AutoscalerRuleEvaluatorTest {
+
+    private static final String VALID_RULE = "package org.apache.stratos.autoscaler.rule.test\n" +
+            "rule \"Noop\"\n" +
+            "when\n" +
+            "    eval(true)\n" +
+            "then\n" +
+            "end\n";
+
+    private static final String VALID_RULE_CHANGED = "package org.apache.stratos.autoscaler.rule.test\n" +
+            "rule \"Noop changed\"\n" +
+            "when\n" +
+            "    eval(true)\n" +
+            "then\n" +
+            "end\n";
+
+    private static final String BROKEN_RULE = "package org.apache.stratos.autoscaler.rule.test\n" +
+            "rule \"Broken\"\n" +
+            "when\n" +
+            "    eval(\n" +
+            "then\n";
+
+    private File drlFile;
+
+    @Before
+    public void setUp() throws IOException {
+        drlFile = File.createTempFile("autoscaler-rule-evaluator-test", ".drl");
+    }
+
+    @After
+    public void tearDown() {
+        drlFile.delete();
+    }
+
+    @Test
+    public void testBrokenRuleFileKeepsLastValidKnowledgeBase() throws IOException {
+        writeDroolsFile(VALID_RULE, 0);
+        KnowledgeBase validKnowledgeBase = AutoscalerRuleEvaluator.getKnowledgeBase(drlFile);
+        assertNotNull(validKnowledgeBase);
+        assertSame(validKnowledgeBase, AutoscalerRuleEvaluator.getKnowledgeBase(drlFile));
+
+        // Broken rule file is hot reloaded, sessions keep using the last valid knowledge base
+        writeDroolsFile(BROKEN_RULE, 1);
+        assertSame(validKnowledgeBase, AutoscalerRuleEvaluator.getKnowledgeBase(drlFile));
+        assertSame(validKnowledgeBase, AutoscalerRuleEvaluator.getKnowledgeBase(drlFile));
+
+        // Touching the broken file without changing it does not replace the knowledge base
+        writeDroolsFile(BROKEN_RULE, 2);
+        assertSame(validKnowledgeBase, AutoscalerRuleEvaluator.getKnowledgeBase(drlFile));
+
+        // Fixed rule file is compiled again
+        writeDroolsFile(VALID_RULE_CHANGED, 3);
+        KnowledgeBase fixedKnowledgeBase = AutoscalerRuleEvaluator.getKnowledgeBase(drlFile);
+        assertNotNull(fixedKnowledgeBase);
+        assertNotSame(validKnowledgeBase, fixedKnowledgeBase);
+    }
+
+    @Test
+    public void testBrokenRuleFileWithoutValidKnowledgeBase() throws IOException {
+        writeDroolsFile(BROKEN_RULE, 0);
+        for (int i = 0; i < 2; i++) {
+            try {
+                AutoscalerRuleEvaluator.getKnowledgeBase(drlFile);
+                fail("Broken drools file should not be compiled");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+
+        writeDroolsFile(VALID_RULE, 1);
+        assertNotNull(AutoscalerRuleEvaluator.getKnowledgeBase(drlFile));
+    }
+
+    @Test
+    public void testKnowledgeBaseAvailability() throws IOException {
+        writeDroolsFile(BROKEN_RULE, 0);
+        assertFalse(AutoscalerRuleEvaluator.isKnowledgeBaseAvailable(drlFile));
+        assertFalse(AutoscalerRuleEvaluator.isKnowledgeBaseAvailable(drlFile));
+
+        writeDroolsFile(VALID_RULE, 1);
+        assertTrue(AutoscalerRuleEvaluator.isKnowledgeBaseAvailable(drlFile));
+
+        // Last valid knowledge base is still available
+        writeDroolsFile(BROKEN_RULE, 2);
+        assertTrue(AutoscalerRuleEvaluator.isKnowledgeBaseAvailable(drlFile));
+
+        assertFalse(AutoscalerRuleEvaluator.isKnowledgeBaseAvailable(new File(drlFile.getAbsolutePath() + ".missing")));
+    }
+
+    private void writeDroolsFile(String content, int version) throws IOException {
+        FileWriter writer = new FileWriter(drlFile);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+        // Make each version visible regardless of the file system timestamp resolution
+        drlFile.setLastModified(1000000000000L + (version * 10000L));
+    }
+}
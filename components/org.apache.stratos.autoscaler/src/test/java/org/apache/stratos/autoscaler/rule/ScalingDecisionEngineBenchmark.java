@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.member.MemberStatsContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.LoadThresholds;
+import org.apache.stratos.cloud.controller.stub.domain.MemberContext;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the throughput and the allocations of a monitor tick (minimum check followed by the scale check)
+ * of the drools and the compiled scaling decision engines. Decisions are not delegated to the cloud controller.
+ * This is not run as part of the build, run the main method from the module directory to execute it:
+ * java -cp ... org.apache.stratos.autoscaler.rule.ScalingDecisionEngineBenchmark [members] [ticks]
+ */
+public class ScalingDecisionEngineBenchmark {
+
+    private static final String CONF_DIR_PATH = "../../products/stratos/modules/distribution/src/main/conf";
+
+    public static void main(String[] args) throws Exception {
+        int memberCount = (args.length > 0) ? Integer.parseInt(args[0]) : 10;
+        int tickCount = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+        if (System.getProperty("carbon.config.dir.path") == null) {
+            System.setProperty("carbon.config.dir.path", CONF_DIR_PATH);
+        }
+
+        // Warm up
+        run(DroolsScalingDecisionEngine.NAME, memberCount, tickCount / 10);
+        run(CompiledScalingDecisionEngine.NAME, memberCount, tickCount / 10);
+
+        System.out.println(String.format("[members] %d [ticks] %d", memberCount, tickCount));
+        Result droolsResult = run(DroolsScalingDecisionEngine.NAME, memberCount, tickCount);
+        Result compiledResult = run(CompiledScalingDecisionEngine.NAME, memberCount, tickCount);
+        print(DroolsScalingDecisionEngine.NAME, droolsResult, tickCount);
+        print(CompiledScalingDecisionEngine.NAME, compiledResult, tickCount);
+    }
+
+    private static void print(String engineName, Result result, int tickCount) {
+        long decisionsPerSecond = (result.time > 0) ? (tickCount * 1000000000L) / result.time : 0;
+        System.out.println(String.format("Engine %s: %d ms, %d decisions/s, %d bytes allocated/decision",
+                engineName, result.time / 1000000, decisionsPerSecond,
+                (result.allocatedBytes < 0) ? -1 : result.allocatedBytes / tickCount));
+    }
+
+    private static Result run(String engineName, int memberCount, int tickCount) {
+        RuleTasksDelegator delegator = new RuleTasksDelegator() {
+            @Override
+            public void delegateSpawn(ClusterLevelPartitionContext partitionContext, String clusterId,
+                                      String instanceId, boolean isPrimary) {
+            }
+
+            @Override
+            public void delegateTerminate(ClusterLevelPartitionContext partitionContext, String memberId) {
+            }
+
+            @Override
+            public void delegateScalingOverMaxNotification(String clusterId, String networkPartitionId,
+                                                           String instanceId) {
+            }
+
+            @Override
+            public void delegateScalingDownBeyondMinNotification(String clusterId, String networkPartitionId,
+                                                                 String instanceId) {
+            }
+        };
+        ScalingDecisionEngine engine = ScalingDecisionEngineFactory.createEngine(engineName,
+                new AutoscalerRuleEvaluator(), delegator);
+        ClusterInstanceContext instanceContext = createInstanceContext(memberCount);
+        ScalingDecisionContext context = new ScalingDecisionContext("cluster-1");
+        AutoscalePolicy autoscalePolicy = new AutoscalePolicy();
+        LoadThresholds loadThresholds = new LoadThresholds();
+        loadThresholds.setRequestsInFlightThreshold(50);
+        loadThresholds.setMemoryConsumptionThreshold(80);
+        loadThresholds.setLoadAverageThreshold(70);
+        autoscalePolicy.setLoadThresholds(loadThresholds);
+        context.setAutoscalePolicy(autoscalePolicy);
+        context.setRifReset(true);
+        context.setMcReset(true);
+        context.setLaReset(true);
+        context.setArspiReset(true);
+
+        com.sun.management.ThreadMXBean threadMXBean = getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBytesBefore = (threadMXBean != null) ? threadMXBean.getThreadAllocatedBytes(threadId) : 0;
+        long startTime = System.nanoTime();
+        try {
+            for (int i = 0; i < tickCount; i++) {
+                // Alternate the load to exercise both scaling up and scaling down decisions
+                instanceContext.setAverageRequestsInFlight(((i & 1) == 0) ? 10 : 1000);
+                engine.runMinCheck(instanceContext, context);
+                engine.runScaleCheck(instanceContext, context);
+            }
+        } finally {
+            engine.dispose();
+        }
+        Result result = new Result();
+        result.time = System.nanoTime() - startTime;
+        result.allocatedBytes = (threadMXBean != null) ?
+                threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytesBefore : -1;
+        return result;
+    }
+
+    private static ClusterInstanceContext createInstanceContext(int memberCount) {
+        ClusterInstanceContext instanceContext = new ClusterInstanceContext("cluster-instance-1", null, 1,
+                memberCount * 2, "network-partition-1", "cluster-1", false, false);
+        instanceContext.setAverageRequestsServedPerInstance(20);
+        ClusterLevelPartitionContext partitionContext = new ClusterLevelPartitionContext(0);
+        partitionContext.setPartitionId("partition-1");
+        partitionContext.setNetworkPartitionId("network-partition-1");
+        partitionContext.setMax(memberCount * 2);
+        for (int i = 0; i < memberCount; i++) {
+            MemberContext memberContext = new MemberContext();
+            memberContext.setMemberId("member-" + i);
+            partitionContext.addActiveMember(memberContext);
+            MemberStatsContext memberStatsContext = new MemberStatsContext("member-" + i);
+            memberStatsContext.setAverageLoadAverage(20 + i);
+            memberStatsContext.setAverageMemoryConsumption(30 + i);
+            partitionContext.addMemberStatsContext(memberStatsContext);
+        }
+        instanceContext.addPartitionCtxt(partitionContext);
+        return instanceContext;
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if ((threadMXBean instanceof com.sun.management.ThreadMXBean) &&
+                ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()) {
+            return (com.sun.management.ThreadMXBean) threadMXBean;
+        }
+        return null;
+    }
+
+    private static class Result {
+        private long time;
+        private long allocatedBytes;
+    }
+}
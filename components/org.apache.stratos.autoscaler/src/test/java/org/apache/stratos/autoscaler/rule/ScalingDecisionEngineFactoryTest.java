@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests resolving the scaling decision engine of autoscale policies.
+ */
+public class ScalingDecisionEngineFactoryTest {
+
+    @Test
+    public void testEngineNameOfPolicy() {
+        assertEquals(CompiledScalingDecisionEngine.NAME, ScalingDecisionEngineFactory.getEngineName(
+                createAutoscalePolicy(" Compiled ")));
+        assertEquals(DroolsScalingDecisionEngine.NAME, ScalingDecisionEngineFactory.getEngineName(
+                createAutoscalePolicy("drools")));
+    }
+
+    @Test
+    public void testUnknownEngineNameResolvedToDrools() {
+        assertFalse(ScalingDecisionEngineFactory.isEngineAvailable("unknown"));
+        // The resolved name matches the name of the engine created, hence the engine is not recreated
+        assertEquals(DroolsScalingDecisionEngine.NAME, ScalingDecisionEngineFactory.getEngineName(
+                createAutoscalePolicy("unknown")));
+        assertEquals(DroolsScalingDecisionEngine.NAME, ScalingDecisionEngineFactory.getEngineName(
+                createAutoscalePolicy("unknown")));
+    }
+
+    private static AutoscalePolicy createAutoscalePolicy(String scalingDecisionEngine) {
+        AutoscalePolicy autoscalePolicy = new AutoscalePolicy();
+        autoscalePolicy.setScalingDecisionEngine(scalingDecisionEngine);
+        return autoscalePolicy;
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.autoscaler.rule;
+
+import org.apache.stratos.autoscaler.context.cluster.ClusterInstanceContext;
+import org.apache.stratos.autoscaler.context.member.MemberStatsContext;
+import org.apache.stratos.autoscaler.context.partition.ClusterLevelPartitionContext;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.AutoscalePolicy;
+import org.apache.stratos.autoscaler.pojo.policy.autoscale.LoadThresholds;
+import org.apache.stratos.cloud.controller.stub.domain.MemberContext;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays recorded health statistics against the drools files shipped with the distribution and
+ * the compiled scaling decision engine, and verifies both make the same scaling decisions.
+ */
+public class ScalingDecisionEngineParityTest {
+
+    private static final String CONF_DIR_PATH = "../../products/stratos/modules/distribution/src/main/conf";
+    private static final String STATS_FILE_PATH = "src/test/resources/scaling-decision-stats.csv";
+
+    @BeforeClass
+    public static void setUp() {
+        // Drools files are read from the carbon configuration directory
+        System.setProperty("carbon.config.dir.path", CONF_DIR_PATH);
+    }
+
+    @Test
+    public void testCompiledEngineMatchesDroolsRules() throws IOException {
+        Map<String, List<StatsRecord>> scenarios = readScenarios(STATS_FILE_PATH);
+        assertTrue("No scenarios found in " + STATS_FILE_PATH, scenarios.size() > 0);
+
+        for (Map.Entry<String, List<StatsRecord>> entry : scenarios.entrySet()) {
+            String scenario = entry.getKey();
+            StatsRecord first = entry.getValue().get(0);
+            ScalingSimulation droolsSimulation = new ScalingSimulation(DroolsScalingDecisionEngine.NAME, first);
+            ScalingSimulation compiledSimulation = new ScalingSimulation(CompiledScalingDecisionEngine.NAME, first);
+            try {
+                for (StatsRecord record : entry.getValue()) {
+                    List<String> droolsActions = droolsSimulation.tick(record);
+                    List<String> compiledActions = compiledSimulation.tick(record);
+                    assertEquals(String.format("Scaling decisions differ: [scenario] %s [tick] %d",
+                            scenario, record.tick), droolsActions, compiledActions);
+                }
+            } finally {
+                droolsSimulation.dispose();
+                compiledSimulation.dispose();
+            }
+        }
+    }
+
+    @Test
+    public void testMinCheckSpawnsUpToMinimum() {
+        StatsRecord record = StatsRecord.parse("min,1,3,6,2,0,0,0,0,0,0,0,50,80,70,false");
+        ScalingSimulation simulation = new ScalingSimulation(CompiledScalingDecisionEngine.NAME, record);
+        List<String> actions = simulation.tick(record);
+        assertEquals(3, actions.size());
+        assertEquals(3, simulation.instanceContext.getNonTerminatedMemberCount());
+        assertEquals(2, simulation.partitionContexts.get(0).getActiveMemberCount());
+        assertEquals(1, simulation.partitionContexts.get(1).getActiveMemberCount());
+
+        // Minimum is satisfied, no further members are spawned
+        actions = simulation.tick(record);
+        assertEquals(0, actions.size());
+        assertEquals(3, simulation.instanceContext.getNonTerminatedMemberCount());
+    }
+
+    @Test
+    public void testScaleDownWaitsForConsecutiveRequests() {
+        StatsRecord high = StatsRecord.parse("down,2,1,4,2,70,0,0,20,10,10,0,50,80,70,false");
+        StatsRecord low = StatsRecord.parse("down,3,1,4,2,5,0,0,20,10,10,0,50,80,70,false");
+        ScalingSimulation simulation = new ScalingSimulation(CompiledScalingDecisionEngine.NAME, high);
+        simulation.tick(high);
+        assertEquals(4, simulation.instanceContext.getActiveMemberCount());
+
+        // The first three scale down decisions only increase the scale down requests count
+        for (int i = 0; i < 3; i++) {
+            simulation.tick(low);
+            assertEquals(4, simulation.instanceContext.getActiveMemberCount());
+        }
+        simulation.tick(low);
+        assertEquals(3, simulation.instanceContext.getActiveMemberCount());
+    }
+
+    private static Map<String, List<StatsRecord>> readScenarios(String filePath) throws IOException {
+        Map<String, List<StatsRecord>> scenarios = new LinkedHashMap<String, List<StatsRecord>>();
+        BufferedReader reader = new BufferedReader(new FileReader(filePath));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if ((line.length() == 0) || line.startsWith("#")) {
+                    continue;
+                }
+                StatsRecord record = StatsRecord.parse(line);
+                List<StatsRecord> records = scenarios.get(record.scenario);
+                if (records == null) {
+                    records = new ArrayList<StatsRecord>();
+                    scenarios.put(record.scenario, records);
+                }
+                records.add(record);
+            }
+        } finally {
+            reader.close();
+        }
+        return scenarios;
+    }
+
+    /**
+     * Health statistics of a cluster instance received within a single monitor interval.
+     */
+    private static class StatsRecord {
+        private String scenario;
+        private int tick;
+        private int min;
+        private int max;
+        private int partitionMax;
+        private float rifAverage;
+        private float rifGradient;
+        private float rifSecondDerivative;
+        private float averageRequestsServedPerInstance;
+        private float loadAverage;
+        private float memoryConsumption;
+        private int obsoleteMembers;
+        private float rifThreshold;
+        private float mcThreshold;
+        private float laThreshold;
+        private boolean hasScalingDependants;
+
+        private static StatsRecord parse(String line) {
+            String[] values = line.split(",");
+            StatsRecord record = new StatsRecord();
+            record.scenario = values[0];
+            record.tick = Integer.parseInt(values[1]);
+            record.min = Integer.parseInt(values[2]);
+            record.max = Integer.parseInt(values[3]);
+            record.partitionMax = Integer.parseInt(values[4]);
+            record.rifAverage = Float.parseFloat(values[5]);
+            record.rifGradient = Float.parseFloat(values[6]);
+            record.rifSecondDerivative = Float.parseFloat(values[7]);
+            record.averageRequestsServedPerInstance = Float.parseFloat(values[8]);
+            record.loadAverage = Float.parseFloat(values[9]);
+            record.memoryConsumption = Float.parseFloat(values[10]);
+            record.obsoleteMembers = Integer.parseInt(values[11]);
+            record.rifThreshold = Float.parseFloat(values[12]);
+            record.mcThreshold = Float.parseFloat(values[13]);
+            record.laThreshold = Float.parseFloat(values[14]);
+            record.hasScalingDependants = Boolean.parseBoolean(values[15]);
+            return record;
+        }
+    }
+
+    /**
+     * A cluster instance with two partitions evaluated by a scaling decision engine in the same order
+     * as the cluster monitor does. Members spawned by the engine become active immediately.
+     */
+    private static class ScalingSimulation {
+        private static final String CLUSTER_ID = "cluster-1";
+        private static final String NETWORK_PARTITION_ID = "network-partition-1";
+
+        private final RecordingRuleTasksDelegator delegator;
+        private final ScalingDecisionEngine engine;
+        private final ClusterInstanceContext instanceContext;
+        private final List<ClusterLevelPartitionContext> partitionContexts;
+        private final AutoscalePolicy autoscalePolicy;
+
+        private ScalingSimulation(String engineName, StatsRecord record) {
+            delegator = new RecordingRuleTasksDelegator();
+            engine = ScalingDecisionEngineFactory.createEngine(engineName, new AutoscalerRuleEvaluator(), delegator);
+            instanceContext = new ClusterInstanceContext("cluster-instance-1", null, record.min, record.max,
+                    NETWORK_PARTITION_ID, CLUSTER_ID, record.hasScalingDependants, false);
+            partitionContexts = new ArrayList<ClusterLevelPartitionContext>();
+            for (int i = 1; i <= 2; i++) {
+                ClusterLevelPartitionContext partitionContext = new ClusterLevelPartitionContext(0);
+                partitionContext.setPartitionId("partition-" + i);
+                partitionContext.setNetworkPartitionId(NETWORK_PARTITION_ID);
+                partitionContext.setMax(record.partitionMax);
+                instanceContext.addPartitionCtxt(partitionContext);
+                partitionContexts.add(partitionContext);
+            }
+            autoscalePolicy = new AutoscalePolicy();
+            autoscalePolicy.setId("autoscale-policy-1");
+            autoscalePolicy.setLoadThresholds(new LoadThresholds());
+        }
+
+        private List<String> tick(StatsRecord record) {
+            delegator.record = record;
+            delegator.actions.clear();
+
+            instanceContext.setAverageRequestsInFlight(record.rifAverage);
+            instanceContext.setRequestsInFlightGradient(record.rifGradient);
+            instanceContext.setRequestsInFlightSecondDerivative(record.rifSecondDerivative);
+            instanceContext.setAverageRequestsServedPerInstance(record.averageRequestsServedPerInstance);
+            autoscalePolicy.getLoadThresholds().setRequestsInFlightThreshold(record.rifThreshold);
+            autoscalePolicy.getLoadThresholds().setMemoryConsumptionThreshold(record.mcThreshold);
+            autoscalePolicy.getLoadThresholds().setLoadAverageThreshold(record.laThreshold);
+            for (ClusterLevelPartitionContext partitionContext : partitionContexts) {
+                for (MemberStatsContext memberStatsContext : partitionContext.getMemberStatsContexts().values()) {
+                    delegator.updateMemberStats(memberStatsContext);
+                }
+            }
+
+            // Oldest members of the first partition are marked as obsolete
+            ClusterLevelPartitionContext firstPartitionContext = partitionContexts.get(0);
+            for (int i = 0; (i < record.obsoleteMembers) && (firstPartitionContext.getActiveMemberCount() > 0); i++) {
+                String memberId = firstPartitionContext.getActiveMembers().get(0).getMemberId();
+                firstPartitionContext.moveMemberToObsoleteList(memberId);
+                firstPartitionContext.removeMemberStatsContext(memberId);
+            }
+
+            ScalingDecisionContext context = new ScalingDecisionContext(CLUSTER_ID);
+            context.setAutoscalePolicy(autoscalePolicy);
+            for (ClusterLevelPartitionContext partitionContext : partitionContexts) {
+                engine.runObsoleteCheck(partitionContext, context);
+            }
+            engine.runMinCheck(instanceContext, context);
+            boolean statsReceived = (record.tick > 1);
+            if (statsReceived) {
+                context.setRifReset(true);
+                context.setMcReset(true);
+                context.setLaReset(true);
+                context.setArspiReset(record.averageRequestsServedPerInstance > 0);
+                engine.runScaleCheck(instanceContext, context);
+            }
+
+            // Obsolete members are removed once their termination events are received
+            for (String memberId : delegator.terminatedObsoleteMembers) {
+                firstPartitionContext.removeObsoleteMember(memberId);
+            }
+            delegator.terminatedObsoleteMembers.clear();
+
+            // Rules matching several facts may fire in any order within a single evaluation
+            List<String> actions = new ArrayList<String>(delegator.actions);
+            Collections.sort(actions);
+            return actions;
+        }
+
+        private void dispose() {
+            engine.dispose();
+        }
+    }
+
+    /**
+     * Records the decisions taken by an engine instead of sending them to the cloud controller.
+     */
+    private static class RecordingRuleTasksDelegator extends RuleTasksDelegator {
+        private final List<String> actions = new ArrayList<String>();
+        private final List<String> terminatedObsoleteMembers = new ArrayList<String>();
+        private StatsRecord record;
+        private int memberCount;
+
+        private void updateMemberStats(MemberStatsContext memberStatsContext) {
+            // Offset by the member number so that members do not report identical loads
+            float offset = Float.parseFloat(memberStatsContext.getMemberId().substring(
+                    memberStatsContext.getMemberId().lastIndexOf('-') + 1)) * 1.5f;
+            memberStatsContext.setAverageLoadAverage(record.loadAverage + offset);
+            memberStatsContext.setAverageMemoryConsumption(record.memoryConsumption + offset);
+        }
+
+        @Override
+        public void delegateSpawn(ClusterLevelPartitionContext partitionContext, String clusterId,
+                                  String instanceId, boolean isPrimary) {
+            String memberId = "member-" + (++memberCount);
+            MemberContext memberContext = new MemberContext();
+            memberContext.setMemberId(memberId);
+            partitionContext.addActiveMember(memberContext);
+            MemberStatsContext memberStatsContext = new MemberStatsContext(memberId);
+            updateMemberStats(memberStatsContext);
+            partitionContext.addMemberStatsContext(memberStatsContext);
+            actions.add(String.format("spawn [partition] %s [member] %s [primary] %s",
+                    partitionContext.getPartitionId(), memberId, isPrimary));
+        }
+
+        @Override
+        public void delegateSpawn(SpawnBatch spawnBatch, ClusterLevelPartitionContext partitionContext) {
+            // Members are spawned as they are added to the batch, hence the next partition is selected
+            // with the members spawned so far
+            delegateSpawn(partitionContext, spawnBatch.getClusterId(), spawnBatch.getClusterInstanceId(),
+                    spawnBatch.isPrimary());
+        }
+
+        @Override
+        public void delegateSpawns(SpawnBatch spawnBatch) {
+        }
+
+        @Override
+        public void delegateTerminate(ClusterLevelPartitionContext partitionContext, String memberId) {
+            partitionContext.removeActiveMemberById(memberId);
+            partitionContext.removeMemberStatsContext(memberId);
+            actions.add(String.format("terminate [partition] %s [member] %s",
+                    partitionContext.getPartitionId(), memberId));
+        }
+
+        @Override
+        public void terminateObsoleteInstance(String memberId) {
+            terminatedObsoleteMembers.add(memberId);
+            actions.add("terminate-obsolete [member] " + memberId);
+        }
+
+        @Override
+        public void terminateObsoleteInstances(List<String> memberIds) {
+            for (String memberId : memberIds) {
+                terminateObsoleteInstance(memberId);
+            }
+        }
+
+        @Override
+        public void delegateInstanceCleanup(String memberId) {
+            actions.add("cleanup [member] " + memberId);
+        }
+
+        @Override
+        public void delegateScalingDependencyNotification(String clusterId, String networkPartitionId,
+                                                          String instanceId, int requiredInstanceCount,
+                                                          int minimumInstanceCount) {
+            actions.add(String.format("scaling-dependency [required] %d [minimum] %d",
+                    requiredInstanceCount, minimumInstanceCount));
+        }
+
+        @Override
+        public void delegateScalingOverMaxNotification(String clusterId, String networkPartitionId,
+                                                       String instanceId) {
+            actions.add("scaling-over-max [instance] " + instanceId);
+        }
+
+        @Override
+        public void delegateScalingDownBeyondMinNotification(String clusterId, String networkPartitionId,
+                                                             String instanceId) {
+            actions.add("scaling-down-beyond-min [instance] " + instanceId);
+        }
+    }
+}
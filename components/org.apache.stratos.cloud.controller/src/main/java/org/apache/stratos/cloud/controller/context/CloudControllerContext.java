@@ -24,6 +24,9 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.cloud.controller.domain.kubernetes.KubernetesClusterContext;
 import org.apache.stratos.common.clustering.DistributedObjectProvider;
+import org.apache.stratos.common.clustering.DistributedMapEntryListener;
+import org.apache.stratos.common.concurrent.locks.StripedLock;
+import org.apache.stratos.common.threading.StratosThreadPool;
 import org.apache.stratos.cloud.controller.domain.kubernetes.KubernetesCluster;
 import org.apache.stratos.cloud.controller.domain.kubernetes.KubernetesHost;
 import org.apache.stratos.cloud.controller.domain.kubernetes.KubernetesMaster;
@@ -32,9 +35,10 @@ import org.apache.stratos.cloud.controller.exception.*;
 import org.apache.stratos.cloud.controller.internal.ServiceReferenceHolder;
 import org.apache.stratos.cloud.controller.registry.RegistryManager;
 import org.apache.stratos.cloud.controller.util.CloudControllerConstants;
+import org.apache.stratos.kubernetes.client.PodWatcherRegistry;
 import org.wso2.carbon.databridge.agent.thrift.AsyncDataPublisher;
-import org.wso2.carbon.registry.core.exceptions.RegistryException;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -51,7 +55,8 @@ public class CloudControllerContext implements Serializable {
     private static final long serialVersionUID = -2662307358852779897L;
     private static final Log log = LogFactory.getLog(CloudControllerContext.class);
 
-    private static final String CC_CLUSTER_ID_TO_MEMBER_CTX_MAP = "CC_CLUSTER_ID_TO_MEMBER_CTX_MAP";
+    private static final String CC_CLUSTER_MEMBER_CTX_MAP_PREFIX = "CC_CLUSTER_MEMBER_CTX_MAP.";
+    private static final String CC_CLUSTER_MEMBER_CTX_MAP_CLUSTER_IDS = "CC_CLUSTER_MEMBER_CTX_MAP_CLUSTER_IDS";
     private static final String CC_CLUSTER_ID_TO_CLUSTER_CTX = "CC_CLUSTER_ID_TO_CLUSTER_CTX";
     private static final String CC_MEMBER_ID_TO_MEMBER_CTX_MAP = "CC_MEMBER_ID_TO_MEMBER_CTX_MAP";
     private static final String CC_MEMBER_ID_TO_SCH_TASK_MAP = "CC_MEMBER_ID_TO_SCH_TASK_MAP";
@@ -63,10 +68,10 @@ public class CloudControllerContext implements Serializable {
 
     private static final String CC_CLUSTER_CTX_WRITE_LOCK = "CC_CLUSTER_CTX_WRITE_LOCK";
     private static final String CC_MEMBER_CTX_WRITE_LOCK = "CC_MEMBER_CTX_WRITE_LOCK";
+    private static final String CC_CARTRIDGE_WRITE_LOCK = "CC_CARTRIDGE_WRITE_LOCK";
     private static final String CC_SCH_TASK_WRITE_LOCK = "CC_SCH_TASK_WRITE_LOCK";
     private static final String CC_KUB_GROUP_WRITE_LOCK = "CC_KUB_GROUP_WRITE_LOCK";
     private static final String CC_KUB_CLUSTER_CTX_WRITE_LOCK = "CC_KUB_CLUSTER_CTX_WRITE_LOCK";
-    private static final String CC_CARTRIDGES_WRITE_LOCK = "CC_CARTRIDGES_WRITE_LOCK";
     private static final String CC_SERVICE_GROUPS_WRITE_LOCK = "CC_SERVICE_GROUPS_WRITE_LOCK";
 
     private static volatile CloudControllerContext instance;
@@ -83,10 +88,21 @@ public class CloudControllerContext implements Serializable {
     private Map<String, KubernetesCluster> kubernetesClustersMap;
 
     /**
+     * Member contexts of each cluster are kept in a separate distributed map keyed by member id,
+     * hence adding, updating or removing a member only ships the changed member context.
+     * These are not persisted, they are rebuilt from memberIdToMemberContextMap on recovery.
      * Key - cluster id
-     * Value - list of {@link MemberContext}
+     * Value - map of {@link MemberContext} against member id
      */
-    private Map<String, List<MemberContext>> clusterIdToMemberContextListMap;
+    private transient Map<String, Map<String, MemberContext>> clusterIdToMemberContextMap;
+
+    /**
+     * Ids of the clusters having a member context map, in a clustered deployment this is used for finding
+     * member context maps created by other members without creating distributed maps for unknown clusters.
+     * Key - cluster id
+     * Value - true
+     */
+    private transient Map<String, Boolean> memberContextMapClusterIds;
 
     /**
      * Key - member id
@@ -146,6 +162,28 @@ public class CloudControllerContext implements Serializable {
     private transient AsyncDataPublisher dataPublisher;
     private boolean coordinator;
 
+    /**
+     * Write locks striped by cluster id, member id, cartridge type and kubernetes cluster id, hence
+     * changes of unrelated clusters, members, cartridges and kubernetes clusters proceed in parallel. Since local maps are not thread safe,
+     * maps written under these locks are updated within synchronized blocks.
+     */
+    private transient StripedLock clusterContextWriteLock;
+    private transient StripedLock memberContextWriteLock;
+    private transient StripedLock cartridgeWriteLock;
+    private transient StripedLock kubernetesClusterContextWriteLock;
+
+    /**
+     * Persistent maps against their names, used for applying journal entries. Entities of these
+     * maps are put and removed within blocks synchronized on the map, which also guard encoding
+     * the entities for persistence.
+     */
+    private transient Map<String, Map> persistentMaps;
+
+    /**
+     * Writes changes of the persistent maps to the registry in the background.
+     */
+    private transient CloudControllerContextPersister persister;
+
     private CloudControllerContext() {
         // Check clustering status
         AxisConfiguration axisConfiguration = ServiceReferenceHolder.getInstance().getAxisConfiguration();
@@ -158,7 +196,8 @@ public class CloudControllerContext implements Serializable {
 
         // Initialize objects
         kubernetesClustersMap = distributedObjectProvider.getMap(CC_KUB_GROUP_ID_TO_GROUP_MAP);
-        clusterIdToMemberContextListMap = distributedObjectProvider.getMap(CC_CLUSTER_ID_TO_MEMBER_CTX_MAP);
+        clusterIdToMemberContextMap = new ConcurrentHashMap<String, Map<String, MemberContext>>();
+        memberContextMapClusterIds = distributedObjectProvider.getMap(CC_CLUSTER_MEMBER_CTX_MAP_CLUSTER_IDS);
         memberIdToMemberContextMap = distributedObjectProvider.getMap(CC_MEMBER_ID_TO_MEMBER_CTX_MAP);
         memberIdToScheduledTaskMap = distributedObjectProvider.getMap(CC_MEMBER_ID_TO_SCH_TASK_MAP);
         kubClusterIdToKubClusterContextMap = distributedObjectProvider.getMap(CC_KUB_CLUSTER_ID_TO_KUB_CLUSTER_CTX_MAP);
@@ -167,6 +206,27 @@ public class CloudControllerContext implements Serializable {
         cartridgeTypeToCartridgeMap = distributedObjectProvider.getMap(CC_CARTRIDGE_TYPE_TO_CARTRIDGES_MAP);
         serviceGroupNameToServiceGroupMap = distributedObjectProvider.getMap(CC_SERVICE_GROUP_NAME_TO_SERVICE_GROUP_MAP);
 
+        int lockStripes = Integer.getInteger(CloudControllerConstants.LOCK_STRIPES,
+                CloudControllerConstants.DEFAULT_LOCK_STRIPES);
+        clusterContextWriteLock = new StripedLock(distributedObjectProvider, CC_CLUSTER_CTX_WRITE_LOCK, lockStripes);
+        memberContextWriteLock = new StripedLock(distributedObjectProvider, CC_MEMBER_CTX_WRITE_LOCK, lockStripes);
+        cartridgeWriteLock = new StripedLock(distributedObjectProvider, CC_CARTRIDGE_WRITE_LOCK, lockStripes);
+        kubernetesClusterContextWriteLock = new StripedLock(distributedObjectProvider,
+                CC_KUB_CLUSTER_CTX_WRITE_LOCK, lockStripes);
+
+        persistentMaps = new HashMap<String, Map>();
+        persistentMaps.put(CC_KUB_GROUP_ID_TO_GROUP_MAP, kubernetesClustersMap);
+        persistentMaps.put(CC_MEMBER_ID_TO_MEMBER_CTX_MAP, memberIdToMemberContextMap);
+        persistentMaps.put(CC_KUB_CLUSTER_ID_TO_KUB_CLUSTER_CTX_MAP, kubClusterIdToKubClusterContextMap);
+        persistentMaps.put(CC_CLUSTER_ID_TO_CLUSTER_CTX, clusterIdToContextMap);
+        persistentMaps.put(CC_CARTRIDGE_TYPE_TO_PARTITION_IDS_MAP, cartridgeTypeToPartitionIdsMap);
+        persistentMaps.put(CC_CARTRIDGE_TYPE_TO_CARTRIDGES_MAP, cartridgeTypeToCartridgeMap);
+        persistentMaps.put(CC_SERVICE_GROUP_NAME_TO_SERVICE_GROUP_MAP, serviceGroupNameToServiceGroupMap);
+        persister = createPersister();
+        if (clustered) {
+            addPersistentMapEntryListeners();
+        }
+
         // Update context from the registry
         updateContextFromRegistry();
     }
@@ -214,12 +274,23 @@ public class CloudControllerContext implements Serializable {
         distributedObjectProvider.releaseLock(lock);
     }
 
-    public Lock acquireClusterContextWriteLock() {
-        return acquireWriteLock(CC_CLUSTER_CTX_WRITE_LOCK);
+    /**
+     * Releases locks acquired for a set of keys.
+     */
+    public void releaseWriteLocks(List<Lock> locks) {
+        clusterContextWriteLock.release(locks);
+    }
+
+    public Lock acquireClusterContextWriteLock(String clusterId) {
+        return clusterContextWriteLock.acquire(clusterId);
+    }
+
+    public List<Lock> acquireClusterContextWriteLocks(Collection<String> clusterIds) {
+        return clusterContextWriteLock.acquire(clusterIds);
     }
 
-    public Lock acquireMemberContextWriteLock() {
-        return acquireWriteLock(CC_MEMBER_CTX_WRITE_LOCK);
+    public Lock acquireMemberContextWriteLock(String memberId) {
+        return memberContextWriteLock.acquire(memberId);
     }
 
     public Lock acquireScheduleTaskWriteLock() {
@@ -230,12 +301,28 @@ public class CloudControllerContext implements Serializable {
         return acquireWriteLock(CC_KUB_GROUP_WRITE_LOCK);
     }
 
-    public Lock acquireKubernetesClusterContextWriteLock() {
-        return acquireWriteLock(CC_KUB_CLUSTER_CTX_WRITE_LOCK);
+    public Lock acquireKubernetesClusterContextWriteLock(String kubernetesClusterId) {
+        return kubernetesClusterContextWriteLock.acquire(kubernetesClusterId);
+    }
+
+    public Lock acquireCartridgeWriteLock(String cartridgeType) {
+        return cartridgeWriteLock.acquire(cartridgeType);
     }
 
-    public Lock acquireCartridgesWriteLock() {
-        return acquireWriteLock(CC_CARTRIDGES_WRITE_LOCK);
+    public StripedLock getClusterContextWriteLock() {
+        return clusterContextWriteLock;
+    }
+
+    public StripedLock getMemberContextWriteLock() {
+        return memberContextWriteLock;
+    }
+
+    public StripedLock getCartridgeWriteLock() {
+        return cartridgeWriteLock;
+    }
+
+    public StripedLock getKubernetesClusterContextWriteLock() {
+        return kubernetesClusterContextWriteLock;
     }
 
     public Lock acquireServiceGroupsWriteLock() {
@@ -243,17 +330,25 @@ public class CloudControllerContext implements Serializable {
     }
 
     public void addCartridge(Cartridge cartridge) {
-        cartridgeTypeToCartridgeMap.put(cartridge.getType(), cartridge);
+        synchronized (cartridgeTypeToCartridgeMap) {
+            cartridgeTypeToCartridgeMap.put(cartridge.getType(), cartridge);
+            markDirty(CC_CARTRIDGE_TYPE_TO_CARTRIDGES_MAP, cartridge.getType());
+        }
     }
 
     public void removeCartridge(Cartridge cartridge) {
-        if(cartridgeTypeToCartridgeMap.containsKey(cartridge.getType())) {
-            cartridgeTypeToCartridgeMap.remove(cartridge.getType());
+        synchronized (cartridgeTypeToCartridgeMap) {
+            if (cartridgeTypeToCartridgeMap.remove(cartridge.getType()) != null) {
+                markDirty(CC_CARTRIDGE_TYPE_TO_CARTRIDGES_MAP, cartridge.getType());
+            }
         }
     }
 
     public void updateCartridge(Cartridge cartridge) {
-        cartridgeTypeToCartridgeMap.put(cartridge.getType(), cartridge);
+        synchronized (cartridgeTypeToCartridgeMap) {
+            cartridgeTypeToCartridgeMap.put(cartridge.getType(), cartridge);
+            markDirty(CC_CARTRIDGE_TYPE_TO_CARTRIDGES_MAP, cartridge.getType());
+        }
     }
 
     public ServiceGroup getServiceGroup(String name) {
@@ -261,7 +356,10 @@ public class CloudControllerContext implements Serializable {
     }
 
     public void addServiceGroup(ServiceGroup serviceGroup) {
-        serviceGroupNameToServiceGroupMap.put(serviceGroup.getName(), serviceGroup);
+        synchronized (serviceGroupNameToServiceGroupMap) {
+            serviceGroupNameToServiceGroupMap.put(serviceGroup.getName(), serviceGroup);
+            markDirty(CC_SERVICE_GROUP_NAME_TO_SERVICE_GROUP_MAP, serviceGroup.getName());
+        }
     }
 
     public void removeServiceGroups(List<ServiceGroup> serviceGroups) {
@@ -270,9 +368,11 @@ public class CloudControllerContext implements Serializable {
         }
     }
 
-    private void removeServiceGroup(ServiceGroup serviceGroup) {
-        if(serviceGroupNameToServiceGroupMap.containsKey(serviceGroup.getName())) {
-            serviceGroupNameToServiceGroupMap.remove(serviceGroup.getName());
+    public void removeServiceGroup(ServiceGroup serviceGroup) {
+        synchronized (serviceGroupNameToServiceGroupMap) {
+            if (serviceGroupNameToServiceGroupMap.remove(serviceGroup.getName()) != null) {
+                markDirty(CC_SERVICE_GROUP_NAME_TO_SERVICE_GROUP_MAP, serviceGroup.getName());
+            }
         }
     }
 
@@ -309,55 +409,87 @@ public class CloudControllerContext implements Serializable {
     }
 
     public void addMemberContext(MemberContext memberContext) {
-        memberIdToMemberContextMap.put(memberContext.getMemberId(), memberContext);
-
-        List<MemberContext> memberContextList;
-        if ((memberContextList = clusterIdToMemberContextListMap.get(memberContext.getClusterId())) == null) {
-            memberContextList = new ArrayList<MemberContext>();
-        }
-        if (memberContextList.contains(memberContext)) {
-            memberContextList.remove(memberContext);
-        }
-        memberContextList.add(memberContext);
-        clusterIdToMemberContextListMap.put(memberContext.getClusterId(), memberContextList);
+        putMemberContext(memberContext);
         if (log.isDebugEnabled()) {
             log.debug("Added member context to the cloud controller context: " + memberContext);
         }
     }
 
     public void updateMemberContext(MemberContext memberContext) {
-        memberIdToMemberContextMap.put(memberContext.getMemberId(), memberContext);
+        putMemberContext(memberContext);
+        if (log.isDebugEnabled()) {
+            log.debug("Member context updated in the cloud controller context: " + memberContext);
+        }
+    }
 
-        List<MemberContext> memberContextList;
-        if ((memberContextList = clusterIdToMemberContextListMap.get(memberContext.getClusterId())) == null) {
-            memberContextList = new ArrayList<MemberContext>();
+    private void putMemberContext(MemberContext memberContext) {
+        String memberId = memberContext.getMemberId();
+        synchronized (memberIdToMemberContextMap) {
+            memberIdToMemberContextMap.put(memberId, memberContext);
+            getClusterMemberContextMap(memberContext.getClusterId(), true).put(memberId, memberContext);
+            markDirty(CC_MEMBER_ID_TO_MEMBER_CTX_MAP, memberId);
+        }
+    }
+
+    /**
+     * Returns the member context map of the given cluster. Handles of distributed maps are cached,
+     * in a clustered deployment a map not found in the cache is looked up only if another member
+     * has created it, hence looking up clusters without members does not create distributed maps.
+     *
+     * @param clusterId cluster id
+     * @param create    create the map if it does not exist
+     * @return member contexts of the cluster against member ids, null if not found
+     */
+    private Map<String, MemberContext> getClusterMemberContextMap(String clusterId, boolean create) {
+        Map<String, MemberContext> memberContextMap = clusterIdToMemberContextMap.get(clusterId);
+        if (memberContextMap != null) {
+            return memberContextMap;
         }
-        if (memberContextList.contains(memberContext)) {
-            memberContextList.remove(memberContext);
+        if (!create && (!isClustered() || !memberContextMapClusterIds.containsKey(clusterId))) {
+            return null;
         }
-        memberContextList.add(memberContext);
-        clusterIdToMemberContextListMap.put(memberContext.getClusterId(), memberContextList);
-        if (log.isDebugEnabled()) {
-            log.debug("Member context updated in the cloud controller context: " + memberContext);
+        synchronized (clusterIdToMemberContextMap) {
+            memberContextMap = clusterIdToMemberContextMap.get(clusterId);
+            if (memberContextMap == null) {
+                memberContextMap = distributedObjectProvider.getMap(CC_CLUSTER_MEMBER_CTX_MAP_PREFIX + clusterId);
+                clusterIdToMemberContextMap.put(clusterId, memberContextMap);
+                if (create) {
+                    memberContextMapClusterIds.put(clusterId, Boolean.TRUE);
+                }
+            }
         }
+        return memberContextMap;
     }
 
     public void addScheduledFutureJob(String memberId, ScheduledFuture<?> job) {
-        memberIdToScheduledTaskMap.put(memberId, job);
+        synchronized (memberIdToMemberContextMap) {
+            memberIdToScheduledTaskMap.put(memberId, job);
+        }
     }
 
     public List<MemberContext> removeMemberContextsOfCluster(String clusterId) {
-        List<MemberContext> memberContextList = clusterIdToMemberContextListMap.get(clusterId);
-        clusterIdToMemberContextListMap.remove(clusterId);
-        if (memberContextList == null) {
-            return new ArrayList<MemberContext>();
-        }
-        for (MemberContext memberContext : memberContextList) {
-            String memberId = memberContext.getMemberId();
-            memberIdToMemberContextMap.remove(memberId);
-            ScheduledFuture<?> task = memberIdToScheduledTaskMap.get(memberId);
-            memberIdToScheduledTaskMap.remove(memberId);
-            stopTask(task);
+        List<MemberContext> memberContextList;
+        List<ScheduledFuture<?>> tasks = new ArrayList<ScheduledFuture<?>>();
+        synchronized (memberIdToMemberContextMap) {
+            Map<String, MemberContext> memberContextMap = getClusterMemberContextMap(clusterId, false);
+            if (memberContextMap == null) {
+                return new ArrayList<MemberContext>();
+            }
+            memberContextList = new ArrayList<MemberContext>(memberContextMap.values());
+            synchronized (clusterIdToMemberContextMap) {
+                clusterIdToMemberContextMap.remove(clusterId);
+                memberContextMapClusterIds.remove(clusterId);
+                distributedObjectProvider.removeMap(CC_CLUSTER_MEMBER_CTX_MAP_PREFIX + clusterId);
+            }
+            for (MemberContext memberContext : memberContextList) {
+                memberIdToMemberContextMap.remove(memberContext.getMemberId());
+                markDirty(CC_MEMBER_ID_TO_MEMBER_CTX_MAP, memberContext.getMemberId());
+                tasks.add(memberIdToScheduledTaskMap.remove(memberContext.getMemberId()));
+            }
+        }
+        for (int i = 0; i < memberContextList.size(); i++) {
+            String memberId = memberContextList.get(i).getMemberId();
+            stopTask(tasks.get(i));
 
             if (log.isDebugEnabled()) {
                 log.debug("Removed member context from cloud controller context: " +
@@ -368,25 +500,19 @@ public class CloudControllerContext implements Serializable {
     }
 
     public MemberContext removeMemberContext(String clusterId, String memberId) {
-        MemberContext removedMemberContext = memberIdToMemberContextMap.get(memberId);
-        memberIdToMemberContextMap.remove(memberId);
-
-        List<MemberContext> memberContextList = clusterIdToMemberContextListMap.get(clusterId);
-        if (memberContextList != null) {
-            List<MemberContext> newCtxts = new ArrayList<MemberContext>(memberContextList);
-            for (Iterator<MemberContext> iterator = newCtxts.iterator(); iterator.hasNext(); ) {
-                MemberContext memberContext = iterator.next();
-                if (memberId.equals(memberContext.getMemberId())) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Member context removed from cloud controller context: [member-id] " + memberId);
-                    }
-                    iterator.remove();
+        MemberContext removedMemberContext;
+        ScheduledFuture<?> task;
+        synchronized (memberIdToMemberContextMap) {
+            removedMemberContext = memberIdToMemberContextMap.remove(memberId);
+            Map<String, MemberContext> memberContextMap = getClusterMemberContextMap(clusterId, false);
+            if ((memberContextMap != null) && (memberContextMap.remove(memberId) != null)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Member context removed from cloud controller context: [member-id] " + memberId);
                 }
             }
-            clusterIdToMemberContextListMap.put(clusterId, newCtxts);
+            task = memberIdToScheduledTaskMap.remove(memberId);
+            markDirty(CC_MEMBER_ID_TO_MEMBER_CTX_MAP, memberId);
         }
-        ScheduledFuture<?> task = memberIdToScheduledTaskMap.get(memberId);
-        memberIdToScheduledTaskMap.remove(memberId);
         stopTask(task);
         return removedMemberContext;
     }
@@ -403,15 +529,25 @@ public class CloudControllerContext implements Serializable {
     }
 
     public List<MemberContext> getMemberContextsOfClusterId(String clusterId) {
-        return clusterIdToMemberContextListMap.get(clusterId);
+        Map<String, MemberContext> memberContextMap = getClusterMemberContextMap(clusterId, false);
+        if ((memberContextMap == null) || (memberContextMap.isEmpty())) {
+            return null;
+        }
+        return new ArrayList<MemberContext>(memberContextMap.values());
     }
 
     public void addClusterContext(ClusterContext clusterContext) {
-        clusterIdToContextMap.put(clusterContext.getClusterId(), clusterContext);
+        synchronized (clusterIdToContextMap) {
+            clusterIdToContextMap.put(clusterContext.getClusterId(), clusterContext);
+            markDirty(CC_CLUSTER_ID_TO_CLUSTER_CTX, clusterContext.getClusterId());
+        }
     }
 
     public void updateClusterContext(ClusterContext clusterContext) {
-        clusterIdToContextMap.put(clusterContext.getClusterId(), clusterContext);
+        synchronized (clusterIdToContextMap) {
+            clusterIdToContextMap.put(clusterContext.getClusterId(), clusterContext);
+            markDirty(CC_CLUSTER_ID_TO_CLUSTER_CTX, clusterContext.getClusterId());
+        }
     }
 
     public ClusterContext getClusterContext(String clusterId) {
@@ -419,8 +555,11 @@ public class CloudControllerContext implements Serializable {
     }
 
     public ClusterContext removeClusterContext(String clusterId) {
-        ClusterContext removed = clusterIdToContextMap.get(clusterId);
-        clusterIdToContextMap.remove(clusterId);
+        ClusterContext removed;
+        synchronized (clusterIdToContextMap) {
+            removed = clusterIdToContextMap.remove(clusterId);
+            markDirty(CC_CLUSTER_ID_TO_CLUSTER_CTX, clusterId);
+        }
         return removed;
     }
 
@@ -433,16 +572,22 @@ public class CloudControllerContext implements Serializable {
     }
 
     public void addToCartridgeTypeToPartitionIdMap(String cartridgeType, String partitionId) {
-        List<String> list = this.cartridgeTypeToPartitionIdsMap.get(cartridgeType);
-        if (list == null) {
-            list = new ArrayList<String>();
+        synchronized (cartridgeTypeToPartitionIdsMap) {
+            List<String> list = this.cartridgeTypeToPartitionIdsMap.get(cartridgeType);
+            if (list == null) {
+                list = new ArrayList<String>();
+            }
+            list.add(partitionId);
+            cartridgeTypeToPartitionIdsMap.put(cartridgeType, list);
+            markDirty(CC_CARTRIDGE_TYPE_TO_PARTITION_IDS_MAP, cartridgeType);
         }
-        list.add(partitionId);
-        cartridgeTypeToPartitionIdsMap.put(cartridgeType, list);
     }
 
     public void removeFromCartridgeTypeToPartitionIds(String cartridgeType) {
-        cartridgeTypeToPartitionIdsMap.remove(cartridgeType);
+        synchronized (cartridgeTypeToPartitionIdsMap) {
+            cartridgeTypeToPartitionIdsMap.remove(cartridgeType);
+            markDirty(CC_CARTRIDGE_TYPE_TO_PARTITION_IDS_MAP, cartridgeType);
+        }
     }
 
     public KubernetesClusterContext getKubernetesClusterContext(String kubernetesClusterId) {
@@ -450,9 +595,12 @@ public class CloudControllerContext implements Serializable {
     }
 
     public void addKubernetesClusterContext(KubernetesClusterContext kubernetesClusterContext) {
-        kubClusterIdToKubClusterContextMap.put(
-                kubernetesClusterContext.getKubernetesClusterId(),
-                kubernetesClusterContext);
+        synchronized (kubClusterIdToKubClusterContextMap) {
+            kubClusterIdToKubClusterContextMap.put(
+                    kubernetesClusterContext.getKubernetesClusterId(),
+                    kubernetesClusterContext);
+            markDirty(CC_KUB_CLUSTER_ID_TO_KUB_CLUSTER_CTX_MAP, kubernetesClusterContext.getKubernetesClusterId());
+        }
     }
     
     /**
@@ -460,7 +608,13 @@ public class CloudControllerContext implements Serializable {
      */
     public synchronized void removeKubernetesCluster(String kubernetesClusterId) {
         // Remove entry from information model
-        kubernetesClustersMap.remove(kubernetesClusterId);
+        synchronized (kubernetesClustersMap) {
+            kubernetesClustersMap.remove(kubernetesClusterId);
+            markDirty(CC_KUB_GROUP_ID_TO_GROUP_MAP, kubernetesClusterId);
+        }
+
+        // Stop watching pods of the kubernetes cluster
+        PodWatcherRegistry.release(kubernetesClusterId);
     }
 
     /**
@@ -496,6 +650,7 @@ public class CloudControllerContext implements Serializable {
 
             // Update information model
             kubernetesClusterStored.setKubernetesHosts(kubernetesHostsArray);
+            updateKubernetesCluster(kubernetesClusterStored);
 
             if (log.isInfoEnabled()) {
                 log.info(String.format("Kubernetes host removed successfully: [id] %s", kubernetesHostId));
@@ -508,11 +663,17 @@ public class CloudControllerContext implements Serializable {
     }
 
     public void addKubernetesCluster(KubernetesCluster kubernetesCluster) {
-        kubernetesClustersMap.put(kubernetesCluster.getClusterId(), kubernetesCluster);
+        synchronized (kubernetesClustersMap) {
+            kubernetesClustersMap.put(kubernetesCluster.getClusterId(), kubernetesCluster);
+            markDirty(CC_KUB_GROUP_ID_TO_GROUP_MAP, kubernetesCluster.getClusterId());
+        }
     }
 
     public void updateKubernetesCluster(KubernetesCluster kubernetesCluster) {
-        kubernetesClustersMap.put(kubernetesCluster.getClusterId(), kubernetesCluster);
+        synchronized (kubernetesClustersMap) {
+            kubernetesClustersMap.put(kubernetesCluster.getClusterId(), kubernetesCluster);
+            markDirty(CC_KUB_GROUP_ID_TO_GROUP_MAP, kubernetesCluster.getClusterId());
+        }
     }
     
     public boolean kubernetesClusterExists(KubernetesCluster kubernetesCluster) {
@@ -609,29 +770,144 @@ public class CloudControllerContext implements Serializable {
     }
 
     public void setCoordinator(boolean coordinator) {
+        boolean elected = coordinator && !this.coordinator;
         this.coordinator = coordinator;
+        if (elected && isClustered()) {
+            // Journal written by the previous coordinator does not match the sequence of this member
+            persister.requestSnapshot(true);
+        }
     }
 
+    /**
+     * Persist changes of the context in the registry. Changes made through the context are
+     * written in the background as journal batches, see {@link CloudControllerContextPersister}.
+     */
     public void persist() {
-        if ((!isClustered()) || (isCoordinator())) {
-            try {
-                RegistryManager.getInstance().persist(CloudControllerConstants.DATA_RESOURCE, this);
-            } catch (RegistryException e) {
-                log.error("Could not persist cloud controller context in registry", e);
+        if (isPersistenceEnabled()) {
+            persister.requestFlush();
+        }
+    }
+
+    /**
+     * Write pending changes to the registry and stop the background persister.
+     */
+    public void stopPersistence() {
+        if (isPersistenceEnabled()) {
+            persister.stop();
+        }
+    }
+
+    public CloudControllerContextPersister getPersister() {
+        return persister;
+    }
+
+    private boolean isPersistenceEnabled() {
+        return (!isClustered()) || (isCoordinator());
+    }
+
+    private void markDirty(String mapName, String key) {
+        if (isPersistenceEnabled()) {
+            persister.markDirty(mapName, key);
+        }
+    }
+
+    /**
+     * Changes of distributed maps written by other members are not marked dirty by this member,
+     * hence the coordinator marks the changed entities dirty when notified by the distributed maps.
+     */
+    private void addPersistentMapEntryListeners() {
+        for (final String mapName : persistentMaps.keySet()) {
+            distributedObjectProvider.addMapEntryListener(mapName, new DistributedMapEntryListener() {
+                @Override
+                public void entryAdded(Object key) {
+                    onPersistentMapEntryChanged(mapName, key);
+                }
+
+                @Override
+                public void entryRemoved(Object key) {
+                    onPersistentMapEntryChanged(mapName, key);
+                }
+
+                @Override
+                public void entryUpdated(Object key) {
+                    onPersistentMapEntryChanged(mapName, key);
+                }
+            });
+        }
+    }
+
+    private void onPersistentMapEntryChanged(String mapName, Object key) {
+        if (isCoordinator() && (key instanceof String)) {
+            persister.markDirty(mapName, (String) key);
+            persister.requestFlush();
+        }
+    }
+
+    private CloudControllerContextPersister createPersister() {
+        CloudControllerContextPersister.ContextSource contextSource =
+                new CloudControllerContextPersister.ContextSource() {
+                    @Override
+                    public Map getPersistentMap(String mapName) {
+                        return persistentMaps.get(mapName);
+                    }
+
+                    @Override
+                    public Serializable createSnapshot(long sequence) throws IOException {
+                        return CloudControllerContext.this.createSnapshot(sequence);
+                    }
+                };
+        long writeBehindDelay = Long.getLong(CloudControllerConstants.PERSISTENCE_WRITE_BEHIND_DELAY,
+                CloudControllerConstants.DEFAULT_PERSISTENCE_WRITE_BEHIND_DELAY);
+        long snapshotInterval = Long.getLong(CloudControllerConstants.PERSISTENCE_SNAPSHOT_INTERVAL,
+                CloudControllerConstants.DEFAULT_PERSISTENCE_SNAPSHOT_INTERVAL);
+        int maxJournalBatches = Integer.getInteger(CloudControllerConstants.PERSISTENCE_MAX_JOURNAL_BATCHES,
+                CloudControllerConstants.DEFAULT_PERSISTENCE_MAX_JOURNAL_BATCHES);
+        return new CloudControllerContextPersister(contextSource,
+                new CloudControllerContextPersister.RegistryContextStore(),
+                CloudControllerConstants.DATA_RESOURCE, CloudControllerConstants.DATA_JOURNAL_RESOURCE,
+                StratosThreadPool.getScheduledExecutorService("cloud.controller.context.persister", 1),
+                writeBehindDelay, snapshotInterval, maxJournalBatches);
+    }
+
+    /**
+     * Copy the persistent maps of the context, entities are encoded while holding the lock of their
+     * map hence the snapshot does not refer to entities which could still be modified.
+     */
+    private CloudControllerContextPersister.Snapshot createSnapshot(long sequence) throws IOException {
+        CloudControllerContextPersister.Snapshot snapshot = new CloudControllerContextPersister.Snapshot(sequence);
+        for (Map.Entry<String, Map> entry : persistentMaps.entrySet()) {
+            Map map = entry.getValue();
+            synchronized (map) {
+                for (Object key : map.keySet()) {
+                    Object value = map.get(key);
+                    if (value != null) {
+                        snapshot.addEntry(entry.getKey(), (String) key, value);
+                    }
+                }
             }
         }
+        return snapshot;
     }
 
     private void updateContextFromRegistry() {
         if ((!isClustered()) || (isCoordinator())) {
+            long snapshotSequence = 0;
             try {
                 Object dataObj = RegistryManager.getInstance().read(CloudControllerConstants.DATA_RESOURCE);
                 if (dataObj != null) {
-                    if (dataObj instanceof CloudControllerContext) {
+                    if (dataObj instanceof CloudControllerContextPersister.Snapshot) {
+                        CloudControllerContextPersister.Snapshot snapshot =
+                                (CloudControllerContextPersister.Snapshot) dataObj;
+                        snapshot.restore(persistentMaps);
+                        snapshotSequence = snapshot.getJournalSequence();
+
+                        if (log.isDebugEnabled()) {
+                            log.debug("Cloud controller context is read from the registry");
+                        }
+                    } else if (dataObj instanceof CloudControllerContext) {
                         CloudControllerContext serializedObj = (CloudControllerContext) dataObj;
 
                         copyMap(serializedObj.kubernetesClustersMap, kubernetesClustersMap);
-                        copyMap(serializedObj.clusterIdToMemberContextListMap, clusterIdToMemberContextListMap);
                         copyMap(serializedObj.memberIdToMemberContextMap, memberIdToMemberContextMap);
                         copyMap(serializedObj.kubClusterIdToKubClusterContextMap, kubClusterIdToKubClusterContextMap);
                         copyMap(serializedObj.clusterIdToContextMap, clusterIdToContextMap);
@@ -653,6 +929,15 @@ public class CloudControllerContext implements Serializable {
                         "Hence, any historical data will not be reflected";
                 log.warn(msg, e);
             }
+
+            // Apply changes persisted after the snapshot
+            persister.recover(snapshotSequence);
+
+            // Rebuild member context maps of clusters
+            for (MemberContext memberContext : memberIdToMemberContextMap.values()) {
+                getClusterMemberContextMap(memberContext.getClusterId(), true)
+                        .put(memberContext.getMemberId(), memberContext);
+            }
         }
     }
 
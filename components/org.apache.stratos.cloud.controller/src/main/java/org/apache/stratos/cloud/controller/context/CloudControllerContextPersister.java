@@ -0,0 +1,577 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.cloud.controller.context;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.cloud.controller.registry.RegistryManager;
+import org.apache.stratos.common.statistics.LatencyHistogram;
+import org.wso2.carbon.registry.core.exceptions.RegistryException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind persister for the cloud controller context. Instead of serializing the complete
+ * context on every change, entities modified through the context are marked as dirty and written
+ * to the registry as journal batches. The state of an entity is encoded when it is marked as dirty,
+ * while the caller still holds the lock guarding the change, hence the write-behind thread never
+ * reads entities being modified. Persist requests arriving within the write-behind delay are
+ * coalesced into a single batch and only the latest state of each entity is written, removed
+ * entities are written as tombstones.
+ *
+ * A compacted snapshot of the complete context is written once the journal reaches the maximum
+ * number of batches, and periodically when the context has been persisted since the last snapshot,
+ * so that changes made to entities in place are not lost. The snapshot is a copy of the encoded
+ * entities created by the context source. Journal batches covered by a snapshot are removed.
+ * On startup the snapshot is loaded and the journal batches written after it are replayed.
+ */
+public class CloudControllerContextPersister {
+
+    private static final Log log = LogFactory.getLog(CloudControllerContextPersister.class);
+
+    /**
+     * Encoded state of a removed entity.
+     */
+    private static final byte[] TOMBSTONE = new byte[0];
+
+    /**
+     * Provides the persistent maps of the context and the snapshot to be written.
+     */
+    interface ContextSource {
+
+        Map getPersistentMap(String mapName);
+
+        /**
+         * Create a copy of the persistent state of the context, the snapshot is encoded after the
+         * method returns, hence it should not refer to entities which could still be modified.
+         */
+        Serializable createSnapshot(long journalSequence) throws IOException;
+    }
+
+    /**
+     * Storage of the snapshot and the journal batches.
+     */
+    interface ContextStore {
+
+        void write(String resourcePath, byte[] content) throws RegistryException;
+
+        Object read(String resourcePath) throws RegistryException;
+
+        void remove(String resourcePath) throws RegistryException;
+    }
+
+    private final ContextSource source;
+    private final ContextStore store;
+    private final String snapshotResourcePath;
+    private final String journalResourcePath;
+    private final ScheduledExecutorService executorService;
+    private final long writeBehindDelay;
+    private final int maxJournalBatches;
+    private final ConcurrentMap<String, ConcurrentMap<String, byte[]>> dirtyEntries;
+    private final AtomicBoolean flushScheduled;
+    private final LatencyHistogram journalWriteLatency;
+    private final LatencyHistogram snapshotWriteLatency;
+    private final AtomicLong persistRequestCount;
+    private final AtomicLong coalescedRequestCount;
+    private final AtomicLong journalBatchCount;
+    private final AtomicLong snapshotCount;
+    private final AtomicLong bytesWritten;
+    private volatile boolean changedSinceSnapshot;
+    private volatile boolean snapshotRequested;
+    private boolean journalCleanupRequired;
+    private long journalSequence;
+    private int journalBatchesSinceSnapshot;
+
+    CloudControllerContextPersister(ContextSource source, ContextStore store, String snapshotResourcePath,
+                                    String journalResourcePath, ScheduledExecutorService executorService,
+                                    long writeBehindDelay, long snapshotInterval, int maxJournalBatches) {
+        this.source = source;
+        this.store = store;
+        this.snapshotResourcePath = snapshotResourcePath;
+        this.journalResourcePath = journalResourcePath;
+        this.executorService = executorService;
+        this.writeBehindDelay = writeBehindDelay;
+        this.maxJournalBatches = Math.max(1, maxJournalBatches);
+        this.dirtyEntries = new ConcurrentHashMap<String, ConcurrentMap<String, byte[]>>();
+        this.flushScheduled = new AtomicBoolean();
+        this.journalWriteLatency = new LatencyHistogram("cloud-controller-context-journal-write");
+        this.snapshotWriteLatency = new LatencyHistogram("cloud-controller-context-snapshot-write");
+        this.persistRequestCount = new AtomicLong();
+        this.coalescedRequestCount = new AtomicLong();
+        this.journalBatchCount = new AtomicLong();
+        this.snapshotCount = new AtomicLong();
+        this.bytesWritten = new AtomicLong();
+
+        if ((executorService != null) && (snapshotInterval > 0)) {
+            executorService.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    if (changedSinceSnapshot) {
+                        requestSnapshot(false);
+                    }
+                }
+            }, snapshotInterval, snapshotInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Mark an entity of the given persistent map as modified. The current state of the entity is
+     * encoded and written with the next journal batch, hence this should be invoked while holding
+     * the lock the entity was modified with.
+     */
+    public void markDirty(String mapName, String key) {
+        if (key == null) {
+            return;
+        }
+        Map map = source.getPersistentMap(mapName);
+        Object value = (map != null) ? map.get(key) : null;
+        byte[] content = TOMBSTONE;
+        if (value != null) {
+            try {
+                content = serialize(value);
+            } catch (IOException e) {
+                log.error(String.format("Could not encode cloud controller context entity: [map] %s [key] %s",
+                        mapName, key), e);
+                return;
+            }
+        }
+        getDirtyEntries(mapName).put(key, content);
+    }
+
+    private ConcurrentMap<String, byte[]> getDirtyEntries(String mapName) {
+        ConcurrentMap<String, byte[]> entries = dirtyEntries.get(mapName);
+        if (entries == null) {
+            ConcurrentMap<String, byte[]> newEntries = new ConcurrentHashMap<String, byte[]>();
+            entries = dirtyEntries.putIfAbsent(mapName, newEntries);
+            if (entries == null) {
+                entries = newEntries;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Request dirty entities to be persisted. If a write-behind delay is configured the request
+     * returns immediately and requests received until the flush are coalesced.
+     */
+    public void requestFlush() {
+        persistRequestCount.incrementAndGet();
+        changedSinceSnapshot = true;
+        scheduleFlush();
+    }
+
+    /**
+     * Request a compacted snapshot of the complete context to be written.
+     *
+     * @param cleanupJournal remove any existing journal batches even if they were not written by this
+     *                       persister, used when taking over persistence from another member
+     */
+    public void requestSnapshot(boolean cleanupJournal) {
+        synchronized (this) {
+            if (cleanupJournal) {
+                journalCleanupRequired = true;
+            }
+        }
+        snapshotRequested = true;
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if ((executorService == null) || (writeBehindDelay <= 0)) {
+            flush();
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            executorService.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flushScheduled.set(false);
+                    flush();
+                }
+            }, writeBehindDelay, TimeUnit.MILLISECONDS);
+        } else {
+            coalescedRequestCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Write dirty entities as a journal batch, or a snapshot if one is due.
+     */
+    public synchronized void flush() {
+        if (snapshotRequested || (journalBatchesSinceSnapshot >= maxJournalBatches)) {
+            writeSnapshot();
+            return;
+        }
+
+        List<JournalEntry> entries = drainDirtyEntries();
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        long sequence = journalSequence + 1;
+        long startTime = System.nanoTime();
+        try {
+            byte[] content = serialize(new JournalBatch(sequence, entries));
+            store.write(journalResourcePath + "/" + sequence, content);
+
+            journalSequence = sequence;
+            journalBatchesSinceSnapshot++;
+            journalBatchCount.incrementAndGet();
+            bytesWritten.addAndGet(content.length);
+            journalWriteLatency.updateSince(startTime);
+
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Cloud controller context journal batch persisted: [sequence] %d " +
+                        "[entries] %d [bytes] %d", sequence, entries.size(), content.length));
+            }
+        } catch (Exception e) {
+            log.error(String.format("Could not persist cloud controller context journal batch: [sequence] %d",
+                    sequence), e);
+            restoreDirtyEntries(entries);
+        }
+    }
+
+    private void writeSnapshot() {
+        List<JournalEntry> drainedEntries = drainDirtyEntries();
+        snapshotRequested = false;
+        changedSinceSnapshot = false;
+
+        long startTime = System.nanoTime();
+        try {
+            byte[] content = serialize(source.createSnapshot(journalSequence));
+            store.write(snapshotResourcePath, content);
+
+            snapshotCount.incrementAndGet();
+            bytesWritten.addAndGet(content.length);
+            snapshotWriteLatency.updateSince(startTime);
+
+            if ((journalBatchesSinceSnapshot > 0) || journalCleanupRequired) {
+                // Journal batches up to the current sequence are covered by the snapshot
+                store.remove(journalResourcePath);
+            }
+            journalBatchesSinceSnapshot = 0;
+            journalCleanupRequired = false;
+
+            if (log.isInfoEnabled()) {
+                log.info(String.format("Cloud controller context snapshot persisted: [journal-sequence] %d " +
+                                "[bytes] %d [persist-requests] %d [coalesced-requests] %d [journal-batches] %d " +
+                                "[bytes-written] %d [journal-write-latency] %s [snapshot-write-latency] %s",
+                        journalSequence, content.length, persistRequestCount.get(), coalescedRequestCount.get(),
+                        journalBatchCount.get(), bytesWritten.get(), journalWriteLatency, snapshotWriteLatency));
+            }
+        } catch (Exception e) {
+            log.error("Could not persist cloud controller context snapshot", e);
+            restoreDirtyEntries(drainedEntries);
+            changedSinceSnapshot = true;
+        }
+    }
+
+    /**
+     * Replay journal batches written after the given snapshot sequence on the persistent maps.
+     *
+     * @param snapshotSequence journal sequence covered by the snapshot loaded, 0 if there was none
+     * @return number of journal batches replayed
+     */
+    public synchronized int recover(long snapshotSequence) {
+        journalSequence = snapshotSequence;
+        int replayed = 0;
+        try {
+            Object batchObj;
+            while ((batchObj = store.read(journalResourcePath + "/" + (journalSequence + 1))) instanceof JournalBatch) {
+                JournalBatch batch = (JournalBatch) batchObj;
+                for (JournalEntry entry : batch.getEntries()) {
+                    apply(entry);
+                }
+                journalSequence = batch.getSequence();
+                replayed++;
+            }
+        } catch (Exception e) {
+            log.warn(String.format("Could not read cloud controller context journal batch, recovery stopped at: " +
+                    "[sequence] %d", journalSequence), e);
+        }
+        journalBatchesSinceSnapshot = replayed;
+        if (replayed > 0) {
+            changedSinceSnapshot = true;
+        }
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Cloud controller context journal replayed: [snapshot-sequence] %d " +
+                    "[journal-batches] %d [journal-sequence] %d", snapshotSequence, replayed, journalSequence));
+        }
+        return replayed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void apply(JournalEntry entry) throws IOException, ClassNotFoundException {
+        Map map = source.getPersistentMap(entry.getMapName());
+        if (map == null) {
+            log.warn(String.format("Unknown map found in cloud controller context journal: [map] %s",
+                    entry.getMapName()));
+            return;
+        }
+        Object value = entry.getValue();
+        if (value == null) {
+            map.remove(entry.getKey());
+        } else {
+            map.put(entry.getKey(), value);
+        }
+    }
+
+    /**
+     * Flush pending changes and stop the write-behind executor.
+     */
+    public void stop() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+        flush();
+    }
+
+    private List<JournalEntry> drainDirtyEntries() {
+        List<JournalEntry> entries = new ArrayList<JournalEntry>();
+        for (Map.Entry<String, ConcurrentMap<String, byte[]>> mapEntry : dirtyEntries.entrySet()) {
+            ConcurrentMap<String, byte[]> mapDirtyEntries = mapEntry.getValue();
+            for (Map.Entry<String, byte[]> entry : mapDirtyEntries.entrySet()) {
+                // An entity marked as dirty again in the meantime is written with the next batch
+                if (mapDirtyEntries.remove(entry.getKey(), entry.getValue())) {
+                    byte[] content = entry.getValue();
+                    entries.add(new JournalEntry(mapEntry.getKey(), entry.getKey(),
+                            (content == TOMBSTONE) ? null : content));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private void restoreDirtyEntries(List<JournalEntry> entries) {
+        for (JournalEntry entry : entries) {
+            byte[] content = entry.getContent();
+            // Keep the state of entities marked as dirty after the entries were drained
+            getDirtyEntries(entry.getMapName()).putIfAbsent(entry.getKey(), (content == null) ? TOMBSTONE : content);
+        }
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        try {
+            out.writeObject(object);
+            out.flush();
+            return bos.toByteArray();
+        } finally {
+            out.close();
+        }
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+        try {
+            return in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public LatencyHistogram getJournalWriteLatency() {
+        return journalWriteLatency;
+    }
+
+    public LatencyHistogram getSnapshotWriteLatency() {
+        return snapshotWriteLatency;
+    }
+
+    public long getPersistRequestCount() {
+        return persistRequestCount.get();
+    }
+
+    public long getCoalescedRequestCount() {
+        return coalescedRequestCount.get();
+    }
+
+    public long getJournalBatchCount() {
+        return journalBatchCount.get();
+    }
+
+    public long getSnapshotCount() {
+        return snapshotCount.get();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Batch of entity changes written to the journal.
+     */
+    public static class JournalBatch implements Serializable {
+
+        private static final long serialVersionUID = -4213560931640937052L;
+
+        private final long sequence;
+        private final List<JournalEntry> entries;
+
+        public JournalBatch(long sequence, List<JournalEntry> entries) {
+            this.sequence = sequence;
+            this.entries = entries;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public List<JournalEntry> getEntries() {
+            return entries;
+        }
+    }
+
+    /**
+     * Latest encoded state of an entity, null content indicates that the entity was removed.
+     */
+    public static class JournalEntry implements Serializable {
+
+        private static final long serialVersionUID = 6190478245523317409L;
+
+        private final String mapName;
+        private final String key;
+        private final byte[] content;
+
+        public JournalEntry(String mapName, String key, byte[] content) {
+            this.mapName = mapName;
+            this.key = key;
+            this.content = content;
+        }
+
+        public String getMapName() {
+            return mapName;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        /**
+         * @return decoded state of the entity, null if the entity was removed
+         */
+        public Object getValue() throws IOException, ClassNotFoundException {
+            if (content == null) {
+                return null;
+            }
+            return deserialize(content);
+        }
+    }
+
+    /**
+     * Encoded state of the persistent maps of a context, covering the journal batches written up to
+     * the journal sequence of the snapshot.
+     */
+    public static class Snapshot implements Serializable {
+
+        private static final long serialVersionUID = -2867103948213477562L;
+
+        private long journalSequence;
+        private HashMap<String, HashMap<String, byte[]>> mapNameToEntriesMap;
+
+        private Snapshot() {
+        }
+
+        public Snapshot(long journalSequence) {
+            this.journalSequence = journalSequence;
+            this.mapNameToEntriesMap = new HashMap<String, HashMap<String, byte[]>>();
+        }
+
+        /**
+         * Add the current state of an entity, the entity is encoded immediately.
+         */
+        public void addEntry(String mapName, String key, Object value) throws IOException {
+            HashMap<String, byte[]> entries = mapNameToEntriesMap.get(mapName);
+            if (entries == null) {
+                entries = new HashMap<String, byte[]>();
+                mapNameToEntriesMap.put(mapName, entries);
+            }
+            entries.put(key, serialize(value));
+        }
+
+        /**
+         * Decode the entities of the snapshot into the given persistent maps.
+         *
+         * @return number of entities decoded
+         */
+        @SuppressWarnings("unchecked")
+        public int restore(Map<String, Map> persistentMaps) throws IOException, ClassNotFoundException {
+            int count = 0;
+            for (Map.Entry<String, HashMap<String, byte[]>> mapEntry : mapNameToEntriesMap.entrySet()) {
+                Map map = persistentMaps.get(mapEntry.getKey());
+                if (map == null) {
+                    log.warn(String.format("Unknown map found in cloud controller context snapshot: [map] %s",
+                            mapEntry.getKey()));
+                    continue;
+                }
+                for (Map.Entry<String, byte[]> entry : mapEntry.getValue().entrySet()) {
+                    map.put(entry.getKey(), deserialize(entry.getValue()));
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        public long getJournalSequence() {
+            return journalSequence;
+        }
+    }
+
+    /**
+     * Context store backed by the registry.
+     */
+    static class RegistryContextStore implements ContextStore {
+
+        @Override
+        public void write(String resourcePath, byte[] content) throws RegistryException {
+            RegistryManager.getInstance().persistContent(resourcePath, content);
+        }
+
+        @Override
+        public Object read(String resourcePath) throws RegistryException {
+            return RegistryManager.getInstance().read(resourcePath);
+        }
+
+        @Override
+        public void remove(String resourcePath) throws RegistryException {
+            RegistryManager.getInstance().remove(resourcePath);
+        }
+    }
+}
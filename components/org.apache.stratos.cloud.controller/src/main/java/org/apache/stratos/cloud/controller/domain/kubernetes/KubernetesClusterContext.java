@@ -25,6 +25,8 @@ import java.util.List;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.kubernetes.client.KubernetesApiClient;
+import org.apache.stratos.kubernetes.client.PodWatcher;
+import org.apache.stratos.kubernetes.client.PodWatcherRegistry;
 
 /**
  * Holds information about a Kubernetes Cluster.
@@ -81,14 +83,14 @@ public class KubernetesClusterContext implements Serializable {
 		this.servicePorts = servicePorts;
 	}
 	
-	public int getNextServicePort() {
+	public synchronized int getNextServicePort() {
 	    if (servicePorts.isEmpty()) {
 	        return -1;
 	    }
 		return servicePorts.remove(0);
 	}
 	
-	public void deallocatePort(int port) {
+	public synchronized void deallocatePort(int port) {
 		if (!servicePorts.contains(port)) {
 			servicePorts.add(port);
             // TODO Sort elements
@@ -120,6 +122,17 @@ public class KubernetesClusterContext implements Serializable {
 		this.kubApi = kubApi;
 	}
 
+    /**
+     * Get the pod watcher of the kubernetes api endpoint. Watchers are not kept in the context
+     * since contexts are copied when read from the distributed map, a single watcher is shared
+     * per endpoint until the kubernetes cluster is removed.
+     *
+     * @return pod watcher
+     */
+    public PodWatcher getPodWatcher() {
+        return PodWatcherRegistry.acquire(kubernetesClusterId, getEndpoint(masterIp, masterPort));
+    }
+
 	public int getUpperPort() {
         return upperPort;
     }
@@ -59,6 +59,27 @@ public abstract class Iaas {
      */
     public abstract MemberContext startInstance(MemberContext memberContext) throws CartridgeNotFoundException;
 
+    /**
+     * Create vm/container instance with the given payload. The iaas object and the iaas provider are shared
+     * by concurrent spawns, hence by default the payload is applied and the instance is started while holding
+     * the lock of the iaas provider. IaaSes which can apply the payload to a copy of the shared state should
+     * override this method to start instances concurrently.
+     *
+     * @param memberContext
+     * @param payload payload of the member, may be null
+     * @return updated memberContext
+     */
+    public MemberContext startInstance(MemberContext memberContext, byte[] payload) throws CartridgeNotFoundException {
+        if (payload == null) {
+            return startInstance(memberContext);
+        }
+        synchronized (getIaasProvider()) {
+            getIaasProvider().setPayload(payload);
+            setDynamicPayload(payload);
+            return startInstance(memberContext);
+        }
+    }
+
     /**
      * This will deallocate/release the given IP address back to pool.
      *
@@ -36,6 +36,7 @@ import org.jclouds.compute.ComputeService;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.NodeMetadataBuilder;
 import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.domain.internal.TemplateImpl;
 import org.jclouds.rest.ResourceNotFoundException;
 
 import java.util.ArrayList;
@@ -104,6 +105,36 @@ public abstract class JcloudsIaas extends Iaas {
 
     @Override
     public MemberContext startInstance(MemberContext memberContext) {
+        return startNode(memberContext, getIaasProvider().getTemplate());
+    }
+
+    /**
+     * Apply the payload to the shared template of the iaas provider and start the instance using a copy
+     * of it, hence concurrent spawns do not start instances with the payload of another member.
+     */
+    @Override
+    public MemberContext startInstance(MemberContext memberContext, byte[] payload) {
+        if (payload == null) {
+            return startInstance(memberContext);
+        }
+        Template template;
+        synchronized (getIaasProvider()) {
+            getIaasProvider().setPayload(payload);
+            setDynamicPayload(payload);
+            template = copyTemplate(getIaasProvider().getTemplate());
+        }
+        return startNode(memberContext, template);
+    }
+
+    private static Template copyTemplate(Template template) {
+        if (template == null) {
+            return null;
+        }
+        return new TemplateImpl(template.getImage(), template.getHardware(), template.getLocation(),
+                template.getOptions().clone());
+    }
+
+    private MemberContext startNode(MemberContext memberContext, Template template) {
         // generate the group id from domain name and sub domain name.
         // Should have lower-case ASCII letters, numbers, or dashes.
         // Should have a length between 3-15
@@ -113,7 +144,6 @@ public abstract class JcloudsIaas extends Iaas {
 
         try {
             ComputeService computeService = getIaasProvider().getComputeService();
-            Template template = getIaasProvider().getTemplate();
 
             if (template == null) {
                 String msg = "Could not start an instance, jclouds template is null for iaas provider [type]: " +
@@ -38,12 +38,17 @@ import org.apache.stratos.cloud.controller.domain.kubernetes.KubernetesCluster;
 import org.apache.stratos.cloud.controller.domain.kubernetes.PortRange;
 import org.apache.stratos.kubernetes.client.KubernetesApiClient;
 import org.apache.stratos.kubernetes.client.KubernetesConstants;
+import org.apache.stratos.kubernetes.client.PodFuture;
+import org.apache.stratos.kubernetes.client.PodWatcher;
 import org.apache.stratos.kubernetes.client.exceptions.KubernetesClientException;
 import org.apache.stratos.kubernetes.client.model.*;
 import org.apache.stratos.kubernetes.client.model.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Lock;
 
 /**
@@ -59,7 +64,7 @@ public class KubernetesIaas extends Iaas {
     private static final String PAYLOAD_PARAMETER_PREFIX = "payload_parameter.";
 
     private PartitionValidator partitionValidator;
-    private List<NameValuePair> payload;
+    private volatile List<NameValuePair> payload;
     private Long podActivationTimeout;
 
     public KubernetesIaas(IaasProvider iaasProvider) {
@@ -87,8 +92,12 @@ public class KubernetesIaas extends Iaas {
      */
     @Override
     public void setDynamicPayload(byte[] payloadByteArray) {
-        // Clear existing payload parameters
-        payload.clear();
+        // Replace existing payload parameters, member contexts keep references to previous payloads
+        this.payload = parsePayload(payloadByteArray);
+    }
+
+    private List<NameValuePair> parsePayload(byte[] payloadByteArray) {
+        List<NameValuePair> payload = new ArrayList<NameValuePair>();
 
         if (payloadByteArray != null) {
             String payloadString = new String(payloadByteArray);
@@ -104,10 +113,11 @@ public class KubernetesIaas extends Iaas {
                     }
                 }
                 if (log.isDebugEnabled()) {
-                    log.debug("Dynamic payload is set: " + payload.toString());
+                    log.debug("Dynamic payload parameters: " + payload.toString());
                 }
             }
         }
+        return payload;
     }
 
     @Override
@@ -115,6 +125,19 @@ public class KubernetesIaas extends Iaas {
         return startContainer(memberContext);
     }
 
+    /**
+     * Start the container with its own copy of the payload, without updating the payload shared by
+     * concurrent spawns.
+     */
+    @Override
+    public MemberContext startInstance(MemberContext memberContext, byte[] payload)
+            throws CartridgeNotFoundException {
+        if (payload == null) {
+            return startContainer(memberContext);
+        }
+        return startContainer(memberContext, parsePayload(payload));
+    }
+
     @Override
     public PartitionValidator getPartitionValidator() {
         return partitionValidator;
@@ -135,11 +158,16 @@ public class KubernetesIaas extends Iaas {
      */
     public MemberContext startContainer(MemberContext memberContext)
             throws CartridgeNotFoundException {
+        // Take the payload of this member before other spawns replace it
+        return startContainer(memberContext, new ArrayList<NameValuePair>(payload));
+    }
+
+    private MemberContext startContainer(MemberContext memberContext, List<NameValuePair> memberPayload)
+            throws CartridgeNotFoundException {
         Lock lock = null;
         try {
-            lock = CloudControllerContext.getInstance().acquireMemberContextWriteLock();
-
             handleNullObject(memberContext, "member context is null");
+
             if (log.isInfoEnabled()) {
                 log.info(String.format("Starting container: [cartridge-type] %s", memberContext.getCartridgeType()));
             }
@@ -191,42 +219,48 @@ public class KubernetesIaas extends Iaas {
                     if (property != null) {
                         if (property.getName().startsWith(PAYLOAD_PARAMETER_PREFIX)) {
                             String name = property.getName().replace(PAYLOAD_PARAMETER_PREFIX, "");
-                            payload.add(new NameValuePair(name, property.getValue()));
+                            memberPayload.add(new NameValuePair(name, property.getValue()));
                         }
                     }
                 }
             }
 
-            KubernetesClusterContext kubClusterContext = getKubernetesClusterContext(kubernetesClusterId,
-                    kubernetesMasterIp, kubernetesMasterPort, kubernetesPortRange.getUpper(),
-                    kubernetesPortRange.getLower());
-
-            // Generate proxy service ports and update port mappings in cartridge
-            updateKubernetesServicePorts(kubClusterContext, clusterContext.getClusterId(), cartridge);
-
-            // Get kubernetes API
-            KubernetesApiClient kubernetesApi = kubClusterContext.getKubApi();
-
-            // Create replication controller
-            createReplicationController(clusterContext, memberContext, kubernetesApi);
-
-            // Create proxy services for port mappings
-            List<Service> services = createProxyServices(clusterContext, kubClusterContext, kubernetesApi);
-            clusterContext.setKubernetesServices(services);
-            CloudControllerContext.getInstance().updateClusterContext(clusterContext);
+            KubernetesApiClient kubernetesApi;
+            PodWatcher podWatcher;
+            // Cluster wide resources are shared by the members of the cluster being started concurrently
+            lock = CloudControllerContext.getInstance().acquireClusterContextWriteLock(clusterId);
+            try {
+                // Generate proxy service ports and update port mappings in cartridge
+                KubernetesClusterContext kubClusterContext = allocateKubernetesServicePorts(kubernetesClusterId,
+                        kubernetesMasterIp, kubernetesMasterPort, kubernetesPortRange, clusterId, cartridgeType);
+
+                // Get kubernetes API
+                kubernetesApi = kubClusterContext.getKubApi();
+                podWatcher = kubClusterContext.getPodWatcher();
+
+                // Create replication controller
+                createReplicationController(clusterContext, memberContext, memberPayload, kubernetesApi);
+
+                // Create proxy services for port mappings
+                List<Service> services = createProxyServices(clusterContext, kubClusterContext, kubernetesApi);
+                clusterContext.setKubernetesServices(services);
+                CloudControllerContext.getInstance().updateClusterContext(clusterContext);
+            } finally {
+                CloudControllerContext.getInstance().releaseWriteLock(lock);
+                lock = null;
+            }
 
             // Wait for pod status to be changed to running
-            Pod pod = waitForPodToBeActivated(memberContext, kubernetesApi);
+            Pod pod = waitForPodToBeActivated(memberContext, podWatcher);
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Pod created: [cluster-id] %s [member-id] %s [pod-id] %s",
                         clusterId, memberId, pod.getId()));
             }
 
-            // Create member context
+            // Create member context and persist in registry
             MemberContext newMemberContext = createNewMemberContext(memberContext, pod);
+            lock = CloudControllerContext.getInstance().acquireMemberContextWriteLock(memberId);
             CloudControllerContext.getInstance().addMemberContext(newMemberContext);
-
-            // persist in registry
             CloudControllerContext.getInstance().persist();
             log.info(String.format("Container started successfully: [cluster-id] %s [member-id] %s",
                     newMemberContext.getClusterId(), newMemberContext.getMemberId()));
@@ -262,46 +296,32 @@ public class KubernetesIaas extends Iaas {
         return newMemberContext;
     }
 
-    private Pod waitForPodToBeActivated(MemberContext memberContext, KubernetesApiClient kubernetesApi)
+    private Pod waitForPodToBeActivated(MemberContext memberContext, PodWatcher podWatcher)
             throws KubernetesClientException, InterruptedException {
 
-        Labels labels = new Labels();
         String podId = CloudControllerUtil.replaceDotsWithDash(memberContext.getMemberId());
-        labels.setName(podId);
-
-        Pod pod;
-        List<Pod> pods;
-        boolean podCreated = false;
-        boolean podRunning = false;
-        long startTime = System.currentTimeMillis();
-
-        while (!podRunning) {
-            pods = kubernetesApi.queryPods(new Labels[]{labels});
-            if ((pods != null) && (pods.size() > 0)) {
-                if (pods.size() > 1) {
-                    throw new RuntimeException("System error, more than one pod found with the same pod id: " + podId);
-                }
-
-                pod = pods.get(0);
-                podCreated = true;
-                if (pod.getCurrentState().getStatus().equals(KubernetesConstants.POD_STATUS_RUNNING)) {
-                    log.info(String.format("Pod status changed to running: [member-id] %s [pod-id] %s",
-                            memberContext.getMemberId(), pod.getId()));
-                    return pod;
-                } else {
-                    if (log.isInfoEnabled()) {
-                        log.info(String.format("Waiting pod status to be changed to running: [member-id] %s " +
-                                        "[pod-id] %s [current-pod-status] %s ", memberContext.getMemberId(),
-                                pod.getId(), pod.getCurrentState().getStatus().toLowerCase()));
-                    }
-                }
-            }
 
-            if ((System.currentTimeMillis() - startTime) > podActivationTimeout) {
-                break;
-            }
-            Thread.sleep(5000);
+        // Pod state changes are received by the pod watcher of the kubernetes cluster
+        PodFuture podFuture = podWatcher.awaitRunning(podId);
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Waiting pod status to be changed to running: [member-id] %s [pod-id] %s",
+                    memberContext.getMemberId(), podId));
         }
+        try {
+            Pod pod = podFuture.get(podActivationTimeout, TimeUnit.MILLISECONDS);
+            log.info(String.format("Pod status changed to running: [member-id] %s [pod-id] %s",
+                    memberContext.getMemberId(), pod.getId()));
+            return pod;
+        } catch (ExecutionException e) {
+            throw new KubernetesClientException(String.format("Could not wait for pod: [member-id] %s [pod-id] %s",
+                    memberContext.getMemberId(), podId), e);
+        } catch (TimeoutException e) {
+            podFuture.cancel(false);
+        } catch (InterruptedException e) {
+            podFuture.cancel(false);
+            throw e;
+        }
+        boolean podCreated = !podWatcher.getPods(podId).isEmpty();
 
         String replicationControllerId = CloudControllerUtil.replaceDotsWithDash(memberContext.getMemberId());
         String message;
@@ -328,11 +348,12 @@ public class KubernetesIaas extends Iaas {
      * Create new replication controller for the cluster and generate environment variables using member context.
      *
      * @param memberContext
+     * @param memberPayload
      * @param kubernetesApi
      * @throws KubernetesClientException
      */
     private void createReplicationController(ClusterContext clusterContext, MemberContext memberContext,
-                                             KubernetesApiClient kubernetesApi)
+                                             List<NameValuePair> memberPayload, KubernetesApiClient kubernetesApi)
             throws KubernetesClientException {
         if (log.isInfoEnabled()) {
             log.info(String.format("Creating replication controller: [cartridge-type] %s [member-id] %s",
@@ -361,7 +382,7 @@ public class KubernetesIaas extends Iaas {
         }
 
         // Add dynamic payload to the member context
-        memberContext.setDynamicPayload(payload);
+        memberContext.setDynamicPayload(memberPayload);
 
         // Create replication controller
         String replicationControllerId = CloudControllerUtil.replaceDotsWithDash(memberContext.getMemberId());
@@ -436,6 +457,41 @@ public class KubernetesIaas extends Iaas {
         return services;
     }
 
+    /**
+     * Get or create the kubernetes cluster context and allocate service ports for the port mappings
+     * of the cartridge. Kubernetes cluster contexts and cartridges are shared by clusters, hence the
+     * context and the cartridge are read and updated while holding their write locks.
+     *
+     * @return kubernetes cluster context
+     */
+    private KubernetesClusterContext allocateKubernetesServicePorts(String kubernetesClusterId,
+                                                                    String kubernetesMasterIp,
+                                                                    String kubernetesMasterPort,
+                                                                    PortRange kubernetesPortRange,
+                                                                    String clusterId, String cartridgeType) {
+        Lock kubernetesClusterLock = null;
+        Lock cartridgeLock = null;
+        try {
+            kubernetesClusterLock = CloudControllerContext.getInstance().
+                    acquireKubernetesClusterContextWriteLock(kubernetesClusterId);
+            cartridgeLock = CloudControllerContext.getInstance().acquireCartridgeWriteLock(cartridgeType);
+
+            KubernetesClusterContext kubClusterContext = getKubernetesClusterContext(kubernetesClusterId,
+                    kubernetesMasterIp, kubernetesMasterPort, kubernetesPortRange.getUpper(),
+                    kubernetesPortRange.getLower());
+            Cartridge cartridge = CloudControllerContext.getInstance().getCartridge(cartridgeType);
+            updateKubernetesServicePorts(kubClusterContext, clusterId, cartridge);
+            return kubClusterContext;
+        } finally {
+            if (cartridgeLock != null) {
+                CloudControllerContext.getInstance().releaseWriteLock(cartridgeLock);
+            }
+            if (kubernetesClusterLock != null) {
+                CloudControllerContext.getInstance().releaseWriteLock(kubernetesClusterLock);
+            }
+        }
+    }
+
     private void updateKubernetesServicePorts(KubernetesClusterContext kubernetesClusterContext, String clusterId,
                                               Cartridge cartridge) {
         if(cartridge != null) {
@@ -458,6 +514,8 @@ public class KubernetesIaas extends Iaas {
             }
             if(servicePortsUpdated) {
                 // Persist service ports added to port mappings
+                CloudControllerContext.getInstance().updateCartridge(cartridge);
+                CloudControllerContext.getInstance().addKubernetesClusterContext(kubernetesClusterContext);
                 CloudControllerContext.getInstance().persist();
             }
         }
@@ -474,7 +532,7 @@ public class KubernetesIaas extends Iaas {
             throws InvalidClusterException {
         Lock lock = null;
         try {
-            lock = CloudControllerContext.getInstance().acquireMemberContextWriteLock();
+            lock = CloudControllerContext.getInstance().acquireClusterContextWriteLock(clusterId);
 
             ClusterContext clusterContext = CloudControllerContext.getInstance().getClusterContext(clusterId);
             handleNullObject(clusterContext, "Could not terminate containers, cluster not found: [cluster-id] "
@@ -494,15 +552,16 @@ public class KubernetesIaas extends Iaas {
             // Remove the services
             List<Service> services = clusterContext.getKubernetesServices();
             if (services != null) {
+                List<Integer> deallocatedPorts = new ArrayList<Integer>();
                 for (Service service : services) {
                     try {
                         kubApi.deleteService(service.getId());
-                        int allocatedPort = service.getPort();
-                        kubClusterContext.deallocatePort(allocatedPort);
+                        deallocatedPorts.add(service.getPort());
                     } catch (KubernetesClientException e) {
                         log.error("Could not remove kubernetes service: [cluster-id] " + clusterId, e);
                     }
                 }
+                deallocateKubernetesServicePorts(kubernetesClusterId, deallocatedPorts);
             }
 
             List<MemberContext> memberContextsRemoved = new ArrayList<MemberContext>();
@@ -529,6 +588,33 @@ public class KubernetesIaas extends Iaas {
         }
     }
 
+    /**
+     * Return service ports to the kubernetes cluster context. The context is shared by clusters,
+     * hence it is read and updated while holding its write lock.
+     */
+    private void deallocateKubernetesServicePorts(String kubernetesClusterId, List<Integer> ports) {
+        if (ports.isEmpty()) {
+            return;
+        }
+        Lock lock = null;
+        try {
+            lock = CloudControllerContext.getInstance().acquireKubernetesClusterContextWriteLock(kubernetesClusterId);
+            KubernetesClusterContext kubClusterContext = CloudControllerContext.getInstance().
+                    getKubernetesClusterContext(kubernetesClusterId);
+            if (kubClusterContext == null) {
+                return;
+            }
+            for (Integer port : ports) {
+                kubClusterContext.deallocatePort(port);
+            }
+            CloudControllerContext.getInstance().addKubernetesClusterContext(kubClusterContext);
+        } finally {
+            if (lock != null) {
+                CloudControllerContext.getInstance().releaseWriteLock(lock);
+            }
+        }
+    }
+
     /**
      * Terminate a container by member id
      *
@@ -539,7 +625,7 @@ public class KubernetesIaas extends Iaas {
     public MemberContext terminateContainer(String memberId) throws MemberTerminationFailedException {
         Lock lock = null;
         try {
-            lock = CloudControllerContext.getInstance().acquireMemberContextWriteLock();
+            lock = CloudControllerContext.getInstance().acquireMemberContextWriteLock(memberId);
             handleNullObject(memberId, "Could not terminate container, member id is null");
 
             MemberContext memberContext = CloudControllerContext.getInstance().getMemberContextOfMemberId(memberId);
@@ -565,8 +651,10 @@ public class KubernetesIaas extends Iaas {
             try {
                 Labels l = new Labels();
                 l.setName(memberId);
-                // execute the label query
-                List<Pod> pods = kubApi.queryPods(new Labels[]{l});
+                // use the pods cached by the pod watcher, execute the label query if the cache is not in sync
+                PodWatcher podWatcher = kubernetesClusterContext.getPodWatcher();
+                List<Pod> pods = podWatcher.isSynced() ? podWatcher.getPods(memberId) :
+                        kubApi.queryPods(new Labels[]{l}, KubernetesConstants.POD_STATUS_FIELDS);
                 for (Pod pod : pods) {
                     try {
                         // delete pods forcefully
@@ -45,6 +45,12 @@ public class MockIaas extends Iaas {
         return MockIaasService.getInstance().createInstance(memberContext);
     }
 
+    @Override
+    public MemberContext startInstance(MemberContext memberContext, byte[] payload) {
+        // Mock instances do not use the payload
+        return startInstance(memberContext);
+    }
+
     @Override
     public void releaseAddress(String ip) {
         MockIaasService.getInstance().releaseAddress(ip);
@@ -33,11 +33,13 @@ import org.apache.stratos.cloud.controller.exception.CloudControllerException;
 import org.apache.stratos.cloud.controller.services.CloudControllerService;
 import org.apache.stratos.cloud.controller.services.impl.CloudControllerServiceImpl;
 import org.apache.stratos.cloud.controller.messaging.publisher.TopologySynchronizerTaskScheduler;
+import org.apache.stratos.cloud.controller.messaging.receiver.initializer.InitializerTopicReceiver;
 import org.apache.stratos.cloud.controller.messaging.receiver.instance.status.InstanceStatusTopicReceiver;
+import org.apache.stratos.cloud.controller.messaging.topology.TopologyManager;
 import org.apache.stratos.common.clustering.DistributedObjectProvider;
 import org.apache.stratos.common.threading.StratosThreadPool;
+import org.apache.stratos.kubernetes.client.PodWatcherRegistry;
 import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
-import org.apache.stratos.messaging.util.Util;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.component.ComponentContext;
 import org.wso2.carbon.ntask.core.service.TaskService;
@@ -68,6 +70,7 @@ public class CloudControllerServiceComponent {
 	private static final Log log = LogFactory.getLog(CloudControllerServiceComponent.class);
 	private ClusterStatusTopicReceiver clusterStatusTopicReceiver;
 	private InstanceStatusTopicReceiver instanceStatusTopicReceiver;
+	private InitializerTopicReceiver initializerTopicReceiver;
 	private ApplicationEventReceiver applicationEventReceiver;
     private ExecutorService executorService;
 
@@ -140,6 +143,14 @@ public class CloudControllerServiceComponent {
             log.info("Instance status event receiver thread started");
         }
 
+        initializerTopicReceiver = new InitializerTopicReceiver();
+        initializerTopicReceiver.setExecutorService(executorService);
+        initializerTopicReceiver.execute();
+
+        if (log.isInfoEnabled()) {
+            log.info("Initializer event receiver thread started");
+        }
+
         if (log.isInfoEnabled()) {
             log.info("Scheduling topology synchronizer task");
         }
@@ -208,13 +219,32 @@ public class CloudControllerServiceComponent {
     }
 
 	protected void deactivate(ComponentContext ctx) {
+        // Write pending cloud controller context changes to the registry
+        try {
+            CloudControllerContext.getInstance().stopPersistence();
+        } catch (Exception e) {
+            log.warn("An error occurred while persisting cloud controller context", e);
+        }
+        try {
+            TopologyManager.stopPersistence();
+        } catch (Exception e) {
+            log.warn("An error occurred while persisting topology", e);
+        }
+
         // Close event publisher connections to message broker
         try {
-            EventPublisherPool.close(Util.Topics.TOPOLOGY_TOPIC.getTopicName());
+            EventPublisherPool.closeAll();
         } catch (Exception e) {
             log.warn("An error occurred while closing cloud controller topology event publisher", e);
         }
 
+        // Stop kubernetes pod watchers
+        try {
+            PodWatcherRegistry.releaseAll();
+        } catch (Exception e) {
+            log.warn("An error occurred while stopping kubernetes pod watchers", e);
+        }
+
         // Shutdown executor service
         if(executorService != null) {
             try {
@@ -25,6 +25,7 @@ import org.apache.stratos.cloud.controller.domain.Cartridge;
 import org.apache.stratos.cloud.controller.domain.ClusterContext;
 import org.apache.stratos.cloud.controller.domain.MemberContext;
 import org.apache.stratos.cloud.controller.domain.PortMapping;
+import org.apache.stratos.cloud.controller.messaging.topology.TopologyManager;
 import org.apache.stratos.cloud.controller.util.CloudControllerUtil;
 import org.apache.stratos.messaging.broker.publish.EventPublisher;
 import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
@@ -45,10 +46,23 @@ import java.util.Set;
 
 /**
  * this is to send the relevant events from cloud controller to topology topic
+ *
+ * Each topology event is assigned a sequence number which is incremented by one per event,
+ * subscribers use it to detect lost events and request a complete topology. Sequence numbers
+ * start from the time cloud controller was started, so that a restart is seen as a gap.
  */
 public class TopologyEventPublisher {
     private static final Log log = LogFactory.getLog(TopologyEventPublisher.class);
 
+    // Minimum time between two complete topology events sent on request
+    private static final long COMPLETE_TOPOLOGY_REQUEST_INTERVAL = 5000;
+
+    private static final Object topologyEventLock = new Object();
+    private static long topologySequenceNumber = System.currentTimeMillis();
+    private static volatile long completeTopologySequenceNumber;
+    private static volatile long completeTopologyPublishedTime;
+    private static volatile boolean completeTopologyRequested;
+
     public static void sendServiceCreateEvent(List<Cartridge> cartridgeList) {
         ServiceCreatedEvent serviceCreatedEvent;
         for (Cartridge cartridge : cartridgeList) {
@@ -315,7 +329,56 @@ public class TopologyEventPublisher {
         if (log.isDebugEnabled()) {
             log.debug(String.format("Publishing complete topology event"));
         }
-        publishEvent(completeTopologyEvent);
+        completeTopologyRequested = false;
+        String topic = Util.getMessageTopicName(completeTopologyEvent);
+        EventPublisher eventPublisher = EventPublisherPool.getPublisher(topic);
+        // The sequence number is taken and the topology serialized under the same read lock,
+        // so that the snapshot contains exactly the changes made up to its sequence number
+        String message;
+        TopologyManager.acquireReadLock();
+        try {
+            assignSequenceNumber(completeTopologyEvent);
+            message = Util.getGson().toJson(completeTopologyEvent);
+        } finally {
+            TopologyManager.releaseReadLock();
+        }
+        eventPublisher.publishJson(message);
+        completeTopologySequenceNumber = completeTopologyEvent.getSequenceNumber();
+        completeTopologyPublishedTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Send the complete topology requested by a subscriber. Requests received shortly after
+     * a complete topology event was sent are served by the topology synchronizer task.
+     * @param topology topology to be sent
+     */
+    public static void handleCompleteTopologyRequest(Topology topology) {
+        if (System.currentTimeMillis() - completeTopologyPublishedTime < COMPLETE_TOPOLOGY_REQUEST_INTERVAL) {
+            completeTopologyRequested = true;
+            return;
+        }
+        sendCompleteTopologyEvent(topology);
+    }
+
+    /**
+     * Check whether the topology synchronizer needs to send a complete topology event. It is not
+     * sent if the topology has not changed since the last one and no subscriber has requested it,
+     * unless the given interval has elapsed; subscribers receive the changes as topology events.
+     * Subscribers which never request a complete topology, such as the cartridge agent, wait for
+     * this event to initialize their topology, hence it is also sent whenever the topology changed.
+     * @param maxInterval maximum time between two complete topology events in milliseconds
+     * @return true if a complete topology event needs to be sent
+     */
+    public static boolean isCompleteTopologyEventRequired(long maxInterval) {
+        if (completeTopologyRequested) {
+            return true;
+        }
+        synchronized (topologyEventLock) {
+            if (topologySequenceNumber != completeTopologySequenceNumber) {
+                return true;
+            }
+        }
+        return (System.currentTimeMillis() - completeTopologyPublishedTime >= maxInterval);
     }
 
     public static void sendClusterTerminatingEvent(ClusterInstanceTerminatingEvent clusterTerminatingEvent) {
@@ -345,6 +408,21 @@ public class TopologyEventPublisher {
     public static void publishEvent(Event event) {
         String topic = Util.getMessageTopicName(event);
         EventPublisher eventPublisher = EventPublisherPool.getPublisher(topic);
+        if (event instanceof TopologyEvent) {
+            assignSequenceNumber((TopologyEvent) event);
+        }
+        // The lock is not held while publishing, the broker may block the publisher while it
+        // retries. Subscribers tolerate events arriving out of sequence within the resync interval.
         eventPublisher.publish(event);
     }
+
+    private static void assignSequenceNumber(TopologyEvent topologyEvent) {
+        synchronized (topologyEventLock) {
+            if (topologyEvent instanceof CompleteTopologyEvent) {
+                topologyEvent.setSequenceNumber(topologySequenceNumber);
+            } else {
+                topologyEvent.setSequenceNumber(++topologySequenceNumber);
+            }
+        }
+    }
 }
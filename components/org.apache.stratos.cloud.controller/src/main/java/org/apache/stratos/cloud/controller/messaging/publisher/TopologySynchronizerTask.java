@@ -24,7 +24,9 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.cloud.controller.config.CloudControllerConfig;
 import org.apache.stratos.cloud.controller.context.CloudControllerContext;
+import org.apache.stratos.cloud.controller.domain.TopologyConfig;
 import org.apache.stratos.cloud.controller.messaging.topology.TopologyManager;
+import org.apache.stratos.cloud.controller.util.CloudControllerConstants;
 import org.wso2.carbon.ntask.core.Task;
 
 public class TopologySynchronizerTask implements Task{
@@ -45,11 +47,32 @@ public class TopologySynchronizerTask implements Task{
             return;
         }
         
+        if (!TopologyEventPublisher.isCompleteTopologyEventRequired(getCompleteTopologyMaxInterval())) {
+            if (log.isDebugEnabled()) {
+                log.debug("Topology has not changed since the last complete topology event");
+            }
+            return;
+        }
+
     	// publish to the topic 
         if (TopologyManager.getTopology() != null) {
             TopologyEventPublisher.sendCompleteTopologyEvent(TopologyManager.getTopology());
         }
     }
+
+    private long getCompleteTopologyMaxInterval() {
+        TopologyConfig topologyConfig = CloudControllerConfig.getInstance().getTopologyConfig();
+        String interval = (topologyConfig != null) ?
+                topologyConfig.getProperty(CloudControllerConstants.COMPLETE_TOPOLOGY_MAX_INTERVAL_PROPERTY) : null;
+        if (interval != null) {
+            try {
+                return Long.parseLong(interval.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid complete topology event interval: " + interval);
+            }
+        }
+        return CloudControllerConstants.COMPLETE_TOPOLOGY_MAX_INTERVAL;
+    }
     
     @Override
     public void init() {
@@ -18,23 +18,52 @@
  */
 package org.apache.stratos.cloud.controller.messaging.topology;
 
-import com.google.gson.Gson;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.cloud.controller.registry.RegistryManager;
+import org.apache.stratos.cloud.controller.util.CloudControllerConstants;
 import org.apache.stratos.cloud.controller.util.CloudControllerUtil;
 import org.apache.stratos.common.concurrent.locks.ReadWriteLock;
+import org.apache.stratos.common.statistics.LatencyHistogram;
+import org.apache.stratos.common.threading.StratosThreadPool;
 import org.apache.stratos.messaging.domain.topology.Topology;
+import org.wso2.carbon.registry.core.exceptions.RegistryException;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
- * Persistence and retrieval of Topology from Registry
+ * Persistence and retrieval of Topology from Registry.
+ *
+ * Topology updates increment the topology version and are persisted asynchronously. Updates
+ * received within the persistence delay are batched into a single registry write, which is
+ * scheduled when the first update arrives and not postponed by later updates, hence the
+ * persistence lag is bounded by the persistence delay plus the time taken to write. A snapshot is
+ * only written when its version is newer than the version persisted last.
  */
 public class TopologyManager {
     private static final Log log = LogFactory.getLog(TopologyManager.class);
 
+    private static final String PERSISTENCE_THREAD_POOL_ID = "cloud.controller.topology.persister";
+
     private static volatile ReadWriteLock lock = new ReadWriteLock("topology-manager");
     private static volatile Topology topology;
 
+    private static final long persistenceDelay = Long.getLong(CloudControllerConstants.TOPOLOGY_PERSISTENCE_DELAY,
+            CloudControllerConstants.DEFAULT_TOPOLOGY_PERSISTENCE_DELAY);
+    private static final AtomicLong topologyVersion = new AtomicLong();
+    private static final AtomicBoolean persistenceScheduled = new AtomicBoolean();
+    private static final AtomicLong persistedSnapshotCount = new AtomicLong();
+    private static final LatencyHistogram persistenceLag =
+            new LatencyHistogram("cloud-controller-topology-persistence-lag");
+    private static final Object persistenceLock = new Object();
+    private static volatile long persistedVersion;
+    private static volatile ScheduledExecutorService persistenceExecutor;
+    private static volatile TopologyStore topologyStore = new RegistryTopologyStore();
+
     private TopologyManager() {
     }
 
@@ -90,26 +119,132 @@ public class TopologyManager {
     }
 
     /**
-     * Update in-memory topology and persist it in registry.
+     * Update in-memory topology and schedule persisting it in registry.
      * @param topology_
      */
     public static void updateTopology(Topology topology_) {
         synchronized (TopologyManager.class) {
-            if (log.isDebugEnabled()) {
-                log.debug("Updating topology");
-            }
             topology = topology_;
-            CloudControllerUtil.persistTopology(topology);
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Topology updated: %s", toJson(topology)));
+        }
+        long version = topologyVersion.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Topology updated: [version] %d", version));
+        }
+        schedulePersistence();
+    }
+
+    private static void schedulePersistence() {
+        if (persistenceDelay <= 0) {
+            persistTopology();
+            return;
+        }
+        if (persistenceScheduled.compareAndSet(false, true)) {
+            final long requestedTime = System.nanoTime();
+            getPersistenceExecutor().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    persistenceScheduled.set(false);
+                    persistTopology();
+                    persistenceLag.updateSince(requestedTime);
+                }
+            }, persistenceDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static ScheduledExecutorService getPersistenceExecutor() {
+        if (persistenceExecutor == null) {
+            synchronized (TopologyManager.class) {
+                if (persistenceExecutor == null) {
+                    persistenceExecutor = StratosThreadPool.getScheduledExecutorService(PERSISTENCE_THREAD_POOL_ID, 1);
+                }
             }
         }
+        return persistenceExecutor;
+    }
+
+    /**
+     * Persist the current topology in registry if it has been updated since it was persisted last.
+     * The topology is serialized while holding the read lock and written to the registry after
+     * releasing it.
+     */
+    public static void persistTopology() {
+        synchronized (persistenceLock) {
+            long version;
+            byte[] content;
+            try {
+                acquireReadLock();
+                version = topologyVersion.get();
+                if ((version == persistedVersion) || (topology == null)) {
+                    return;
+                }
+                content = RegistryManager.serializeToByteArray(topology);
+            } catch (Exception e) {
+                log.error("Could not serialize topology", e);
+                return;
+            } finally {
+                releaseReadLock();
+            }
 
+            try {
+                topologyStore.write(CloudControllerConstants.TOPOLOGY_RESOURCE, content);
+                persistedVersion = version;
+                persistedSnapshotCount.incrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Topology persisted: [version] %d [bytes] %d [persistence-lag] %s",
+                            version, content.length, persistenceLag));
+                }
+            } catch (Exception e) {
+                // Topology remains dirty and will be written with the next update
+                log.fatal(String.format("Failed to persist the topology in registry: [version] %d", version), e);
+            }
+        }
+    }
+
+    /**
+     * Persist pending topology updates and stop the persistence executor.
+     */
+    public static void stopPersistence() {
+        if (persistenceExecutor != null) {
+            persistenceExecutor.shutdownNow();
+        }
+        persistTopology();
+    }
+
+    public static long getTopologyVersion() {
+        return topologyVersion.get();
+    }
+
+    public static long getPersistedVersion() {
+        return persistedVersion;
+    }
+
+    public static long getPersistedSnapshotCount() {
+        return persistedSnapshotCount.get();
     }
 
-    private static String toJson(Object object) {
-        Gson gson = new Gson();
-        return gson.toJson(object);
+    public static LatencyHistogram getPersistenceLag() {
+        return persistenceLag;
+    }
+
+    /**
+     * Replace the store the topology is persisted in, used by tests.
+     */
+    static void setTopologyStore(TopologyStore topologyStore_) {
+        topologyStore = topologyStore_;
+    }
+
+    /**
+     * Store the serialized topology is written to.
+     */
+    interface TopologyStore {
+        void write(String resourcePath, byte[] content) throws RegistryException;
+    }
+
+    private static class RegistryTopologyStore implements TopologyStore {
+        @Override
+        public void write(String resourcePath, byte[] content) throws RegistryException {
+            RegistryManager.getInstance().persistContent(resourcePath, content);
+        }
     }
 }
 
@@ -55,6 +55,23 @@ public class RegistryManager {
      * @param serializableObject object to be persisted.
      */
     public synchronized void persist(String resourcePath, Serializable serializableObject) throws RegistryException {
+        byte[] content;
+        try {
+            content = serializeToByteArray(serializableObject);
+        } catch (IOException e) {
+            String msg = "Failed to serialize resource: " + resourcePath;
+            log.error(msg, e);
+            throw new RegistryException(msg, e);
+        }
+        persistContent(resourcePath, content);
+    }
+
+    /**
+     * Persist serialized content in the registry with the given resource path.
+     *
+     * @param content serialized object to be persisted.
+     */
+    public synchronized void persistContent(String resourcePath, byte[] content) throws RegistryException {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Persisting resource in registry: [resource-path] %s", resourcePath));
         }
@@ -69,7 +86,7 @@ public class RegistryManager {
             registry.beginTransaction();
 
             Resource nodeResource = registry.newResource();
-            nodeResource.setContent(serializeToByteArray(serializableObject));
+            nodeResource.setContent(content);
             registry.put(resourcePath, nodeResource);
 
             registry.commitTransaction();
@@ -123,6 +140,9 @@ public class RegistryManager {
         Registry registry = getRegistry();
 
         try {
+            if (!registry.resourceExists(resourcePath)) {
+                return;
+            }
             registry.beginTransaction();
             registry.delete(resourcePath);
             registry.commitTransaction();
@@ -148,7 +168,7 @@ public class RegistryManager {
      * @return
      * @throws java.io.IOException
      */
-    private byte[]  serializeToByteArray(Serializable serializableObject) throws IOException {
+    public static byte[] serializeToByteArray(Serializable serializableObject) throws IOException {
 
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         ObjectOutput out = null;
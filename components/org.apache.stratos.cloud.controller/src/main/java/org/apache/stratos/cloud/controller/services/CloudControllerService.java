@@ -142,7 +142,9 @@ public interface CloudControllerService {
 
     /**
      * Start instances with the given instance contexts. Instances startup process will run in background and
-     * this method will return with the relevant member contexts.
+     * this method will return with the relevant member contexts. Instance contexts are grouped by partition
+     * and the groups are started in parallel. If some of the instances could not be started, member contexts
+     * of the started instances are returned and an exception is thrown only if none of them could be started.
      * @param instanceContexts An array of instance contexts
      * @return member contexts
      * @throws org.apache.stratos.cloud.controller.exception.CartridgeNotFoundException
@@ -163,6 +165,17 @@ public interface CloudControllerService {
     void terminateInstance(String memberId) throws InvalidMemberException, InvalidCartridgeTypeException,
             CloudControllerException;
 
+    /**
+     * Calling this method will result in termination of the instances with given member ids. Members which
+     * could not be terminated are logged and an exception is thrown only if none of the members could be
+     * terminated.
+     *
+     * @param memberIds
+     *            member IDs of the instances to be terminated.
+     */
+    void terminateMemberInstances(String[] memberIds) throws InvalidMemberException, InvalidCartridgeTypeException,
+            CloudControllerException;
+
     /**
      * Calling this method will result in termination of all instances belong
      * to the provided cluster ID.
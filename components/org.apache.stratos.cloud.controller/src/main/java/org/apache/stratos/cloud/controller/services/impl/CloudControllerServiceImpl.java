@@ -41,6 +41,7 @@ import org.apache.stratos.cloud.controller.services.CloudControllerService;
 import org.apache.stratos.cloud.controller.util.CloudControllerConstants;
 import org.apache.stratos.cloud.controller.util.CloudControllerUtil;
 import org.apache.stratos.common.Property;
+import org.apache.stratos.common.threading.StratosThreadPool;
 import org.apache.stratos.messaging.domain.topology.*;
 import org.apache.stratos.messaging.event.topology.MemberReadyToShutdownEvent;
 
@@ -48,6 +49,8 @@ import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 
@@ -188,7 +191,8 @@ public class CloudControllerServiceImpl implements CloudControllerService {
 
         Cartridge cartridge = null;
         if ((cartridge = CloudControllerContext.getInstance().getCartridge(cartridgeType)) != null) {
-            if (CloudControllerContext.getInstance().getCartridges().remove(cartridge)) {
+            if (CloudControllerContext.getInstance().getCartridges().contains(cartridge)) {
+                CloudControllerContext.getInstance().removeCartridge(cartridge);
                 // invalidate partition validation cache
                 CloudControllerContext.getInstance().removeFromCartridgeTypeToPartitionIds(cartridgeType);
 
@@ -274,7 +278,8 @@ public class CloudControllerServiceImpl implements CloudControllerService {
         serviceGroup = CloudControllerContext.getInstance().getServiceGroup(name);
 
         if (serviceGroup != null) {
-            if (CloudControllerContext.getInstance().getServiceGroups().remove(serviceGroup)) {
+            if (CloudControllerContext.getInstance().getServiceGroups().contains(serviceGroup)) {
+                CloudControllerContext.getInstance().removeServiceGroup(serviceGroup);
                 CloudControllerContext.getInstance().persist();
                 if (log.isInfoEnabled()) {
                     log.info("Successfully removed the cartridge group: [group-name] " + serviceGroup);
@@ -345,17 +350,79 @@ public class CloudControllerServiceImpl implements CloudControllerService {
 
         handleNullObject(instanceContexts, "Instance start-up failed, member contexts is null");
 
+        // Group instance contexts by partition, instances of a partition are started on the same iaas
+        Map<String, List<InstanceContext>> partitionToInstanceContextsMap =
+                new LinkedHashMap<String, List<InstanceContext>>();
+        for (InstanceContext instanceContext : instanceContexts) {
+            if (instanceContext != null) {
+                Partition partition = instanceContext.getPartition();
+                String groupKey = (partition == null) ? null : (partition.getProvider() + "/" + partition.getId());
+                List<InstanceContext> instanceContextList = partitionToInstanceContextsMap.get(groupKey);
+                if (instanceContextList == null) {
+                    instanceContextList = new ArrayList<InstanceContext>();
+                    partitionToInstanceContextsMap.put(groupKey, instanceContextList);
+                }
+                instanceContextList.add(instanceContext);
+            }
+        }
+
+        List<InstanceGroupStarter> groupStarters = new ArrayList<InstanceGroupStarter>();
+        for (List<InstanceContext> instanceContextList : partitionToInstanceContextsMap.values()) {
+            groupStarters.add(new InstanceGroupStarter(this, instanceContextList));
+        }
+
         List<MemberContext> memberContextList = new ArrayList<MemberContext>();
-        for(InstanceContext instanceContext : instanceContexts) {
-            if(instanceContext != null) {
-                MemberContext memberContext = startInstance(instanceContext);
-                memberContextList.add(memberContext);
+        if (groupStarters.size() == 1) {
+            memberContextList.addAll(groupStarters.get(0).call());
+        } else if (groupStarters.size() > 1) {
+            // Start partition groups in parallel
+            int concurrency = Integer.getInteger(CloudControllerConstants.INSTANCE_BATCH_CONCURRENCY,
+                    CloudControllerConstants.DEFAULT_INSTANCE_BATCH_CONCURRENCY);
+            ExecutorService executorService = StratosThreadPool.getExecutorService(
+                    CloudControllerConstants.INSTANCE_BATCH_THREAD_POOL_ID, Math.max(1, concurrency));
+            List<Future<List<MemberContext>>> jobList = new ArrayList<Future<List<MemberContext>>>();
+            for (InstanceGroupStarter groupStarter : groupStarters) {
+                jobList.add(executorService.submit(groupStarter));
+            }
+            for (Future<List<MemberContext>> job : jobList) {
+                try {
+                    memberContextList.addAll(job.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CloudControllerException("Interrupted while starting instances", e);
+                } catch (ExecutionException e) {
+                    throw new CloudControllerException("Could not start instances", e);
+                }
+            }
+        }
+
+        List<Exception> failures = new ArrayList<Exception>();
+        for (InstanceGroupStarter groupStarter : groupStarters) {
+            failures.addAll(groupStarter.getFailures());
+        }
+        if (!failures.isEmpty()) {
+            if (memberContextList.isEmpty()) {
+                rethrowStartInstanceFailure(failures.get(0));
             }
+            log.warn(String.format("Some of the instances could not be started: [started] %d [failed] %d",
+                    memberContextList.size(), failures.size()));
         }
         MemberContext[] memberContextsArray = memberContextList.toArray(new MemberContext[memberContextList.size()]);
         return memberContextsArray;
     }
 
+    private void rethrowStartInstanceFailure(Exception e) throws CartridgeNotFoundException,
+            InvalidIaasProviderException, CloudControllerException {
+        if (e instanceof CartridgeNotFoundException) {
+            throw (CartridgeNotFoundException) e;
+        } else if (e instanceof InvalidIaasProviderException) {
+            throw (InvalidIaasProviderException) e;
+        } else if (e instanceof CloudControllerException) {
+            throw (CloudControllerException) e;
+        }
+        throw new CloudControllerException("Could not start instances", e);
+    }
+
     public MemberContext startInstance(InstanceContext instanceContext) throws
             CartridgeNotFoundException, InvalidIaasProviderException, CloudControllerException {
 
@@ -431,8 +498,9 @@ public class CloudControllerServiceImpl implements CloudControllerService {
                 log.debug("Payload: " + payload.toString());
             }
 
-            iaasProvider.setPayload(payload.toString().getBytes());
-            iaas.setDynamicPayload(iaasProvider.getPayload());
+            // Instances of a partition may be started concurrently, hence payload is passed to the
+            // instance creator instead of being set on the shared iaas provider
+            byte[] payloadBytes = payload.toString().getBytes();
 
             if (clusterContext.isVolumeRequired()) {
                 if (clusterContext.getVolumes() != null) {
@@ -450,7 +518,7 @@ public class CloudControllerServiceImpl implements CloudControllerService {
             if (log.isDebugEnabled()) {
                 log.debug("Starting the instance creator thread...");
             }
-            threadExecutor.execute(new InstanceCreator(memberContext, iaasProvider));
+            threadExecutor.execute(new InstanceCreator(memberContext, iaasProvider, payloadBytes));
 
             TopologyBuilder.handleMemberCreatedEvent(memberContext);
             return memberContext;
@@ -540,6 +608,77 @@ public class CloudControllerServiceImpl implements CloudControllerService {
             InvalidCartridgeTypeException, CloudControllerException {
 
         try {
+            MemberContext memberContext = getMemberContextToTerminate(memberId);
+
+            // check if status == active, if true, then this is a termination on member faulty
+            TopologyManager.acquireWriteLock();
+            try {
+                terminateInstance(memberContext, TopologyManager.getTopology());
+            } finally {
+                TopologyManager.releaseWriteLock();
+            }
+        } catch (InvalidMemberException e) {
+            String message = "Could not terminate instance: [member-id] " + memberId;
+            log.error(message, e);
+            throw e;
+        } catch (Exception e) {
+            String message = "Could not terminate instance: [member-id] " + memberId;
+            log.error(message, e);
+            throw new CloudControllerException(message, e);
+        }
+    }
+
+    @Override
+    public void terminateMemberInstances(String[] memberIds) throws InvalidMemberException,
+            InvalidCartridgeTypeException, CloudControllerException {
+
+        handleNullObject(memberIds, "Could not terminate instances, member ids is null.");
+
+        List<MemberContext> memberContexts = new ArrayList<MemberContext>(memberIds.length);
+        List<Exception> failures = new ArrayList<Exception>();
+        for (String memberId : memberIds) {
+            try {
+                memberContexts.add(getMemberContextToTerminate(memberId));
+            } catch (Exception e) {
+                log.error("Could not terminate instance: [member-id] " + memberId, e);
+                failures.add(e);
+            }
+        }
+
+        // Topology is locked once for the whole batch
+        int terminatedCount = 0;
+        if (!memberContexts.isEmpty()) {
+            TopologyManager.acquireWriteLock();
+            try {
+                Topology topology = TopologyManager.getTopology();
+                for (MemberContext memberContext : memberContexts) {
+                    try {
+                        terminateInstance(memberContext, topology);
+                        terminatedCount++;
+                    } catch (Exception e) {
+                        log.error("Could not terminate instance: [member-id] " + memberContext.getMemberId(), e);
+                        failures.add(e);
+                    }
+                }
+            } finally {
+                TopologyManager.releaseWriteLock();
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            if (terminatedCount == 0) {
+                Exception e = failures.get(0);
+                if (e instanceof InvalidMemberException) {
+                    throw (InvalidMemberException) e;
+                }
+                throw new CloudControllerException("Could not terminate instances", e);
+            }
+            log.warn(String.format("Some of the instances could not be terminated: [terminated] %d [failed] %d",
+                    terminatedCount, failures.size()));
+        }
+    }
+
+    private MemberContext getMemberContextToTerminate(String memberId) throws InvalidMemberException {
         handleNullObject(memberId, "Could not terminate instance, member id is null.");
 
         MemberContext memberContext = CloudControllerContext.getInstance().getMemberContextOfMemberId(memberId);
@@ -558,52 +697,45 @@ public class CloudControllerServiceImpl implements CloudControllerService {
             }
             CloudControllerServiceUtil.executeMemberTerminationPostProcess(memberContext);
         }
+        return memberContext;
+    }
 
-        // check if status == active, if true, then this is a termination on member faulty
-        TopologyManager.acquireWriteLock();
-        Topology topology = TopologyManager.getTopology();
-            org.apache.stratos.messaging.domain.topology.Service service = topology.getService(memberContext.getCartridgeType());
-
-            if (service != null) {
-                Cluster cluster = service.getCluster(memberContext.getClusterId());
-                if (cluster != null) {
-                    Member member = cluster.getMember(memberId);
-                    if (member != null) {
-                        // change member status if termination on a faulty member
-                        if (fixMemberStatus(member, topology)) {
-                            // set the time this member was added to ReadyToShutdown status
-                            memberContext.setObsoleteInitTime(System.currentTimeMillis());
-                        }
-
-                        // check if ready to shutdown member is expired and send
-                        // member terminated if it is.
-                        if (isMemberExpired(member, memberContext.getObsoleteInitTime(), memberContext.getObsoleteExpiryTime())) {
-                            if (log.isInfoEnabled()) {
-                                log.info(String.format(
-                                        "Member pending termination in ReadyToShutdown state exceeded expiry time. This member has to be manually deleted: %s",
-                                        memberContext.getMemberId()));
-                            }
+    /**
+     * Terminate the instance of the given member, topology write lock should be acquired by the caller.
+     */
+    private void terminateInstance(MemberContext memberContext, Topology topology) {
+        String memberId = memberContext.getMemberId();
+        org.apache.stratos.messaging.domain.topology.Service service = topology.getService(memberContext.getCartridgeType());
+
+        if (service != null) {
+            Cluster cluster = service.getCluster(memberContext.getClusterId());
+            if (cluster != null) {
+                Member member = cluster.getMember(memberId);
+                if (member != null) {
+                    // change member status if termination on a faulty member
+                    if (fixMemberStatus(member, topology)) {
+                        // set the time this member was added to ReadyToShutdown status
+                        memberContext.setObsoleteInitTime(System.currentTimeMillis());
+                    }
 
-                            CloudControllerServiceUtil.executeMemberTerminationPostProcess(memberContext);
-                            return;
+                    // check if ready to shutdown member is expired and send
+                    // member terminated if it is.
+                    if (isMemberExpired(member, memberContext.getObsoleteInitTime(), memberContext.getObsoleteExpiryTime())) {
+                        if (log.isInfoEnabled()) {
+                            log.info(String.format(
+                                    "Member pending termination in ReadyToShutdown state exceeded expiry time. This member has to be manually deleted: %s",
+                                    memberContext.getMemberId()));
                         }
+
+                        CloudControllerServiceUtil.executeMemberTerminationPostProcess(memberContext);
+                        return;
                     }
                 }
             }
-
-            ThreadExecutor exec = ThreadExecutor.getInstance();
-            exec.execute(new InstanceTerminator(memberContext));
-        } catch (InvalidMemberException e) {
-            String message = "Could not terminate instance: [member-id] " + memberId;
-            log.error(message, e);
-            throw e;
-        } catch (Exception e) {
-            String message = "Could not terminate instance: [member-id] " + memberId;
-            log.error(message, e);
-            throw new CloudControllerException(message, e);
-        } finally {
-            TopologyManager.releaseWriteLock();
         }
+
+        ThreadExecutor exec = ThreadExecutor.getInstance();
+        exec.execute(new InstanceTerminator(memberContext));
     }
 
     /**
@@ -827,22 +959,31 @@ public class CloudControllerServiceImpl implements CloudControllerService {
             };
             Runnable unregister = new Runnable() {
                 public void run() {
+                    ClusterContext ctxt = CloudControllerContext.getInstance().getClusterContext(clusterId_);
+                    if (ctxt == null) {
+                        String msg = "Service unregistration failed. Cluster not found: [cluster-id] " + clusterId_;
+                        log.error(msg);
+                        return;
+                    }
+                    Collection<Member> members = TopologyManager.getTopology().
+                            getService(ctxt.getCartridgeType()).getCluster(clusterId_).getMembers();
+
+                    // Cluster lock is taken only for the removal, the wait does not block container
+                    // terminations of the cluster or other clusters sharing its lock stripe
+                    while (members.size() > 0) {
+                        //waiting until all the members got removed from the Topology/ timed out
+                        CloudControllerUtil.sleep(1000);
+                    }
+
                     Lock lock = null;
                     try {
-                        lock = CloudControllerContext.getInstance().acquireClusterContextWriteLock();
-                        ClusterContext ctxt = CloudControllerContext.getInstance().getClusterContext(clusterId_);
+                        lock = CloudControllerContext.getInstance().acquireClusterContextWriteLock(clusterId_);
+                        ctxt = CloudControllerContext.getInstance().getClusterContext(clusterId_);
                         if (ctxt == null) {
                             String msg = "Service unregistration failed. Cluster not found: [cluster-id] " + clusterId_;
                             log.error(msg);
                             return;
                         }
-                        Collection<Member> members = TopologyManager.getTopology().
-                                getService(ctxt.getCartridgeType()).getCluster(clusterId_).getMembers();
-
-                        while (members.size() > 0) {
-                            //waiting until all the members got removed from the Topology/ timed out
-                            CloudControllerUtil.sleep(1000);
-                        }
 
                         log.info("Unregistration of service cluster: " + clusterId_);
                         deleteVolumes(ctxt);
@@ -858,7 +999,7 @@ public class CloudControllerServiceImpl implements CloudControllerService {
                     if (ctxt.isVolumeRequired()) {
                         Lock lock = null;
                         try {
-                            lock = CloudControllerContext.getInstance().acquireCartridgesWriteLock();
+                            lock = CloudControllerContext.getInstance().acquireCartridgeWriteLock(ctxt.getCartridgeType());
 
                             Cartridge cartridge = CloudControllerContext.getInstance().getCartridge(ctxt.getCartridgeType());
                             if (cartridge != null && cartridge.getIaases() != null && ctxt.getVolumes() != null) {
@@ -905,7 +1046,7 @@ public class CloudControllerServiceImpl implements CloudControllerService {
 
         Lock lock = null;
         try {
-            lock = CloudControllerContext.getInstance().acquireCartridgesWriteLock();
+            lock = CloudControllerContext.getInstance().acquireCartridgeWriteLock(cartridgeType);
 
             List<String> validatedPartitions = CloudControllerContext.getInstance().getPartitionIds(cartridgeType);
             if (validatedPartitions != null) {
@@ -1038,9 +1179,14 @@ public class CloudControllerServiceImpl implements CloudControllerService {
             throw new ApplicationClusterRegistrationException(errorMsg);
         }
 
-        Lock lock = null;
+        List<String> clusterIds = new ArrayList<String>();
+        for (ApplicationClusterContext appClusterCtxt : appClustersContexts) {
+            clusterIds.add(appClusterCtxt.getClusterId());
+        }
+
+        List<Lock> locks = null;
         try {
-            lock = CloudControllerContext.getInstance().acquireClusterContextWriteLock();
+            locks = CloudControllerContext.getInstance().acquireClusterContextWriteLocks(clusterIds);
 
             // Create a Cluster Context obj. for each of the Clusters in the Application
             List<Cluster> clusters = new ArrayList<Cluster>();
@@ -1105,8 +1251,8 @@ public class CloudControllerServiceImpl implements CloudControllerService {
             TopologyBuilder.handleApplicationClustersCreated(appId, clusters);
             CloudControllerContext.getInstance().persist();
         } finally {
-            if (lock != null) {
-                CloudControllerContext.getInstance().releaseWriteLock(lock);
+            if (locks != null) {
+                CloudControllerContext.getInstance().releaseWriteLocks(locks);
             }
         }
     }
@@ -1116,7 +1262,7 @@ public class CloudControllerServiceImpl implements CloudControllerService {
                                       String networkPartitionId) throws ClusterInstanceCreationException {
         Lock lock = null;
         try {
-            lock = CloudControllerContext.getInstance().acquireClusterContextWriteLock();
+            lock = CloudControllerContext.getInstance().acquireClusterContextWriteLock(clusterId);
             TopologyBuilder.handleClusterInstanceCreated(serviceType, clusterId, alias,
                     instanceId, partitionId, networkPartitionId);
 
@@ -1307,6 +1453,7 @@ public class CloudControllerServiceImpl implements CloudControllerService {
 
                 // Update information model
                 kubernetesClusterStored.setKubernetesHosts(kubernetesHostsArray);
+                CloudControllerContext.getInstance().updateKubernetesCluster(kubernetesClusterStored);
 
                 if (log.isInfoEnabled()) {
                     log.info(String.format("Kubernetes host removed successfully: [id] %s", kubernetesHostId));
@@ -1340,6 +1487,7 @@ public class CloudControllerServiceImpl implements CloudControllerService {
 
                 // Update information model
                 kubernetesClusterStored.setKubernetesMaster(kubernetesMaster);
+                CloudControllerContext.getInstance().updateKubernetesCluster(kubernetesClusterStored);
 
                 CloudControllerContext.getInstance().persist();
 
@@ -30,10 +30,14 @@ import org.apache.stratos.cloud.controller.messaging.publisher.StatisticsDataPub
 import org.apache.stratos.cloud.controller.messaging.topology.TopologyBuilder;
 import org.apache.stratos.messaging.domain.topology.MemberStatus;
 
+import java.util.concurrent.Callable;
 import java.util.concurrent.locks.Lock;
 
 /**
- * Instance creator runnable.
+ * Instance creator runnable. Spawns an instance in three stages: the instance is started on the IaaS,
+ * volumes are attached and IP addresses are allocated once it is ready, and finally the member is
+ * registered in the topology. The number of concurrent spawns per IaaS is limited by
+ * {@link InstanceSpawnController}, locks are only held while updating the cloud controller context.
  */
 public class InstanceCreator implements Runnable {
 
@@ -41,39 +45,55 @@ public class InstanceCreator implements Runnable {
 
     private MemberContext memberContext;
     private IaasProvider iaasProvider;
+    private byte[] payload;
+    private long requestTime;
 
-    public InstanceCreator(MemberContext memberContext, IaasProvider iaasProvider) {
+    public InstanceCreator(MemberContext memberContext, IaasProvider iaasProvider, byte[] payload) {
         this.memberContext = memberContext;
         this.iaasProvider = iaasProvider;
+        this.payload = payload;
+        this.requestTime = System.nanoTime();
     }
 
     @Override
     public void run() {
-        Lock lock = null;
+        String iaasType = iaasProvider.getType();
+        InstanceSpawnController spawnController = InstanceSpawnController.getInstance();
+        final InstanceSpawnController.SpawnStatistics statistics = spawnController.getStatistics(iaasType);
         try {
-            lock = CloudControllerContext.getInstance().acquireMemberContextWriteLock();
-
-            String clusterId = memberContext.getClusterId();
-            Partition partition = memberContext.getPartition();
-            ClusterContext clusterContext = CloudControllerContext.getInstance().getClusterContext(clusterId);
-            Iaas iaas = iaasProvider.getIaas();
-
-            // Start instance
-            memberContext = startInstance(iaas, memberContext);
-
-            if (log.isInfoEnabled()) {
-                log.info(String.format("Instance started successfully: [cartridge-type] %s [cluster-id] %s [instance-id] %s " +
-                                "[default-private-ip] %s [default-public-ip] %s",
-                        memberContext.getCartridgeType(), memberContext.getClusterId(),
-                        memberContext.getInstanceId(), memberContext.getDefaultPrivateIP(),
-                        memberContext.getDefaultPublicIP()));
-            }
+            final String clusterId = memberContext.getClusterId();
+            final Partition partition = memberContext.getPartition();
+            final ClusterContext clusterContext = CloudControllerContext.getInstance().getClusterContext(clusterId);
+            final Iaas iaas = iaasProvider.getIaas();
+
+            memberContext = spawnController.runWithPermit(iaasType, new Callable<MemberContext>() {
+                @Override
+                public MemberContext call() throws Exception {
+                    long submitTime = System.nanoTime();
+                    statistics.getQueueTime().update(submitTime - requestTime);
+
+                    // Start instance
+                    MemberContext startedMemberContext = startInstance(iaas, memberContext);
+                    long readyTime = System.nanoTime();
+                    statistics.getSubmitTime().update(readyTime - submitTime);
+
+                    if (log.isInfoEnabled()) {
+                        log.info(String.format("Instance started successfully: [cartridge-type] %s [cluster-id] %s " +
+                                        "[instance-id] %s [default-private-ip] %s [default-public-ip] %s",
+                                startedMemberContext.getCartridgeType(), startedMemberContext.getClusterId(),
+                                startedMemberContext.getInstanceId(), startedMemberContext.getDefaultPrivateIP(),
+                                startedMemberContext.getDefaultPublicIP()));
+                    }
 
-            // Attach volumes
-            attachVolumes(iaas, clusterContext, memberContext);
+                    // Attach volumes
+                    attachVolumes(iaas, clusterContext, startedMemberContext);
 
-            // Allocate IP addresses
-            iaas.allocateIpAddresses(clusterId, memberContext, partition);
+                    // Allocate IP addresses
+                    iaas.allocateIpAddresses(clusterId, startedMemberContext, partition);
+                    statistics.getReadyTime().updateSince(readyTime);
+                    return startedMemberContext;
+                }
+            });
 
             // Update topology
             TopologyBuilder.handleMemberInitializedEvent(memberContext);
@@ -87,19 +107,24 @@ public class InstanceCreator implements Runnable {
                     memberContext.getCartridgeType(),
                     MemberStatus.Initialized.toString(),
                     memberContext.getInstanceMetadata());
+            statistics.getSpawnTime().updateSince(requestTime);
+        } catch (InterruptedException e) {
+            statistics.spawnFailed();
+            Thread.currentThread().interrupt();
+            log.error(String.format("Instance start interrupted: [cartridge-type] %s [cluster-id] %s",
+                    memberContext.getCartridgeType(), memberContext.getClusterId()), e);
         } catch (Exception e) {
+            statistics.spawnFailed();
             String message = String.format("Could not start instance: [cartridge-type] %s [cluster-id] %s",
                     memberContext.getCartridgeType(), memberContext.getClusterId());
             log.error(message, e);
-        } finally {
-            if (lock != null) {
-                CloudControllerContext.getInstance().releaseWriteLock(lock);
-            }
         }
     }
 
     private MemberContext startInstance(Iaas iaas, MemberContext memberContext) throws CartridgeNotFoundException {
-        memberContext = iaas.startInstance(memberContext);
+        // The IaaS instance is shared by concurrent spawns, hence the payload of this member
+        // is passed to the IaaS instead of being set on it
+        memberContext = iaas.startInstance(memberContext, payload);
 
         // Validate instance id
         String instanceId = memberContext.getInstanceId();
@@ -111,9 +136,16 @@ public class InstanceCreator implements Runnable {
         }
 
         // Update member context and persist changes
-        CloudControllerContext.getInstance().updateMemberContext(memberContext);
-        CloudControllerContext.getInstance().persist();
-
+        Lock lock = null;
+        try {
+            lock = CloudControllerContext.getInstance().acquireMemberContextWriteLock(memberContext.getMemberId());
+            CloudControllerContext.getInstance().updateMemberContext(memberContext);
+            CloudControllerContext.getInstance().persist();
+        } finally {
+            if (lock != null) {
+                CloudControllerContext.getInstance().releaseWriteLock(lock);
+            }
+        }
         return memberContext;
     }
 
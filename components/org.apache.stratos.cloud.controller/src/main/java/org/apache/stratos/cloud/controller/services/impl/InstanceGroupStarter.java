@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.cloud.controller.services.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.cloud.controller.domain.InstanceContext;
+import org.apache.stratos.cloud.controller.domain.MemberContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Starts a group of instances of a single partition, one after the other. Instances which could not be
+ * started are skipped and the failures are collected, hence the rest of the group is still started.
+ */
+public class InstanceGroupStarter implements Callable<List<MemberContext>> {
+
+    private static final Log log = LogFactory.getLog(InstanceGroupStarter.class);
+
+    private final CloudControllerServiceImpl cloudControllerService;
+    private final List<InstanceContext> instanceContexts;
+    private final List<Exception> failures;
+
+    public InstanceGroupStarter(CloudControllerServiceImpl cloudControllerService,
+                                List<InstanceContext> instanceContexts) {
+        this.cloudControllerService = cloudControllerService;
+        this.instanceContexts = instanceContexts;
+        this.failures = new ArrayList<Exception>();
+    }
+
+    @Override
+    public List<MemberContext> call() {
+        List<MemberContext> memberContexts = new ArrayList<MemberContext>(instanceContexts.size());
+        for (InstanceContext instanceContext : instanceContexts) {
+            try {
+                memberContexts.add(cloudControllerService.startInstance(instanceContext));
+            } catch (Exception e) {
+                // Failure is logged by the service
+                if (log.isDebugEnabled()) {
+                    log.debug("Skipping instance which could not be started: " + instanceContext);
+                }
+                failures.add(e);
+            }
+        }
+        return memberContexts;
+    }
+
+    /**
+     * @return failures of the instances which could not be started, to be read once the group is started
+     */
+    public List<Exception> getFailures() {
+        return failures;
+    }
+}
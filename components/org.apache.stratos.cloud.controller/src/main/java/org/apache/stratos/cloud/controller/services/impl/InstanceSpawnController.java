@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.cloud.controller.services.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.cloud.controller.util.CloudControllerConstants;
+import org.apache.stratos.common.statistics.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the number of instances being spawned concurrently on each IaaS and records spawn
+ * latencies. The limit of an IaaS type is read from stratos.cloud.controller.spawn.concurrency.[iaas-type],
+ * falling back to stratos.cloud.controller.spawn.concurrency.
+ */
+public class InstanceSpawnController {
+
+    private static final Log log = LogFactory.getLog(InstanceSpawnController.class);
+
+    private static volatile InstanceSpawnController instance;
+
+    private final int defaultConcurrency;
+    private final Map<String, Semaphore> iaasTypeToPermitsMap;
+    private final Map<String, SpawnStatistics> iaasTypeToStatisticsMap;
+
+    private InstanceSpawnController() {
+        this(Integer.getInteger(CloudControllerConstants.SPAWN_CONCURRENCY,
+                CloudControllerConstants.DEFAULT_SPAWN_CONCURRENCY));
+    }
+
+    InstanceSpawnController(int defaultConcurrency) {
+        this.defaultConcurrency = defaultConcurrency;
+        iaasTypeToPermitsMap = new ConcurrentHashMap<String, Semaphore>();
+        iaasTypeToStatisticsMap = new ConcurrentHashMap<String, SpawnStatistics>();
+    }
+
+    public static InstanceSpawnController getInstance() {
+        if (instance == null) {
+            synchronized (InstanceSpawnController.class) {
+                if (instance == null) {
+                    instance = new InstanceSpawnController();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Wait until an instance can be spawned on the given IaaS.
+     */
+    public void acquirePermit(String iaasType) throws InterruptedException {
+        getPermits(iaasType).acquire();
+    }
+
+    public void releasePermit(String iaasType) {
+        getPermits(iaasType).release();
+    }
+
+    /**
+     * Run the given spawn stage once an instance can be spawned on the given IaaS. The permit is
+     * released when the stage completes, including when it fails.
+     */
+    public <T> T runWithPermit(String iaasType, Callable<T> stage) throws Exception {
+        acquirePermit(iaasType);
+        try {
+            return stage.call();
+        } finally {
+            releasePermit(iaasType);
+        }
+    }
+
+    /**
+     * @return number of instances which can currently be spawned on the given IaaS without waiting
+     */
+    public int getAvailablePermits(String iaasType) {
+        return getPermits(iaasType).availablePermits();
+    }
+
+    private Semaphore getPermits(String iaasType) {
+        Semaphore permits = iaasTypeToPermitsMap.get(iaasType);
+        if (permits == null) {
+            synchronized (iaasTypeToPermitsMap) {
+                permits = iaasTypeToPermitsMap.get(iaasType);
+                if (permits == null) {
+                    int concurrency = Integer.getInteger(CloudControllerConstants.SPAWN_CONCURRENCY + "." +
+                            iaasType, defaultConcurrency);
+                    permits = new Semaphore(Math.max(1, concurrency), true);
+                    iaasTypeToPermitsMap.put(iaasType, permits);
+                    if (log.isDebugEnabled()) {
+                        log.debug(String.format("Instance spawn concurrency limit set: [iaas-type] %s [limit] %d",
+                                iaasType, concurrency));
+                    }
+                }
+            }
+        }
+        return permits;
+    }
+
+    public SpawnStatistics getStatistics(String iaasType) {
+        SpawnStatistics statistics = iaasTypeToStatisticsMap.get(iaasType);
+        if (statistics == null) {
+            synchronized (iaasTypeToStatisticsMap) {
+                statistics = iaasTypeToStatisticsMap.get(iaasType);
+                if (statistics == null) {
+                    statistics = new SpawnStatistics(iaasType);
+                    iaasTypeToStatisticsMap.put(iaasType, statistics);
+                }
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * @return spawn statistics by IaaS type
+     */
+    public Map<String, SpawnStatistics> getStatistics() {
+        return Collections.unmodifiableMap(iaasTypeToStatisticsMap);
+    }
+
+    /**
+     * Latencies of the stages of spawning instances on an IaaS.
+     */
+    public static class SpawnStatistics {
+
+        private final LatencyHistogram queueTime;
+        private final LatencyHistogram submitTime;
+        private final LatencyHistogram readyTime;
+        private final LatencyHistogram spawnTime;
+        private final AtomicLong failedCount;
+
+        private SpawnStatistics(String iaasType) {
+            queueTime = new LatencyHistogram(iaasType + "-spawn-queue-time");
+            submitTime = new LatencyHistogram(iaasType + "-spawn-submit-time");
+            readyTime = new LatencyHistogram(iaasType + "-spawn-ready-time");
+            spawnTime = new LatencyHistogram(iaasType + "-spawn-time");
+            failedCount = new AtomicLong();
+        }
+
+        /**
+         * @return time spent waiting for the concurrency limit of the IaaS
+         */
+        public LatencyHistogram getQueueTime() {
+            return queueTime;
+        }
+
+        /**
+         * @return time taken by the IaaS to start the instance
+         */
+        public LatencyHistogram getSubmitTime() {
+            return submitTime;
+        }
+
+        /**
+         * @return time taken to attach volumes and allocate IP addresses
+         */
+        public LatencyHistogram getReadyTime() {
+            return readyTime;
+        }
+
+        /**
+         * @return time taken from the spawn request to the member being initialized in the topology
+         */
+        public LatencyHistogram getSpawnTime() {
+            return spawnTime;
+        }
+
+        public long getFailedCount() {
+            return failedCount.get();
+        }
+
+        void spawnFailed() {
+            failedCount.incrementAndGet();
+        }
+    }
+}
@@ -51,7 +51,7 @@ public class InstanceTerminator implements Runnable {
     public void run() {
         Lock lock = null;
         try {
-            lock = CloudControllerContext.getInstance().acquireMemberContextWriteLock();
+            lock = CloudControllerContext.getInstance().acquireMemberContextWriteLock(memberContext.getMemberId());
             // Terminate the instance
             iaas.terminateInstance(memberContext);
 
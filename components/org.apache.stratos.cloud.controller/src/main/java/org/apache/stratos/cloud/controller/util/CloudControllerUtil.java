@@ -37,7 +37,6 @@ import org.apache.stratos.cloud.controller.domain.kubernetes.KubernetesCluster;
 import org.apache.stratos.cloud.controller.domain.kubernetes.KubernetesHost;
 import org.apache.stratos.cloud.controller.domain.kubernetes.KubernetesMaster;
 import org.apache.stratos.messaging.domain.topology.Topology;
-import org.wso2.carbon.registry.core.exceptions.RegistryException;
 
 import com.google.common.net.InetAddresses;
 
@@ -312,15 +311,6 @@ public class CloudControllerUtil {
         return javaUtilsProperties;
     }
     
-    public static void persistTopology(Topology topology) {
-      try {
-          RegistryManager.getInstance().persist(CloudControllerConstants.TOPOLOGY_RESOURCE, topology);
-      } catch (RegistryException e) {
-          String msg = "Failed to persist the Topology in registry. ";
-          log.fatal(msg, e);
-      }
-    }
-
     public static Topology retrieveTopology() {
         try {
             Object dataObj = RegistryManager.getInstance().read(CloudControllerConstants.TOPOLOGY_RESOURCE);
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.cloud.controller.context;
+
+import org.junit.Test;
+import org.wso2.carbon.registry.core.exceptions.RegistryException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests journal, snapshot and recovery behaviour of the cloud controller context persister.
+ */
+public class CloudControllerContextPersisterTest {
+
+    private static final String SNAPSHOT = "/cloud.controller/data";
+    private static final String JOURNAL = "/cloud.controller/journal";
+    private static final String MEMBERS = "members";
+
+    @Test
+    public void testJournalContainsLatestStateOfDirtyEntities() throws Exception {
+        TestContextSource source = new TestContextSource();
+        TestContextStore store = new TestContextStore();
+        CloudControllerContextPersister persister = createPersister(source, store, null, 0, 100);
+
+        source.members.put("member-1", "starting");
+        persister.markDirty(MEMBERS, "member-1");
+        source.members.put("member-1", "active");
+        persister.markDirty(MEMBERS, "member-1");
+        source.members.put("member-2", "starting");
+        persister.markDirty(MEMBERS, "member-2");
+        source.members.remove("member-2");
+        persister.markDirty(MEMBERS, "member-2");
+        persister.requestFlush();
+
+        CloudControllerContextPersister.JournalBatch batch =
+                (CloudControllerContextPersister.JournalBatch) store.read(JOURNAL + "/1");
+        assertNotNull(batch);
+        assertEquals(2, batch.getEntries().size());
+        for (CloudControllerContextPersister.JournalEntry entry : batch.getEntries()) {
+            if ("member-1".equals(entry.getKey())) {
+                assertEquals("active", entry.getValue());
+            } else {
+                assertNull("Removed entity should be written as a tombstone", entry.getValue());
+            }
+        }
+        assertEquals(1, persister.getJournalSequence());
+        assertTrue(persister.getBytesWritten() > 0);
+
+        // Nothing dirty, nothing written
+        persister.requestFlush();
+        assertEquals(1, persister.getJournalBatchCount());
+    }
+
+    @Test
+    public void testEntityStateCapturedWhenMarkedDirty() throws Exception {
+        TestContextSource source = new TestContextSource();
+        TestContextStore store = new TestContextStore();
+        CloudControllerContextPersister persister = createPersister(source, store, null, 0, 100);
+
+        ArrayList<String> ports = new ArrayList<String>();
+        ports.add("80");
+        source.members.put("member-1", ports);
+        persister.markDirty(MEMBERS, "member-1");
+
+        // Changes made after marking the entity as dirty are not seen by the persister
+        ports.add("443");
+        persister.requestFlush();
+
+        CloudControllerContextPersister.JournalBatch batch =
+                (CloudControllerContextPersister.JournalBatch) store.read(JOURNAL + "/1");
+        assertEquals(1, batch.getEntries().size());
+        assertEquals(Collections.singletonList("80"), batch.getEntries().get(0).getValue());
+    }
+
+    @Test
+    public void testRecoveryReplaysJournalAfterSnapshot() throws Exception {
+        TestContextSource source = new TestContextSource();
+        TestContextStore store = new TestContextStore();
+        CloudControllerContextPersister persister = createPersister(source, store, null, 0, 2);
+
+        source.members.put("member-1", "active");
+        persister.markDirty(MEMBERS, "member-1");
+        persister.requestFlush();
+        source.members.put("member-2", "active");
+        persister.markDirty(MEMBERS, "member-2");
+        persister.requestFlush();
+
+        // Maximum number of journal batches reached, next flush compacts the journal
+        source.members.put("member-3", "active");
+        persister.markDirty(MEMBERS, "member-3");
+        persister.requestFlush();
+        assertEquals(1, persister.getSnapshotCount());
+        assertNull(store.read(JOURNAL + "/1"));
+
+        source.members.remove("member-1");
+        persister.markDirty(MEMBERS, "member-1");
+        source.members.put("member-4", "active");
+        persister.markDirty(MEMBERS, "member-4");
+        persister.requestFlush();
+        assertEquals(3, persister.getJournalSequence());
+
+        // Recover in a new context from the snapshot and the journal
+        CloudControllerContextPersister.Snapshot snapshot =
+                (CloudControllerContextPersister.Snapshot) store.read(SNAPSHOT);
+        assertEquals(2, snapshot.getJournalSequence());
+        TestContextSource recoveredSource = new TestContextSource();
+        assertEquals(3, snapshot.restore(recoveredSource.persistentMaps));
+        CloudControllerContextPersister recoveredPersister = createPersister(recoveredSource, store, null, 0, 2);
+        assertEquals(1, recoveredPersister.recover(snapshot.getJournalSequence()));
+
+        assertEquals(source.members, recoveredSource.members);
+        assertEquals(3, recoveredPersister.getJournalSequence());
+    }
+
+    @Test
+    public void testWriteBehindCoalescesPersistRequests() throws Exception {
+        TestContextSource source = new TestContextSource();
+        TestContextStore store = new TestContextStore();
+        ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+        try {
+            CloudControllerContextPersister persister = createPersister(source, store, executorService, 200, 100);
+            for (int i = 0; i < 10; i++) {
+                source.members.put("member-" + i, "active");
+                persister.markDirty(MEMBERS, "member-" + i);
+                persister.requestFlush();
+            }
+            assertEquals(0, persister.getJournalBatchCount());
+
+            long timeout = System.currentTimeMillis() + 5000;
+            while ((persister.getJournalBatchCount() == 0) && (System.currentTimeMillis() < timeout)) {
+                Thread.sleep(50);
+            }
+            assertEquals(1, persister.getJournalBatchCount());
+            assertEquals(9, persister.getCoalescedRequestCount());
+            CloudControllerContextPersister.JournalBatch batch =
+                    (CloudControllerContextPersister.JournalBatch) store.read(JOURNAL + "/1");
+            assertEquals(10, batch.getEntries().size());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private CloudControllerContextPersister createPersister(TestContextSource source, TestContextStore store,
+                                                            ScheduledExecutorService executorService,
+                                                            long writeBehindDelay, int maxJournalBatches) {
+        return new CloudControllerContextPersister(source, store, SNAPSHOT, JOURNAL, executorService,
+                writeBehindDelay, 0, maxJournalBatches);
+    }
+
+    private static class TestContextSource implements CloudControllerContextPersister.ContextSource {
+
+        private final Map<String, Object> members = new ConcurrentHashMap<String, Object>();
+        private final Map<String, Map> persistentMaps = Collections.<String, Map>singletonMap(MEMBERS, members);
+
+        @Override
+        public Map getPersistentMap(String mapName) {
+            return persistentMaps.get(mapName);
+        }
+
+        @Override
+        public Serializable createSnapshot(long journalSequence) throws IOException {
+            CloudControllerContextPersister.Snapshot snapshot =
+                    new CloudControllerContextPersister.Snapshot(journalSequence);
+            for (Map.Entry<String, Object> entry : members.entrySet()) {
+                snapshot.addEntry(MEMBERS, entry.getKey(), entry.getValue());
+            }
+            return snapshot;
+        }
+    }
+
+    private static class TestContextStore implements CloudControllerContextPersister.ContextStore {
+
+        private final Map<String, byte[]> resources = new ConcurrentHashMap<String, byte[]>();
+
+        @Override
+        public void write(String resourcePath, byte[] content) {
+            resources.put(resourcePath, content);
+        }
+
+        @Override
+        public Object read(String resourcePath) throws RegistryException {
+            byte[] content = resources.get(resourcePath);
+            if (content == null) {
+                return null;
+            }
+            try {
+                return new ObjectInputStream(new ByteArrayInputStream(content)).readObject();
+            } catch (Exception e) {
+                throw new RegistryException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void remove(String resourcePath) {
+            for (String path : resources.keySet()) {
+                if (path.startsWith(resourcePath)) {
+                    resources.remove(path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.cloud.controller.domain.kubernetes;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests service port allocation of the kubernetes cluster context.
+ */
+public class KubernetesClusterContextTest {
+
+    private static final int LOWER_PORT = 4000;
+    private static final int UPPER_PORT = 4999;
+
+    @Test
+    public void testConcurrentPortAllocationsAreUnique() throws Exception {
+        final KubernetesClusterContext context = new KubernetesClusterContext("kub-cluster-1", "127.0.0.1", "8080",
+                LOWER_PORT, UPPER_PORT);
+        final int threads = 8;
+        final int portsPerThread = 100;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Integer>>> futures = new ArrayList<Future<List<Integer>>>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executorService.submit(new Callable<List<Integer>>() {
+                    @Override
+                    public List<Integer> call() throws Exception {
+                        start.await();
+                        List<Integer> ports = new ArrayList<Integer>();
+                        for (int j = 0; j < portsPerThread; j++) {
+                            ports.add(context.getNextServicePort());
+                        }
+                        return ports;
+                    }
+                }));
+            }
+            start.countDown();
+
+            Set<Integer> allocatedPorts = new HashSet<Integer>();
+            for (Future<List<Integer>> future : futures) {
+                for (Integer port : future.get(10, TimeUnit.SECONDS)) {
+                    assertTrue("Port out of range: " + port, (port >= LOWER_PORT) && (port <= UPPER_PORT));
+                    assertTrue("Port allocated twice: " + port, allocatedPorts.add(port));
+                }
+            }
+            assertEquals(threads * portsPerThread, allocatedPorts.size());
+            assertEquals((UPPER_PORT - LOWER_PORT + 1) - allocatedPorts.size(), context.getServicePorts().size());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDeallocatedPortIsAllocatedAgain() {
+        KubernetesClusterContext context = new KubernetesClusterContext("kub-cluster-1", "127.0.0.1", "8080",
+                LOWER_PORT, LOWER_PORT + 1);
+        int port1 = context.getNextServicePort();
+        int port2 = context.getNextServicePort();
+        assertEquals(-1, context.getNextServicePort());
+
+        context.deallocatePort(port1);
+        context.deallocatePort(port1);
+        assertEquals(port1, context.getNextServicePort());
+        assertEquals(-1, context.getNextServicePort());
+        assertTrue(port1 != port2);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.cloud.controller.context;
+package org.apache.stratos.cloud.controller.messaging.topology;
+
+import org.apache.stratos.cloud.controller.util.CloudControllerConstants;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests batching of topology updates into registry writes and the final write on stopping persistence.
+ */
+public class TopologyManagerTest {
+
+    @Test
+    public void testUpdatesCoalescedAndFlushedOnStop() throws Exception {
+        TestTopologyStore store = new TestTopologyStore();
+        TopologyManager.setTopologyStore(store);
+
+        // Updates within the persistence delay are written once
+        Topology topology = new Topology();
+        for (int i = 0; i < 10; i++) {
+            TopologyManager.updateTopology(topology);
+        }
+        assertTrue(store.resourcePaths.isEmpty());
+        long timeout = System.currentTimeMillis() + CloudControllerConstants.DEFAULT_TOPOLOGY_PERSISTENCE_DELAY * 5;
+        while (store.resourcePaths.isEmpty() && (System.currentTimeMillis() < timeout)) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(CloudControllerConstants.DEFAULT_TOPOLOGY_PERSISTENCE_DELAY / 2);
+        assertEquals(Collections.singletonList(CloudControllerConstants.TOPOLOGY_RESOURCE), store.resourcePaths);
+        assertEquals(TopologyManager.getTopologyVersion(), TopologyManager.getPersistedVersion());
+
+        // Nothing is written if the topology has not been updated since it was persisted
+        TopologyManager.persistTopology();
+        assertEquals(1, store.resourcePaths.size());
+
+        // Pending updates are written on stop without waiting for the persistence delay
+        TopologyManager.updateTopology(topology);
+        TopologyManager.updateTopology(topology);
+        TopologyManager.stopPersistence();
+        assertEquals(2, store.resourcePaths.size());
+        assertEquals(TopologyManager.getTopologyVersion(), TopologyManager.getPersistedVersion());
+        assertEquals(2, TopologyManager.getPersistedSnapshotCount());
+    }
+
+    private static class TestTopologyStore implements TopologyManager.TopologyStore {
+        private final List<String> resourcePaths = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void write(String resourcePath, byte[] content) {
+            assertTrue(content.length > 0);
+            resourcePaths.add(resourcePath);
+        }
+    }
+}
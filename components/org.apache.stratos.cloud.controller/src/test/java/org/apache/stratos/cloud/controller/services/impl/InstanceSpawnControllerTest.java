@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.cloud.controller.services.impl;
+
+import org.apache.stratos.cloud.controller.util.CloudControllerConstants;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the per IaaS concurrency limits of the instance spawn controller.
+ */
+public class InstanceSpawnControllerTest {
+
+    private static final String IAAS_TYPE = "mock";
+
+    @Test
+    public void testConcurrentSpawnsAreLimitedPerIaas() throws Exception {
+        final int limit = 3;
+        final InstanceSpawnController spawnController = new InstanceSpawnController(limit);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(executorService.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        return spawnController.runWithPermit(IAAS_TYPE, new Callable<Integer>() {
+                            @Override
+                            public Integer call() throws Exception {
+                                int count = running.incrementAndGet();
+                                updateMax(maxRunning, count);
+                                release.await();
+                                running.decrementAndGet();
+                                return count;
+                            }
+                        });
+                    }
+                }));
+            }
+
+            // Wait until the limit is reached, remaining spawns should be queued
+            long timeout = System.currentTimeMillis() + 5000;
+            while ((running.get() < limit) && (System.currentTimeMillis() < timeout)) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            assertEquals(limit, running.get());
+            assertEquals(0, spawnController.getAvailablePermits(IAAS_TYPE));
+
+            // Spawns of another IaaS are not limited by the permits of this IaaS
+            assertEquals(limit, spawnController.getAvailablePermits("other"));
+
+            release.countDown();
+            for (Future<Integer> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+            assertEquals(limit, maxRunning.get());
+            assertEquals(limit, spawnController.getAvailablePermits(IAAS_TYPE));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedSpawnReleasesPermit() throws Exception {
+        InstanceSpawnController spawnController = new InstanceSpawnController(1);
+        try {
+            spawnController.runWithPermit(IAAS_TYPE, new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    throw new IllegalStateException("Could not start instance");
+                }
+            });
+            fail("Spawn failure should be thrown");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(1, spawnController.getAvailablePermits(IAAS_TYPE));
+
+        // Next spawn should not wait for the permit of the failed spawn
+        String result = spawnController.runWithPermit(IAAS_TYPE, new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return "started";
+            }
+        });
+        assertEquals("started", result);
+    }
+
+    @Test
+    public void testIaasConcurrencyOverridesDefault() throws Exception {
+        String property = CloudControllerConstants.SPAWN_CONCURRENCY + ".openstack";
+        System.setProperty(property, "5");
+        try {
+            InstanceSpawnController spawnController = new InstanceSpawnController(2);
+            assertEquals(5, spawnController.getAvailablePermits("openstack"));
+            assertEquals(2, spawnController.getAvailablePermits("ec2"));
+        } finally {
+            System.clearProperty(property);
+        }
+    }
+
+    private static void updateMax(AtomicInteger max, int value) {
+        int current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+}
@@ -30,6 +30,7 @@ public class AutoscalePolicyBean {
     private LoadThresholdsBean loadThresholds;
     private boolean isPublic;
     private float instanceRoundingFactor;
+    private String scalingDecisionEngine;
 
     public String getId() {
         return id;
@@ -79,4 +80,12 @@ public class AutoscalePolicyBean {
     public void setInstanceRoundingFactor(float instanceRoundingFactor) {
         this.instanceRoundingFactor = instanceRoundingFactor;
     }
+
+    public String getScalingDecisionEngine() {
+        return scalingDecisionEngine;
+    }
+
+    public void setScalingDecisionEngine(String scalingDecisionEngine) {
+        this.scalingDecisionEngine = scalingDecisionEngine;
+    }
 }
@@ -16,23 +16,28 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package org.apache.stratos.load.balancer.statistics;
 
-import java.util.concurrent.Callable;
+package org.apache.stratos.common.clustering;
 
 /**
- * In-flight request decrement callable definition.
+ * Distributed map entry listener interface.
  */
-public class InFlightRequestDecrementCallable implements Callable<Object> {
-    private String clusterId;
+public interface DistributedMapEntryListener {
+    /**
+     * Invoked when an entry is added to the distributed map.
+     * @param key
+     */
+    void entryAdded(Object key);
 
-    public InFlightRequestDecrementCallable(String clusterId) {
-        this.clusterId = clusterId;
-    }
+    /**
+     * Invoked when an entry is removed from the distributed map.
+     * @param key
+     */
+    void entryRemoved(Object key);
 
-    @Override
-    public Object call() throws Exception {
-        LoadBalancerStatisticsCollector.getInstance().decrementInFlightRequestCount(clusterId);
-        return null;
-    }
+    /**
+     * Invoked when an entry is updated in the distributed map.
+     * @param key
+     */
+    void entryUpdated(Object key);
 }
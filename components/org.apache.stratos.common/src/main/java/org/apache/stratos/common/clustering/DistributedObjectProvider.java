@@ -44,6 +44,14 @@ public interface DistributedObjectProvider extends Serializable {
      */
     void removeMap(String name);
 
+    /**
+     * Adds a listener to be notified of changes made to a distributed map by any member of the cluster.
+     * Listeners are not notified if clustering is disabled.
+     * @param name
+     * @param listener
+     */
+    void addMapEntryListener(String name, DistributedMapEntryListener listener);
+
     /**
      * Returns a distributed list if clustering is enabled, else returns a local array list.
      * @param name
@@ -65,6 +73,14 @@ public interface DistributedObjectProvider extends Serializable {
      */
     Lock acquireLock(Object object);
 
+    /**
+     * Acquires a distributed lock if clustering is enabled, else a local reentrant lock, only if it
+     * is not held by another owner at the time of invocation.
+     * @param object
+     * @return acquired lock, null if the lock is held by another owner
+     */
+    Lock tryAcquireLock(Object object);
+
     /**
      * Releases a given distributed/local lock.
      * @param lock
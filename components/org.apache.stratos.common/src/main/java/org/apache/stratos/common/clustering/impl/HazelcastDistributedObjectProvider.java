@@ -26,15 +26,19 @@ import com.hazelcast.core.IMap;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.clustering.DistributedMapEntryListener;
 import org.apache.stratos.common.clustering.DistributedObjectProvider;
 import org.apache.stratos.common.internal.ServiceReferenceHolder;
 import org.wso2.carbon.caching.impl.MapEntryListener;
 import org.wso2.carbon.core.clustering.hazelcast.HazelcastDistributedMapProvider;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -48,15 +52,18 @@ public class HazelcastDistributedObjectProvider implements DistributedObjectProv
     private HazelcastDistributedListProvider listProvider;
     private Map<String, Map> mapsMap;
     private Map<String, List> listsMap;
-    private Map<Object, Lock> locksMap;
+    private ConcurrentHashMap<Object, Lock> locksMap;
+    private ConcurrentHashMap<String, List<DistributedMapEntryListener>> mapEntryListenersMap;
 
     public HazelcastDistributedObjectProvider() {
         HazelcastInstance hazelcastInstance = ServiceReferenceHolder.getInstance().getHazelcastInstance();
         mapProvider = new HazelcastDistributedMapProvider(hazelcastInstance);
         listProvider = new HazelcastDistributedListProvider(hazelcastInstance);
-        mapsMap = new HashMap<String, Map>();
+        // Maps may be created and removed at runtime, e.g. member context maps of clusters
+        mapsMap = new ConcurrentHashMap<String, Map>();
         listsMap = new HashMap<String, List>();
-        locksMap = new HashMap<Object, Lock>();
+        locksMap = new ConcurrentHashMap<Object, Lock>();
+        mapEntryListenersMap = new ConcurrentHashMap<String, List<DistributedMapEntryListener>>();
     }
 
     /**
@@ -79,6 +86,9 @@ public class HazelcastDistributedObjectProvider implements DistributedObjectProv
                         log.debug(String.format("Entry added to distributed map: [name] %s [key] %s",
                                 name, key));
                     }
+                    for (DistributedMapEntryListener listener : getMapEntryListeners(name)) {
+                        listener.entryAdded(key);
+                    }
                 }
 
                 @Override
@@ -87,6 +97,9 @@ public class HazelcastDistributedObjectProvider implements DistributedObjectProv
                         log.debug(String.format("Entry removed from distributed map: [name] %s [key] %s",
                                 name, key));
                     }
+                    for (DistributedMapEntryListener listener : getMapEntryListeners(name)) {
+                        listener.entryRemoved(key);
+                    }
                 }
 
                 @Override
@@ -95,6 +108,9 @@ public class HazelcastDistributedObjectProvider implements DistributedObjectProv
                         log.debug(String.format("Entry updated in distributed map: [name] %s [key] %s",
                                 name, key));
                     }
+                    for (DistributedMapEntryListener listener : getMapEntryListeners(name)) {
+                        listener.entryUpdated(key);
+                    }
                 }
             });
         } else {
@@ -121,6 +137,33 @@ public class HazelcastDistributedObjectProvider implements DistributedObjectProv
         }
     }
 
+    /**
+     * Adds a listener to be notified of changes made to a distributed map by any member of the cluster.
+     * Listeners are not notified if clustering is disabled.
+     * @param name
+     * @param listener
+     */
+    @Override
+    public void addMapEntryListener(String name, DistributedMapEntryListener listener) {
+        List<DistributedMapEntryListener> listeners = mapEntryListenersMap.get(name);
+        if(listeners == null) {
+            List<DistributedMapEntryListener> newListeners = new CopyOnWriteArrayList<DistributedMapEntryListener>();
+            listeners = mapEntryListenersMap.putIfAbsent(name, newListeners);
+            if(listeners == null) {
+                listeners = newListeners;
+            }
+        }
+        listeners.add(listener);
+    }
+
+    private List<DistributedMapEntryListener> getMapEntryListeners(String name) {
+        List<DistributedMapEntryListener> listeners = mapEntryListenersMap.get(name);
+        if(listeners == null) {
+            return Collections.emptyList();
+        }
+        return listeners;
+    }
+
     /**
      * Returns a distributed list if clustering is enabled, else returns a local array list.
      * @param name
@@ -185,20 +228,41 @@ public class HazelcastDistributedObjectProvider implements DistributedObjectProv
         if(isClustered()) {
             return acquireDistributedLock(object);
         } else {
-            Lock lock = locksMap.get(object);
-            if(lock == null) {
-                synchronized (object) {
-                    if(lock == null) {
-                        lock = new ReentrantLock();
-                        locksMap.put(object, lock);
-                    }
-                }
-            }
+            Lock lock = getLocalLock(object);
             lock.lock();
             return lock;
         }
     }
 
+    /**
+     * Acquires a distributed lock if clustering is enabled, else a local reentrant lock, only if it
+     * is not held by another owner at the time of invocation.
+     * @param object
+     * @return acquired lock, null if the lock is held by another owner
+     */
+    @Override
+    public Lock tryAcquireLock(Object object) {
+        Lock lock;
+        if(isClustered()) {
+            lock = getHazelcastInstance().getLock(object);
+        } else {
+            lock = getLocalLock(object);
+        }
+        return lock.tryLock() ? lock : null;
+    }
+
+    private Lock getLocalLock(Object object) {
+        Lock lock = locksMap.get(object);
+        if(lock == null) {
+            Lock newLock = new ReentrantLock();
+            lock = locksMap.putIfAbsent(object, newLock);
+            if(lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+
     /**
      * Releases a given distributed/local lock.
      * @param lock
@@ -234,6 +298,7 @@ public class HazelcastDistributedObjectProvider implements DistributedObjectProv
             log.debug(String.format("Acquiring distributed lock for %s...", object.getClass().getSimpleName()));
         }
         ILock lock = getHazelcastInstance().getLock(object);
+        lock.lock();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Distributed lock acquired for %s", object.getClass().getSimpleName()));
         }
@@ -251,7 +316,7 @@ public class HazelcastDistributedObjectProvider implements DistributedObjectProv
         if (log.isDebugEnabled()) {
             log.debug(String.format("Releasing distributed lock for %s...", lock.getKey()));
         }
-        lock.forceUnlock();
+        lock.unlock();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Distributed lock released for %s", lock.getKey()));
         }
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.common.concurrent.locks;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.clustering.DistributedObjectProvider;
+import org.apache.stratos.common.statistics.LatencyHistogram;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Distributed lock striped by key. Keys are hashed to a fixed number of stripes and each stripe
+ * is a lock of the distributed object provider, hence writers of unrelated keys do not serialize
+ * on a single lock while the number of lock objects in the cluster stays bounded.
+ * Acquisition latency and the number of contended acquisitions are recorded.
+ */
+public class StripedLock {
+
+    private static final Log log = LogFactory.getLog(StripedLock.class);
+
+    private final DistributedObjectProvider distributedObjectProvider;
+    private final String name;
+    private final String[] stripeNames;
+    private final LatencyHistogram acquisitionLatency;
+    private final AtomicLong contendedCount;
+
+    /**
+     * @param distributedObjectProvider provider of the stripe locks
+     * @param name                      lock name, used as the prefix of the stripe lock names
+     * @param stripes                   number of stripes
+     */
+    public StripedLock(DistributedObjectProvider distributedObjectProvider, String name, int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Number of stripes should be greater than zero: [lock] " + name);
+        }
+        this.distributedObjectProvider = distributedObjectProvider;
+        this.name = name;
+        this.stripeNames = new String[stripes];
+        for (int i = 0; i < stripes; i++) {
+            stripeNames[i] = name + "." + i;
+        }
+        this.acquisitionLatency = new LatencyHistogram(name);
+        this.contendedCount = new AtomicLong();
+    }
+
+    /**
+     * Acquire the stripe of the given key.
+     *
+     * @param key key to be locked, e.g. a cluster id
+     * @return acquired lock, to be released using {@link #release(Lock)}
+     */
+    public Lock acquire(Object key) {
+        return acquireStripe(getStripe(key));
+    }
+
+    /**
+     * Acquire the stripes of the given keys. Stripes are acquired in ascending order to avoid
+     * deadlocks between writers locking overlapping sets of keys.
+     *
+     * @param keys keys to be locked
+     * @return acquired locks, to be released using {@link #release(List)}
+     */
+    public List<Lock> acquire(Collection<?> keys) {
+        SortedSet<Integer> stripes = new TreeSet<Integer>();
+        for (Object key : keys) {
+            stripes.add(getStripe(key));
+        }
+        List<Lock> locks = new ArrayList<Lock>(stripes.size());
+        try {
+            for (Integer stripe : stripes) {
+                locks.add(acquireStripe(stripe));
+            }
+        } catch (RuntimeException e) {
+            release(locks);
+            throw e;
+        }
+        return locks;
+    }
+
+    private Lock acquireStripe(int stripe) {
+        String stripeName = stripeNames[stripe];
+        long startTime = System.nanoTime();
+        Lock lock = distributedObjectProvider.tryAcquireLock(stripeName);
+        if (lock == null) {
+            contendedCount.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Waiting for lock: [lock] %s", stripeName));
+            }
+            lock = distributedObjectProvider.acquireLock(stripeName);
+        }
+        acquisitionLatency.updateSince(startTime);
+        return lock;
+    }
+
+    public void release(Lock lock) {
+        if (lock != null) {
+            distributedObjectProvider.releaseLock(lock);
+        }
+    }
+
+    /**
+     * Release locks in the reverse order of acquisition.
+     */
+    public void release(List<Lock> locks) {
+        if (locks != null) {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                release(locks.get(i));
+            }
+        }
+    }
+
+    /**
+     * @return index of the stripe to which the given key is mapped
+     */
+    public int getStripe(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        // Spread higher bits of the hash code to the lower bits used for selecting the stripe
+        int hash = key.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return (hash & Integer.MAX_VALUE) % stripeNames.length;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStripes() {
+        return stripeNames.length;
+    }
+
+    /**
+     * @return latency histogram of lock acquisitions, including the time spent waiting for the lock
+     */
+    public LatencyHistogram getAcquisitionLatency() {
+        return acquisitionLatency;
+    }
+
+    /**
+     * @return number of acquisitions which had to wait for the lock to be released by another owner
+     */
+    public long getContendedCount() {
+        return contendedCount.get();
+    }
+}
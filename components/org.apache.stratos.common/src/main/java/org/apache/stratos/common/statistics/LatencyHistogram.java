@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.common.statistics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free latency histogram with power of two microsecond buckets.
+ * Bucket i holds samples in the range [2^(i-1), 2^i) microseconds, bucket 0 holds
+ * samples below one microsecond. Percentiles are reported as the upper bound of
+ * the bucket in which they fall, which is accurate enough for operational metrics.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = 40;
+
+    private final String name;
+    private final AtomicLongArray buckets;
+    private final AtomicLong count;
+    private final AtomicLong totalMicros;
+    private final AtomicLong maxMicros;
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+        this.buckets = new AtomicLongArray(BUCKET_COUNT);
+        this.count = new AtomicLong();
+        this.totalMicros = new AtomicLong();
+        this.maxMicros = new AtomicLong();
+    }
+
+    /**
+     * Record a sample measured in nano seconds.
+     * @param durationNanos duration in nano seconds
+     */
+    public void update(long durationNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(0, durationNanos));
+        buckets.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+
+        long currentMax = maxMicros.get();
+        while (micros > currentMax) {
+            if (maxMicros.compareAndSet(currentMax, micros)) {
+                break;
+            }
+            currentMax = maxMicros.get();
+        }
+    }
+
+    /**
+     * Record the time elapsed since the given {@link System#nanoTime()} value.
+     * @param startNanos start time in nano seconds
+     */
+    public void updateSince(long startNanos) {
+        update(System.nanoTime() - startNanos);
+    }
+
+    private static int bucketOf(long micros) {
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return mean latency in micro seconds
+     */
+    public double getMeanMicros() {
+        long samples = count.get();
+        if (samples == 0) {
+            return 0;
+        }
+        return (double) totalMicros.get() / samples;
+    }
+
+    /**
+     * @return maximum latency recorded in micro seconds
+     */
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Return the upper bound of the bucket holding the given percentile.
+     * @param percentile value between 0 and 100
+     * @return latency in micro seconds
+     */
+    public long getPercentileMicros(double percentile) {
+        long samples = count.get();
+        if (samples == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(samples * (percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= threshold) {
+                return Math.min(1L << i, Math.max(1L, maxMicros.get()));
+            }
+        }
+        return maxMicros.get();
+    }
+
+    /**
+     * Clear all recorded samples.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[name] %s [count] %d [mean-us] %.1f [p50-us] %d [p99-us] %d [max-us] %d",
+                name, getCount(), getMeanMicros(), getPercentileMicros(50), getPercentileMicros(99),
+                getMaxMicros());
+    }
+}
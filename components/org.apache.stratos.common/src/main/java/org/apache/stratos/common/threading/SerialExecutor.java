@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.common.threading;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Executor lane on top of a shared executor. Tasks submitted to a serial executor are executed
+ * one at a time in submission order, although not necessarily on the same thread. State confined
+ * to a serial executor can therefore be accessed by its tasks without locking, while tasks of
+ * different serial executors run in parallel on the underlying executor.
+ */
+public class SerialExecutor implements Executor {
+
+    private static final Log log = LogFactory.getLog(SerialExecutor.class);
+
+    private final String name;
+    private final Executor executor;
+    private final Queue<Runnable> tasks;
+    private boolean active;
+
+    public SerialExecutor(String name, Executor executor) {
+        this.name = name;
+        this.executor = executor;
+        this.tasks = new LinkedList<Runnable>();
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        synchronized (tasks) {
+            tasks.offer(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } catch (Throwable e) {
+                        log.error("Task failed in serial executor: [name] " + name, e);
+                    } finally {
+                        scheduleNext();
+                    }
+                }
+            });
+            if (!active) {
+                scheduleNext();
+            }
+        }
+    }
+
+    private void scheduleNext() {
+        synchronized (tasks) {
+            Runnable next = tasks.poll();
+            active = (next != null);
+            if (active) {
+                try {
+                    executor.execute(next);
+                } catch (RuntimeException e) {
+                    // Underlying executor rejected the task, pending tasks are discarded
+                    active = false;
+                    tasks.clear();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of tasks waiting to be executed
+     */
+    public int getPendingTaskCount() {
+        synchronized (tasks) {
+            return tasks.size();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.common.test;
+
+import org.apache.stratos.common.threading.SerialExecutor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Serial executor test.
+ */
+public class SerialExecutorTest {
+
+    @Test
+    public void testTasksExecutedInOrderOneAtATime() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            SerialExecutor serialExecutor = new SerialExecutor("ordered", executorService);
+            final List<Integer> results = Collections.synchronizedList(new ArrayList<Integer>());
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            final CountDownLatch latch = new CountDownLatch(100);
+            for (int i = 0; i < 100; i++) {
+                final int value = i;
+                serialExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        int current = running.incrementAndGet();
+                        if (current > maxRunning.get()) {
+                            maxRunning.set(current);
+                        }
+                        results.add(value);
+                        running.decrementAndGet();
+                        latch.countDown();
+                    }
+                });
+            }
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(1, maxRunning.get());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(Integer.valueOf(i), results.get(i));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSerialExecutorsRunInParallel() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final CountDownLatch started = new CountDownLatch(2);
+            final CountDownLatch completed = new CountDownLatch(2);
+            for (int i = 0; i < 2; i++) {
+                new SerialExecutor("lane-" + i, executorService).execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        started.countDown();
+                        try {
+                            // Completes only if the other lane is running at the same time
+                            if (started.await(5, TimeUnit.SECONDS)) {
+                                completed.countDown();
+                            }
+                        } catch (InterruptedException ignore) {
+                        }
+                    }
+                });
+            }
+            assertTrue("Serial executors did not run in parallel", completed.await(5, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedTaskDoesNotBlockLane() throws Exception {
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            SerialExecutor serialExecutor = new SerialExecutor("failing", executorService);
+            final CountDownLatch latch = new CountDownLatch(1);
+            serialExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    throw new RuntimeException("Expected failure");
+                }
+            });
+            serialExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(0, serialExecutor.getPendingTaskCount());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.common.test;
+
+import org.apache.stratos.common.clustering.DistributedMapEntryListener;
+import org.apache.stratos.common.clustering.DistributedObjectProvider;
+import org.apache.stratos.common.concurrent.locks.StripedLock;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.Assert.*;
+
+/**
+ * Striped lock test.
+ */
+public class StripedLockTest {
+
+    @Test
+    public void testKeysOfDifferentStripesDoNotBlock() throws Exception {
+        StripedLock stripedLock = new StripedLock(new LocalObjectProvider(), "TEST_LOCK", 16);
+        String[] keys = findKeys(stripedLock, false);
+
+        Lock lock = stripedLock.acquire(keys[0]);
+        try {
+            Acquirer acquirer = new Acquirer(stripedLock, keys[1]);
+            acquirer.start();
+            assertTrue(acquirer.acquired.await(5, TimeUnit.SECONDS));
+            acquirer.join();
+        } finally {
+            stripedLock.release(lock);
+        }
+        assertEquals(0, stripedLock.getContendedCount());
+        assertEquals(2, stripedLock.getAcquisitionLatency().getCount());
+    }
+
+    @Test
+    public void testKeysOfSameStripeAreExclusive() throws Exception {
+        StripedLock stripedLock = new StripedLock(new LocalObjectProvider(), "TEST_LOCK", 16);
+        String[] keys = findKeys(stripedLock, true);
+
+        Acquirer acquirer;
+        Lock lock = stripedLock.acquire(keys[0]);
+        try {
+            acquirer = new Acquirer(stripedLock, keys[1]);
+            acquirer.start();
+            assertFalse(acquirer.acquired.await(200, TimeUnit.MILLISECONDS));
+        } finally {
+            stripedLock.release(lock);
+        }
+        assertTrue(acquirer.acquired.await(5, TimeUnit.SECONDS));
+        acquirer.join();
+        assertEquals(1, stripedLock.getContendedCount());
+    }
+
+    @Test
+    public void testAcquireMultipleKeys() throws Exception {
+        StripedLock stripedLock = new StripedLock(new LocalObjectProvider(), "TEST_LOCK", 16);
+        String[] keys = findKeys(stripedLock, false);
+
+        List<Lock> locks = stripedLock.acquire(Arrays.asList(keys[1], keys[0], keys[1]));
+        assertEquals(2, locks.size());
+        stripedLock.release(locks);
+
+        // All stripes are released
+        Acquirer acquirer = new Acquirer(stripedLock, keys[0], keys[1]);
+        acquirer.start();
+        assertTrue(acquirer.acquired.await(5, TimeUnit.SECONDS));
+        acquirer.join();
+    }
+
+    private String[] findKeys(StripedLock stripedLock, boolean sameStripe) {
+        String firstKey = "cluster-0";
+        for (int i = 1; i < 1000; i++) {
+            String key = "cluster-" + i;
+            if ((stripedLock.getStripe(firstKey) == stripedLock.getStripe(key)) == sameStripe) {
+                return new String[]{firstKey, key};
+            }
+        }
+        throw new IllegalStateException("Keys not found");
+    }
+
+    private static class Acquirer extends Thread {
+        private final StripedLock stripedLock;
+        private final String[] keys;
+        private final CountDownLatch acquired = new CountDownLatch(1);
+
+        Acquirer(StripedLock stripedLock, String... keys) {
+            this.stripedLock = stripedLock;
+            this.keys = keys;
+        }
+
+        @Override
+        public void run() {
+            List<Lock> locks = stripedLock.acquire(Arrays.asList(keys));
+            acquired.countDown();
+            stripedLock.release(locks);
+        }
+    }
+
+    private static class LocalObjectProvider implements DistributedObjectProvider {
+        private final Map<Object, ReentrantLock> locks = new ConcurrentHashMap<Object, ReentrantLock>();
+
+        @Override
+        public Map getMap(String name) {
+            return new HashMap();
+        }
+
+        @Override
+        public void removeMap(String name) {
+        }
+
+        @Override
+        public void addMapEntryListener(String name, DistributedMapEntryListener listener) {
+        }
+
+        @Override
+        public List getList(String name) {
+            return new ArrayList();
+        }
+
+        @Override
+        public void removeList(String name) {
+        }
+
+        @Override
+        public Lock acquireLock(Object object) {
+            Lock lock = getLock(object);
+            lock.lock();
+            return lock;
+        }
+
+        @Override
+        public Lock tryAcquireLock(Object object) {
+            Lock lock = getLock(object);
+            return lock.tryLock() ? lock : null;
+        }
+
+        @Override
+        public void releaseLock(Lock lock) {
+            lock.unlock();
+        }
+
+        private synchronized Lock getLock(Object object) {
+            ReentrantLock lock = locks.get(object);
+            if (lock == null) {
+                lock = new ReentrantLock();
+                locks.put(object, lock);
+            }
+            return lock;
+        }
+    }
+}
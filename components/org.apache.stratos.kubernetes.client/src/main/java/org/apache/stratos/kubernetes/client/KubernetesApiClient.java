@@ -20,8 +20,6 @@
  */
 package org.apache.stratos.kubernetes.client;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpStatus;
@@ -29,11 +27,9 @@ import org.apache.http.client.utils.URIBuilder;
 import org.apache.stratos.kubernetes.client.exceptions.KubernetesClientException;
 import org.apache.stratos.kubernetes.client.interfaces.KubernetesAPIClientInterface;
 import org.apache.stratos.kubernetes.client.model.*;
-import org.apache.stratos.kubernetes.client.rest.HttpResponse;
-import org.apache.stratos.kubernetes.client.rest.RestClient;
+import org.apache.stratos.kubernetes.client.rest.*;
 
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.List;
 
 public class KubernetesApiClient implements KubernetesAPIClientInterface {
@@ -95,21 +91,7 @@ public class KubernetesApiClient implements KubernetesAPIClientInterface {
     public Pod getPod(String podId) throws KubernetesClientException {
         try {
             URI uri = new URIBuilder(baseURL + "pods/" + podId).build();
-            HttpResponse response = restClient.doGet(uri);
-
-            handleNullResponse(String.format("Could not retrieve pod: [pod-id] %s", podId), response);
-
-            if (response.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
-                return null;
-            }
-
-            String content = response.getContent();
-
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            return gson.fromJson(content, Pod.class);
-        } catch (KubernetesClientException e) {
-            throw e;
+            return restClient.doGet(uri, new GsonDecoder<Pod>(Pod.class));
         } catch (Exception e) {
             String msg = String.format("Could not retrieve pod: [pod-id] %s", podId);
             log.error(msg, e);
@@ -122,29 +104,7 @@ public class KubernetesApiClient implements KubernetesAPIClientInterface {
 
         try {
             URI uri = new URIBuilder(baseURL + "pods").build();
-            HttpResponse response = restClient.doGet(uri);
-
-            handleNullResponse("Pod retrieval failed.", response);
-
-            if (response.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
-                return null;
-            }
-
-            String content = response.getContent();
-
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            PodList result = gson.fromJson(content, PodList.class);
-
-            List<Pod> podList = new ArrayList<Pod>();
-            if ((result != null) && (result.getItems() != null)) {
-                for (Pod pod : result.getItems()) {
-                    if (pod != null) {
-                        podList.add(pod);
-                    }
-                }
-            }
-            return podList;
+            return restClient.doGet(uri, new ListDecoder<Pod>(Pod.class));
         } catch (Exception e) {
             String msg = "Error while retrieving Pods.";
             log.error(msg, e);
@@ -154,9 +114,7 @@ public class KubernetesApiClient implements KubernetesAPIClientInterface {
 
     private void createPod(Pod pod) throws KubernetesClientException {
         try {
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            String content = gson.toJson(pod);
+            String content = JsonUtil.getGson().toJson(pod);
             if (log.isDebugEnabled()) {
                 log.debug("Create pod request body: " + content);
             }
@@ -229,22 +187,7 @@ public class KubernetesApiClient implements KubernetesAPIClientInterface {
 
         try {
             URI uri = new URIBuilder(baseURL + "replicationControllers/" + replicationControllerId).build();
-            HttpResponse response = restClient.doGet(uri);
-
-            handleNullResponse(String.format("Could not retrieve replication controller: " +
-                    "[replication-controller-id] %s", replicationControllerId), response);
-
-            if (response.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
-                return null;
-            }
-
-            String content = response.getContent();
-
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            return gson.fromJson(content, ReplicationController.class);
-        } catch (KubernetesClientException e) {
-            throw e;
+            return restClient.doGet(uri, new GsonDecoder<ReplicationController>(ReplicationController.class));
         } catch (Exception e) {
             String msg = "Error while retrieving Replication Controller info with ID: " + replicationControllerId;
             log.error(msg, e);
@@ -257,29 +200,7 @@ public class KubernetesApiClient implements KubernetesAPIClientInterface {
 
         try {
             URI uri = new URIBuilder(baseURL + "replicationControllers").build();
-            HttpResponse response = restClient.doGet(uri);
-
-            handleNullResponse("Could not retrieve replication controllers", response);
-
-            if (response.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
-                return null;
-            }
-
-            String content = response.getContent();
-
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            ReplicationControllerList controllerList = gson.fromJson(content, ReplicationControllerList.class);
-
-            List<ReplicationController> replicationControllers = new ArrayList<ReplicationController>();
-            if ((controllerList != null) && (controllerList.getItems() != null)) {
-                for (ReplicationController replicationController : controllerList.getItems()) {
-                    if (replicationController != null) {
-                        replicationControllers.add(replicationController);
-                    }
-                }
-            }
-            return replicationControllers;
+            return restClient.doGet(uri, new ListDecoder<ReplicationController>(ReplicationController.class));
         } catch (Exception e) {
             String msg = "Error while retrieving Replication Controllers.";
             log.error(msg, e);
@@ -367,9 +288,7 @@ public class KubernetesApiClient implements KubernetesAPIClientInterface {
             throws KubernetesClientException {
 
         try {
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            String content = gson.toJson(replicationController);
+            String content = JsonUtil.getGson().toJson(replicationController);
             if (log.isDebugEnabled()) {
                 log.debug("CreateReplicationController request body : " + content);
             }
@@ -408,9 +327,7 @@ public class KubernetesApiClient implements KubernetesAPIClientInterface {
             throws KubernetesClientException {
 
         try {
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            String content = gson.toJson(replicationController);
+            String content = JsonUtil.getGson().toJson(replicationController);
             if (log.isDebugEnabled()) {
                 log.debug("Update kubernetes replication controller request body: "
                         + content);
@@ -541,21 +458,7 @@ public class KubernetesApiClient implements KubernetesAPIClientInterface {
             throws KubernetesClientException {
         try {
             URI uri = new URIBuilder(baseURL + "services/" + serviceId).build();
-            HttpResponse response = restClient.doGet(uri);
-
-            handleNullResponse(String.format("Could not retrieve service: [service-id] %s", serviceId), response);
-
-            if (response.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
-                return null;
-            }
-
-            String content = response.getContent();
-
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            return gson.fromJson(content, Service.class);
-        } catch (KubernetesClientException e) {
-            throw e;
+            return restClient.doGet(uri, new GsonDecoder<Service>(Service.class));
         } catch (Exception e) {
             String msg = String.format("Could not retrieve service: [service-id] %s", serviceId);
             log.error(msg, e);
@@ -568,29 +471,7 @@ public class KubernetesApiClient implements KubernetesAPIClientInterface {
         try {
 
             URI uri = new URIBuilder(baseURL + "services").build();
-            HttpResponse response = restClient.doGet(uri);
-
-            handleNullResponse("Service retrieval failed.", response);
-
-            if (response.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
-                return null;
-            }
-
-            String content = response.getContent();
-
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            ServiceList result = gson.fromJson(content, ServiceList.class);
-
-            List<Service> serviceList = new ArrayList<Service>();
-            if ((result != null) && (result.getItems() != null)) {
-                for (Service pod : result.getItems()) {
-                    if (pod != null) {
-                        serviceList.add(pod);
-                    }
-                }
-            }
-            return serviceList;
+            return restClient.doGet(uri, new ListDecoder<Service>(Service.class));
         } catch (Exception e) {
             String msg = "Error while retrieving Services.";
             log.error(msg, e);
@@ -601,9 +482,7 @@ public class KubernetesApiClient implements KubernetesAPIClientInterface {
     private void createService(Service service) throws KubernetesClientException {
 
         try {
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            String content = gson.toJson(service);
+            String content = JsonUtil.getGson().toJson(service);
             if (log.isDebugEnabled()) {
                 log.debug("CreateService Request Body : " + content);
             }
@@ -678,32 +557,16 @@ public class KubernetesApiClient implements KubernetesAPIClientInterface {
 
     @Override
     public List<Pod> queryPods(Labels[] labels) throws KubernetesClientException {
+        return queryPods(labels, new String[0]);
+    }
+
+    @Override
+    public List<Pod> queryPods(Labels[] labels, String... fields) throws KubernetesClientException {
 
         try {
             String labelQuery = getLabelQuery(labels);
             URI uri = new URIBuilder(baseURL + "pods").addParameter("labels", labelQuery).build();
-            HttpResponse response = restClient.doGet(uri);
-
-            handleNullResponse(String.format("Could not retrieve pods: [labels] %s", labels), response);
-
-            if (response.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
-                return null;
-            }
-
-            String content = response.getContent();
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            PodList result = gson.fromJson(content, PodList.class);
-
-            List<Pod> podList = new ArrayList<Pod>();
-            if ((result != null) && (result.getItems() != null)) {
-                for (Pod pod : result.getItems()) {
-                    if (pod != null) {
-                        podList.add(pod);
-                    }
-                }
-            }
-            return podList;
+            return restClient.doGet(uri, new ListDecoder<Pod>(Pod.class, fields));
         } catch (Exception e) {
             String msg = String.format("Could not retrieve pods: [labels] %s", labels);
             log.error(msg, e);
@@ -30,4 +30,7 @@ public class KubernetesConstants {
     public static final String KIND_REPLICATION_CONTROLLER = "ReplicationController";
     public static final String KIND_POD = "Pod";
     public static final String POLICY_PULL_IF_NOT_PRESENT = "PullIfNotPresent";
+
+    // Pod fields needed for identifying pods and checking their status
+    public static final String[] POD_STATUS_FIELDS = {"id", "resourceVersion", "labels", "currentState"};
 }
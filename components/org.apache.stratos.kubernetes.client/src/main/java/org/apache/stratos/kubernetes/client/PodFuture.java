@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.kubernetes.client;
+
+import org.apache.stratos.kubernetes.client.model.Pod;
+
+import java.util.concurrent.*;
+
+/**
+ * Future of a pod to be running, completed by the {@link PodWatcher} of the kubernetes cluster
+ * once the pod state is changed to running.
+ */
+public class PodFuture implements Future<Pod> {
+
+    private final PodWatcher podWatcher;
+    private final String podName;
+    private final CountDownLatch latch;
+    private volatile Pod pod;
+    private volatile boolean cancelled;
+
+    PodFuture(PodWatcher podWatcher, String podName) {
+        this.podWatcher = podWatcher;
+        this.podName = podName;
+        this.latch = new CountDownLatch(1);
+    }
+
+    /**
+     * @return name label of the pod
+     */
+    public String getPodName() {
+        return podName;
+    }
+
+    synchronized boolean complete(Pod pod) {
+        if (isDone()) {
+            return false;
+        }
+        this.pod = pod;
+        latch.countDown();
+        return true;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        synchronized (this) {
+            if (isDone()) {
+                return false;
+            }
+            cancelled = true;
+            latch.countDown();
+        }
+        podWatcher.removeFuture(this);
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return latch.getCount() == 0;
+    }
+
+    @Override
+    public Pod get() throws InterruptedException, ExecutionException {
+        latch.await();
+        return getPod();
+    }
+
+    @Override
+    public Pod get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!latch.await(timeout, unit)) {
+            throw new TimeoutException("Pod did not become running: [pod-name] " + podName);
+        }
+        return getPod();
+    }
+
+    private Pod getPod() {
+        if (cancelled) {
+            throw new CancellationException("Waiting for pod was cancelled: [pod-name] " + podName);
+        }
+        return pod;
+    }
+}
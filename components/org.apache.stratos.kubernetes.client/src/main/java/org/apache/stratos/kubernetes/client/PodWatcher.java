@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.kubernetes.client;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonStreamParser;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.params.CoreConnectionPNames;
+import org.apache.stratos.kubernetes.client.exceptions.KubernetesClientException;
+import org.apache.stratos.kubernetes.client.model.Pod;
+import org.apache.stratos.kubernetes.client.model.PodList;
+import org.apache.stratos.kubernetes.client.rest.GsonDecoder;
+import org.apache.stratos.kubernetes.client.rest.JsonUtil;
+import org.apache.stratos.kubernetes.client.rest.RestClient;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a local cache of the pods of a kubernetes cluster using a single list and watch stream,
+ * and notifies the futures waiting for pods to be running. The pods are listed once and the
+ * watch stream is resumed from the resource version of the last event received, the pods are
+ * listed again only if the watch stream fails.
+ */
+public class PodWatcher implements Runnable {
+
+    private static final Log log = LogFactory.getLog(PodWatcher.class);
+
+    public static final String RECONNECT_INTERVAL = "stratos.kubernetes.pod.watch.reconnect.interval";
+    public static final String WATCH_TIMEOUT = "stratos.kubernetes.pod.watch.timeout";
+    private static final long DEFAULT_RECONNECT_INTERVAL = 5000;
+    private static final int DEFAULT_WATCH_TIMEOUT = 300000;
+
+    private static final String EVENT_TYPE_ADDED = "ADDED";
+    private static final String EVENT_TYPE_MODIFIED = "MODIFIED";
+    private static final String EVENT_TYPE_DELETED = "DELETED";
+    private static final String EVENT_TYPE_ERROR = "ERROR";
+
+    private final String baseURL;
+    private final RestClient restClient;
+    private final long reconnectInterval;
+    private final int watchTimeout;
+    private final Map<String, Pod> podIdToPodMap;
+    private final Map<String, List<PodFuture>> podNameToFuturesMap;
+    private volatile String resourceVersion;
+    private volatile boolean synced;
+    private volatile boolean running;
+    private volatile HttpGet watchRequest;
+    private Thread thread;
+
+    /**
+     * @param baseURL    kubernetes api endpoint, e.g. http://localhost:8080/api/v1beta1/
+     * @param restClient rest client used for listing and watching pods
+     */
+    public PodWatcher(String baseURL, RestClient restClient) {
+        this.baseURL = baseURL;
+        this.restClient = restClient;
+        this.reconnectInterval = Long.getLong(RECONNECT_INTERVAL, DEFAULT_RECONNECT_INTERVAL);
+        this.watchTimeout = Integer.getInteger(WATCH_TIMEOUT, DEFAULT_WATCH_TIMEOUT);
+        this.podIdToPodMap = new ConcurrentHashMap<String, Pod>();
+        this.podNameToFuturesMap = new HashMap<String, List<PodFuture>>();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "kubernetes-pod-watcher-" + baseURL);
+        thread.setDaemon(true);
+        thread.start();
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Pod watcher started: [endpoint] %s", baseURL));
+        }
+    }
+
+    /**
+     * Stop watching pods, the watch stream is closed and the futures still waiting for pods
+     * are cancelled.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        HttpGet request = watchRequest;
+        if (request != null) {
+            request.abort();
+        }
+        thread.interrupt();
+        thread = null;
+
+        List<PodFuture> pendingFutures = new ArrayList<PodFuture>();
+        synchronized (podNameToFuturesMap) {
+            for (List<PodFuture> futures : podNameToFuturesMap.values()) {
+                pendingFutures.addAll(futures);
+            }
+            podNameToFuturesMap.clear();
+        }
+        for (PodFuture future : pendingFutures) {
+            future.cancel(false);
+        }
+        podIdToPodMap.clear();
+        synced = false;
+        resourceVersion = null;
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Pod watcher stopped: [endpoint] %s", baseURL));
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Wait for a pod to be running.
+     *
+     * @param podName name label of the pod
+     * @return future completed with the pod once its state is changed to running, it should be
+     * cancelled if the caller stops waiting
+     */
+    public PodFuture awaitRunning(String podName) {
+        PodFuture future = new PodFuture(this, podName);
+        synchronized (podNameToFuturesMap) {
+            Pod pod = findRunningPod(podName);
+            if (pod != null) {
+                future.complete(pod);
+                return future;
+            }
+            List<PodFuture> futures = podNameToFuturesMap.get(podName);
+            if (futures == null) {
+                futures = new ArrayList<PodFuture>();
+                podNameToFuturesMap.put(podName, futures);
+            }
+            futures.add(future);
+        }
+        return future;
+    }
+
+    void removeFuture(PodFuture future) {
+        synchronized (podNameToFuturesMap) {
+            List<PodFuture> futures = podNameToFuturesMap.get(future.getPodName());
+            if (futures != null) {
+                futures.remove(future);
+                if (futures.isEmpty()) {
+                    podNameToFuturesMap.remove(future.getPodName());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param podName name label of the pods
+     * @return cached pods having the given name label
+     */
+    public List<Pod> getPods(String podName) {
+        List<Pod> pods = new ArrayList<Pod>();
+        for (Pod pod : podIdToPodMap.values()) {
+            if (podName.equals(getPodName(pod))) {
+                pods.add(pod);
+            }
+        }
+        return pods;
+    }
+
+    /**
+     * @return true if the pods have been listed and the cache reflects the state of the cluster
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                if (resourceVersion == null) {
+                    listPods();
+                }
+                watchPods();
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                if (isTimeout(e)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug(String.format("Pod watch timed out, resuming: [endpoint] %s " +
+                                "[resource-version] %s", baseURL, resourceVersion));
+                    }
+                    continue;
+                }
+                log.warn(String.format("Pod watch failed, pods will be listed again in %d ms: [endpoint] %s",
+                        reconnectInterval, baseURL), e);
+                synced = false;
+                resourceVersion = null;
+                try {
+                    Thread.sleep(reconnectInterval);
+                } catch (InterruptedException ignore) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void listPods() throws Exception {
+        URI uri = new URIBuilder(baseURL + KubernetesApiClient.CONTEXT_PODS).build();
+        PodList podList = restClient.doGet(uri, new GsonDecoder<PodList>(PodList.class));
+        if (podList == null) {
+            throw new KubernetesClientException(String.format("Could not list pods, resource not found: " +
+                    "[endpoint] %s", baseURL));
+        }
+
+        Set<String> podIds = new HashSet<String>();
+        if (podList.getItems() != null) {
+            for (Pod pod : podList.getItems()) {
+                if ((pod != null) && (pod.getId() != null)) {
+                    podIds.add(pod.getId());
+                    updatePod(pod);
+                }
+            }
+        }
+        podIdToPodMap.keySet().retainAll(podIds);
+        resourceVersion = podList.getResourceVersion();
+        synced = true;
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Pods listed: [endpoint] %s [pods] %d [resource-version] %s",
+                    baseURL, podIds.size(), resourceVersion));
+        }
+    }
+
+    private void watchPods() throws Exception {
+        URIBuilder uriBuilder = new URIBuilder(baseURL + "watch/" + KubernetesApiClient.CONTEXT_PODS);
+        if (resourceVersion != null) {
+            uriBuilder.addParameter("resourceVersion", resourceVersion);
+        }
+        HttpGet request = new HttpGet(uriBuilder.build());
+        // Resume the watch periodically to detect broken connections
+        request.getParams().setIntParameter(CoreConnectionPNames.SO_TIMEOUT, watchTimeout);
+        watchRequest = request;
+        try {
+            if (!running) {
+                return;
+            }
+            restClient.doGet(request, new WatchResponseHandler());
+        } finally {
+            watchRequest = null;
+        }
+    }
+
+    private void handleEvent(JsonObject event) throws KubernetesClientException {
+        String type = event.has("type") ? event.get("type").getAsString() : null;
+        JsonElement object = event.get("object");
+        if (EVENT_TYPE_ERROR.equals(type) || (object == null) || !object.isJsonObject()) {
+            throw new KubernetesClientException(String.format("Pod watch error received: [endpoint] %s [event] %s",
+                    baseURL, event));
+        }
+
+        Pod pod = JsonUtil.getGson().fromJson(object, Pod.class);
+        if ((pod == null) || (pod.getId() == null)) {
+            return;
+        }
+        if (EVENT_TYPE_ADDED.equals(type) || EVENT_TYPE_MODIFIED.equals(type)) {
+            updatePod(pod);
+        } else if (EVENT_TYPE_DELETED.equals(type)) {
+            podIdToPodMap.remove(pod.getId());
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Pod removed: [pod-id] %s [pod-name] %s", pod.getId(), getPodName(pod)));
+            }
+        }
+        if (pod.getResourceVersion() != null) {
+            resourceVersion = pod.getResourceVersion();
+        }
+    }
+
+    private void updatePod(Pod pod) {
+        podIdToPodMap.put(pod.getId(), pod);
+        String podName = getPodName(pod);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Pod updated: [pod-id] %s [pod-name] %s [status] %s", pod.getId(), podName,
+                    (pod.getCurrentState() != null) ? pod.getCurrentState().getStatus() : null));
+        }
+        if ((podName == null) || !isRunning(pod)) {
+            return;
+        }
+
+        List<PodFuture> futures;
+        synchronized (podNameToFuturesMap) {
+            futures = podNameToFuturesMap.remove(podName);
+        }
+        if (futures != null) {
+            for (PodFuture future : futures) {
+                future.complete(pod);
+            }
+        }
+    }
+
+    private Pod findRunningPod(String podName) {
+        for (Pod pod : podIdToPodMap.values()) {
+            if (podName.equals(getPodName(pod)) && isRunning(pod)) {
+                return pod;
+            }
+        }
+        return null;
+    }
+
+    private static String getPodName(Pod pod) {
+        return (pod.getLabels() != null) ? pod.getLabels().getName() : null;
+    }
+
+    private static boolean isRunning(Pod pod) {
+        return (pod.getCurrentState() != null) &&
+                KubernetesConstants.POD_STATUS_RUNNING.equals(pod.getCurrentState().getStatus());
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        while (e != null) {
+            if (e instanceof SocketTimeoutException) {
+                return true;
+            }
+            e = e.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * Reads the events of a watch stream until the stream is closed or the watcher is stopped.
+     */
+    private class WatchResponseHandler implements ResponseHandler<Void> {
+
+        @Override
+        public Void handleResponse(org.apache.http.HttpResponse response) throws IOException {
+            StatusLine statusLine = response.getStatusLine();
+            if (statusLine.getStatusCode() != HttpStatus.SC_OK) {
+                throw new ClientProtocolException(String.format("Could not watch pods: [endpoint] %s [status] %s",
+                        baseURL, statusLine));
+            }
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                return null;
+            }
+
+            JsonStreamParser parser = new JsonStreamParser(new InputStreamReader(entity.getContent(), "UTF-8"));
+            try {
+                while (running && parser.hasNext()) {
+                    JsonElement element = parser.next();
+                    if (element.isJsonObject()) {
+                        handleEvent(element.getAsJsonObject());
+                    }
+                }
+            } catch (KubernetesClientException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.kubernetes.client;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.kubernetes.client.rest.RestClient;
+
+import java.util.*;
+
+/**
+ * Keeps a single pod watcher per kubernetes api endpoint, shared by the owners of the endpoint,
+ * e.g. kubernetes clusters. Acquiring a watcher is idempotent per owner, hence owners may acquire
+ * it on every use. A watcher is stopped once it has been released by all of its owners.
+ */
+public class PodWatcherRegistry {
+
+    private static final Log log = LogFactory.getLog(PodWatcherRegistry.class);
+
+    private static final Map<String, PodWatcher> endpointToWatcherMap = new HashMap<String, PodWatcher>();
+    private static final Map<String, Set<String>> endpointToOwnersMap = new HashMap<String, Set<String>>();
+    private static final Map<String, String> ownerToEndpointMap = new HashMap<String, String>();
+
+    private PodWatcherRegistry() {
+    }
+
+    /**
+     * Get the pod watcher of the given endpoint on behalf of the given owner, the watcher is
+     * started on first use. If the owner has acquired the watcher of another endpoint, it is
+     * released.
+     *
+     * @param ownerId  id of the owner, e.g. kubernetes cluster id
+     * @param endpoint kubernetes api endpoint, e.g. http://localhost:8080/api/v1beta1/
+     * @return pod watcher of the endpoint
+     */
+    public static synchronized PodWatcher acquire(String ownerId, String endpoint) {
+        String currentEndpoint = ownerToEndpointMap.get(ownerId);
+        if ((currentEndpoint != null) && !currentEndpoint.equals(endpoint)) {
+            release(ownerId);
+        }
+
+        PodWatcher podWatcher = endpointToWatcherMap.get(endpoint);
+        if (podWatcher == null) {
+            podWatcher = new PodWatcher(endpoint, new RestClient());
+            podWatcher.start();
+            endpointToWatcherMap.put(endpoint, podWatcher);
+            endpointToOwnersMap.put(endpoint, new HashSet<String>());
+        }
+        if (endpointToOwnersMap.get(endpoint).add(ownerId)) {
+            ownerToEndpointMap.put(ownerId, endpoint);
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Pod watcher acquired: [owner] %s [endpoint] %s [owners] %d",
+                        ownerId, endpoint, endpointToOwnersMap.get(endpoint).size()));
+            }
+        }
+        return podWatcher;
+    }
+
+    /**
+     * Release the pod watcher acquired by the given owner, the watcher is stopped if it does not
+     * have any other owner.
+     *
+     * @param ownerId id of the owner
+     */
+    public static synchronized void release(String ownerId) {
+        String endpoint = ownerToEndpointMap.remove(ownerId);
+        if (endpoint == null) {
+            return;
+        }
+        Set<String> owners = endpointToOwnersMap.get(endpoint);
+        owners.remove(ownerId);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Pod watcher released: [owner] %s [endpoint] %s [owners] %d",
+                    ownerId, endpoint, owners.size()));
+        }
+        if (owners.isEmpty()) {
+            endpointToOwnersMap.remove(endpoint);
+            endpointToWatcherMap.remove(endpoint).stop();
+        }
+    }
+
+    /**
+     * Stop all pod watchers.
+     */
+    public static synchronized void releaseAll() {
+        for (PodWatcher podWatcher : endpointToWatcherMap.values()) {
+            podWatcher.stop();
+        }
+        endpointToWatcherMap.clear();
+        endpointToOwnersMap.clear();
+        ownerToEndpointMap.clear();
+    }
+
+    /**
+     * @return number of owners of the pod watcher of the given endpoint
+     */
+    public static synchronized int getOwnerCount(String endpoint) {
+        Set<String> owners = endpointToOwnersMap.get(endpoint);
+        return (owners == null) ? 0 : owners.size();
+    }
+}
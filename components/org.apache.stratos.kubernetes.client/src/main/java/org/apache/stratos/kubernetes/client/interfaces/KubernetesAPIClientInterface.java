@@ -62,6 +62,16 @@ public interface KubernetesAPIClientInterface {
 	 */
 	public List<Pod> queryPods(Labels[] labels) throws KubernetesClientException;
 
+	/**
+	 * Run a label query and retrieve a sub set of Pods, decoding only the given fields of the Pods.
+	 * Values of the other fields are skipped while reading the response.
+	 * @param labels of labels for the label query
+	 * @param fields names of the Pod fields to be decoded, e.g. {@link org.apache.stratos.kubernetes.client.KubernetesConstants#POD_STATUS_FIELDS}
+	 * @return Pods selected Pods by executing the label query.
+	 * @throws KubernetesClientException
+	 */
+	public List<Pod> queryPods(Labels[] labels, String... fields) throws KubernetesClientException;
+
 	/**
 	 * Delete a Pod
 	 * @param podId Id of the Pod to be deleted
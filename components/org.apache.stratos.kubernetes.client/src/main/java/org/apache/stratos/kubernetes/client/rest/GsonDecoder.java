@@ -7,7 +7,7 @@
  * "License"); you may not use this file except in compliance
  * with the License.  You may obtain a copy of the License at
  *
- *  http://www.apache.org/licenses/LICENSE-2.0
+ *   http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing,
  * software distributed under the License is distributed on an
@@ -16,23 +16,25 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package org.apache.stratos.load.balancer.statistics;
+package org.apache.stratos.kubernetes.client.rest;
 
-import java.util.concurrent.Callable;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
 
 /**
- * In-flight request increment callable definition.
+ * Decodes a json response to an object of the given type using the shared Gson instance.
  */
-public class InFlightRequestIncrementCallable implements Callable<Object> {
-    private String clusterId;
+public class GsonDecoder<T> implements JsonDecoder<T> {
+
+    private final Class<T> type;
 
-    public InFlightRequestIncrementCallable(String clusterId) {
-        this.clusterId = clusterId;
+    public GsonDecoder(Class<T> type) {
+        this.type = type;
     }
 
     @Override
-    public Object call() throws Exception {
-        LoadBalancerStatisticsCollector.getInstance().incrementInFlightRequestCount(clusterId);
-        return null;
+    public T decode(JsonReader reader) throws IOException {
+        return JsonUtil.getGson().fromJson(reader, type);
     }
 }
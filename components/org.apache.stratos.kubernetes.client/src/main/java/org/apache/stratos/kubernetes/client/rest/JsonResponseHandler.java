@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.kubernetes.client.rest;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * Handles a HttpResponse by decoding the json content directly from the response stream,
+ * without reading the content into memory first. Returns null if the resource is not found.
+ */
+public class JsonResponseHandler<T> implements ResponseHandler<T> {
+
+    private static final String CHARSET = "UTF-8";
+
+    private final JsonDecoder<T> decoder;
+
+    public JsonResponseHandler(JsonDecoder<T> decoder) {
+        this.decoder = decoder;
+    }
+
+    @Override
+    public T handleResponse(org.apache.http.HttpResponse response) throws IOException {
+        StatusLine statusLine = response.getStatusLine();
+        HttpEntity entity = response.getEntity();
+        if (statusLine.getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+            EntityUtils.consume(entity);
+            return null;
+        }
+        if (statusLine.getStatusCode() >= HttpStatus.SC_MULTIPLE_CHOICES) {
+            String content = (entity != null) ? EntityUtils.toString(entity) : null;
+            throw new HttpResponseException(statusLine.getStatusCode(), String.format("%s [content] %s",
+                    statusLine.getReasonPhrase(), content));
+        }
+        if (entity == null) {
+            throw new ClientProtocolException("Response contains no content");
+        }
+
+        JsonReader reader = new JsonReader(new InputStreamReader(entity.getContent(), CHARSET));
+        try {
+            return decoder.decode(reader);
+        } catch (JsonParseException e) {
+            throw new ClientProtocolException("Could not parse kubernetes api response", e);
+        } catch (IllegalStateException e) {
+            throw new ClientProtocolException("Could not parse kubernetes api response", e);
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -20,8 +20,6 @@
  */
 package org.apache.stratos.kubernetes.client.rest;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonSyntaxException;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
@@ -54,16 +52,17 @@ public class KubernetesResponseHandler implements ResponseHandler<HttpResponse>{
                 (response.getEntity().getContent())));
 
         String output;
-        String result = "";
+        StringBuilder content = new StringBuilder();
 
         while ((output = reader.readLine()) != null) {
-            result += output;
+            content.append(output);
         }
+        String result = content.toString();
 
         HttpResponse httpResponse = new HttpResponse();
         httpResponse.setStatusCode(statusLine.getStatusCode());
         httpResponse.setContent(result);
-        if(StringUtils.isNotBlank(result) && (isJson(result))) {
+        if(StringUtils.isNotBlank(result)) {
             httpResponse.setKubernetesResponse(parseKubernetesResponse(result));
         }
         httpResponse.setReason(statusLine.getReasonPhrase());
@@ -75,22 +74,12 @@ public class KubernetesResponseHandler implements ResponseHandler<HttpResponse>{
         return httpResponse;
     }
 
-    private boolean isJson(String content) {
-        try {
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            gson.fromJson(content, Object.class);
-            return true;
-        } catch (JsonSyntaxException ignore) {
-            return false;
-        }
-    }
-
     private KubernetesResponse parseKubernetesResponse(String result) {
         try {
-            GsonBuilder gsonBuilder = new GsonBuilder();
-            Gson gson = gsonBuilder.create();
-            return gson.fromJson(result, KubernetesResponse.class);
+            return JsonUtil.getGson().fromJson(result, KubernetesResponse.class);
+        } catch (JsonSyntaxException ignore) {
+            // Response content is not json
+            return null;
         } catch (Exception e) {
             log.error("Could not parse kubernetes api response", e);
             return null;
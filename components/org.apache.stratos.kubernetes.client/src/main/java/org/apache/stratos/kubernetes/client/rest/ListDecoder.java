@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.stratos.kubernetes.client.rest;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Decodes the items of a kubernetes list response, e.g. a pod list, one item at a time.
+ * If fields are given only those fields of the items are decoded, values of the other fields
+ * are skipped in the stream without being parsed into objects. This reduces the memory and
+ * time needed for decoding large lists when only a few fields of the items are used.
+ */
+public class ListDecoder<T> implements JsonDecoder<List<T>> {
+
+    private static final String ITEMS = "items";
+
+    private final Class<T> itemType;
+    private final Set<String> fields;
+
+    /**
+     * @param itemType type of the list items
+     * @param fields   names of the item fields to be decoded, all fields are decoded if none given
+     */
+    public ListDecoder(Class<T> itemType, String... fields) {
+        this.itemType = itemType;
+        this.fields = ((fields == null) || (fields.length == 0)) ? null :
+                new HashSet<String>(Arrays.asList(fields));
+    }
+
+    @Override
+    public List<T> decode(JsonReader reader) throws IOException {
+        List<T> items = new ArrayList<T>();
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return items;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (ITEMS.equals(reader.nextName()) && (reader.peek() == JsonToken.BEGIN_ARRAY)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    T item = decodeItem(reader);
+                    if (item != null) {
+                        items.add(item);
+                    }
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return items;
+    }
+
+    private T decodeItem(JsonReader reader) throws IOException {
+        Gson gson = JsonUtil.getGson();
+        if (fields == null) {
+            return gson.fromJson(reader, itemType);
+        }
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        TypeAdapter<JsonElement> elementAdapter = gson.getAdapter(JsonElement.class);
+        JsonObject projection = new JsonObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (fields.contains(name)) {
+                projection.add(name, elementAdapter.read(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return gson.fromJson(projection, itemType);
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.stratos.kubernetes.client.rest;
 
 import java.net.URI;
 
+import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
@@ -85,6 +86,40 @@ public class RestClient {
             releaseConnection(getRequest);
         }
     }
+
+    /**
+     * Handle http get request and decode the json response while it is being read from the
+     * response stream.
+     *
+     * @param resourcePath This should be REST endpoint
+     * @param decoder The decoder of the json response
+     * @return The decoded response, null if the resource is not found
+     * @throws Exception if any errors occur when executing the request or decoding the response
+     */
+    public <T> T doGet(URI resourcePath, JsonDecoder<T> decoder) throws Exception {
+        return doGet(new HttpGet(resourcePath), new JsonResponseHandler<T>(decoder));
+    }
+
+    /**
+     * Handle http get request using the given response handler. The response content is streamed
+     * to the handler instead of being read into memory, hence long running responses such as
+     * watch streams can be consumed. The request could be aborted by another thread to stop the
+     * handler.
+     *
+     * @param getRequest The http get request
+     * @param responseHandler The handler of the response
+     * @return The value returned by the response handler
+     * @throws Exception if any errors occur when executing the request
+     */
+    public <T> T doGet(HttpGet getRequest, ResponseHandler<T> responseHandler) throws Exception {
+        try {
+            getRequest.addHeader("Content-Type", "application/json");
+
+            return httpClient.execute(getRequest, responseHandler);
+        } finally {
+            releaseConnection(getRequest);
+        }
+    }
     
     public HttpResponse doDelete(URI resourcePath) throws Exception {
         HttpDelete httpDelete = null;
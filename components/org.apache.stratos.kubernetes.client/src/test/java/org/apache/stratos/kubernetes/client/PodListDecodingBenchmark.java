@@ -0,0 +1,180 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.stratos.kubernetes.client;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import org.apache.stratos.kubernetes.client.model.*;
+import org.apache.stratos.kubernetes.client.rest.JsonUtil;
+import org.apache.stratos.kubernetes.client.rest.ListDecoder;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the time taken for decoding pod list responses, by reading the response into a string
+ * and parsing it using a new Gson instance, by decoding the response stream using the shared Gson
+ * instance, and by decoding only the pod status fields from the response stream.
+ * This is not run as part of the build, run the main method from the module directory to execute it:
+ * java -cp ... org.apache.stratos.kubernetes.client.PodListDecodingBenchmark [pods] [iterations]
+ */
+public class PodListDecodingBenchmark {
+
+    private static final int ENVIRONMENT_VARIABLES_PER_POD = 30;
+
+    public static void main(String[] args) throws Exception {
+        int podCount = (args.length > 0) ? Integer.parseInt(args[0]) : 5000;
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 20;
+
+        byte[] content = createPodList(podCount);
+        Decoder[] decoders = {new StringDecoder(), new StreamDecoder(), new ProjectionDecoder()};
+
+        // Warm up
+        for (Decoder decoder : decoders) {
+            run(decoder, content, iterations);
+        }
+
+        System.out.println(String.format("[pods] %d [response-size] %d bytes [iterations] %d", podCount,
+                content.length, iterations));
+        for (Decoder decoder : decoders) {
+            System.out.println(String.format("Decoder %s: %.2f ms", decoder.getClass().getSimpleName(),
+                    run(decoder, content, iterations) / 1000000.0));
+        }
+    }
+
+    private static double run(Decoder decoder, byte[] content, int iterations) throws Exception {
+        long time = 0;
+        for (int i = 0; i < iterations; i++) {
+            long startTime = System.nanoTime();
+            List<Pod> pods = decoder.decode(new ByteArrayInputStream(content));
+            time += System.nanoTime() - startTime;
+            if (pods.isEmpty()) {
+                throw new IllegalStateException("No pods decoded");
+            }
+        }
+        return (double) time / iterations;
+    }
+
+    private static byte[] createPodList(int podCount) {
+        Pod[] pods = new Pod[podCount];
+        for (int i = 0; i < podCount; i++) {
+            String podId = "php-member-" + i + "-4c5d6e7f-8a9b-0c1d-2e3f-4a5b6c7d8e9f";
+            Pod pod = new Pod();
+            pod.setId(podId);
+            pod.setKind(KubernetesConstants.KIND_POD);
+            pod.setApiVersion(KubernetesConstants.KUBERNETES_API_VERSION);
+            pod.setResourceVersion(String.valueOf(i));
+            pod.setCreationTimestamp("2015-01-01T00:00:00Z");
+            pod.setSelfLink("/api/v1beta1/pods/" + podId);
+            Labels labels = new Labels();
+            labels.setName(podId);
+            pod.setLabels(labels);
+
+            Container container = new Container();
+            container.setName("php");
+            container.setImage("stratos/php:4.1.0");
+            Port port = new Port();
+            port.setName("http-80");
+            port.setContainerPort(80);
+            container.addPort(port);
+            EnvironmentVariable[] environmentVariables = new EnvironmentVariable[ENVIRONMENT_VARIABLES_PER_POD];
+            for (int j = 0; j < environmentVariables.length; j++) {
+                environmentVariables[j] = new EnvironmentVariable();
+                environmentVariables[j].setName("PARAMETER_" + j);
+                environmentVariables[j].setValue("value-of-parameter-" + j + "-of-" + podId);
+            }
+            container.setEnv(environmentVariables);
+            Manifest manifest = new Manifest();
+            manifest.setId(podId);
+            manifest.setVersion(KubernetesConstants.KUBERNETES_API_VERSION);
+            manifest.addContainer(container);
+            State desiredState = new State();
+            desiredState.setManifest(manifest);
+            pod.setDesiredState(desiredState);
+
+            State currentState = new State();
+            currentState.setStatus(KubernetesConstants.POD_STATUS_RUNNING);
+            currentState.setHost("10.0.0." + (i % 256));
+            currentState.setPodIP("172.17." + (i / 256) + "." + (i % 256));
+            pod.setCurrentState(currentState);
+            pods[i] = pod;
+        }
+        PodList podList = new PodList();
+        podList.setKind("PodList");
+        podList.setApiVersion(KubernetesConstants.KUBERNETES_API_VERSION);
+        podList.setItems(pods);
+        try {
+            return JsonUtil.getGson().toJson(podList).getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private interface Decoder {
+        List<Pod> decode(InputStream inputStream) throws IOException;
+    }
+
+    /**
+     * Reads the response into a string and parses it using a new Gson instance.
+     */
+    private static class StringDecoder implements Decoder {
+        @Override
+        public List<Pod> decode(InputStream inputStream) throws IOException {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
+            StringBuilder content = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                content.append(line);
+            }
+            Gson gson = new GsonBuilder().create();
+            PodList podList = gson.fromJson(content.toString(), PodList.class);
+            List<Pod> pods = new ArrayList<Pod>();
+            for (Pod pod : podList.getItems()) {
+                pods.add(pod);
+            }
+            return pods;
+        }
+    }
+
+    /**
+     * Decodes the response stream using the shared Gson instance.
+     */
+    private static class StreamDecoder implements Decoder {
+        @Override
+        public List<Pod> decode(InputStream inputStream) throws IOException {
+            JsonReader reader = new JsonReader(new InputStreamReader(inputStream, "UTF-8"));
+            return new ListDecoder<Pod>(Pod.class).decode(reader);
+        }
+    }
+
+    /**
+     * Decodes only the pod status fields from the response stream.
+     */
+    private static class ProjectionDecoder implements Decoder {
+        @Override
+        public List<Pod> decode(InputStream inputStream) throws IOException {
+            JsonReader reader = new JsonReader(new InputStreamReader(inputStream, "UTF-8"));
+            return new ListDecoder<Pod>(Pod.class, KubernetesConstants.POD_STATUS_FIELDS).decode(reader);
+        }
+    }
+}
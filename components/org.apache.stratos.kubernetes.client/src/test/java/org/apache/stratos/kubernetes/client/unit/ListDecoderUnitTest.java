@@ -0,0 +1,82 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.stratos.kubernetes.client.unit;
+
+import com.google.gson.stream.JsonReader;
+import org.apache.stratos.kubernetes.client.KubernetesConstants;
+import org.apache.stratos.kubernetes.client.model.Pod;
+import org.apache.stratos.kubernetes.client.rest.ListDecoder;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@Category(org.apache.stratos.kubernetes.client.UnitTests.class)
+public class ListDecoderUnitTest {
+
+    private static final String POD_LIST = "{\"kind\":\"PodList\",\"apiVersion\":\"v1beta1\",\"resourceVersion\":7," +
+            "\"items\":[" +
+            "{\"id\":\"pod-1\",\"resourceVersion\":5,\"labels\":{\"name\":\"member-1\"}," +
+            "\"desiredState\":{\"manifest\":{\"id\":\"pod-1\",\"containers\":[{\"name\":\"php\"," +
+            "\"env\":[{\"name\":\"PORTS\",\"value\":\"80\"}]}]}}," +
+            "\"currentState\":{\"status\":\"Running\",\"podIP\":\"172.17.0.2\",\"info\":{\"php\":{\"restartCount\":0}}}}," +
+            "null," +
+            "{\"id\":\"pod-2\",\"labels\":{\"name\":\"member-2\"},\"currentState\":{\"status\":\"Waiting\"}}]}";
+
+    @Test
+    public void testDecodeAllFields() throws Exception {
+        List<Pod> pods = decode(new ListDecoder<Pod>(Pod.class), POD_LIST);
+        assertEquals(2, pods.size());
+        assertEquals("pod-1", pods.get(0).getId());
+        assertEquals("php", pods.get(0).getDesiredState().getManifest().getContainers().get(0).getName());
+        assertEquals("172.17.0.2", pods.get(0).getCurrentState().getPodIP());
+        assertEquals("pod-2", pods.get(1).getId());
+    }
+
+    @Test
+    public void testDecodeProjectedFields() throws Exception {
+        List<Pod> pods = decode(new ListDecoder<Pod>(Pod.class, KubernetesConstants.POD_STATUS_FIELDS), POD_LIST);
+        assertEquals(2, pods.size());
+        Pod pod = pods.get(0);
+        assertEquals("pod-1", pod.getId());
+        assertEquals("5", pod.getResourceVersion());
+        assertEquals("member-1", pod.getLabels().getName());
+        assertEquals(KubernetesConstants.POD_STATUS_RUNNING, pod.getCurrentState().getStatus());
+        assertEquals("172.17.0.2", pod.getCurrentState().getPodIP());
+        assertNull(pod.getDesiredState());
+        assertEquals("Waiting", pods.get(1).getCurrentState().getStatus());
+    }
+
+    @Test
+    public void testDecodeEmptyList() throws Exception {
+        assertTrue(decode(new ListDecoder<Pod>(Pod.class), "{\"kind\":\"PodList\",\"items\":[]}").isEmpty());
+        assertTrue(decode(new ListDecoder<Pod>(Pod.class, "id"), "{\"kind\":\"PodList\"}").isEmpty());
+        assertTrue(decode(new ListDecoder<Pod>(Pod.class), "null").isEmpty());
+    }
+
+    private List<Pod> decode(ListDecoder<Pod> decoder, String content) throws IOException {
+        return decoder.decode(new JsonReader(new StringReader(content)));
+    }
+}
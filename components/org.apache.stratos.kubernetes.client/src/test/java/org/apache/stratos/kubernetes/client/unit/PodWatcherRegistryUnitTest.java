@@ -0,0 +1,105 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.stratos.kubernetes.client.unit;
+
+import org.apache.stratos.kubernetes.client.PodFuture;
+import org.apache.stratos.kubernetes.client.PodWatcher;
+import org.apache.stratos.kubernetes.client.PodWatcherRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests sharing and releasing pod watchers of kubernetes api endpoints.
+ */
+@Category(org.apache.stratos.kubernetes.client.UnitTests.class)
+public class PodWatcherRegistryUnitTest {
+
+    // Nothing listens on the endpoints, watchers keep retrying until they are stopped
+    private static final String ENDPOINT_1 = "http://localhost:1/api/v1beta1/";
+    private static final String ENDPOINT_2 = "http://localhost:2/api/v1beta1/";
+
+    @After
+    public void tearDown() {
+        PodWatcherRegistry.releaseAll();
+    }
+
+    @Test
+    public void testWatcherSharedPerEndpoint() {
+        PodWatcher podWatcher = PodWatcherRegistry.acquire("cluster-1", ENDPOINT_1);
+        assertTrue(podWatcher.isRunning());
+
+        // Acquiring is idempotent per owner, e.g. for each copy of a kubernetes cluster context
+        assertSame(podWatcher, PodWatcherRegistry.acquire("cluster-1", ENDPOINT_1));
+        assertEquals(1, PodWatcherRegistry.getOwnerCount(ENDPOINT_1));
+
+        assertSame(podWatcher, PodWatcherRegistry.acquire("cluster-2", ENDPOINT_1));
+        assertEquals(2, PodWatcherRegistry.getOwnerCount(ENDPOINT_1));
+
+        PodWatcher otherPodWatcher = PodWatcherRegistry.acquire("cluster-3", ENDPOINT_2);
+        assertNotSame(podWatcher, otherPodWatcher);
+    }
+
+    @Test
+    public void testWatcherStoppedWhenReleasedByAllOwners() {
+        PodWatcher podWatcher = PodWatcherRegistry.acquire("cluster-1", ENDPOINT_1);
+        PodWatcherRegistry.acquire("cluster-2", ENDPOINT_1);
+
+        PodWatcherRegistry.release("cluster-1");
+        assertTrue(podWatcher.isRunning());
+        assertEquals(1, PodWatcherRegistry.getOwnerCount(ENDPOINT_1));
+
+        // Releasing twice does not release the watcher of another owner
+        PodWatcherRegistry.release("cluster-1");
+        assertTrue(podWatcher.isRunning());
+
+        PodWatcherRegistry.release("cluster-2");
+        assertFalse(podWatcher.isRunning());
+        assertEquals(0, PodWatcherRegistry.getOwnerCount(ENDPOINT_1));
+
+        // A new watcher is started on next use
+        PodWatcher newPodWatcher = PodWatcherRegistry.acquire("cluster-1", ENDPOINT_1);
+        assertNotSame(podWatcher, newPodWatcher);
+        assertTrue(newPodWatcher.isRunning());
+    }
+
+    @Test
+    public void testEndpointChangeReleasesPreviousWatcher() {
+        PodWatcher podWatcher = PodWatcherRegistry.acquire("cluster-1", ENDPOINT_1);
+        PodWatcher newPodWatcher = PodWatcherRegistry.acquire("cluster-1", ENDPOINT_2);
+        assertNotSame(podWatcher, newPodWatcher);
+        assertFalse(podWatcher.isRunning());
+        assertEquals(0, PodWatcherRegistry.getOwnerCount(ENDPOINT_1));
+        assertEquals(1, PodWatcherRegistry.getOwnerCount(ENDPOINT_2));
+    }
+
+    @Test
+    public void testStopCancelsPendingFutures() {
+        PodWatcher podWatcher = PodWatcherRegistry.acquire("cluster-1", ENDPOINT_1);
+        PodFuture future = podWatcher.awaitRunning("member-1");
+        assertFalse(future.isDone());
+
+        PodWatcherRegistry.release("cluster-1");
+        assertTrue(future.isCancelled());
+    }
+}
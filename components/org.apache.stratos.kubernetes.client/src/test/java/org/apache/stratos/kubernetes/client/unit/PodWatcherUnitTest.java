@@ -0,0 +1,184 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.stratos.kubernetes.client.unit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.stratos.kubernetes.client.PodFuture;
+import org.apache.stratos.kubernetes.client.PodWatcher;
+import org.apache.stratos.kubernetes.client.model.Pod;
+import org.apache.stratos.kubernetes.client.rest.RestClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the pod watcher against a stub kubernetes api server serving a pod list and a watch stream.
+ */
+@Category(org.apache.stratos.kubernetes.client.UnitTests.class)
+public class PodWatcherUnitTest {
+
+    private static final String END_OF_STREAM = "";
+
+    private HttpServer server;
+    private PodWatcher podWatcher;
+    private volatile String podList;
+    private final BlockingQueue<String> watchEvents = new LinkedBlockingQueue<String>();
+    private final AtomicInteger listCount = new AtomicInteger();
+    private final AtomicInteger watchCount = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1beta1/pods", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                listCount.incrementAndGet();
+                byte[] content = podList.getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, content.length);
+                OutputStream outputStream = exchange.getResponseBody();
+                outputStream.write(content);
+                outputStream.close();
+            }
+        });
+        server.createContext("/api/v1beta1/watch/pods", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                watchCount.incrementAndGet();
+                // Stream events using chunked encoding until the end of the stream is requested
+                exchange.sendResponseHeaders(200, 0);
+                OutputStream outputStream = exchange.getResponseBody();
+                try {
+                    String event;
+                    while (!END_OF_STREAM.equals(event = watchEvents.take())) {
+                        outputStream.write(event.getBytes("UTF-8"));
+                        outputStream.flush();
+                    }
+                } catch (InterruptedException ignore) {
+                } finally {
+                    outputStream.close();
+                }
+            }
+        });
+        // Watch streams hold the handler thread until the end of the stream
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        podList = podList("1", pod("pod-1", "member-1", "Pending", "1"));
+        String baseURL = String.format("http://localhost:%d/api/v1beta1/", server.getAddress().getPort());
+        podWatcher = new PodWatcher(baseURL, new RestClient());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        podWatcher.stop();
+        watchEvents.put(END_OF_STREAM);
+        server.stop(0);
+    }
+
+    @Test
+    public void testPodRunningEvent() throws Exception {
+        podWatcher.start();
+        PodFuture future = podWatcher.awaitRunning("member-1");
+
+        watchEvents.put(event("MODIFIED", pod("pod-1", "member-1", "Waiting", "2")));
+        try {
+            future.get(200, TimeUnit.MILLISECONDS);
+            fail("Pod is not running");
+        } catch (TimeoutException expected) {
+        }
+
+        watchEvents.put(event("MODIFIED", pod("pod-1", "member-1", "Running", "3")));
+        Pod pod = future.get(5, TimeUnit.SECONDS);
+        assertEquals("pod-1", pod.getId());
+        assertEquals("Running", pod.getCurrentState().getStatus());
+        assertTrue(podWatcher.isSynced());
+        assertEquals(1, listCount.get());
+        assertEquals(1, watchCount.get());
+    }
+
+    @Test
+    public void testRunningPodListed() throws Exception {
+        podList = podList("5", pod("pod-1", "member-1", "Running", "5"), pod("pod-2", "member-2", "Pending", "4"));
+        podWatcher.start();
+
+        Pod pod = podWatcher.awaitRunning("member-1").get(5, TimeUnit.SECONDS);
+        assertEquals("pod-1", pod.getId());
+        assertEquals(1, podWatcher.getPods("member-2").size());
+
+        // Pods removed by the watch stream are removed from the cache
+        watchEvents.put(event("DELETED", pod("pod-2", "member-2", "Pending", "6")));
+        long timeout = System.currentTimeMillis() + 5000;
+        while (!podWatcher.getPods("member-2").isEmpty() && (System.currentTimeMillis() < timeout)) {
+            Thread.sleep(10);
+        }
+        assertTrue(podWatcher.getPods("member-2").isEmpty());
+    }
+
+    @Test
+    public void testCancelledFuture() throws Exception {
+        podWatcher.start();
+        PodFuture future = podWatcher.awaitRunning("member-1");
+        assertTrue(future.cancel(false));
+        assertTrue(future.isCancelled());
+
+        watchEvents.put(event("MODIFIED", pod("pod-1", "member-1", "Running", "2")));
+        PodFuture runningFuture = podWatcher.awaitRunning("member-1");
+        runningFuture.get(5, TimeUnit.SECONDS);
+        assertTrue(future.isCancelled());
+        assertFalse(future.cancel(false));
+    }
+
+    private static String podList(String resourceVersion, String... pods) {
+        StringBuilder items = new StringBuilder();
+        for (String pod : pods) {
+            if (items.length() > 0) {
+                items.append(",");
+            }
+            items.append(pod);
+        }
+        return String.format("{\"kind\":\"PodList\",\"apiVersion\":\"v1beta1\",\"resourceVersion\":%s," +
+                "\"items\":[%s]}", resourceVersion, items);
+    }
+
+    private static String pod(String podId, String podName, String status, String resourceVersion) {
+        return String.format("{\"kind\":\"Pod\",\"id\":\"%s\",\"resourceVersion\":%s,\"labels\":{\"name\":\"%s\"}," +
+                "\"currentState\":{\"status\":\"%s\"}}", podId, resourceVersion, podName, status);
+    }
+
+    private static String event(String type, String pod) {
+        return String.format("{\"type\":\"%s\",\"object\":%s}\n", type, pod);
+    }
+}
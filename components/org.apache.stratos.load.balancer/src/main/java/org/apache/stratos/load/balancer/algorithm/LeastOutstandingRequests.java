@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.algorithm;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.context.AlgorithmContext;
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
+import org.apache.stratos.messaging.domain.topology.Member;
+
+/**
+ * This is the implementation of the least outstanding requests load balancing algorithm. It selects
+ * the active member having the lowest number of in-flight requests. The search starts from a rotating
+ * position, hence members having the same number of in-flight requests are selected in turn.
+ */
+public class LeastOutstandingRequests implements LoadBalanceAlgorithm {
+    private static final Log log = LogFactory.getLog(LeastOutstandingRequests.class);
+
+    @Override
+    public String getName() {
+        return "Least Outstanding Requests";
+    }
+
+    @Override
+    public Member getNextMember(AlgorithmContext algorithmContext) {
+        Member[] members = algorithmContext.getMembers();
+        if (members.length == 0) {
+            return null;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Searching for next member: [service] %s [cluster]: %s [member-count]: %d", algorithmContext.getServiceName(), algorithmContext.getClusterId(), members.length));
+        }
+
+        LoadBalancerStatisticsCollector statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
+        int start = algorithmContext.getAndIncrementMemberIndex() % members.length;
+        Member selected = null;
+        int selectedCount = Integer.MAX_VALUE;
+        for (int i = 0; i < members.length; i++) {
+            Member current = members[(start + i) % members.length];
+            if (!current.isActive()) {
+                continue;
+            }
+            int count = statisticsCollector.getMemberInFlightRequestCount(current.getMemberId());
+            if (count < selectedCount) {
+                selected = current;
+                selectedCount = count;
+                if (count == 0) {
+                    break;
+                }
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public void reset(AlgorithmContext algorithmContext) {
+        algorithmContext.setCurrentMemberIndex(0);
+        if (log.isDebugEnabled()) {
+            log.debug("Least outstanding requests load balance algorithm was reset");
+        }
+    }
+
+    public LoadBalanceAlgorithm clone() {
+        return new LeastOutstandingRequests();
+    }
+}
@@ -22,11 +22,11 @@ package org.apache.stratos.load.balancer.algorithm;
 import org.apache.stratos.load.balancer.context.AlgorithmContext;
 import org.apache.stratos.messaging.domain.topology.Member;
 
-import java.util.List;
-
 /**
  * Load balance algorithm interface.
  * Implement this interface to introduce new load balance algorithms.
+ * A single algorithm instance is shared by all requests, therefore implementations should keep
+ * cluster specific state in the algorithm context and should not lock or allocate per request.
  */
 public interface LoadBalanceAlgorithm {
     /**
@@ -37,20 +37,14 @@ public interface LoadBalanceAlgorithm {
     public String getName();
 
     /**
-     * Apply the algorithm and return the next member.
+     * Apply the algorithm and return the next member from the active members
+     * of the algorithm context.
      *
      * @param algorithmContext
-     * @return
+     * @return next member or null if the cluster does not have an active member
      */
     public Member getNextMember(AlgorithmContext algorithmContext);
 
-    /**
-     * Set member list of a given cluster.
-     *
-     * @param members
-     */
-    public void setMembers(List<Member> members);
-
     /**
      * Reset the algorithm and start from the beginning.
      *
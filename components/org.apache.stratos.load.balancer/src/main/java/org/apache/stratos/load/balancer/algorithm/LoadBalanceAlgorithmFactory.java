@@ -23,6 +23,8 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Load balance algorithm factory to create algorithm objects.
@@ -30,6 +32,30 @@ import java.lang.reflect.InvocationTargetException;
 public class LoadBalanceAlgorithmFactory {
     private static final Log log = LogFactory.getLog(LoadBalanceAlgorithmFactory.class);
 
+    // Map<ClassName, LoadBalanceAlgorithm>
+    private static final ConcurrentMap<String, LoadBalanceAlgorithm> algorithmMap =
+            new ConcurrentHashMap<String, LoadBalanceAlgorithm>();
+
+    /**
+     * Return a shared algorithm instance of the given class, instances are created once and
+     * reused by all clusters using the same algorithm.
+     *
+     * @param className algorithm class name
+     * @return algorithm instance or null if the class could not be instantiated
+     */
+    public static LoadBalanceAlgorithm getAlgorithm(String className) {
+        LoadBalanceAlgorithm algorithm = algorithmMap.get(className);
+        if (algorithm == null) {
+            algorithm = createAlgorithm(className);
+            if (algorithm != null) {
+                LoadBalanceAlgorithm existing = algorithmMap.putIfAbsent(className, algorithm);
+                if (existing != null) {
+                    algorithm = existing;
+                }
+            }
+        }
+        return algorithm;
+    }
 
     public static LoadBalanceAlgorithm createAlgorithm(String className) {
         try {
@@ -39,7 +65,7 @@ public class LoadBalanceAlgorithmFactory {
                 if (instance instanceof LoadBalanceAlgorithm) {
                     return (LoadBalanceAlgorithm) instance;
                 } else {
-                    throw new RuntimeException(String.format("Class %s is not a valid load balance algorithm implementation"));
+                    throw new RuntimeException(String.format("Class %s is not a valid load balance algorithm implementation", className));
                 }
             } catch (NoSuchMethodException e) {
                 if (log.isErrorEnabled()) {
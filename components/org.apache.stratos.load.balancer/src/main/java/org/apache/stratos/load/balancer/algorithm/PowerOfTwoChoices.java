@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.algorithm;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.context.AlgorithmContext;
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
+import org.apache.stratos.messaging.domain.topology.Member;
+
+import java.util.Random;
+
+/**
+ * This is the implementation of the power of two random choices load balancing algorithm. Two distinct
+ * active members are picked at random and the one having fewer in-flight requests is selected. This avoids
+ * scanning all members on every request while keeping slow members from accumulating requests.
+ */
+public class PowerOfTwoChoices implements LoadBalanceAlgorithm {
+    private static final Log log = LogFactory.getLog(PowerOfTwoChoices.class);
+
+    private static final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    @Override
+    public String getName() {
+        return "Power Of Two Choices";
+    }
+
+    @Override
+    public Member getNextMember(AlgorithmContext algorithmContext) {
+        Member[] members = algorithmContext.getMembers();
+        if (members.length == 0) {
+            return null;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Searching for next member: [service] %s [cluster]: %s [member-count]: %d", algorithmContext.getServiceName(), algorithmContext.getClusterId(), members.length));
+        }
+        if (members.length == 1) {
+            return members[0].isActive() ? members[0] : null;
+        }
+
+        Random randomGenerator = random.get();
+        int firstIndex = randomGenerator.nextInt(members.length);
+        int secondIndex = randomGenerator.nextInt(members.length - 1);
+        if (secondIndex >= firstIndex) {
+            secondIndex++;
+        }
+        Member first = members[firstIndex];
+        Member second = members[secondIndex];
+
+        if (first.isActive() && second.isActive()) {
+            LoadBalancerStatisticsCollector statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
+            int firstCount = statisticsCollector.getMemberInFlightRequestCount(first.getMemberId());
+            int secondCount = statisticsCollector.getMemberInFlightRequestCount(second.getMemberId());
+            return (secondCount < firstCount) ? second : first;
+        }
+        if (first.isActive()) {
+            return first;
+        }
+        if (second.isActive()) {
+            return second;
+        }
+
+        // Members may become inactive before the active member list is updated
+        for (int i = 1; i < members.length; i++) {
+            Member current = members[(firstIndex + i) % members.length];
+            if (current.isActive()) {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void reset(AlgorithmContext algorithmContext) {
+        if (log.isDebugEnabled()) {
+            log.debug("Power of two choices load balance algorithm was reset");
+        }
+    }
+
+    public LoadBalanceAlgorithm clone() {
+        return new PowerOfTwoChoices();
+    }
+}
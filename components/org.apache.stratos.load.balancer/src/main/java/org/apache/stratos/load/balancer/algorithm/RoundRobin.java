@@ -24,10 +24,6 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.load.balancer.context.AlgorithmContext;
 import org.apache.stratos.messaging.domain.topology.Member;
 
-import java.util.List;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
-
 /**
  * This is the implementation of the round robin load balancing algorithm. It simply iterates
  * through the endpoint list one by one for until an active endpoint is found.
@@ -35,9 +31,6 @@ import java.util.concurrent.locks.ReentrantLock;
 public class RoundRobin implements LoadBalanceAlgorithm {
     private static final Log log = LogFactory.getLog(RoundRobin.class);
 
-    private List<Member> members;
-    private final Lock lock = new ReentrantLock();
-
     @Override
     public String getName() {
         return "Round Robin";
@@ -45,48 +38,28 @@ public class RoundRobin implements LoadBalanceAlgorithm {
 
     @Override
     public Member getNextMember(AlgorithmContext algorithmContext) {
-        if (members.size() == 0) {
+        Member[] members = algorithmContext.getMembers();
+        if (members.length == 0) {
             return null;
         }
-        Member current = null;
-        lock.lock();
-        try {
-            int currentMemberIndex = algorithmContext.getCurrentMemberIndex();
-            if (currentMemberIndex >= members.size()) {
-                currentMemberIndex = 0;
-            }
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Searching for next member: [service] %s [cluster]: %s [member-count]: %d [current-index] %d", algorithmContext.getServiceName(), algorithmContext.getClusterId(), members.size(), currentMemberIndex));
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Searching for next member: [service] %s [cluster]: %s [member-count]: %d [current-index] %d", algorithmContext.getServiceName(), algorithmContext.getClusterId(), members.length, algorithmContext.getCurrentMemberIndex()));
+        }
+        // Members may become inactive before the active member list is updated
+        for (int i = 0; i < members.length; i++) {
+            Member current = members[algorithmContext.getAndIncrementMemberIndex() % members.length];
+            if (current.isActive()) {
+                return current;
             }
-            int index = members.size();
-            do {
-                current = members.get(currentMemberIndex);
-                if (currentMemberIndex == members.size() - 1) {
-                    currentMemberIndex = 0;
-                } else {
-                    currentMemberIndex++;
-                }
-                index--;
-            } while ((!current.isActive()) && index > 0);
-            algorithmContext.setCurrentMemberIndex(currentMemberIndex);
-        } finally {
-            lock.unlock();
         }
-        return current;
-    }
-
-    @Override
-    public void setMembers(List<Member> members) {
-        this.members = members;
+        return null;
     }
 
     @Override
     public void reset(AlgorithmContext algorithmContext) {
-        synchronized (algorithmContext) {
-            algorithmContext.setCurrentMemberIndex(0);
-            if (log.isDebugEnabled()) {
-                log.debug("Round robin load balance algorithm was reset");
-            }
+        algorithmContext.setCurrentMemberIndex(0);
+        if (log.isDebugEnabled()) {
+            log.debug("Round robin load balance algorithm was reset");
         }
     }
 
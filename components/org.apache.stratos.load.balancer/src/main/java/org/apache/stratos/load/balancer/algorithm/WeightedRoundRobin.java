@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.algorithm;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.context.AlgorithmContext;
+import org.apache.stratos.load.balancer.util.LoadBalancerConstants;
+import org.apache.stratos.messaging.domain.topology.Member;
+
+/**
+ * This is the implementation of the weighted round robin load balancing algorithm. Member weights are
+ * read from the {@link LoadBalancerConstants#MEMBER_WEIGHT} member property, members without a weight
+ * get a weight of one. Members are selected in turn from the weighted member schedule of the algorithm
+ * context, which is rebuilt on topology events.
+ */
+public class WeightedRoundRobin implements LoadBalanceAlgorithm {
+    private static final Log log = LogFactory.getLog(WeightedRoundRobin.class);
+
+    @Override
+    public String getName() {
+        return "Weighted Round Robin";
+    }
+
+    @Override
+    public Member getNextMember(AlgorithmContext algorithmContext) {
+        Member[] weightedMembers = algorithmContext.getWeightedMembers();
+        if (weightedMembers.length == 0) {
+            return null;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Searching for next member: [service] %s [cluster]: %s [schedule-length]: %d [current-index] %d", algorithmContext.getServiceName(), algorithmContext.getClusterId(), weightedMembers.length, algorithmContext.getCurrentMemberIndex()));
+        }
+
+        // Members may become inactive before the weighted member schedule is updated
+        for (int i = 0; i < weightedMembers.length; i++) {
+            Member current = weightedMembers[algorithmContext.getAndIncrementMemberIndex() % weightedMembers.length];
+            if (current.isActive()) {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void reset(AlgorithmContext algorithmContext) {
+        algorithmContext.setCurrentMemberIndex(0);
+        if (log.isDebugEnabled()) {
+            log.debug("Weighted round robin load balance algorithm was reset");
+        }
+    }
+
+    public LoadBalanceAlgorithm clone() {
+        return new WeightedRoundRobin();
+    }
+}
@@ -62,6 +62,7 @@ public class LoadBalancerConfiguration {
     private boolean multiTenancyEnabled;
     private TenantIdentifier tenantIdentifier;
     private List<String> tenantIdentifierRegexList;
+    private List<Pattern> tenantIdentifierPatternList;
     private String topologyMemberFilter;
     private String networkPartitionId;
     private boolean reWriteLocationHeader;
@@ -236,14 +237,28 @@ public class LoadBalancerConfiguration {
         return tenantIdentifier;
     }
 
+    /**
+     * Set tenant identifier regular expressions, expressions are compiled once here and
+     * reused for every request.
+     * @param tenantIdentifierRegexList tenant identifier regular expressions
+     */
     public void setTenantIdentifierRegexList(List<String> tenantIdentifierRegexList) {
+        List<Pattern> patternList = new ArrayList<Pattern>(tenantIdentifierRegexList.size());
+        for (String regex : tenantIdentifierRegexList) {
+            patternList.add(Pattern.compile(regex));
+        }
         this.tenantIdentifierRegexList = tenantIdentifierRegexList;
+        this.tenantIdentifierPatternList = Collections.unmodifiableList(patternList);
     }
 
     public List<String> getTenantIdentifierRegexList() {
         return tenantIdentifierRegexList;
     }
 
+    public List<Pattern> getTenantIdentifierPatternList() {
+        return tenantIdentifierPatternList;
+    }
+
     public void setNetworkPartitionId(String networkPartitionId) {
         this.networkPartitionId = networkPartitionId;
     }
@@ -410,7 +425,11 @@ public class LoadBalancerConfiguration {
                 } else {
                     regexList.add(tenantIdentifierRegex);
                 }
-                configuration.setTenantIdentifierRegexList(regexList);
+                try {
+                    configuration.setTenantIdentifierRegexList(regexList);
+                } catch (Exception e) {
+                    throw new InvalidConfigurationException(String.format("Invalid tenant identifier regular expression: %s", tenantIdentifierRegex), e);
+                }
             }
 
             Node algorithmsNode = loadBalancerNode.findChildNodeByName(Constants.CONF_ELEMENT_ALGORITHMS);
@@ -518,6 +537,8 @@ public class LoadBalancerConfiguration {
                         LoadBalancerContextUtil.addClusterAgainstHostNames(cluster);
                     }
                 }
+                // Topology is not updated via topology events, publish the static topology as a snapshot
+                TopologyManager.updateTopologySnapshot();
             }
             return configuration;
         }
@@ -19,30 +19,42 @@
 
 package org.apache.stratos.load.balancer.context;
 
-import org.apache.stratos.load.balancer.context.map.AlgorithmContextMap;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.util.LoadBalancerConstants;
+import org.apache.stratos.messaging.domain.topology.Member;
 
-import java.util.concurrent.locks.Lock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Algorithm context is used for identifying the cluster and its current member for executing load balancing algorithms.
+ * It holds the active members of the cluster, which are updated on topology events, and a member index which
+ * is advanced atomically. Hence load balancing algorithms could select members without locking or allocating.
  * Key: service name, cluster id
  */
 public class AlgorithmContext {
-    private String serviceName;
-    private String clusterId;
+    private static final Log log = LogFactory.getLog(AlgorithmContext.class);
+
+    private static final Member[] NO_MEMBERS = new Member[0];
+    private static final int DEFAULT_MEMBER_WEIGHT = 1;
+    private static final int MAX_MEMBER_WEIGHT = 100;
+
+    private final String serviceName;
+    private final String clusterId;
+    private final AtomicInteger currentMemberIndex;
+    private volatile Member[] members;
+    private volatile Member[] weightedMembers;
 
     public AlgorithmContext(String serviceName, String clusterId) {
         this.serviceName = serviceName;
         this.clusterId = clusterId;
-        Lock lock = null;
-        try {
-            lock = AlgorithmContextMap.getInstance().acquireCurrentMemberIndexLock();
-            AlgorithmContextMap.getInstance().putCurrentMemberIndex(serviceName, clusterId, 0);
-        } finally {
-            if(lock != null) {
-                AlgorithmContextMap.getInstance().releaseCurrentMemberIndexLock(lock);
-            }
-        }
+        this.currentMemberIndex = new AtomicInteger();
+        this.members = NO_MEMBERS;
+        this.weightedMembers = NO_MEMBERS;
     }
 
     public String getServiceName() {
@@ -54,18 +66,122 @@ public class AlgorithmContext {
     }
 
     public int getCurrentMemberIndex() {
-        return AlgorithmContextMap.getInstance().getCurrentMemberIndex(getServiceName(), getClusterId());
+        return currentMemberIndex.get();
     }
 
     public void setCurrentMemberIndex(int currentMemberIndex) {
-        Lock lock = null;
+        this.currentMemberIndex.set(currentMemberIndex);
+    }
+
+    /**
+     * Return the current member index and advance it by one. The returned value is never negative.
+     * @return member index
+     */
+    public int getAndIncrementMemberIndex() {
+        return currentMemberIndex.getAndIncrement() & Integer.MAX_VALUE;
+    }
+
+    /**
+     * Return active members of the cluster at the time of the last topology update.
+     * The returned array must not be modified.
+     * @return active members
+     */
+    public Member[] getMembers() {
+        return members;
+    }
+
+    /**
+     * Return active members of the cluster where each member appears as many times as its weight,
+     * interleaved so that members with higher weights are not selected in bursts.
+     * The returned array must not be modified.
+     * @return weighted member schedule
+     */
+    public Member[] getWeightedMembers() {
+        return weightedMembers;
+    }
+
+    /**
+     * Rebuild active members of the cluster. Caller should hold the topology read lock of the cluster.
+     * @param clusterMembers all members of the cluster
+     */
+    public void updateMembers(Collection<Member> clusterMembers) {
+        List<Member> activeMembers = new ArrayList<Member>(clusterMembers.size());
+        for (Member member : clusterMembers) {
+            if (member.isActive()) {
+                activeMembers.add(member);
+            }
+        }
+        Member[] memberArray = activeMembers.toArray(new Member[activeMembers.size()]);
+        this.weightedMembers = buildWeightedMembers(memberArray);
+        this.members = memberArray;
+    }
+
+    /**
+     * Build the weighted member schedule using smooth weighted round robin, weights are reduced
+     * by their greatest common divisor to keep the schedule short.
+     */
+    private Member[] buildWeightedMembers(Member[] memberArray) {
+        if (memberArray.length < 2) {
+            return memberArray;
+        }
+        int[] weights = new int[memberArray.length];
+        int divisor = 0;
+        boolean equalWeights = true;
+        for (int i = 0; i < memberArray.length; i++) {
+            weights[i] = readMemberWeight(memberArray[i]);
+            divisor = gcd(divisor, weights[i]);
+            equalWeights = equalWeights && (weights[i] == weights[0]);
+        }
+        if (equalWeights) {
+            return memberArray;
+        }
+
+        int totalWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = weights[i] / divisor;
+            totalWeight += weights[i];
+        }
+        Member[] schedule = new Member[totalWeight];
+        int[] currentWeights = new int[weights.length];
+        for (int slot = 0; slot < totalWeight; slot++) {
+            int selected = 0;
+            for (int i = 0; i < weights.length; i++) {
+                currentWeights[i] += weights[i];
+                if (currentWeights[i] > currentWeights[selected]) {
+                    selected = i;
+                }
+            }
+            currentWeights[selected] -= totalWeight;
+            schedule[slot] = memberArray[selected];
+        }
+        return schedule;
+    }
+
+    private int readMemberWeight(Member member) {
+        if (member.getProperties() == null) {
+            return DEFAULT_MEMBER_WEIGHT;
+        }
+        String value = member.getProperties().getProperty(LoadBalancerConstants.MEMBER_WEIGHT);
+        if (StringUtils.isBlank(value)) {
+            return DEFAULT_MEMBER_WEIGHT;
+        }
         try {
-            lock = AlgorithmContextMap.getInstance().acquireCurrentMemberIndexLock();
-            AlgorithmContextMap.getInstance().putCurrentMemberIndex(getServiceName(), getClusterId(), currentMemberIndex);
-        } finally {
-            if(lock != null) {
-                AlgorithmContextMap.getInstance().releaseCurrentMemberIndexLock(lock);
+            return Math.min(MAX_MEMBER_WEIGHT, Math.max(1, Integer.parseInt(value.trim())));
+        } catch (NumberFormatException e) {
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Invalid member weight, using default weight: [cluster] %s [member] %s " +
+                        "[weight] %s", clusterId, member.getMemberId(), value));
             }
+            return DEFAULT_MEMBER_WEIGHT;
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
         }
+        return a;
     }
 }
@@ -19,7 +19,7 @@
 
 package org.apache.stratos.load.balancer.context;
 
-import org.apache.stratos.load.balancer.context.AlgorithmContext;
+import org.apache.stratos.load.balancer.algorithm.LoadBalanceAlgorithm;
 
 import java.util.Properties;
 
@@ -29,12 +29,14 @@ import java.util.Properties;
 public class ClusterContext {
     private String serviceName;
     private String clusterId;
-    private AlgorithmContext algorithmContext;
+    private volatile AlgorithmContext algorithmContext;
+    private volatile LoadBalanceAlgorithm algorithm;
     private Properties properties;
 
     public ClusterContext(String serviceName, String clusterId) {
         this.serviceName = serviceName;
         this.clusterId = clusterId;
+        this.algorithmContext = new AlgorithmContext(serviceName, clusterId);
     }
 
     public String getServiceName() {
@@ -53,6 +55,17 @@ public class ClusterContext {
         this.algorithmContext = algorithmContext;
     }
 
+    /**
+     * @return load balance algorithm of the cluster or null if the default algorithm should be used
+     */
+    public LoadBalanceAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(LoadBalanceAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
     public Properties getProperties() {
         return properties;
     }
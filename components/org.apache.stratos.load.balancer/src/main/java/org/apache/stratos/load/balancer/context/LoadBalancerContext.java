@@ -22,6 +22,7 @@ package org.apache.stratos.load.balancer.context;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.load.balancer.context.map.*;
+import org.apache.stratos.load.balancer.util.LoadBalancerConstants;
 
 /**
  * Defines load balancer context information.
@@ -57,6 +58,12 @@ public class LoadBalancerContext {
     // Map<MemberIp, Hostname>
     // Keep track of cluster hostnames of of all members  against their ip addresses
     private MemberIpHostnameMap memberIpHostnameMap;
+
+    // Following maps are updated on demand by the load balancer endpoint and cleared on tenant events.
+    // Map<TenantDomain, TenantId>
+    private TenantDomainTenantIdMap tenantDomainTenantIdMap;
+    // Map<URL, TenantId>
+    private UrlTenantIdMap urlTenantIdMap;
     private boolean clustered;
 
     private LoadBalancerContext() {
@@ -68,6 +75,9 @@ public class LoadBalancerContext {
         hostNameAppContextMap = new HostNameAppContextMap();
         multiTenantClusterMap = new MultiTenantClusterMap();
         memberIpHostnameMap = new MemberIpHostnameMap();
+        tenantDomainTenantIdMap = new TenantDomainTenantIdMap();
+        urlTenantIdMap = new UrlTenantIdMap(Integer.getInteger(LoadBalancerConstants.TENANT_URL_CACHE_SIZE_KEY,
+                LoadBalancerConstants.DEFAULT_TENANT_URL_CACHE_SIZE));
     }
 
     public static LoadBalancerContext getInstance() {
@@ -86,6 +96,8 @@ public class LoadBalancerContext {
         serviceNameServiceContextMap.clear();
         clusterIdClusterContextMap.clear();
         multiTenantClusterMap.clear();
+        tenantDomainTenantIdMap.clear();
+        urlTenantIdMap.clear();
     }
 
     public TenantIdSynapseEnvironmentServiceMap getTenantIdSynapseEnvironmentServiceMap() {
@@ -120,6 +132,14 @@ public class LoadBalancerContext {
         return memberIpHostnameMap;
     }
 
+    public TenantDomainTenantIdMap getTenantDomainTenantIdMap() {
+        return tenantDomainTenantIdMap;
+    }
+
+    public UrlTenantIdMap getUrlTenantIdMap() {
+        return urlTenantIdMap;
+    }
+
     public boolean isClustered() {
         return clustered;
     }
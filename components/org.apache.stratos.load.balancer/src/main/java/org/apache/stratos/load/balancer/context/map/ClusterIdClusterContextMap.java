@@ -51,6 +51,16 @@ public class ClusterIdClusterContextMap {
         concurrentHashMap.put(clusterContext.getClusterId(), clusterContext);
     }
 
+    /**
+     * Add the given cluster context if a context does not exist for the cluster.
+     * @param clusterContext cluster context
+     * @return cluster context in the map
+     */
+    public ClusterContext addClusterContextIfAbsent(ClusterContext clusterContext) {
+        ClusterContext existing = concurrentHashMap.putIfAbsent(clusterContext.getClusterId(), clusterContext);
+        return (existing != null) ? existing : clusterContext;
+    }
+
     public void removeClusterContext(String clusterId) {
         concurrentHashMap.remove(clusterId);
     }
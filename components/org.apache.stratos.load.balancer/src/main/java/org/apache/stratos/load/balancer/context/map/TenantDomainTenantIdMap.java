@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.context.map;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tenant lookup cache for resolving tenant ids and tenant existence without acquiring tenant manager locks:
+ * Map[TenantDomain, TenantId], Map[TenantId, Exists]
+ * Entries are added on demand and cleared on tenant events. A version number is incremented on every
+ * clear, hence entries resolved before a tenant event are not added after the cache has been cleared.
+ */
+public class TenantDomainTenantIdMap {
+
+    private static final int MAX_SIZE = 10000;
+
+    private ConcurrentHashMap<String, Integer> tenantDomainTenantIdMap;
+    private ConcurrentHashMap<Integer, Boolean> tenantIdExistsMap;
+    private AtomicLong version;
+
+    public TenantDomainTenantIdMap() {
+        tenantDomainTenantIdMap = new ConcurrentHashMap<String, Integer>();
+        tenantIdExistsMap = new ConcurrentHashMap<Integer, Boolean>();
+        version = new AtomicLong();
+    }
+
+    /**
+     * @return current version of the cache, should be read before resolving a value to be added
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @return tenant id, -1 if the tenant domain is not known or null if it has not been resolved yet
+     */
+    public Integer getTenantId(String tenantDomain) {
+        return tenantDomainTenantIdMap.get(tenantDomain);
+    }
+
+    public void addTenantId(String tenantDomain, int tenantId, long resolvedVersion) {
+        if (tenantDomainTenantIdMap.size() >= MAX_SIZE) {
+            // Unknown tenant domains are cached too, do not let them grow the cache indefinitely
+            tenantDomainTenantIdMap.clear();
+        }
+        tenantDomainTenantIdMap.put(tenantDomain, tenantId);
+        if (version.get() != resolvedVersion) {
+            tenantDomainTenantIdMap.remove(tenantDomain);
+        }
+    }
+
+    /**
+     * @return true if the tenant exists or null if it has not been resolved yet
+     */
+    public Boolean tenantExists(int tenantId) {
+        return tenantIdExistsMap.get(tenantId);
+    }
+
+    public void addTenantExists(int tenantId, boolean exists, long resolvedVersion) {
+        if (tenantIdExistsMap.size() >= MAX_SIZE) {
+            tenantIdExistsMap.clear();
+        }
+        tenantIdExistsMap.put(tenantId, exists);
+        if (version.get() != resolvedVersion) {
+            tenantIdExistsMap.remove(tenantId);
+        }
+    }
+
+    public void clear() {
+        version.incrementAndGet();
+        tenantDomainTenantIdMap.clear();
+        tenantIdExistsMap.clear();
+    }
+}
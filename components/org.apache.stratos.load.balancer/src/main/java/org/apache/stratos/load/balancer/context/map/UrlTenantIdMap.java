@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.context.map;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of tenant ids found in request URLs:
+ * Map[TenantContext, TenantId]
+ * Entries are keyed by the part of the URL matched by the tenant identifier regex, e.g.
+ * t/tenant1.com/, hence the number of entries is bounded by the number of tenants. Once the
+ * capacity is reached an arbitrary entry is evicted. The cache is cleared on tenant events since tenant
+ * ids found using tenant domains may change, a version number is incremented on every clear, hence
+ * entries resolved before a tenant event are not added after the cache has been cleared.
+ */
+public class UrlTenantIdMap {
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Integer> tenantContextTenantIdMap;
+    private final AtomicLong version;
+
+    public UrlTenantIdMap(int capacity) {
+        this.capacity = capacity;
+        this.tenantContextTenantIdMap = new ConcurrentHashMap<String, Integer>();
+        this.version = new AtomicLong();
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * @return current version of the cache, should be read before resolving a value to be added
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @return tenant id of the tenant context or null if it has not been resolved yet
+     */
+    public Integer getTenantId(String tenantContext) {
+        return tenantContextTenantIdMap.get(tenantContext);
+    }
+
+    public void addTenantId(String tenantContext, int tenantId, long resolvedVersion) {
+        if (version.get() != resolvedVersion) {
+            return;
+        }
+        if ((tenantContextTenantIdMap.size() >= capacity) && !tenantContextTenantIdMap.containsKey(tenantContext)) {
+            Iterator<String> iterator = tenantContextTenantIdMap.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        tenantContextTenantIdMap.put(tenantContext, tenantId);
+        if (version.get() != resolvedVersion) {
+            tenantContextTenantIdMap.remove(tenantContext);
+        }
+    }
+
+    public int size() {
+        return tenantContextTenantIdMap.size();
+    }
+
+    public void clear() {
+        version.incrementAndGet();
+        tenantContextTenantIdMap.clear();
+    }
+}
@@ -19,17 +19,19 @@
 
 package org.apache.stratos.load.balancer.endpoint;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.load.balancer.context.AlgorithmContext;
 import org.apache.stratos.load.balancer.algorithm.LoadBalanceAlgorithm;
+import org.apache.stratos.load.balancer.algorithm.LoadBalanceAlgorithmFactory;
 import org.apache.stratos.load.balancer.conf.LoadBalancerConfiguration;
+import org.apache.stratos.load.balancer.conf.domain.Algorithm;
 import org.apache.stratos.load.balancer.context.ClusterContext;
 import org.apache.stratos.load.balancer.context.LoadBalancerContext;
 import org.apache.stratos.messaging.domain.topology.Cluster;
 import org.apache.stratos.messaging.domain.topology.Member;
-
-import java.util.ArrayList;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 
 /**
  * Implements core load balancing logic for identifying the next member
@@ -97,26 +99,19 @@ public class RequestDelegator {
         return null;
     }
 
-	/**
-	 * This operation should be synchronized in order to find a member
-	 * correctly. This has no performance impact as per the load tests
-	 * carried out. 
-	 */
-    private synchronized Member findNextMemberInCluster(Cluster cluster) {
-        // Find algorithm context of the cluster
-        ClusterContext clusterContext = LoadBalancerContext.getInstance().getClusterIdClusterContextMap().getClusterContext(cluster.getClusterId());
-        if (clusterContext == null) {
-            clusterContext = new ClusterContext(cluster.getServiceName(), cluster.getClusterId());
-            LoadBalancerContext.getInstance().getClusterIdClusterContextMap().addClusterContext(clusterContext);
-        }
-
-        AlgorithmContext algorithmContext = clusterContext.getAlgorithmContext();
-        if (algorithmContext == null) {
-            algorithmContext = new AlgorithmContext(cluster.getServiceName(), cluster.getClusterId());
-            clusterContext.setAlgorithmContext(algorithmContext);
+    /**
+     * Find the next member of the cluster without locking, members are selected from the active
+     * members of the cluster's algorithm context which are updated on topology events. Clusters
+     * defining a load balance algorithm name use that algorithm, others use the default algorithm.
+     */
+    private Member findNextMemberInCluster(Cluster cluster) {
+        // Find cluster context of the cluster
+        ClusterContext clusterContext = getClusterContext(cluster);
+        LoadBalanceAlgorithm clusterAlgorithm = clusterContext.getAlgorithm();
+        if (clusterAlgorithm == null) {
+            clusterAlgorithm = algorithm;
         }
-        algorithm.setMembers(new ArrayList<Member>(cluster.getMembers()));
-        Member member = algorithm.getNextMember(algorithmContext);
+        Member member = clusterAlgorithm.getNextMember(clusterContext.getAlgorithmContext());
         if (member == null) {
             if (log.isWarnEnabled()) {
                 log.warn(String.format("Could not find a member in cluster: [service] %s [cluster] %s", cluster.getServiceName(), cluster.getClusterId()));
@@ -125,6 +120,66 @@ public class RequestDelegator {
         return member;
     }
 
+    private ClusterContext getClusterContext(Cluster cluster) {
+        ClusterContext clusterContext = LoadBalancerContext.getInstance().getClusterIdClusterContextMap().getClusterContext(cluster.getClusterId());
+        if (clusterContext != null) {
+            return clusterContext;
+        }
+
+        // First request to the cluster, build its active member list
+        clusterContext = new ClusterContext(cluster.getServiceName(), cluster.getClusterId());
+        clusterContext.setAlgorithm(findClusterAlgorithm(cluster));
+        updateMembers(cluster, clusterContext.getAlgorithmContext());
+        ClusterContext existing = LoadBalancerContext.getInstance().getClusterIdClusterContextMap()
+                .addClusterContextIfAbsent(clusterContext);
+        if (existing == clusterContext) {
+            // Members may have changed before the context was visible to topology event listeners
+            updateMembers(cluster, clusterContext.getAlgorithmContext());
+        }
+        return existing;
+    }
+
+    /**
+     * Find the load balance algorithm defined for the cluster.
+     * @return algorithm of the cluster or null if the default algorithm should be used
+     */
+    private LoadBalanceAlgorithm findClusterAlgorithm(Cluster cluster) {
+        String algorithmName = cluster.getLoadBalanceAlgorithmName();
+        if (StringUtils.isBlank(algorithmName)) {
+            return null;
+        }
+        Algorithm algorithmConfig = LoadBalancerConfiguration.getInstance().getAlgorithm(algorithmName);
+        if (algorithmConfig == null) {
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Load balance algorithm not found in load balancer configuration, using default " +
+                        "algorithm: [cluster] %s [algorithm] %s", cluster.getClusterId(), algorithmName));
+            }
+            return null;
+        }
+        LoadBalanceAlgorithm clusterAlgorithm = LoadBalanceAlgorithmFactory.getAlgorithm(algorithmConfig.getClassName());
+        if (clusterAlgorithm == null) {
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Could not create load balance algorithm, using default algorithm: [cluster] %s " +
+                        "[algorithm] %s [class-name] %s", cluster.getClusterId(), algorithmName, algorithmConfig.getClassName()));
+            }
+            return null;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Load balance algorithm set: [cluster] %s [algorithm] %s", cluster.getClusterId(),
+                    clusterAlgorithm.getName()));
+        }
+        return clusterAlgorithm;
+    }
+
+    private void updateMembers(Cluster cluster, AlgorithmContext algorithmContext) {
+        TopologyManager.acquireReadLockForCluster(cluster.getServiceName(), cluster.getClusterId());
+        try {
+            algorithmContext.updateMembers(cluster.getMembers());
+        } finally {
+            TopologyManager.releaseReadLockForCluster(cluster.getServiceName(), cluster.getClusterId());
+        }
+    }
+
     public boolean isTargetHostValid(String hostName) {
         if (hostName == null)
             return false;
@@ -28,13 +28,14 @@ import org.apache.stratos.load.balancer.conf.LoadBalancerConfiguration;
 import org.apache.stratos.load.balancer.conf.domain.MemberIpType;
 import org.apache.stratos.load.balancer.conf.domain.TenantIdentifier;
 import org.apache.stratos.load.balancer.context.LoadBalancerContext;
-import org.apache.stratos.load.balancer.statistics.InFlightRequestDecrementCallable;
-import org.apache.stratos.load.balancer.statistics.InFlightRequestIncrementCallable;
-import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsExecutor;
+import org.apache.stratos.load.balancer.context.map.TenantDomainTenantIdMap;
+import org.apache.stratos.load.balancer.context.map.UrlTenantIdMap;
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
 import org.apache.stratos.load.balancer.util.LoadBalancerConstants;
 import org.apache.stratos.messaging.domain.tenant.Tenant;
 import org.apache.stratos.messaging.domain.topology.Cluster;
 import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.MemberStatus;
 import org.apache.stratos.messaging.domain.topology.Port;
 import org.apache.stratos.messaging.message.receiver.tenant.TenantManager;
 import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
@@ -55,7 +56,7 @@ import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -170,11 +171,13 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
         String lbHttpPort = (String) httpTransportIn.getParameter("port").getValue();
         String lbHttpsPort = (String) httpsTransportIn.getParameter("port").getValue();
         String clusterId = currentMember.getProperties().getProperty(LoadBalancerConstants.CLUSTER_ID);
+        String memberId = currentMember.getProperties().getProperty(LoadBalancerConstants.MEMBER_ID);
 
         synCtx.setProperty(LoadBalancerConstants.LB_TARGET_HOSTNAME, targetHostname);
         synCtx.setProperty(LoadBalancerConstants.LB_HTTP_PORT, lbHttpPort);
         synCtx.setProperty(LoadBalancerConstants.LB_HTTPS_PORT, lbHttpsPort);
         synCtx.setProperty(LoadBalancerConstants.CLUSTER_ID, clusterId);
+        synCtx.setProperty(LoadBalancerConstants.MEMBER_ID, memberId);
     }
     
 	protected String getTransportId(String incomingTransportName) {
@@ -362,7 +365,6 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
     }
 
     /**
->>>>>>> 400
      * Find topology member from axis2 member using cluster id and member id defined in axis2 member properties.
      *
      * @param synCtx
@@ -379,6 +381,17 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
             }
             throwSynapseException(synCtx, 500, "Internal server error");
         }
+
+        // Read the member from the latest topology snapshot without acquiring topology locks
+        Cluster snapshotCluster = TopologyManager.getTopologySnapshot().getCluster(clusterId);
+        if (snapshotCluster != null) {
+            Member member = snapshotCluster.getMember(memberId);
+            if ((member != null) && (member.getStatus() == MemberStatus.Active)) {
+                return member;
+            }
+        }
+
+        // Snapshot may not reflect the member's activation yet if it was activated recently
         try {
             TopologyManager.acquireReadLock();
             Cluster cluster = LoadBalancerContext.getInstance().getClusterIdClusterMap().getCluster(clusterId);
@@ -450,70 +463,110 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
     }
 
     /**
-     * Scan given URL for tenant id.
+     * Scan given URL for tenant id. Tenant identifier patterns are matched against the full URL,
+     * including its query string. Resolved tenant ids are cached against the part of the URL matched,
+     * e.g. t/tenant1.com/, hence the rest of the URL does not create cache entries.
      *
      * @param url
-     * @return
+     * @return tenant id, -1 if the URL does not contain a tenant identifier
      */
     private int scanUrlForTenantId(String url) {
-        int tenantId = -1;
-        List<String> regexList = LoadBalancerConfiguration.getInstance().getTenantIdentifierRegexList();
-        for(String regex : regexList) {
+        List<Pattern> patternList = LoadBalancerConfiguration.getInstance().getTenantIdentifierPatternList();
+        for (Pattern pattern : patternList) {
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Request URL: %s ", url));
-                log.debug(String.format("Tenant identifier regex: %s ", regex));
+                log.debug(String.format("Tenant identifier regex: %s ", pattern.pattern()));
             }
-            Pattern pattern = Pattern.compile(regex);
             Matcher matcher = pattern.matcher(url);
             if (matcher.find()) {
-                if (LoadBalancerConfiguration.getInstance().getTenantIdentifier() == TenantIdentifier.TenantId) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Identifying tenant using tenant id...");
-                    }
-                    tenantId = Integer.parseInt(matcher.group(1));
-                    if (log.isDebugEnabled()) {
-                        log.debug(String.format("Tenant identifier found: [tenant-id] %d", tenantId));
-                    }
-                } else if (LoadBalancerConfiguration.getInstance().getTenantIdentifier() == TenantIdentifier.TenantDomain) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Identifying tenant using tenant domain...");
-                    }
-                    String tenantDomain = matcher.group(1);
-                    tenantId = findTenantIdFromTenantDomain(tenantDomain);
-                    if (log.isDebugEnabled()) {
-                        log.debug(String.format("Tenant identifier found: [tenant-domain] %s [tenant-id] %d", tenantDomain, tenantId));
-                    }
-                }
-                break;
-            } else {
-                if (log.isDebugEnabled()) {
-                    log.debug("Tenant identifier not found in URL");
-                }
+                return findTenantIdOfTenantContext(matcher.group(), matcher.group(1));
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Tenant identifier not found in URL");
+        }
+        return -1;
+    }
+
+    private int findTenantIdOfTenantContext(String tenantContext, String tenantIdentifier) {
+        UrlTenantIdMap urlTenantIdMap = LoadBalancerContext.getInstance().getUrlTenantIdMap();
+        if (!urlTenantIdMap.isEnabled()) {
+            return findTenantId(tenantIdentifier);
+        }
+        Integer cachedTenantId = urlTenantIdMap.getTenantId(tenantContext);
+        if (cachedTenantId != null) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Tenant identifier found in cache: [tenant-context] %s [tenant-id] %d",
+                        tenantContext, cachedTenantId));
+            }
+            return cachedTenantId;
+        }
+        long version = urlTenantIdMap.getVersion();
+        int tenantId = findTenantId(tenantIdentifier);
+        urlTenantIdMap.addTenantId(tenantContext, tenantId, version);
+        return tenantId;
+    }
+
+    private int findTenantId(String tenantIdentifier) {
+        int tenantId = -1;
+        if (LoadBalancerConfiguration.getInstance().getTenantIdentifier() == TenantIdentifier.TenantId) {
+            if (log.isDebugEnabled()) {
+                log.debug("Identifying tenant using tenant id...");
+            }
+            tenantId = Integer.parseInt(tenantIdentifier);
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Tenant identifier found: [tenant-id] %d", tenantId));
+            }
+        } else if (LoadBalancerConfiguration.getInstance().getTenantIdentifier() == TenantIdentifier.TenantDomain) {
+            if (log.isDebugEnabled()) {
+                log.debug("Identifying tenant using tenant domain...");
+            }
+            tenantId = findTenantIdFromTenantDomain(tenantIdentifier);
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Tenant identifier found: [tenant-domain] %s [tenant-id] %d",
+                        tenantIdentifier, tenantId));
             }
         }
         return tenantId;
     }
 
     private boolean tenantExists(int tenantId) {
+        TenantDomainTenantIdMap tenantDomainTenantIdMap = LoadBalancerContext.getInstance().getTenantDomainTenantIdMap();
+        Boolean cachedExists = tenantDomainTenantIdMap.tenantExists(tenantId);
+        if (cachedExists != null) {
+            return cachedExists;
+        }
+        long version = tenantDomainTenantIdMap.getVersion();
+        boolean exists;
         try {
             TenantManager.acquireReadLock();
-            return TenantManager.getInstance().tenantExists(tenantId);
+            exists = TenantManager.getInstance().tenantExists(tenantId);
         } finally {
             TenantManager.releaseReadLock();
         }
+        tenantDomainTenantIdMap.addTenantExists(tenantId, exists, version);
+        return exists;
     }
 
     private int findTenantIdFromTenantDomain(String tenantDomain) {
+        TenantDomainTenantIdMap tenantDomainTenantIdMap = LoadBalancerContext.getInstance().getTenantDomainTenantIdMap();
+        Integer cachedTenantId = tenantDomainTenantIdMap.getTenantId(tenantDomain);
+        if (cachedTenantId != null) {
+            return cachedTenantId;
+        }
+        long version = tenantDomainTenantIdMap.getVersion();
+        int tenantId = -1;
         try {
             TenantManager.acquireReadLock();
             Tenant tenant = TenantManager.getInstance().getTenant(tenantDomain);
             if (tenant != null) {
-                return tenant.getTenantId();
+                tenantId = tenant.getTenantId();
             }
-            return -1;
         } finally {
             TenantManager.releaseReadLock();
         }
+        tenantDomainTenantIdMap.addTenantId(tenantDomain, tenantId, version);
+        return tenantId;
     }
 
     private String extractTargetHost(MessageContext synCtx) {
@@ -719,11 +772,13 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
             if (log.isDebugEnabled()) {
                 log.debug(String.format("Sending request %s to endpoint: %s", synCtx.getMessageID(), to.getAddress()));
             }
-            endpoint.send(synCtx);
-
-            // Increment in-flight request count
+            // Increment in-flight request count before sending, the response may arrive before send returns
             incrementInFlightRequestCount(synCtx);
+
+            endpoint.send(synCtx);
         } catch (Exception e) {
+            // The request never reached the member, release the in-flight count taken above
+            decrementInFlightRequestCount(synCtx);
             if (e.getMessage().toLowerCase().contains("io reactor shutdown")) {
                 log.fatal("System cannot continue normal operation. Restarting", e);
                 System.exit(121); // restart
@@ -739,8 +794,12 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
             if (StringUtils.isBlank(clusterId)) {
                 throw new RuntimeException("Cluster id not found in message context");
             }
-            FutureTask<Object> task = new FutureTask<Object>(new InFlightRequestIncrementCallable(clusterId));
-            LoadBalancerStatisticsExecutor.getInstance().getService().submit(task);
+            String memberId = (String) messageContext.getProperty(LoadBalancerConstants.MEMBER_ID);
+            LoadBalancerStatisticsCollector statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
+            statisticsCollector.incrementInFlightRequestCount(clusterId);
+            statisticsCollector.incrementMemberInFlightRequestCount(memberId);
+            // Properties are copied to the response by reference, hence the response and fault paths share the flag
+            messageContext.setProperty(LoadBalancerConstants.IN_FLIGHT_REQUEST_COUNTED, new AtomicBoolean(true));
         } catch (Exception e) {
             if (log.isDebugEnabled()) {
                 log.debug("Could not increment in-flight request count", e);
@@ -750,12 +809,23 @@ public class TenantAwareLoadBalanceEndpoint extends org.apache.synapse.endpoints
 
     private void decrementInFlightRequestCount(MessageContext messageContext) {
         try {
+            // Decrement once per request, a request may be reported by both the fault handler and the response
+            AtomicBoolean counted = (AtomicBoolean) messageContext.getProperty(
+                    LoadBalancerConstants.IN_FLIGHT_REQUEST_COUNTED);
+            if ((counted == null) || !counted.compareAndSet(true, false)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("In-flight request count already decremented: [message-id] " + messageContext.getMessageID());
+                }
+                return;
+            }
             String clusterId = (String) messageContext.getProperty(LoadBalancerConstants.CLUSTER_ID);
             if (StringUtils.isBlank(clusterId)) {
                 throw new RuntimeException("Cluster id not found in message context");
             }
-            FutureTask<Object> task = new FutureTask<Object>(new InFlightRequestDecrementCallable(clusterId));
-            LoadBalancerStatisticsExecutor.getInstance().getService().submit(task);
+            String memberId = (String) messageContext.getProperty(LoadBalancerConstants.MEMBER_ID);
+            LoadBalancerStatisticsCollector statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
+            statisticsCollector.decrementInFlightRequestCount(clusterId);
+            statisticsCollector.decrementMemberInFlightRequestCount(memberId);
         } catch (Exception e) {
             if (log.isDebugEnabled()) {
                 log.debug("Could not decrement in-flight request count", e);
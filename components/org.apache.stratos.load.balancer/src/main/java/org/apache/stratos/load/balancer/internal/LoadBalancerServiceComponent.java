@@ -43,6 +43,7 @@ import org.apache.stratos.load.balancer.util.LoadBalancerConstants;
 import org.apache.stratos.messaging.message.filter.topology.TopologyClusterFilter;
 import org.apache.stratos.messaging.message.filter.topology.TopologyMemberFilter;
 import org.apache.stratos.messaging.message.filter.topology.TopologyServiceFilter;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 import org.apache.synapse.config.SynapseConfiguration;
 import org.apache.synapse.config.xml.MultiXMLConfigurationBuilder;
 import org.apache.synapse.core.SynapseEnvironment;
@@ -220,6 +221,9 @@ public class LoadBalancerServiceComponent {
     }
 
     private void startTopologyEventReceiver(ExecutorService executorService) {
+        // Members are read from topology snapshots on the request path
+        TopologyManager.setSnapshotEnabled(true);
+
 	    topologyReceiver = new LoadBalancerTopologyEventReceiver();
 	    topologyReceiver.setExecutorService(executorService);
 	    topologyReceiver.execute();
@@ -19,15 +19,14 @@
 package org.apache.stratos.load.balancer.mediators;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.stratos.load.balancer.statistics.InFlightRequestDecrementCallable;
-import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsExecutor;
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
 import org.apache.stratos.load.balancer.util.LoadBalancerConstants;
 import org.apache.synapse.ManagedLifecycle;
 import org.apache.synapse.MessageContext;
 import org.apache.synapse.core.SynapseEnvironment;
 import org.apache.synapse.mediators.AbstractMediator;
 
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This Synapse mediator counts the responses that are going across LB.
@@ -46,10 +45,23 @@ public class ResponseInterceptor extends AbstractMediator implements ManagedLife
             if (log.isDebugEnabled()) {
                 log.debug("Response interceptor mediation started");
             }
+            // Decrement once per request, the fault handler may have decremented the count already
+            AtomicBoolean counted = (AtomicBoolean) messageContext.getProperty(
+                    LoadBalancerConstants.IN_FLIGHT_REQUEST_COUNTED);
+            if ((counted == null) || !counted.compareAndSet(true, false)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("In-flight request count already decremented");
+                }
+                return true;
+            }
+
+            LoadBalancerStatisticsCollector statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
+            String memberId = (String) messageContext.getProperty(LoadBalancerConstants.MEMBER_ID);
+            statisticsCollector.decrementMemberInFlightRequestCount(memberId);
+
             String clusterId = (String) messageContext.getProperty(LoadBalancerConstants.CLUSTER_ID);
             if (StringUtils.isNotBlank(clusterId)) {
-                FutureTask<Object> task = new FutureTask<Object>(new InFlightRequestDecrementCallable(clusterId));
-                LoadBalancerStatisticsExecutor.getInstance().getService().submit(task);
+                statisticsCollector.decrementInFlightRequestCount(clusterId);
             } else{
             	if (log.isDebugEnabled()) {
                     log.debug("Could not decrement in-flight request count : cluster id not found in message context");
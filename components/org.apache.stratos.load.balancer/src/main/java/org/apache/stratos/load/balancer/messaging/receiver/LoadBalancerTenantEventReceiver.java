@@ -21,6 +21,7 @@ package org.apache.stratos.load.balancer.messaging.receiver;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.context.LoadBalancerContext;
 import org.apache.stratos.load.balancer.context.LoadBalancerContextUtil;
 import org.apache.stratos.messaging.domain.tenant.Subscription;
 import org.apache.stratos.messaging.domain.tenant.Tenant;
@@ -31,8 +32,11 @@ import org.apache.stratos.messaging.event.tenant.CompleteTenantEvent;
 import org.apache.stratos.messaging.event.tenant.TenantSubscribedEvent;
 import org.apache.stratos.messaging.event.tenant.TenantUnSubscribedEvent;
 import org.apache.stratos.messaging.listener.tenant.CompleteTenantEventListener;
+import org.apache.stratos.messaging.listener.tenant.TenantCreatedEventListener;
+import org.apache.stratos.messaging.listener.tenant.TenantRemovedEventListener;
 import org.apache.stratos.messaging.listener.tenant.TenantSubscribedEventListener;
 import org.apache.stratos.messaging.listener.tenant.TenantUnSubscribedEventListener;
+import org.apache.stratos.messaging.listener.tenant.TenantUpdatedEventListener;
 import org.apache.stratos.messaging.message.receiver.tenant.TenantEventReceiver;
 import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
 
@@ -54,6 +58,7 @@ public class LoadBalancerTenantEventReceiver extends TenantEventReceiver {
 
             @Override
             protected void onEvent(Event event) {
+                clearTenantLookupCaches();
                 if (!initialized) {
                     CompleteTenantEvent completeTenantEvent = (CompleteTenantEvent) event;
                     if (log.isDebugEnabled()) {
@@ -74,6 +79,27 @@ public class LoadBalancerTenantEventReceiver extends TenantEventReceiver {
             }
         });
 
+        addEventListener(new TenantCreatedEventListener() {
+            @Override
+            protected void onEvent(Event event) {
+                clearTenantLookupCaches();
+            }
+        });
+
+        addEventListener(new TenantUpdatedEventListener() {
+            @Override
+            protected void onEvent(Event event) {
+                clearTenantLookupCaches();
+            }
+        });
+
+        addEventListener(new TenantRemovedEventListener() {
+            @Override
+            protected void onEvent(Event event) {
+                clearTenantLookupCaches();
+            }
+        });
+
         addEventListener(new TenantSubscribedEventListener() {
             @Override
             protected void onEvent(Event event) {
@@ -125,6 +151,18 @@ public class LoadBalancerTenantEventReceiver extends TenantEventReceiver {
         });
     }
 
+    /**
+     * Clear tenant ids cached by the load balancer endpoint, tenant domains and tenant ids
+     * will be resolved again using the tenant manager.
+     */
+    private void clearTenantLookupCaches() {
+        LoadBalancerContext.getInstance().getTenantDomainTenantIdMap().clear();
+        LoadBalancerContext.getInstance().getUrlTenantIdMap().clear();
+        if (log.isDebugEnabled()) {
+            log.debug("Tenant lookup caches cleared");
+        }
+    }
+
     private boolean isMultiTenantService(String serviceName) {
         try {
             TopologyManager.acquireReadLock();
@@ -22,9 +22,10 @@ package org.apache.stratos.load.balancer.messaging.receiver;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.load.balancer.context.ClusterContext;
 import org.apache.stratos.load.balancer.context.LoadBalancerContext;
 import org.apache.stratos.load.balancer.context.LoadBalancerContextUtil;
-import org.apache.stratos.load.balancer.context.map.AlgorithmContextMap;
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
 import org.apache.stratos.messaging.domain.topology.Cluster;
 import org.apache.stratos.messaging.domain.topology.Member;
 import org.apache.stratos.messaging.domain.topology.MemberStatus;
@@ -61,11 +62,12 @@ public class LoadBalancerTopologyEventReceiver extends TopologyEventReceiver {
 
             @Override
             protected void onEvent(Event event) {
-                if (!initialized) {
-                    try {
-                        TopologyManager.acquireReadLock();
-                        for (Service service : TopologyManager.getTopology().getServices()) {
-                            for (Cluster cluster : service.getClusters()) {
+                try {
+                    TopologyManager.acquireReadLock();
+                    for (Service service : TopologyManager.getTopology().getServices()) {
+                        for (Cluster cluster : service.getClusters()) {
+                            // Clusters are replaced when the topology is re-initialized after lost events
+                            if (!initialized || isClusterReplaced(cluster)) {
                                 if (clusterHasActiveMembers(cluster)) {
                                     LoadBalancerContextUtil.addClusterAgainstHostNames(cluster);
                                 } else {
@@ -80,13 +82,14 @@ public class LoadBalancerTopologyEventReceiver extends TopologyEventReceiver {
 
                                 }
                             }
+                            updateClusterMembers(cluster);
                         }
-                        initialized = true;
-                    } catch (Exception e) {
-                        log.error("Error processing event", e);
-                    } finally {
-                        TopologyManager.releaseReadLock();
                     }
+                    initialized = true;
+                } catch (Exception e) {
+                    log.error("Error processing event", e);
+                } finally {
+                    TopologyManager.releaseReadLock();
                 }
             }
 
@@ -98,6 +101,12 @@ public class LoadBalancerTopologyEventReceiver extends TopologyEventReceiver {
                 }
                 return false;
             }
+
+            private boolean isClusterReplaced(Cluster cluster) {
+                Cluster existing = LoadBalancerContext.getInstance().getClusterIdClusterMap().getCluster(
+                        cluster.getClusterId());
+                return (existing != null) && (existing != cluster);
+            }
         });
         addEventListener(new MemberActivatedEventListener() {
             @Override
@@ -139,6 +148,7 @@ public class LoadBalancerTopologyEventReceiver extends TopologyEventReceiver {
 
                     // Add member to member-ip -> hostname map
                     addMemberIpsToMemberIpHostnameMap(cluster, member);
+                    updateClusterMembers(cluster);
 
                     if (LoadBalancerContext.getInstance().getClusterIdClusterMap().containsCluster(
                             member.getClusterId())) {
@@ -180,6 +190,7 @@ public class LoadBalancerTopologyEventReceiver extends TopologyEventReceiver {
                     if (member != null) {
                         removeMemberIpsFromMemberIpHostnameMap(member);
                     }
+                    updateClusterMembers(memberMaintenanceModeEvent.getServiceName(), memberMaintenanceModeEvent.getClusterId());
                 } catch (Exception e) {
                     log.error("Error processing event", e);
                 } finally {
@@ -205,6 +216,7 @@ public class LoadBalancerTopologyEventReceiver extends TopologyEventReceiver {
                     if (member != null) {
                         removeMemberIpsFromMemberIpHostnameMap(member);
                     }
+                    updateClusterMembers(memberSuspendedEvent.getServiceName(), memberSuspendedEvent.getClusterId());
                 } catch (Exception e) {
                     log.error("Error processing event", e);
                 } finally {
@@ -214,6 +226,26 @@ public class LoadBalancerTopologyEventReceiver extends TopologyEventReceiver {
                 }
             }
         });
+        addEventListener(new MemberReadyToShutdownEventListener() {
+            @Override
+            protected void onEvent(Event event) {
+
+                MemberReadyToShutdownEvent memberReadyToShutdownEvent = (MemberReadyToShutdownEvent) event;
+                TopologyManager.acquireReadLockForCluster(memberReadyToShutdownEvent.getServiceName(),
+                        memberReadyToShutdownEvent.getClusterId());
+
+                try {
+                    // Stop routing requests to the member
+                    updateClusterMembers(memberReadyToShutdownEvent.getServiceName(),
+                            memberReadyToShutdownEvent.getClusterId());
+                } catch (Exception e) {
+                    log.error("Error processing event", e);
+                } finally {
+                    TopologyManager.releaseReadLockForCluster(memberReadyToShutdownEvent.getServiceName(),
+                            memberReadyToShutdownEvent.getClusterId());
+                }
+            }
+        });
         addEventListener(new MemberTerminatedEventListener() {
             @Override
             protected void onEvent(Event event) {
@@ -231,6 +263,9 @@ public class LoadBalancerTopologyEventReceiver extends TopologyEventReceiver {
                     if (member != null) {
                         removeMemberIpsFromMemberIpHostnameMap(member);
                     }
+                    updateClusterMembers(memberTerminatedEvent.getServiceName(), memberTerminatedEvent.getClusterId());
+                    LoadBalancerStatisticsCollector.getInstance().removeMemberInFlightRequestCount(
+                            memberTerminatedEvent.getMemberId());
                 } catch (Exception e) {
                     log.error("Error processing event", e);
                 } finally {
@@ -249,12 +284,8 @@ public class LoadBalancerTopologyEventReceiver extends TopologyEventReceiver {
                 TopologyManager.acquireReadLockForCluster(clusterRemovedEvent.getServiceName(),
                         clusterRemovedEvent.getClusterId());
 
-                try {
-                    AlgorithmContextMap.getInstance().removeCluster(clusterRemovedEvent.getServiceName(),
-                            clusterRemovedEvent.getClusterId());
-                } catch (Exception e) {
-                    log.error("Could not remove cluster from load balancer algorithm context map", e);
-                }
+                LoadBalancerContext.getInstance().getClusterIdClusterContextMap().removeClusterContext(
+                        clusterRemovedEvent.getClusterId());
 
                 try {
                     Cluster cluster = LoadBalancerContext.getInstance().getClusterIdClusterMap().getCluster(clusterRemovedEvent.getClusterId());
@@ -295,6 +326,8 @@ public class LoadBalancerTopologyEventReceiver extends TopologyEventReceiver {
                                 removeMemberIpsFromMemberIpHostnameMap(member);
                             }
                             LoadBalancerContextUtil.removeClusterAgainstHostNames(cluster.getClusterId());
+                            LoadBalancerContext.getInstance().getClusterIdClusterContextMap().removeClusterContext(
+                                    cluster.getClusterId());
                         }
                     } else {
                         if (log.isWarnEnabled()) {
@@ -312,6 +345,29 @@ public class LoadBalancerTopologyEventReceiver extends TopologyEventReceiver {
         });
     }
 
+    /**
+     * Rebuild active members of the cluster used by load balancing algorithms.
+     * Caller should hold the topology read lock of the cluster.
+     */
+    private void updateClusterMembers(Cluster cluster) {
+        ClusterContext clusterContext = LoadBalancerContext.getInstance().getClusterIdClusterContextMap()
+                .getClusterContext(cluster.getClusterId());
+        if (clusterContext != null) {
+            clusterContext.getAlgorithmContext().updateMembers(cluster.getMembers());
+        }
+    }
+
+    private void updateClusterMembers(String serviceName, String clusterId) {
+        Service service = TopologyManager.getTopology().getService(serviceName);
+        if (service == null) {
+            return;
+        }
+        Cluster cluster = service.getCluster(clusterId);
+        if (cluster != null) {
+            updateClusterMembers(cluster);
+        }
+    }
+
     private Member findMember(String serviceName, String clusterId, String memberId) {
         Service service = TopologyManager.getTopology().getService(serviceName);
         if (service == null) {
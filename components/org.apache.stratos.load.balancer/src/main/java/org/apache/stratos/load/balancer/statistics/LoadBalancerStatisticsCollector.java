@@ -27,21 +27,27 @@ import org.apache.stratos.messaging.domain.topology.Member;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * This is the load balancer statistics collector.
+ * This is the load balancer statistics collector. Counters are updated inline in the mediation
+ * flow without locking and read without locking by the statistics notifier.
  */
 public class LoadBalancerStatisticsCollector implements LoadBalancerStatisticsReader {
     private static final Log log = LogFactory.getLog(LoadBalancerStatisticsCollector.class);
 
     private static volatile LoadBalancerStatisticsCollector instance;
-    // Map<ClusterId, Integer>
-    private Map<String, Integer> clusterIdRequestCountMap;
-    private Map<String, Integer> clusterIdServedRequestCountMap;
+    // Map<ClusterId, StripedCounter>, updated inline on every request without locking
+    private ConcurrentMap<String, StripedCounter> clusterIdRequestCountMap;
+    private ConcurrentMap<String, StripedCounter> clusterIdServedRequestCountMap;
+    // Map<MemberId, AtomicInteger>, a single counter per member as load balancing algorithms read it on every request
+    private ConcurrentMap<String, AtomicInteger> memberIdRequestCountMap;
 
     private LoadBalancerStatisticsCollector() {
-        clusterIdRequestCountMap = new ConcurrentHashMap<String, Integer>();
-        clusterIdServedRequestCountMap = new ConcurrentHashMap<String, Integer>();
+        clusterIdRequestCountMap = new ConcurrentHashMap<String, StripedCounter>();
+        clusterIdServedRequestCountMap = new ConcurrentHashMap<String, StripedCounter>();
+        memberIdRequestCountMap = new ConcurrentHashMap<String, AtomicInteger>();
     }
 
     public static LoadBalancerStatisticsCollector getInstance() {
@@ -67,32 +73,39 @@ public class LoadBalancerStatisticsCollector implements LoadBalancerStatisticsRe
         }
     }
 
+    /**
+     * Returns the in-flight request count of the cluster without locking, requests being
+     * counted concurrently may not be included.
+     */
     public int getInFlightRequestCount(String clusterId) {
-        synchronized (LoadBalancerStatisticsCollector.class) {
-            if (clusterIdRequestCountMap.containsKey(clusterId)) {
-                Integer count = clusterIdRequestCountMap.get(clusterId);
-                if(count != null) {
-                    return count;
-                }
-            }
+        StripedCounter count = clusterIdRequestCountMap.get(clusterId);
+        if (count == null) {
             return 0;
         }
+        return (int) Math.max(0, count.sum());
     }
 
     /**
      * Returns the number of requests served since the last time this function was called.
      */
-    public int getServedRequestCount(String clusterId){
-        synchronized (LoadBalancerStatisticsCollector.class) {
-            if (clusterIdServedRequestCountMap.containsKey(clusterId)) {
-                Integer servedCount = clusterIdServedRequestCountMap.get(clusterId);
-                if (servedCount != null) {
-                    clusterIdServedRequestCountMap.put(clusterId, 0);
-                    return servedCount;
-                }
-            }
+    public int getServedRequestCount(String clusterId) {
+        StripedCounter servedCount = clusterIdServedRequestCountMap.get(clusterId);
+        if (servedCount == null) {
             return 0;
         }
+        return (int) servedCount.sumThenReset();
+    }
+
+    /**
+     * Returns a snapshot of in-flight request counts of all clusters.
+     * @return Map<ClusterId, InFlightRequestCount>
+     */
+    public Map<String, Integer> getInFlightRequestCounts() {
+        Map<String, Integer> snapshot = new HashMap<String, Integer>();
+        for (Map.Entry<String, StripedCounter> entry : clusterIdRequestCountMap.entrySet()) {
+            snapshot.put(entry.getKey(), (int) Math.max(0, entry.getValue().sum()));
+        }
+        return snapshot;
     }
 
     public int getActiveInstancesCount(Cluster cluster) {
@@ -106,61 +119,123 @@ public class LoadBalancerStatisticsCollector implements LoadBalancerStatisticsRe
 
     }
 
-    void incrementInFlightRequestCount(String clusterId) {
-        synchronized (LoadBalancerStatisticsCollector.class) {
-            if (StringUtils.isBlank(clusterId)) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Cluster id is null, could not increment in-flight request count");
-                }
-                return;
+    public void incrementInFlightRequestCount(String clusterId) {
+        if (StringUtils.isBlank(clusterId)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Cluster id is null, could not increment in-flight request count");
             }
-            Integer count = 0;
-            if (clusterIdRequestCountMap.containsKey(clusterId)) {
-                count = clusterIdRequestCountMap.get(clusterId);
+            return;
+        }
+        StripedCounter count = clusterIdRequestCountMap.get(clusterId);
+        if (count == null) {
+            StripedCounter newCount = new StripedCounter();
+            count = clusterIdRequestCountMap.putIfAbsent(clusterId, newCount);
+            if (count == null) {
+                count = newCount;
             }
-            count++;
-            clusterIdRequestCountMap.put(clusterId, count);
+        }
+        count.increment();
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("In-flight request count incremented: [cluster] %s [count] %s ", clusterId,
+                    count.sum()));
+        }
+    }
 
+    public void decrementInFlightRequestCount(String clusterId) {
+        if (StringUtils.isBlank(clusterId)) {
             if (log.isDebugEnabled()) {
-                log.debug(String.format("In-flight request count incremented: [cluster] %s [count] %s ", clusterId,
-                        count));
+                log.debug("Cluster id is null, could not decrement in-flight request count");
+            }
+            return;
+        }
 
+        StripedCounter count = clusterIdRequestCountMap.get(clusterId);
+        if (count == null) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("In-flight request count not found for cluster, could not decrement in-flight request count: [cluster] %s ", clusterId));
             }
+            return;
+        }
+        count.decrement();
+
+        StripedCounter servedCount = clusterIdServedRequestCountMap.get(clusterId);
+        if (servedCount == null) {
+            StripedCounter newServedCount = new StripedCounter();
+            servedCount = clusterIdServedRequestCountMap.putIfAbsent(clusterId, newServedCount);
+            if (servedCount == null) {
+                servedCount = newServedCount;
+            }
+        }
+        servedCount.increment();
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("In-flight request count decremented: [cluster] %s [count] %s ", clusterId,
+                    count.sum()));
         }
     }
 
-    void decrementInFlightRequestCount(String clusterId) {
-        synchronized (LoadBalancerStatisticsCollector.class) {
-            if (StringUtils.isBlank(clusterId)) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Cluster id is null, could not decrement in-flight request count");
-                }
-                return;
+    /**
+     * Returns the number of requests sent to the given member which have not been responded yet.
+     */
+    public int getMemberInFlightRequestCount(String memberId) {
+        AtomicInteger count = memberIdRequestCountMap.get(memberId);
+        return (count != null) ? count.get() : 0;
+    }
+
+    public void incrementMemberInFlightRequestCount(String memberId) {
+        if (StringUtils.isBlank(memberId)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Member id is null, could not increment member in-flight request count");
+            }
+            return;
+        }
+        AtomicInteger count = memberIdRequestCountMap.get(memberId);
+        if (count == null) {
+            AtomicInteger newCount = new AtomicInteger();
+            count = memberIdRequestCountMap.putIfAbsent(memberId, newCount);
+            if (count == null) {
+                count = newCount;
             }
+        }
+        int value = count.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Member in-flight request count incremented: [member] %s [count] %d ",
+                    memberId, value));
+        }
+    }
 
-            if (!clusterIdRequestCountMap.containsKey(clusterId)) {
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("In-flight request count not found for cluster, could not decrement in-flight request count: [cluster] %s ", clusterId));
-                }
-            } else {
-                Integer count = clusterIdRequestCountMap.get(clusterId);
-                if (count != null) {
-                    count = (count >= 1) ? (count - 1) : 0;
-                }
-                clusterIdRequestCountMap.put(clusterId, count);
+    public void decrementMemberInFlightRequestCount(String memberId) {
+        if (StringUtils.isBlank(memberId)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Member id is null, could not decrement member in-flight request count");
+            }
+            return;
+        }
+        AtomicInteger count = memberIdRequestCountMap.get(memberId);
+        if (count == null) {
+            return;
+        }
+        int value;
+        do {
+            value = count.get();
+            if (value <= 0) {
+                return;
+            }
+        } while (!count.compareAndSet(value, value - 1));
 
-                Integer servedCount = 0;
-                if (clusterIdServedRequestCountMap.containsKey(clusterId)) {
-                    servedCount = clusterIdServedRequestCountMap.get(clusterId);
-                }
-                servedCount++;
-                clusterIdServedRequestCountMap.put(clusterId, servedCount);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Member in-flight request count decremented: [member] %s [count] %d ",
+                    memberId, value - 1));
+        }
+    }
 
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("In-flight request count decremented: [cluster] %s [count] %s ", clusterId,
-                            count));
-                }
-            }
+    /**
+     * Remove in-flight request count of a member which has been terminated.
+     */
+    public void removeMemberInFlightRequestCount(String memberId) {
+        if (StringUtils.isNotBlank(memberId)) {
+            memberIdRequestCountMap.remove(memberId);
         }
     }
-}
\ No newline at end of file
+}
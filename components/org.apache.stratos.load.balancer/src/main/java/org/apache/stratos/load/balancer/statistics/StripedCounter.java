@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter which spreads updates over a set of cells to avoid contention when it is updated
+ * by many threads. Each thread updates the cell selected by its thread id, cells are padded to
+ * stay on separate cache lines. Reads sum all cells without locking, hence a read taken while
+ * the counter is being updated may not include concurrent updates, or may be negative if a
+ * decrement is included without its increment. Callers clamp values read to zero.
+ */
+class StripedCounter {
+
+    // Number of longs in a cache line, cells are placed a cache line apart
+    private static final int CELL_PADDING = 8;
+    private static final int STRIPE_COUNT = calculateStripeCount();
+
+    private final AtomicLongArray cells;
+
+    StripedCounter() {
+        cells = new AtomicLongArray(STRIPE_COUNT * CELL_PADDING);
+    }
+
+    private static int calculateStripeCount() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripeCount = 1;
+        while ((stripeCount < processors) && (stripeCount < 64)) {
+            stripeCount <<= 1;
+        }
+        return stripeCount;
+    }
+
+    private static int cellIndex() {
+        long threadId = Thread.currentThread().getId();
+        int hash = (int) (threadId ^ (threadId >>> 32));
+        hash ^= (hash >>> 16);
+        return (hash & (STRIPE_COUNT - 1)) * CELL_PADDING;
+    }
+
+    void increment() {
+        cells.incrementAndGet(cellIndex());
+    }
+
+    void decrement() {
+        cells.decrementAndGet(cellIndex());
+    }
+
+    /**
+     * @return sum of all cells
+     */
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += CELL_PADDING) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Return the sum of all cells and reset them to zero. Updates made while the cells are
+     * being reset are either included in the returned sum or kept for the next call.
+     * @return sum of all cells
+     */
+    long sumThenReset() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += CELL_PADDING) {
+            sum += cells.getAndSet(i, 0);
+        }
+        return sum;
+    }
+}
@@ -23,6 +23,9 @@ public class LoadBalancerConstants {
 
     public static final String CLUSTER_ID = "cluster_id";
     public static final String MEMBER_ID = "member_id";
+    public static final String MEMBER_WEIGHT = "load.balancer.member.weight";
+    // Flag shared by the request and its response or fault, set once the in-flight request count is decremented
+    public static final String IN_FLIGHT_REQUEST_COUNTED = "load.balancer.in.flight.request.counted";
 
     public static final String HTTP = "http";
     public static final String HTTPS = "https";
@@ -37,4 +40,7 @@ public class LoadBalancerConstants {
     public static final String LOAD_BALANCER_THREAD_POOL_ID = "load.balancer.thread.pool";
     public static final String LOAD_BALANCER_THREAD_POOL_SIZE_KEY = "load.balancer.thread.pool.size";
     public static final int LOAD_BALANCER_DEFAULT_THREAD_POOL_SIZE = 20;
+
+    public static final String TENANT_URL_CACHE_SIZE_KEY = "load.balancer.tenant.url.cache.size";
+    public static final int DEFAULT_TENANT_URL_CACHE_SIZE = 1000;
 }
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.test;
+
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request overhead of in-flight request counting. The previous implementation,
+ * which submitted a task to an executor for every update and updated the counts under a global
+ * lock, is compared with the inline counters of {@link LoadBalancerStatisticsCollector}.
+ * This is not run as part of the build, run the main method to execute it:
+ * java -cp ... org.apache.stratos.load.balancer.test.InFlightRequestCountBenchmark [threads] [requests-per-thread]
+ */
+public class InFlightRequestCountBenchmark {
+
+    private static final String CLUSTER_ID = "cluster1";
+    private static final String MEMBER_ID = "member1";
+
+    public static void main(String[] args) throws Exception {
+        int threadCount = (args.length > 0) ? Integer.parseInt(args[0]) : 16;
+        int requestCount = (args.length > 1) ? Integer.parseInt(args[1]) : 200000;
+
+        // Warm up
+        run(new ExecutorCounter(), threadCount, requestCount / 10);
+        run(new InlineCounter(), threadCount, requestCount / 10);
+
+        long executorTime = run(new ExecutorCounter(), threadCount, requestCount);
+        long inlineTime = run(new InlineCounter(), threadCount, requestCount);
+
+        long totalRequests = (long) threadCount * requestCount;
+        System.out.println(String.format("[threads] %d [requests] %d", threadCount, totalRequests));
+        System.out.println(String.format("Executor submitted callables: %d ms, %d ns/request",
+                executorTime / 1000000, executorTime / totalRequests));
+        System.out.println(String.format("Inline counters: %d ms, %d ns/request",
+                inlineTime / 1000000, inlineTime / totalRequests));
+    }
+
+    private static long run(final Counter counter, int threadCount, final int requestCount) throws Exception {
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch endLatch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int j = 0; j < requestCount; j++) {
+                            counter.increment();
+                            counter.decrement();
+                        }
+                    } catch (InterruptedException ignore) {
+                    } finally {
+                        endLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+        long startTime = System.nanoTime();
+        startLatch.countDown();
+        endLatch.await();
+        counter.complete();
+        return System.nanoTime() - startTime;
+    }
+
+    private interface Counter {
+        void increment();
+
+        void decrement();
+
+        void complete() throws InterruptedException;
+    }
+
+    /**
+     * Replica of the previous implementation, a task per update executed by a thread pool
+     * and counts kept in a map guarded by a global lock.
+     */
+    private static class ExecutorCounter implements Counter {
+        private final ExecutorService executorService = Executors.newFixedThreadPool(20);
+        private final Map<String, Integer> requestCountMap = new HashMap<String, Integer>();
+
+        @Override
+        public void increment() {
+            executorService.submit(new FutureTask<Object>(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (ExecutorCounter.class) {
+                        Integer count = requestCountMap.get(CLUSTER_ID);
+                        requestCountMap.put(CLUSTER_ID, (count == null) ? 1 : count + 1);
+                    }
+                }
+            }, null));
+        }
+
+        @Override
+        public void decrement() {
+            executorService.submit(new FutureTask<Object>(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (ExecutorCounter.class) {
+                        Integer count = requestCountMap.get(CLUSTER_ID);
+                        requestCountMap.put(CLUSTER_ID, (count == null || count < 1) ? 0 : count - 1);
+                    }
+                }
+            }, null));
+        }
+
+        @Override
+        public void complete() throws InterruptedException {
+            executorService.shutdown();
+            executorService.awaitTermination(10, TimeUnit.MINUTES);
+        }
+    }
+
+    private static class InlineCounter implements Counter {
+        private final LoadBalancerStatisticsCollector statisticsCollector;
+
+        private InlineCounter() {
+            LoadBalancerStatisticsCollector.clear();
+            statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
+        }
+
+        @Override
+        public void increment() {
+            statisticsCollector.incrementInFlightRequestCount(CLUSTER_ID);
+            statisticsCollector.incrementMemberInFlightRequestCount(MEMBER_ID);
+        }
+
+        @Override
+        public void decrement() {
+            statisticsCollector.decrementInFlightRequestCount(CLUSTER_ID);
+            statisticsCollector.decrementMemberInFlightRequestCount(MEMBER_ID);
+        }
+
+        @Override
+        public void complete() {
+        }
+    }
+}
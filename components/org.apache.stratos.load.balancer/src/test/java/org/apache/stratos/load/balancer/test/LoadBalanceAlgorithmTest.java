@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.test;
+
+import org.apache.stratos.load.balancer.algorithm.LeastOutstandingRequests;
+import org.apache.stratos.load.balancer.algorithm.PowerOfTwoChoices;
+import org.apache.stratos.load.balancer.algorithm.WeightedRoundRobin;
+import org.apache.stratos.load.balancer.context.AlgorithmContext;
+import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
+import org.apache.stratos.load.balancer.util.LoadBalancerConstants;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.MemberStatus;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Weighted round robin, least outstanding requests and power of two choices load balance algorithm tests.
+ */
+@RunWith(JUnit4.class)
+public class LoadBalanceAlgorithmTest {
+
+    @After
+    public void tearDown() {
+        LoadBalancerStatisticsCollector.clear();
+    }
+
+    @Test
+    public void testWeightedRoundRobin() {
+        Member member1 = createActiveMember("member1", "3");
+        Member member2 = createActiveMember("member2", "1");
+        Member member3 = createActiveMember("member3", null);
+        AlgorithmContext algorithmContext = new AlgorithmContext("service1", "cluster1");
+        algorithmContext.updateMembers(Arrays.asList(member1, member2, member3));
+        Member[] weightedMembers = algorithmContext.getWeightedMembers();
+        Assert.assertEquals("Weighted member schedule length is not valid", 5, weightedMembers.length);
+        Assert.assertNotSame("Weighted members should be interleaved", weightedMembers[0], weightedMembers[1]);
+
+        WeightedRoundRobin weightedRoundRobin = new WeightedRoundRobin();
+        Map<String, Integer> selectionCountMap = new HashMap<String, Integer>();
+        for (int i = 0; i < 50; i++) {
+            Member member = weightedRoundRobin.getNextMember(algorithmContext);
+            Integer count = selectionCountMap.get(member.getMemberId());
+            selectionCountMap.put(member.getMemberId(), (count == null) ? 1 : count + 1);
+        }
+        Assert.assertEquals(30, selectionCountMap.get("member1").intValue());
+        Assert.assertEquals(10, selectionCountMap.get("member2").intValue());
+        Assert.assertEquals(10, selectionCountMap.get("member3").intValue());
+
+        member1.setStatus(MemberStatus.Suspended);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertNotSame(member1, weightedRoundRobin.getNextMember(algorithmContext));
+        }
+    }
+
+    @Test
+    public void testLeastOutstandingRequests() {
+        Member member1 = createActiveMember("member1", null);
+        Member member2 = createActiveMember("member2", null);
+        Member member3 = createActiveMember("member3", null);
+        AlgorithmContext algorithmContext = new AlgorithmContext("service1", "cluster1");
+        algorithmContext.updateMembers(Arrays.asList(member1, member2, member3));
+
+        LoadBalancerStatisticsCollector statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
+        statisticsCollector.incrementMemberInFlightRequestCount("member1");
+        statisticsCollector.incrementMemberInFlightRequestCount("member1");
+        statisticsCollector.incrementMemberInFlightRequestCount("member2");
+        statisticsCollector.incrementMemberInFlightRequestCount("member3");
+        statisticsCollector.incrementMemberInFlightRequestCount("member3");
+
+        LeastOutstandingRequests leastOutstandingRequests = new LeastOutstandingRequests();
+        for (int i = 0; i < 5; i++) {
+            Assert.assertSame(member2, leastOutstandingRequests.getNextMember(algorithmContext));
+        }
+
+        statisticsCollector.decrementMemberInFlightRequestCount("member1");
+        statisticsCollector.decrementMemberInFlightRequestCount("member1");
+        statisticsCollector.decrementMemberInFlightRequestCount("member1");
+        Assert.assertEquals("In-flight request count should not be negative", 0,
+                statisticsCollector.getMemberInFlightRequestCount("member1"));
+        Assert.assertSame(member1, leastOutstandingRequests.getNextMember(algorithmContext));
+
+        member1.setStatus(MemberStatus.Suspended);
+        Assert.assertSame(member2, leastOutstandingRequests.getNextMember(algorithmContext));
+    }
+
+    @Test
+    public void testPowerOfTwoChoices() {
+        Member member1 = createActiveMember("member1", null);
+        Member member2 = createActiveMember("member2", null);
+        AlgorithmContext algorithmContext = new AlgorithmContext("service1", "cluster1");
+        algorithmContext.updateMembers(Arrays.asList(member1, member2));
+
+        LoadBalancerStatisticsCollector.getInstance().incrementMemberInFlightRequestCount("member1");
+        PowerOfTwoChoices powerOfTwoChoices = new PowerOfTwoChoices();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(member2, powerOfTwoChoices.getNextMember(algorithmContext));
+        }
+
+        member2.setStatus(MemberStatus.In_Maintenance);
+        Assert.assertSame(member1, powerOfTwoChoices.getNextMember(algorithmContext));
+        member1.setStatus(MemberStatus.In_Maintenance);
+        Assert.assertNull(powerOfTwoChoices.getNextMember(algorithmContext));
+    }
+
+    private static Member createActiveMember(String memberId, String weight) {
+        Member member = new Member("service1", "cluster1", memberId, "cluster-instance1", "network-partition1",
+                "partition1", System.currentTimeMillis());
+        if (weight != null) {
+            Properties properties = new Properties();
+            properties.setProperty(LoadBalancerConstants.MEMBER_WEIGHT, weight);
+            member.setProperties(properties);
+        }
+        member.setStatus(MemberStatus.Initialized);
+        member.setStatus(MemberStatus.Starting);
+        member.setStatus(MemberStatus.Active);
+        return member;
+    }
+}
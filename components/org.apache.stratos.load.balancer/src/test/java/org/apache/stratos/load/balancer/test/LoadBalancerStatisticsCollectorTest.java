@@ -19,17 +19,14 @@
 
 package org.apache.stratos.load.balancer.test;
 
-import org.apache.stratos.load.balancer.statistics.InFlightRequestIncrementCallable;
 import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsCollector;
+import org.junit.After;
 import org.junit.Assert;
-import org.apache.stratos.load.balancer.statistics.InFlightRequestDecrementCallable;
-import org.apache.stratos.load.balancer.statistics.LoadBalancerStatisticsExecutor;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
-import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Load balancer statistics collector tests.
@@ -37,6 +34,11 @@ import java.util.concurrent.FutureTask;
 @RunWith(JUnit4.class)
 public class LoadBalancerStatisticsCollectorTest {
 
+    @After
+    public void tearDown() {
+        LoadBalancerStatisticsCollector.clear();
+    }
+
     /***
      * Test in-flight request count calculation.
      */
@@ -45,43 +47,65 @@ public class LoadBalancerStatisticsCollectorTest {
         String clusterId = "cluster1";
         String incrementErrorMessage = "Could not increment in-flight request count: ";
         String decrementErrorMessage = "Could not decrement in-flight request count: ";
+        LoadBalancerStatisticsCollector statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
 
-        FutureTask<Object> task = new FutureTask<Object>(new InFlightRequestIncrementCallable(clusterId));
-        executeTask(task);
-        Assert.assertEquals(incrementErrorMessage, 1, LoadBalancerStatisticsCollector.getInstance().getInFlightRequestCount(clusterId));
+        statisticsCollector.incrementInFlightRequestCount(clusterId);
+        Assert.assertEquals(incrementErrorMessage, 1, statisticsCollector.getInFlightRequestCount(clusterId));
 
-        task = new FutureTask<Object>(new InFlightRequestIncrementCallable(clusterId));
-        executeTask(task);
-        Assert.assertEquals(incrementErrorMessage, 2, LoadBalancerStatisticsCollector.getInstance().getInFlightRequestCount(clusterId));
+        statisticsCollector.incrementInFlightRequestCount(clusterId);
+        Assert.assertEquals(incrementErrorMessage, 2, statisticsCollector.getInFlightRequestCount(clusterId));
 
-        task = new FutureTask<Object>(new InFlightRequestIncrementCallable(clusterId));
-        executeTask(task);
-        Assert.assertEquals(incrementErrorMessage, 3, LoadBalancerStatisticsCollector.getInstance().getInFlightRequestCount(clusterId));
+        statisticsCollector.incrementInFlightRequestCount(clusterId);
+        Assert.assertEquals(incrementErrorMessage, 3, statisticsCollector.getInFlightRequestCount(clusterId));
 
-        task = new FutureTask<Object>(new InFlightRequestDecrementCallable(clusterId));
-        executeTask(task);
-        Assert.assertEquals(decrementErrorMessage, 2, LoadBalancerStatisticsCollector.getInstance().getInFlightRequestCount(clusterId));
+        statisticsCollector.decrementInFlightRequestCount(clusterId);
+        Assert.assertEquals(decrementErrorMessage, 2, statisticsCollector.getInFlightRequestCount(clusterId));
 
-        task = new FutureTask<Object>(new InFlightRequestDecrementCallable(clusterId));
-        executeTask(task);
-        Assert.assertEquals(decrementErrorMessage, 1, LoadBalancerStatisticsCollector.getInstance().getInFlightRequestCount(clusterId));
+        statisticsCollector.decrementInFlightRequestCount(clusterId);
+        Assert.assertEquals(decrementErrorMessage, 1, statisticsCollector.getInFlightRequestCount(clusterId));
 
-        task = new FutureTask<Object>(new InFlightRequestDecrementCallable(clusterId));
-        executeTask(task);
-        Assert.assertEquals(decrementErrorMessage, 0, LoadBalancerStatisticsCollector.getInstance().getInFlightRequestCount(clusterId));
+        statisticsCollector.decrementInFlightRequestCount(clusterId);
+        Assert.assertEquals(decrementErrorMessage, 0, statisticsCollector.getInFlightRequestCount(clusterId));
 
-        LoadBalancerStatisticsCollector.clear();
+        Assert.assertEquals("Served request count is not valid", 3, statisticsCollector.getServedRequestCount(clusterId));
+        Assert.assertEquals("Served request count was not reset", 0, statisticsCollector.getServedRequestCount(clusterId));
+        Assert.assertEquals("Unknown cluster should not have in-flight requests", 0,
+                statisticsCollector.getInFlightRequestCount("cluster2"));
     }
 
-    private void executeTask(FutureTask<Object> task) {
-        Future future = LoadBalancerStatisticsExecutor.getInstance().getService().submit(task);
-        while(!future.isDone()) {
-            // Wait until task get executed
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                // Might not need to trace
-            }
+    /***
+     * Test in-flight request count calculation with concurrent updates.
+     */
+    @Test
+    public void testConcurrentInFlightRequestCountCalculation() throws InterruptedException {
+        final String clusterId = "cluster1";
+        final int threadCount = 8;
+        final int requestCount = 10000;
+        final LoadBalancerStatisticsCollector statisticsCollector = LoadBalancerStatisticsCollector.getInstance();
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < requestCount; j++) {
+                            statisticsCollector.incrementInFlightRequestCount(clusterId);
+                        }
+                        for (int j = 0; j < requestCount / 2; j++) {
+                            statisticsCollector.decrementInFlightRequestCount(clusterId);
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
         }
+        latch.await();
+
+        Assert.assertEquals(threadCount * requestCount / 2, statisticsCollector.getInFlightRequestCount(clusterId));
+        Assert.assertEquals(threadCount * requestCount / 2, statisticsCollector.getServedRequestCount(clusterId));
+        Assert.assertEquals(Integer.valueOf(threadCount * requestCount / 2),
+                statisticsCollector.getInFlightRequestCounts().get(clusterId));
     }
 }
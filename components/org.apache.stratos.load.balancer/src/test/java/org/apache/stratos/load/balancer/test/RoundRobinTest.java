@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.test;
+
+import org.apache.stratos.load.balancer.algorithm.RoundRobin;
+import org.apache.stratos.load.balancer.context.AlgorithmContext;
+import org.apache.stratos.messaging.domain.topology.Member;
+import org.apache.stratos.messaging.domain.topology.MemberStatus;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+
+/**
+ * Round robin load balance algorithm tests.
+ */
+@RunWith(JUnit4.class)
+public class RoundRobinTest {
+
+    @Test
+    public void testMembersSelectedInTurn() {
+        Member member1 = createActiveMember("member1");
+        Member member2 = createActiveMember("member2");
+        Member member3 = createMember("member3");
+        AlgorithmContext algorithmContext = new AlgorithmContext("service1", "cluster1");
+        algorithmContext.updateMembers(Arrays.asList(member1, member2, member3));
+        Assert.assertEquals("Inactive member should not be selectable", 2, algorithmContext.getMembers().length);
+
+        RoundRobin roundRobin = new RoundRobin();
+        Member first = roundRobin.getNextMember(algorithmContext);
+        Member second = roundRobin.getNextMember(algorithmContext);
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first, roundRobin.getNextMember(algorithmContext));
+        Assert.assertSame(second, roundRobin.getNextMember(algorithmContext));
+    }
+
+    @Test
+    public void testMemberDeactivatedBeforeUpdate() {
+        Member member1 = createActiveMember("member1");
+        Member member2 = createActiveMember("member2");
+        AlgorithmContext algorithmContext = new AlgorithmContext("service1", "cluster1");
+        algorithmContext.updateMembers(Arrays.asList(member1, member2));
+
+        member1.setStatus(MemberStatus.Suspended);
+        RoundRobin roundRobin = new RoundRobin();
+        for (int i = 0; i < 4; i++) {
+            Assert.assertSame(member2, roundRobin.getNextMember(algorithmContext));
+        }
+
+        member2.setStatus(MemberStatus.In_Maintenance);
+        Assert.assertNull(roundRobin.getNextMember(algorithmContext));
+    }
+
+    @Test
+    public void testMemberIndexOverflow() {
+        Member member1 = createActiveMember("member1");
+        Member member2 = createActiveMember("member2");
+        AlgorithmContext algorithmContext = new AlgorithmContext("service1", "cluster1");
+        algorithmContext.updateMembers(Arrays.asList(member1, member2));
+        algorithmContext.setCurrentMemberIndex(Integer.MAX_VALUE);
+
+        RoundRobin roundRobin = new RoundRobin();
+        for (int i = 0; i < 4; i++) {
+            Assert.assertNotNull(roundRobin.getNextMember(algorithmContext));
+        }
+    }
+
+    @Test
+    public void testEmptyCluster() {
+        AlgorithmContext algorithmContext = new AlgorithmContext("service1", "cluster1");
+        Assert.assertNull(new RoundRobin().getNextMember(algorithmContext));
+    }
+
+    private static Member createMember(String memberId) {
+        return new Member("service1", "cluster1", memberId, "cluster-instance1", "network-partition1",
+                "partition1", System.currentTimeMillis());
+    }
+
+    private static Member createActiveMember(String memberId) {
+        Member member = createMember(memberId);
+        member.setStatus(MemberStatus.Initialized);
+        member.setStatus(MemberStatus.Starting);
+        member.setStatus(MemberStatus.Active);
+        return member;
+    }
+}
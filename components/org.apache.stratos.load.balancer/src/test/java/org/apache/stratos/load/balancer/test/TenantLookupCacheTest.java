@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.load.balancer.test;
+
+import org.apache.stratos.load.balancer.context.map.TenantDomainTenantIdMap;
+import org.apache.stratos.load.balancer.context.map.UrlTenantIdMap;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tenant lookup cache tests.
+ */
+@RunWith(JUnit4.class)
+public class TenantLookupCacheTest {
+
+    @Test
+    public void testUrlTenantIdMapEviction() {
+        UrlTenantIdMap urlTenantIdMap = new UrlTenantIdMap(2);
+        long version = urlTenantIdMap.getVersion();
+        urlTenantIdMap.addTenantId("t/tenant1.com/", 1, version);
+        urlTenantIdMap.addTenantId("t/tenant2.com/", 2, version);
+        urlTenantIdMap.addTenantId("t/tenant2.com/", 2, version);
+        Assert.assertEquals(2, urlTenantIdMap.size());
+
+        // Capacity reached, an entry is evicted for the new tenant context
+        urlTenantIdMap.addTenantId("t/tenant3.com/", 3, version);
+        Assert.assertEquals(2, urlTenantIdMap.size());
+        Assert.assertEquals(Integer.valueOf(3), urlTenantIdMap.getTenantId("t/tenant3.com/"));
+    }
+
+    @Test
+    public void testStaleEntriesNotAddedAfterClear() {
+        UrlTenantIdMap urlTenantIdMap = new UrlTenantIdMap(10);
+        long urlVersion = urlTenantIdMap.getVersion();
+        urlTenantIdMap.clear();
+        urlTenantIdMap.addTenantId("t/tenant1.com/", 1, urlVersion);
+        Assert.assertNull(urlTenantIdMap.getTenantId("t/tenant1.com/"));
+
+        TenantDomainTenantIdMap tenantDomainTenantIdMap = new TenantDomainTenantIdMap();
+        long version = tenantDomainTenantIdMap.getVersion();
+        tenantDomainTenantIdMap.addTenantId("tenant1.com", 1, version);
+        tenantDomainTenantIdMap.addTenantExists(1, true, version);
+        Assert.assertEquals(Integer.valueOf(1), tenantDomainTenantIdMap.getTenantId("tenant1.com"));
+        Assert.assertEquals(Boolean.TRUE, tenantDomainTenantIdMap.tenantExists(1));
+
+        tenantDomainTenantIdMap.clear();
+        Assert.assertNull(tenantDomainTenantIdMap.getTenantId("tenant1.com"));
+        tenantDomainTenantIdMap.addTenantId("tenant1.com", 1, version);
+        tenantDomainTenantIdMap.addTenantExists(1, true, version);
+        Assert.assertNull(tenantDomainTenantIdMap.getTenantId("tenant1.com"));
+        Assert.assertNull(tenantDomainTenantIdMap.tenantExists(1));
+    }
+}
@@ -36,7 +36,6 @@ import org.apache.stratos.manager.utils.CartridgeConfigFileReader;
 import org.apache.stratos.manager.utils.StratosManagerConstants;
 import org.apache.stratos.manager.utils.UserRoleCreator;
 import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
-import org.apache.stratos.messaging.util.Util;
 import org.osgi.service.component.ComponentContext;
 import org.wso2.carbon.ntask.core.service.TaskService;
 import org.wso2.carbon.registry.core.service.RegistryService;
@@ -280,8 +279,7 @@ public class StratosManagerServiceComponent {
 
     protected void deactivate(ComponentContext context) {
         // Close event publisher connections to message broker
-        EventPublisherPool.close(Util.Topics.INSTANCE_NOTIFIER_TOPIC.getTopicName());
-        EventPublisherPool.close(Util.Topics.TENANT_TOPIC.getTopicName());
+        EventPublisherPool.closeAll();
 
 	    executorService.shutdownNow();
     }
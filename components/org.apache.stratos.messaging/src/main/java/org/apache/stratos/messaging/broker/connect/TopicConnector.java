@@ -44,4 +44,10 @@ public interface TopicConnector {
      * Disconnect from the message broker.
      */
     public abstract void disconnect();
+
+    /**
+     * Check whether the connector holds a live connection to the message broker.
+     * @return true if connected
+     */
+    public abstract boolean isConnected();
 }
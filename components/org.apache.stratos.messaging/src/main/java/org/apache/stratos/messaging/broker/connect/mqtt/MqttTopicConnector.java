@@ -142,6 +142,16 @@ public abstract class MqttTopicConnector implements TopicConnector {
         }
     }
 
+    /**
+     * Check whether the MQTT client is connected to the message broker.
+     * @return true if connected
+     */
+    @Override
+    public boolean isConnected() {
+        MqttClient client = mqttClient;
+        return (client != null) && client.isConnected();
+    }
+
     /**
      * Return server URI.
      * @return
@@ -0,0 +1,515 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.broker.publish;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.messaging.domain.exception.MessagingException;
+import org.apache.stratos.messaging.util.Util;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded outbound message queue shared by the publishers of an event family. Callers enqueue
+ * serialized messages and return immediately, a single worker thread per queue drains the queue
+ * in batches and hands them over to their publishers. Broker failures are retried by the worker only.
+ * When the queue is full the configured {@link OverflowPolicy} is applied.
+ *
+ * Each event type is published to its own topic, events of a family such as the topology events
+ * share a queue so that they are published in the order they were enqueued. For example a member
+ * activated event is never published before the member initialized event of the same member.
+ *
+ * Spill files are written to a directory of this process instance below the configured spill
+ * directory, stratos.messaging.publisher.async.spillDirectory. Only spill files written by this
+ * instance are published, files left by earlier runs or by other processes are skipped.
+ */
+class AsyncPublishQueue {
+
+    private static final Log log = LogFactory.getLog(AsyncPublishQueue.class);
+
+    static final String ASYNC_ENABLED_PROPERTY = "stratos.messaging.publisher.async.enabled";
+    private static final String QUEUE_CAPACITY_PROPERTY = "stratos.messaging.publisher.async.queueCapacity";
+    private static final String BATCH_SIZE_PROPERTY = "stratos.messaging.publisher.async.batchSize";
+    private static final String OVERFLOW_POLICY_PROPERTY = "stratos.messaging.publisher.async.overflowPolicy";
+    private static final String SPILL_DIRECTORY_PROPERTY = "stratos.messaging.publisher.async.spillDirectory";
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.SPILL;
+    private static final long POLL_TIMEOUT = 1000;
+    private static final String SPILL_FILE_SUFFIX = ".spill";
+    private static final String PROCESSING_FILE_SUFFIX = ".processing";
+    private static final String ENCODING = "UTF-8";
+    private static final char TOPIC_SEPARATOR = '\t';
+    private static final String INSTANCE_ID = createInstanceId();
+    private static final AtomicBoolean otherSpillFilesChecked = new AtomicBoolean();
+
+    private static final ConcurrentMap<String, AsyncPublishQueue> queueNameToQueueMap =
+            new ConcurrentHashMap<String, AsyncPublishQueue>();
+
+    private final String queueName;
+    private final ConcurrentMap<String, Publisher> topicNameToPublisherMap;
+    private final BlockingQueue<QueuedMessage> queue;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final File spillFile;
+    private final File processingFile;
+    private final Object spillLock = new Object();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong spilledCount = new AtomicLong();
+    private final AtomicLong pendingSpilledCount = new AtomicLong();
+    private final Thread worker;
+    private volatile boolean running;
+    private boolean spilling;
+
+    AsyncPublishQueue(String queueName) {
+        this.queueName = queueName;
+        this.topicNameToPublisherMap = new ConcurrentHashMap<String, Publisher>();
+        this.queue = new LinkedBlockingQueue<QueuedMessage>(
+                Util.getNumericSystemProperty(DEFAULT_QUEUE_CAPACITY, QUEUE_CAPACITY_PROPERTY));
+        this.batchSize = Math.max(1, Util.getNumericSystemProperty(DEFAULT_BATCH_SIZE, BATCH_SIZE_PROPERTY));
+        this.overflowPolicy = OverflowPolicy.fromString(System.getProperty(OVERFLOW_POLICY_PROPERTY),
+                DEFAULT_OVERFLOW_POLICY);
+
+        File spillDirectory = getSpillDirectory();
+        String fileName = toFileName(queueName);
+        this.spillFile = new File(spillDirectory, fileName + SPILL_FILE_SUFFIX);
+        this.processingFile = new File(spillDirectory, fileName + PROCESSING_FILE_SUFFIX);
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            spillDirectory.mkdirs();
+            warnIfOtherSpillFilesFound(spillDirectory.getParentFile());
+            // Messages spilled by a queue of this instance which has been stopped are published
+            // before any new message
+            spilling = spillFile.exists() || processingFile.exists();
+        }
+
+        this.worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }, "async-publisher-" + queueName);
+        this.worker.setDaemon(true);
+        this.running = true;
+        this.worker.start();
+
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Asynchronous publisher queue started: [queue] %s [capacity] %d [batch-size] %d " +
+                    "[overflow-policy] %s", queueName, queue.remainingCapacity(), batchSize, overflowPolicy));
+        }
+    }
+
+    /**
+     * @return spill directory of this process instance
+     */
+    static File getSpillDirectory() {
+        String baseDirectory = System.getProperty(SPILL_DIRECTORY_PROPERTY,
+                System.getProperty("java.io.tmpdir") + File.separator + "stratos-messaging-spill");
+        return new File(baseDirectory, INSTANCE_ID);
+    }
+
+    /**
+     * The instance id is made of the process name, which contains the process id and host name,
+     * and the start time of the process, hence a restarted process does not reuse a directory.
+     */
+    private static String createInstanceId() {
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        return toFileName(runtime.getName() + "-" + runtime.getStartTime());
+    }
+
+    private static String toFileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Spill files of earlier runs or other processes are not published by this instance, they
+     * are reported once so that they could be inspected or removed.
+     */
+    private static void warnIfOtherSpillFilesFound(File baseDirectory) {
+        if ((baseDirectory == null) || !otherSpillFilesChecked.compareAndSet(false, true)) {
+            return;
+        }
+        File[] files = baseDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<String> otherFiles = new ArrayList<String>();
+        for (File file : files) {
+            if (!INSTANCE_ID.equals(file.getName())) {
+                otherFiles.add(file.getName());
+            }
+        }
+        if (!otherFiles.isEmpty()) {
+            log.warn(String.format("Publisher spill files not written by this instance are not published: " +
+                    "[directory] %s [files] %s", baseDirectory.getAbsolutePath(), otherFiles));
+        }
+    }
+
+    /**
+     * Get the queue of the event family of the given topic, the queue is created on first use.
+     * @param topicName topic name of the publisher
+     * @return shared queue of the event family
+     */
+    static AsyncPublishQueue getQueue(String topicName) {
+        String queueName = getQueueName(topicName);
+        AsyncPublishQueue queue = queueNameToQueueMap.get(queueName);
+        if (queue != null) {
+            return queue;
+        }
+        synchronized (queueNameToQueueMap) {
+            queue = queueNameToQueueMap.get(queueName);
+            if (queue == null) {
+                queue = new AsyncPublishQueue(queueName);
+                queueNameToQueueMap.put(queueName, queue);
+            }
+            return queue;
+        }
+    }
+
+    /**
+     * @param topicName topic name of the publisher
+     * @return queue of the event family of the given topic, null if it has not been created
+     */
+    static AsyncPublishQueue findQueue(String topicName) {
+        return queueNameToQueueMap.get(getQueueName(topicName));
+    }
+
+    /**
+     * Topics of an event family share the parent path of their event topics,
+     * for example topology/MemberActivatedEvent belongs to topology.
+     */
+    static String getQueueName(String topicName) {
+        int index = topicName.lastIndexOf('/');
+        return (index > 0) ? topicName.substring(0, index) : topicName;
+    }
+
+    /**
+     * Stop all queues, messages which could not be published are spilled to disk
+     * when the spill policy is in use.
+     */
+    static void stopAll() {
+        synchronized (queueNameToQueueMap) {
+            for (AsyncPublishQueue queue : queueNameToQueueMap.values()) {
+                queue.stop();
+            }
+            queueNameToQueueMap.clear();
+        }
+    }
+
+    static boolean isAsyncEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ASYNC_ENABLED_PROPERTY, "false"));
+    }
+
+    /**
+     * Enqueue a serialized message for publishing.
+     * @param publisher publisher of the message topic
+     * @param message message to be published
+     */
+    void enqueue(Publisher publisher, String message) {
+        if (!running) {
+            throw new MessagingException("Asynchronous publisher queue has been stopped: [queue] " + queueName);
+        }
+        topicNameToPublisherMap.putIfAbsent(publisher.getTopicName(), publisher);
+        QueuedMessage queuedMessage = new QueuedMessage(publisher, message);
+
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(queuedMessage);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MessagingException("Interrupted while waiting for publisher queue: [queue] "
+                            + queueName, e);
+                }
+                break;
+            case DROP:
+                if (!queue.offer(queuedMessage)) {
+                    if (droppedCount.incrementAndGet() % 1000 == 1) {
+                        log.warn(String.format("Publisher queue is full, dropping messages: [queue] %s " +
+                                "[dropped-count] %d", queueName, droppedCount.get()));
+                    }
+                }
+                break;
+            case SPILL:
+                synchronized (spillLock) {
+                    // Once spilling has started, every new message goes to disk to keep the order
+                    if (!spilling && queue.offer(queuedMessage)) {
+                        return;
+                    }
+                    if (!spilling) {
+                        spilling = true;
+                        log.warn(String.format("Publisher queue is full, spilling messages to disk: [queue] %s " +
+                                "[file] %s", queueName, spillFile.getAbsolutePath()));
+                    }
+                    appendToSpillFile(spillFile, queuedMessage);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Worker loop, drains the in-memory queue and then any spilled messages.
+     */
+    private void drain() {
+        List<QueuedMessage> batch = new ArrayList<QueuedMessage>(batchSize);
+        while (running) {
+            try {
+                QueuedMessage message = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (message != null) {
+                    batch.add(message);
+                    queue.drainTo(batch, batchSize - 1);
+                    flush(batch);
+                } else if (overflowPolicy == OverflowPolicy.SPILL) {
+                    drainSpillFile(batch);
+                }
+            } catch (InterruptedException ignore) {
+            } catch (Exception e) {
+                log.error("Error in asynchronous publisher: [queue] " + queueName, e);
+            }
+        }
+        drainOnStop(batch);
+    }
+
+    /**
+     * Publish the given batch in order, retrying until all messages are published or the queue is
+     * stopped. Consecutive messages of the same topic are handed over to their publisher together.
+     */
+    private void flush(List<QueuedMessage> batch) {
+        while (!batch.isEmpty()) {
+            Publisher publisher = batch.get(0).publisher;
+            List<String> messages = new ArrayList<String>();
+            for (QueuedMessage queuedMessage : batch) {
+                if (queuedMessage.publisher != publisher) {
+                    break;
+                }
+                messages.add(queuedMessage.message);
+            }
+            int published = publisher.publishBatch(messages);
+            batch.subList(0, published).clear();
+            if (published == messages.size()) {
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            if (log.isInfoEnabled()) {
+                log.info(String.format("Will try to re-publish %d queued messages in %d sec: [queue] %s",
+                        batch.size(), publisher.getRetryInterval() / 1000, queueName));
+            }
+            try {
+                Thread.sleep(publisher.getRetryInterval());
+            } catch (InterruptedException ignore) {
+            }
+        }
+    }
+
+    private void drainSpillFile(List<QueuedMessage> batch) {
+        synchronized (spillLock) {
+            if (!spilling) {
+                return;
+            }
+            if (!processingFile.exists()) {
+                if (!spillFile.exists()) {
+                    spilling = false;
+                    return;
+                }
+                if (!spillFile.renameTo(processingFile)) {
+                    log.error("Could not rename publisher spill file: " + spillFile.getAbsolutePath());
+                    return;
+                }
+            }
+        }
+
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(processingFile), ENCODING));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                QueuedMessage queuedMessage = readSpilledMessage(line);
+                if (queuedMessage == null) {
+                    continue;
+                }
+                batch.add(queuedMessage);
+                if (batch.size() >= batchSize) {
+                    publishSpilled(batch);
+                    if (!running) {
+                        // Processing file is kept and published again on next start
+                        batch.clear();
+                        return;
+                    }
+                }
+            }
+            publishSpilled(batch);
+        } catch (IOException e) {
+            log.error("Could not read publisher spill file: " + processingFile.getAbsolutePath(), e);
+            return;
+        } finally {
+            closeQuietly(reader);
+        }
+
+        if (!running) {
+            return;
+        }
+        synchronized (spillLock) {
+            if (!processingFile.delete()) {
+                log.error("Could not delete publisher spill file: " + processingFile.getAbsolutePath());
+            } else if (!spillFile.exists()) {
+                // Nothing spilled while draining, new messages can use the in-memory queue again
+                spilling = false;
+            }
+        }
+    }
+
+    /**
+     * Spilled messages are written one per line, prefixed with their topic name.
+     */
+    private QueuedMessage readSpilledMessage(String line) {
+        int index = line.indexOf(TOPIC_SEPARATOR);
+        if (index <= 0) {
+            droppedCount.incrementAndGet();
+            log.error(String.format("Invalid message found in publisher spill file, message dropped: [queue] %s " +
+                    "[file] %s", queueName, processingFile.getAbsolutePath()));
+            return null;
+        }
+        String topicName = line.substring(0, index);
+        Publisher publisher = topicNameToPublisherMap.get(topicName);
+        if (publisher == null) {
+            publisher = EventPublisherPool.getPublisher(topicName);
+        }
+        return new QueuedMessage(publisher, line.substring(index + 1));
+    }
+
+    private void publishSpilled(List<QueuedMessage> batch) {
+        int size = batch.size();
+        flush(batch);
+        long published = size - batch.size();
+        long remaining = pendingSpilledCount.addAndGet(-published);
+        if (remaining < 0) {
+            // Messages spilled by a previous run are not counted
+            pendingSpilledCount.compareAndSet(remaining, 0);
+        }
+    }
+
+    private void drainOnStop(List<QueuedMessage> batch) {
+        queue.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            synchronized (spillLock) {
+                for (QueuedMessage message : batch) {
+                    appendToSpillFile(spillFile, message);
+                }
+            }
+            log.warn(String.format("Publisher stopped, %d queued messages spilled to disk: [queue] %s",
+                    batch.size(), queueName));
+        } else {
+            log.warn(String.format("Publisher stopped, %d queued messages discarded: [queue] %s",
+                    batch.size(), queueName));
+        }
+        batch.clear();
+    }
+
+    private void appendToSpillFile(File file, QueuedMessage message) {
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(file, true), ENCODING);
+            writer.write(message.publisher.getTopicName());
+            writer.write(TOPIC_SEPARATOR);
+            writer.write(message.message);
+            writer.write('\n');
+            spilledCount.incrementAndGet();
+            pendingSpilledCount.incrementAndGet();
+        } catch (IOException e) {
+            droppedCount.incrementAndGet();
+            log.error("Could not write message to publisher spill file, message dropped: " +
+                    file.getAbsolutePath(), e);
+        } finally {
+            closeQuietly(writer);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    /**
+     * Stop the worker thread, messages which could not be published are spilled to disk
+     * when the spill policy is in use.
+     */
+    void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(POLL_TIMEOUT * 5);
+        } catch (InterruptedException ignore) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return number of messages waiting to be published, in memory and on disk
+     */
+    long getQueueDepth() {
+        return queue.size() + pendingSpilledCount.get();
+    }
+
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Serialized message and the publisher of its topic.
+     */
+    private static class QueuedMessage {
+
+        private final Publisher publisher;
+        private final String message;
+
+        private QueuedMessage(Publisher publisher, String message) {
+            this.publisher = publisher;
+            this.message = message;
+        }
+    }
+}
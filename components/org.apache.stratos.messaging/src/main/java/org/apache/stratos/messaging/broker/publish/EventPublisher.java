@@ -36,16 +36,34 @@ public class EventPublisher extends Publisher {
 	}
 
 	/**
-	 * 
+	 * Publish the event, when asynchronous publishing is enabled via
+	 * stratos.messaging.publisher.async.enabled the event is queued and the caller
+	 * does not wait for the message broker.
 	 * @param event event to be published
 	 */
 	public void publish(Event event) {
-		publish(event, true);
+		if (AsyncPublishQueue.isAsyncEnabled()) {
+			publishAsync(event);
+		} else {
+			publish(event, true);
+		}
 	}
 
 	public void publish(Event event, boolean retry) {
-		synchronized (EventPublisher.class) {
-			super.publish(event, retry);
-		}
+		super.publish(event, retry);
     }
+
+	/**
+	 * Publish an event which has already been converted to its JSON representation, for
+	 * events which need to be serialized while the caller holds a lock on their content.
+	 * Asynchronous publishing is applied the same way as for {@link #publish(Event)}.
+	 * @param json JSON representation of the event
+	 */
+	public void publishJson(String json) {
+		if (AsyncPublishQueue.isAsyncEnabled()) {
+			publishMessageAsync(json);
+		} else {
+			publishMessage(json, true);
+		}
+	}
 }
@@ -22,47 +22,74 @@ package org.apache.stratos.messaging.broker.publish;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Event publisher instance pool will make sure that only one publisher
- * instance is created for each topic.
+ * instance is created for each topic. Publishers keep their broker connection
+ * open until they are closed via this pool.
  */
 public class EventPublisherPool {
     private static final Log log = LogFactory.getLog(EventPublisherPool.class);
-    private static Map<String, EventPublisher> topicNameEventPublisherMap = new HashMap<String, EventPublisher>();
+    private static final ConcurrentMap<String, EventPublisher> topicNameEventPublisherMap =
+            new ConcurrentHashMap<String, EventPublisher>();
 
     public static EventPublisher getPublisher(String topicName) {
+        EventPublisher eventPublisher = topicNameEventPublisherMap.get(topicName);
+        if (eventPublisher != null) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Event publisher fetched from pool: [topic] %s", topicName));
+            }
+            return eventPublisher;
+        }
+
         synchronized (EventPublisherPool.class) {
-            if(topicNameEventPublisherMap.containsKey(topicName)) {
-                if(log.isDebugEnabled()) {
-                    log.debug(String.format("Event publisher fetched from pool: [topic] %s", topicName));
+            eventPublisher = topicNameEventPublisherMap.get(topicName);
+            if (eventPublisher == null) {
+                eventPublisher = new EventPublisher(topicName);
+                topicNameEventPublisherMap.put(topicName, eventPublisher);
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Event publisher instance created: [topic] %s", topicName));
                 }
-                return topicNameEventPublisherMap.get(topicName);
-            }
-            EventPublisher eventPublisher = new EventPublisher(topicName);
-            topicNameEventPublisherMap.put(topicName, eventPublisher);
-            if(log.isDebugEnabled()) {
-                log.debug(String.format("Event publisher instance created: [topic] %s", topicName));
             }
             return eventPublisher;
         }
     }
 
+    /**
+     * Return a snapshot of the publishers currently in the pool, mainly for
+     * reading publisher statistics.
+     * @return list of event publishers
+     */
+    public static List<EventPublisher> getPublishers() {
+        return new ArrayList<EventPublisher>(topicNameEventPublisherMap.values());
+    }
+
     public static void close(String topicName) {
-        synchronized (EventPublisherPool.class) {
-            if(topicNameEventPublisherMap.containsKey(topicName)) {
-                topicNameEventPublisherMap.remove(topicName);
-                if(log.isDebugEnabled()) {
-                    log.debug(String.format("Event publisher closed and removed from pool: [topic] %s", topicName));
-                }
+        EventPublisher eventPublisher = topicNameEventPublisherMap.remove(topicName);
+        if (eventPublisher != null) {
+            eventPublisher.close();
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Event publisher closed and removed from pool: [topic] %s", topicName));
             }
-            else {
-                if(log.isWarnEnabled()) {
-                    log.warn(String.format("Event publisher instance not found in pool: [topic] %s", topicName));
-                }
+        } else {
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Event publisher instance not found in pool: [topic] %s", topicName));
             }
         }
     }
+
+    /**
+     * Close all publishers in the pool and release their broker connections.
+     */
+    public static void closeAll() {
+        // Queued messages are spilled or discarded before the publishers are closed
+        AsyncPublishQueue.stopAll();
+        for (String topicName : new ArrayList<String>(topicNameEventPublisherMap.keySet())) {
+            close(topicName);
+        }
+    }
 }
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.broker.publish;
+
+/**
+ * Action taken by an asynchronous publisher when its outbound queue is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Discard the message and increment the dropped message count.
+     */
+    DROP,
+
+    /**
+     * Block the caller until there is space in the queue.
+     */
+    BLOCK,
+
+    /**
+     * Append the message to a spill file on disk, spilled messages are
+     * published in order once the in-memory queue has been drained.
+     */
+    SPILL;
+
+    public static OverflowPolicy fromString(String value, OverflowPolicy defaultPolicy) {
+        if (value == null) {
+            return defaultPolicy;
+        }
+        for (OverflowPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(value.trim())) {
+                return policy;
+            }
+        }
+        return defaultPolicy;
+    }
+}
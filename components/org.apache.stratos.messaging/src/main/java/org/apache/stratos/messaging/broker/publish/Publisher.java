@@ -19,32 +19,62 @@
 
 package org.apache.stratos.messaging.broker.publish;
 
-import com.google.gson.Gson;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.statistics.LatencyHistogram;
 import org.apache.stratos.messaging.broker.connect.mqtt.MqttTopicPublisher;
 import org.apache.stratos.messaging.broker.connect.TopicPublisher;
 import org.apache.stratos.messaging.domain.exception.MessagingException;
+import org.apache.stratos.messaging.util.Util;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A topic publisher for publishing messages to a message broker topic.
  * Messages will be published in JSON format.
+ * The broker connection is kept open between publish calls and re-established
+ * only when it is found to be broken. Publishing is serialized per topic,
+ * publishers of different topics do not block each other.
+ * Messages can also be published asynchronously via a bounded queue shared
+ * by the topics of an event family, see {@link #publishAsync(Object)}.
  */
 public class Publisher {
 
     private static final Log log = LogFactory.getLog(Publisher.class);
 
-    private static final int PUBLISH_RETRY_INTERVAL = 60000;
+    private static final String PUBLISH_RETRY_INTERVAL_PROPERTY = "stratos.messaging.publisher.retryInterval";
+    private static final int DEFAULT_PUBLISH_RETRY_INTERVAL = 60000;
 
 	private final String topicName;
 	private final TopicPublisher topicPublisher;
+    private final LatencyHistogram publishLatency;
+    private final AtomicLong publishedCount;
+    private final AtomicLong failedCount;
+    private final AtomicLong reconnectCount;
+    private final int retryInterval;
+    private boolean connectedBefore;
 
     /**
 	 * @param topicName topic name of this publisher instance.
 	 */
 	Publisher(String topicName) {
+        this(topicName, new MqttTopicPublisher());
+    }
+
+    /**
+     * @param topicName      topic name of this publisher instance.
+     * @param topicPublisher transport specific topic publisher
+     */
+    Publisher(String topicName, TopicPublisher topicPublisher) {
 		this.topicName = topicName;
-        this.topicPublisher = new MqttTopicPublisher();
+        this.topicPublisher = topicPublisher;
+        this.publishLatency = new LatencyHistogram(topicName);
+        this.publishedCount = new AtomicLong();
+        this.failedCount = new AtomicLong();
+        this.reconnectCount = new AtomicLong();
+        this.retryInterval = Util.getNumericSystemProperty(DEFAULT_PUBLISH_RETRY_INTERVAL,
+                PUBLISH_RETRY_INTERVAL_PROPERTY);
 		if (log.isDebugEnabled()) {
 			log.debug(String.format("Topic publisher created: [topic] %s", topicName));
 		}
@@ -55,38 +85,174 @@ public class Publisher {
 	 */
 
 	public void publish(Object messageObj, boolean retry) {
-		synchronized (Publisher.class) {
-            Gson gson = new Gson();
-            String message = gson.toJson(messageObj);
-            boolean published = false;
+        String message = Util.getGson().toJson(messageObj);
+        publishMessage(message, retry);
+    }
+
+    /**
+     * Convert the object to its JSON representation and add it to the outbound queue of
+     * the event family of this topic. The caller does not wait for the broker, the message
+     * is published by the queue worker, in the order messages of the family were queued,
+     * which retries on broker failures.
+     * @param messageObj message to be published
+     */
+    public void publishAsync(Object messageObj) {
+        String message = Util.getGson().toJson(messageObj);
+        publishMessageAsync(message);
+    }
+
+    void publishMessageAsync(String message) {
+        AsyncPublishQueue.getQueue(topicName).enqueue(this, message);
+    }
 
-            while (!published) {
+    void publishMessage(String message, boolean retry) {
+        boolean published = false;
+
+        while (!published) {
+            long startTime = System.nanoTime();
+            synchronized (this) {
                 try {
-                    topicPublisher.connect();
+                    connectIfRequired();
                     topicPublisher.publish(topicName, message);
                     published = true;
+                    publishedCount.incrementAndGet();
+                    publishLatency.updateSince(startTime);
                 } catch (Exception e) {
+                    failedCount.incrementAndGet();
+                    // Drop the broken connection, it will be re-established on next attempt
+                    topicPublisher.disconnect();
                     if (!retry) {
                         if (log.isDebugEnabled()) {
                             log.debug("Retry disabled for topic " + topicName);
                         }
                         throw new MessagingException(e);
                     }
+                }
+            }
 
-                    if (log.isInfoEnabled()) {
-                        log.info(String.format("Will try to re-publish in %d sec", (PUBLISH_RETRY_INTERVAL/1000)));
-                    }
-                    try {
-                        Thread.sleep(PUBLISH_RETRY_INTERVAL);
-                    } catch (InterruptedException ignore) {
-                    }
-                } finally {
-                    try {
-                        topicPublisher.disconnect();
-                    } catch (MessagingException ignore) {
-                    }
+            if (!published) {
+                if (log.isInfoEnabled()) {
+                    log.info(String.format("Will try to re-publish in %d sec", (retryInterval / 1000)));
+                }
+                try {
+                    Thread.sleep(retryInterval);
+                } catch (InterruptedException ignore) {
                 }
             }
         }
 	}
+
+    /**
+     * Publish the given messages in order over a single connection check. Publishing stops
+     * at the first failure and the broken connection is dropped.
+     * @param messages messages to be published
+     * @return number of messages published from the head of the list
+     */
+    int publishBatch(List<String> messages) {
+        int published = 0;
+        synchronized (this) {
+            try {
+                connectIfRequired();
+                for (String message : messages) {
+                    long startTime = System.nanoTime();
+                    topicPublisher.publish(topicName, message);
+                    published++;
+                    publishedCount.incrementAndGet();
+                    publishLatency.updateSince(startTime);
+                }
+            } catch (Exception e) {
+                failedCount.incrementAndGet();
+                topicPublisher.disconnect();
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Batch publishing failed: [topic] %s [published] %d [remaining] %d",
+                            topicName, published, messages.size() - published), e);
+                }
+            }
+        }
+        return published;
+    }
+
+    /**
+     * Connect to the message broker if there is no live connection.
+     * Caller should hold the publisher monitor.
+     */
+    private void connectIfRequired() {
+        if (topicPublisher.isConnected()) {
+            return;
+        }
+        if (connectedBefore) {
+            reconnectCount.incrementAndGet();
+            if (log.isInfoEnabled()) {
+                log.info(String.format("Re-connecting topic publisher to message broker: [topic] %s", topicName));
+            }
+        }
+        topicPublisher.connect();
+        connectedBefore = true;
+    }
+
+    /**
+     * Disconnect from the message broker and release the connection.
+     */
+    public void close() {
+        synchronized (this) {
+            topicPublisher.disconnect();
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Topic publisher closed: [topic] %s", topicName));
+            }
+        }
+    }
+
+    public String getTopicName() {
+        return topicName;
+    }
+
+    public boolean isConnected() {
+        return topicPublisher.isConnected();
+    }
+
+    /**
+     * @return time taken to publish a message including connection setup when required
+     */
+    public LatencyHistogram getPublishLatency() {
+        return publishLatency;
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return number of times the broker connection had to be re-established
+     */
+    public long getReconnectCount() {
+        return reconnectCount.get();
+    }
+
+    /**
+     * @return number of messages waiting in the asynchronous publish queue of the event family
+     * of this topic, including spilled messages
+     */
+    public long getQueueDepth() {
+        AsyncPublishQueue queue = AsyncPublishQueue.findQueue(topicName);
+        return (queue == null) ? 0 : queue.getQueueDepth();
+    }
+
+    /**
+     * @return number of messages dropped by the asynchronous publish queue of the event family of this topic
+     */
+    public long getDroppedCount() {
+        AsyncPublishQueue queue = AsyncPublishQueue.findQueue(topicName);
+        return (queue == null) ? 0 : queue.getDroppedCount();
+    }
+
+    /**
+     * @return time in milliseconds to wait before re-publishing after a broker failure
+     */
+    public int getRetryInterval() {
+        return retryInterval;
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.event.initializer;
+
+import java.io.Serializable;
+
+/**
+ * This event is sent by topology subscribers which have not been initialized yet or
+ * have detected a gap in the topology event sequence. Cloud controller responds to it
+ * by publishing a complete topology event.
+ */
+public class CompleteTopologyRequestEvent extends InitializerEvent implements Serializable {
+    private static final long serialVersionUID = -8497218429126393571L;
+
+    private final long lastSequenceNumber;
+
+    public CompleteTopologyRequestEvent(long lastSequenceNumber) {
+        this.lastSequenceNumber = lastSequenceNumber;
+    }
+
+    /**
+     * @return sequence number of the last topology event applied by the subscriber,
+     * zero if the subscriber has not been initialized
+     */
+    public long getLastSequenceNumber() {
+        return lastSequenceNumber;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[last-sequence-number] %d", lastSequenceNumber);
+    }
+}
@@ -28,4 +28,20 @@ import java.io.Serializable;
  */
 public abstract class TopologyEvent extends Event implements Serializable {
     private static final long serialVersionUID = -3279032168352271675L;
+
+    private long sequenceNumber;
+
+    /**
+     * Sequence number assigned by the topology publisher, incremented by one for each
+     * topology event published. A complete topology event carries the sequence number of
+     * the last event it includes. Zero if the publisher does not assign sequence numbers.
+     * @return sequence number of the event
+     */
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public void setSequenceNumber(long sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+    }
 }
@@ -18,7 +18,7 @@
  */
 package org.apache.stratos.messaging.message;
 
-import com.google.gson.Gson;
+import org.apache.stratos.messaging.util.Util;
 
 /**
  * Represents a message that would traverse through Stratos
@@ -34,8 +34,7 @@ public class JsonMessage {
 	}
 
 	public JsonMessage(String text, Class type) {
-		Gson gson = new Gson();
-		object = gson.fromJson(text, type);
+		object = Util.getGson().fromJson(text, type);
 	}
 
 	public Object getObject() {
@@ -43,7 +42,6 @@ public class JsonMessage {
 	}
 
 	public String getText() {
-		Gson gson = new Gson();
-		return gson.toJson(object);
+		return Util.getGson().toJson(object);
 	}
 }
@@ -33,6 +33,16 @@ public abstract class MessageProcessor extends EventObservable {
 	 */
 	public abstract void setNext(MessageProcessor nextProcessor);
 
+	/**
+	 * Return the name of the event class handled by this processor. Message processor chains
+	 * use this to dispatch a message directly to its processor. Processors which return null
+	 * are only reached by walking the chain.
+	 * @return event class name or null
+	 */
+	public String getEventClassName() {
+		return null;
+	}
+
 	/**
 	 * Message processing and delegating logic.
 	 * @param type type of the message. 
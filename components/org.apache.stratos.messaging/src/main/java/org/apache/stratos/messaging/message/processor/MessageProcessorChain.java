@@ -19,19 +19,38 @@
 
 package org.apache.stratos.messaging.message.processor;
 
+import org.apache.stratos.common.statistics.LatencyHistogram;
 import org.apache.stratos.messaging.listener.EventListener;
 
+import java.util.Collections;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Message processor chain definition.
+ * Processors are linked to their successors as they are added to the chain. In addition
+ * a dispatch table of event class name to processor is maintained so that a message is
+ * handed over directly to its processor. Messages not found in the dispatch table are
+ * processed by walking the chain from its first processor.
+ *
+ * Processing statistics are kept per event type. Message types are read from the messages
+ * received, hence types not found in the dispatch table are recorded individually only up to
+ * a limit and aggregated under {@link #OTHER_EVENT_TYPES} afterwards.
  */
 public abstract class MessageProcessorChain {
 
+    public static final String OTHER_EVENT_TYPES = "other";
+    private static final int MAX_PROCESSING_STATISTICS_ENTRIES = 256;
+
     private LinkedList<MessageProcessor> list;
+    private Map<String, MessageProcessor> dispatchTable;
+    private Map<String, LatencyHistogram> processingStatistics;
 
     public MessageProcessorChain() {
         list = new LinkedList<MessageProcessor>();
+        dispatchTable = new ConcurrentHashMap<String, MessageProcessor>();
+        processingStatistics = new ConcurrentHashMap<String, LatencyHistogram>();
         initialize();
     }
 
@@ -43,20 +62,71 @@ public abstract class MessageProcessorChain {
             list.getLast().setNext(messageProcessor);
         }
         list.add(messageProcessor);
+
+        String eventClassName = messageProcessor.getEventClassName();
+        if ((eventClassName != null) && !dispatchTable.containsKey(eventClassName)) {
+            dispatchTable.put(eventClassName, messageProcessor);
+        }
     }
 
     public void removeLast() {
-        list.removeLast();
+        MessageProcessor messageProcessor = list.removeLast();
         if(list.size() > 0) {
             list.getLast().setNext(null);
         }
+
+        String eventClassName = messageProcessor.getEventClassName();
+        if ((eventClassName != null) && (dispatchTable.get(eventClassName) == messageProcessor)) {
+            dispatchTable.remove(eventClassName);
+            processingStatistics.remove(eventClassName);
+        }
     }
 
     public boolean process(String type, String message, Object object) {
-        MessageProcessor root = list.getFirst();
-        if(root == null) {
+        if(list.isEmpty()) {
             throw new RuntimeException("Message processor chain is not initialized");
         }
-        return root.process(type, message, object);
+
+        MessageProcessor processor = dispatchTable.get(type);
+        if (processor == null) {
+            processor = list.getFirst();
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            return processor.process(type, message, object);
+        } finally {
+            getProcessingStatistics(type).updateSince(startTime);
+        }
+    }
+
+    private LatencyHistogram getProcessingStatistics(String type) {
+        LatencyHistogram histogram = processingStatistics.get(type);
+        if (histogram == null) {
+            synchronized (processingStatistics) {
+                histogram = processingStatistics.get(type);
+                if (histogram == null) {
+                    String key = type;
+                    if (!dispatchTable.containsKey(type) &&
+                            (processingStatistics.size() >= MAX_PROCESSING_STATISTICS_ENTRIES)) {
+                        key = OTHER_EVENT_TYPES;
+                        histogram = processingStatistics.get(key);
+                    }
+                    if (histogram == null) {
+                        histogram = new LatencyHistogram(key);
+                        processingStatistics.put(key, histogram);
+                    }
+                }
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Return message processing statistics of this chain.
+     * @return processing count and latency histogram by event class name
+     */
+    public Map<String, LatencyHistogram> getProcessingStatistics() {
+        return Collections.unmodifiableMap(processingStatistics);
     }
 }
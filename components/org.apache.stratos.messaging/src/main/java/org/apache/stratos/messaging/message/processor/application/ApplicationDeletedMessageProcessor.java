@@ -37,6 +37,11 @@ public class ApplicationDeletedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+        return ApplicationDeletedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
 
@@ -43,6 +43,11 @@ public class ApplicationInstanceTerminatedMessageProcessor extends MessageProces
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+        return ApplicationInstanceTerminatedEvent.class.getName();
+    }
+
 
     @Override
     public boolean process(String type, String message, Object object) {
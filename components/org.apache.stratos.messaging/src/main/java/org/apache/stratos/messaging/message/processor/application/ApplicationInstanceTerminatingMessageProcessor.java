@@ -44,6 +44,11 @@ public class ApplicationInstanceTerminatingMessageProcessor extends MessageProce
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+        return ApplicationInstanceTerminatingEvent.class.getName();
+    }
+
 
     @Override
     public boolean process(String type, String message, Object object) {
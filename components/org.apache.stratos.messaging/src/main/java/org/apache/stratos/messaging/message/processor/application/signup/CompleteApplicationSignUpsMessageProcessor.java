@@ -41,6 +41,11 @@ public class CompleteApplicationSignUpsMessageProcessor extends MessageProcessor
          this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+         return CompleteApplicationSignUpsEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
 
@@ -34,6 +34,11 @@ public class ClusterStatusClusterTerminatingMessageProcessor extends MessageProc
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+        return ClusterStatusClusterTerminatingEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (ClusterStatusClusterTerminatingEvent.class.getName().equals(type)) {
@@ -39,6 +39,11 @@ public class AverageRequestsInFlightMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+        return AverageRequestsInFlightEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (AverageRequestsInFlightEvent.class.getName().equals(type)) {
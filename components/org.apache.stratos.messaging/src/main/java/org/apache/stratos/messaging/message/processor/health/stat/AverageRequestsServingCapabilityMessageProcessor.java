@@ -19,6 +19,11 @@ public class AverageRequestsServingCapabilityMessageProcessor  extends MessagePr
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+        return AverageRequestsServingCapabilityEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (AverageRequestsServingCapabilityEvent.class.getName().equals(type)) {
@@ -38,6 +38,11 @@ public class GradientOfMemoryConsumptionMessageProcessor extends MessageProcesso
       this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+      return GradientOfMemoryConsumptionEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (GradientOfMemoryConsumptionEvent.class.getName().equals(type)) {
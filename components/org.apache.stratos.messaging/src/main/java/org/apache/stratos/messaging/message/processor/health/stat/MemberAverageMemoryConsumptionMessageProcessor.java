@@ -38,6 +38,11 @@ public class MemberAverageMemoryConsumptionMessageProcessor extends MessageProce
       this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+      return MemberAverageMemoryConsumptionEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (MemberAverageMemoryConsumptionEvent.class.getName().equals(type)) {
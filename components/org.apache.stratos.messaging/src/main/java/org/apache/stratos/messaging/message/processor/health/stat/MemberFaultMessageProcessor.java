@@ -38,6 +38,11 @@ public class MemberFaultMessageProcessor extends MessageProcessor {
       this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+      return MemberFaultEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (MemberFaultEvent.class.getName().equals(type)) {
@@ -38,6 +38,11 @@ public class MemberGradientOfLoadAverageMessageProcessor extends MessageProcesso
       this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+      return MemberGradientOfLoadAverageEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (MemberGradientOfLoadAverageEvent.class.getName().equals(type)) {
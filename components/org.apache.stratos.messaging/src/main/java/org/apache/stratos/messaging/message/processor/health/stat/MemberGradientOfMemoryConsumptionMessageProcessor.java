@@ -39,6 +39,11 @@ public class MemberGradientOfMemoryConsumptionMessageProcessor extends MessagePr
       this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+      return MemberGradientOfMemoryConsumptionEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (MemberGradientOfMemoryConsumptionEvent.class.getName().equals(type)) {
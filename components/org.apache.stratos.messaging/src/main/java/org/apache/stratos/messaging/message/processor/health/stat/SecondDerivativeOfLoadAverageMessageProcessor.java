@@ -38,6 +38,11 @@ public class SecondDerivativeOfLoadAverageMessageProcessor extends MessageProces
       this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+      return SecondDerivativeOfLoadAverageEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (SecondDerivativeOfLoadAverageEvent.class.getName().equals(type)) {
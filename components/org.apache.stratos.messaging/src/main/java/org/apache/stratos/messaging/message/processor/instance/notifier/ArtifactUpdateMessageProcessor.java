@@ -39,6 +39,11 @@ public class ArtifactUpdateMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+        return ArtifactUpdatedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (ArtifactUpdatedEvent.class.getName().equals(type)) {
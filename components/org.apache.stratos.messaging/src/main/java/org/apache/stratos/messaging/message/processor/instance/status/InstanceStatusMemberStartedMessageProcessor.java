@@ -36,6 +36,11 @@ public class InstanceStatusMemberStartedMessageProcessor extends MessageProcesso
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+        return InstanceStartedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (InstanceStartedEvent.class.getName().equals(type)) {
@@ -44,6 +44,11 @@ public class TenantSubscribedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+        return TenantSubscribedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (TenantSubscribedEvent.class.getName().equals(type)) {
@@ -42,6 +42,11 @@ public class TenantUnSubscribedMessageProcessor extends MessageProcessor {
         this.nextProcessor = nextProcessor;
     }
 
+    @Override
+    public String getEventClassName() {
+        return TenantUnSubscribedEvent.class.getName();
+    }
+
     @Override
     public boolean process(String type, String message, Object object) {
         if (TenantUnSubscribedEvent.class.getName().equals(type)) {
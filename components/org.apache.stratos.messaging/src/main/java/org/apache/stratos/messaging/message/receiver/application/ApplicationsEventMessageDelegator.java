@@ -20,11 +20,14 @@ package org.apache.stratos.messaging.message.receiver.application;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.statistics.LatencyHistogram;
 import org.apache.stratos.messaging.domain.Message;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
 import org.apache.stratos.messaging.message.processor.application.ApplicationsMessageProcessorChain;
 
+import java.util.Map;
+
 public class ApplicationsEventMessageDelegator implements Runnable {
     private static final Log log = LogFactory.getLog(ApplicationsEventMessageDelegator.class);
 
@@ -146,4 +149,11 @@ public class ApplicationsEventMessageDelegator implements Runnable {
             this.message = message;
         }
     }
+
+    /**
+     * Return message processing statistics by event class name.
+     */
+    public Map<String, LatencyHistogram> getProcessingStatistics() {
+        return processorChain.getProcessingStatistics();
+    }
 }
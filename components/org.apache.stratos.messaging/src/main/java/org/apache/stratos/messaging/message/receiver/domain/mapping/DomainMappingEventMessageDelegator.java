@@ -21,11 +21,14 @@ package org.apache.stratos.messaging.message.receiver.domain.mapping;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.statistics.LatencyHistogram;
 import org.apache.stratos.messaging.domain.Message;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
 import org.apache.stratos.messaging.message.processor.domain.mapping.DomainMappingMessageProcessorChain;
 
+import java.util.Map;
+
 /**
  * Domain mapping event message delegator.
  */
@@ -90,4 +93,11 @@ class DomainMappingEventMessageDelegator implements Runnable {
     public void terminate() {
         terminated = true;
     }
+
+    /**
+     * Return message processing statistics by event class name.
+     */
+    public Map<String, LatencyHistogram> getProcessingStatistics() {
+        return processorChain.getProcessingStatistics();
+    }
 }
@@ -21,11 +21,13 @@ package org.apache.stratos.messaging.message.receiver.domain.mapping;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.statistics.LatencyHistogram;
 import org.apache.stratos.messaging.broker.subscribe.TopicSubscriber;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.util.Util;
 
 import java.util.concurrent.ExecutorService;
+import java.util.Map;
 
 /**
  * Domain mapping event receiver.
@@ -88,4 +90,11 @@ public class DomainMappingEventReceiver {
     public void setExecutorService(ExecutorService executorService) {
         this.executorService = executorService;
     }
+
+    /**
+     * Return processing count and latency of the messages received, by event class name.
+     */
+    public Map<String, LatencyHistogram> getProcessingStatistics() {
+        return messageDelegator.getProcessingStatistics();
+    }
 }
@@ -21,6 +21,7 @@ package org.apache.stratos.messaging.message.receiver.health.stat;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.statistics.LatencyHistogram;
 import org.apache.stratos.messaging.domain.Message;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
@@ -28,6 +29,8 @@ import org.apache.stratos.messaging.message.processor.health.stat.HealthStatMess
 
 import javax.jms.TextMessage;
 
+import java.util.Map;
+
 
 /**
  * Implements logic for processing health stat event messages based on a given
@@ -159,4 +162,11 @@ class HealthStatEventMessageDelegator implements Runnable {
             this.message = message;
         }
     }
+
+    /**
+     * Return message processing statistics by event class name.
+     */
+    public Map<String, LatencyHistogram> getProcessingStatistics() {
+        return processorChain.getProcessingStatistics();
+    }
 }
@@ -21,11 +21,14 @@ package org.apache.stratos.messaging.message.receiver.instance.status;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.statistics.LatencyHistogram;
 import org.apache.stratos.messaging.domain.Message;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
 import org.apache.stratos.messaging.message.processor.instance.status.InstanceStatusMessageProcessorChain;
 
+import java.util.Map;
+
 /**
  * Implements logic for processing instance notifier event messages based on a given
  * topology process chain.
@@ -89,4 +92,11 @@ class InstanceStatusEventMessageDelegator implements Runnable {
     public void terminate() {
         terminated = true;
     }
+
+    /**
+     * Return message processing statistics by event class name.
+     */
+    public Map<String, LatencyHistogram> getProcessingStatistics() {
+        return processorChain.getProcessingStatistics();
+    }
 }
@@ -20,27 +20,59 @@ package org.apache.stratos.messaging.message.receiver.topology;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.statistics.LatencyHistogram;
+import org.apache.stratos.messaging.broker.publish.EventPublisher;
+import org.apache.stratos.messaging.broker.publish.EventPublisherPool;
 import org.apache.stratos.messaging.domain.Message;
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.apache.stratos.messaging.event.initializer.CompleteTopologyRequestEvent;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
 import org.apache.stratos.messaging.listener.EventListener;
 import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
 import org.apache.stratos.messaging.message.processor.topology.TopologyMessageProcessorChain;
+import org.apache.stratos.messaging.message.processor.topology.updater.TopologyUpdater;
+import org.apache.stratos.messaging.util.Util;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 
 /**
  * Implements logic for processing topology event messages based on a given
  * topology process chain.
+ *
+ * Sequence numbers of the topology events are tracked to detect lost events. If a gap in
+ * the sequence is not filled within stratos.messaging.topology.resync.interval milliseconds,
+ * or the topology has not been initialized yet, a complete topology is requested from the
+ * cloud controller and the next complete topology event received replaces the topology.
+ * Events received afterwards whose sequence number is covered by the applied complete
+ * topology are dropped, their changes are already part of it.
+ * Requests could be disabled with stratos.messaging.topology.resync.enabled=false.
  */
 class TopologyEventMessageDelegator implements Runnable {
 
     private static final Log log = LogFactory.getLog(TopologyEventMessageDelegator.class);
 
+    private static final String RESYNC_ENABLED_PROPERTY = "stratos.messaging.topology.resync.enabled";
+    private static final String RESYNC_INTERVAL_PROPERTY = "stratos.messaging.topology.resync.interval";
+    private static final int DEFAULT_RESYNC_INTERVAL = 5000;
+    private static final int MAX_MISSING_EVENTS = 1000;
+    private static final long POLL_TIMEOUT = 1000;
+
     private MessageProcessorChain processorChain;
     private TopologyEventMessageQueue messageQueue;
     private boolean terminated;
+    private final boolean resyncEnabled;
+    private final int resyncInterval;
+    private final TopologySequenceTracker sequenceTracker;
+    private long lastResyncRequestTime;
 
     public TopologyEventMessageDelegator(TopologyEventMessageQueue messageQueue) {
         this.messageQueue = messageQueue;
         this.processorChain = new TopologyMessageProcessorChain();
+        this.resyncEnabled = Boolean.parseBoolean(System.getProperty(RESYNC_ENABLED_PROPERTY, "true"));
+        this.resyncInterval = Util.getNumericSystemProperty(DEFAULT_RESYNC_INTERVAL, RESYNC_INTERVAL_PROPERTY);
+        this.sequenceTracker = new TopologySequenceTracker(resyncInterval, MAX_MISSING_EVENTS);
     }
 
     public void addEventListener(EventListener eventListener) {
@@ -56,7 +88,11 @@ class TopologyEventMessageDelegator implements Runnable {
 
             while (!terminated) {
                 try {
-                    Message message = messageQueue.take();
+                    Message message = messageQueue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                    if (message == null) {
+                        requestCompleteTopologyIfRequired();
+                        continue;
+                    }
                     String type = message.getEventClassName();
 
                     // Retrieve the actual message
@@ -70,7 +106,23 @@ class TopologyEventMessageDelegator implements Runnable {
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Delegating topology event message: %s", type));
                     }
-                    processorChain.process(type, json, TopologyManager.getTopology());
+                    try {
+                        long sequenceNumber = TopologySequenceTracker.readSequenceNumber(json);
+                        if (CompleteTopologyEvent.class.getName().equals(type)) {
+                            processCompleteTopology(type, json, sequenceNumber);
+                        } else if (sequenceTracker.isContainedInSnapshot(sequenceNumber)) {
+                            if (log.isDebugEnabled()) {
+                                log.debug(String.format("Topology event already applied by complete topology, " +
+                                        "dropped: [type] %s [sequence-number] %d", type, sequenceNumber));
+                            }
+                        } else {
+                            sequenceTracker.eventReceived(sequenceNumber, System.currentTimeMillis());
+                            processorChain.process(type, json, TopologyManager.getTopology());
+                        }
+                    } finally {
+                        TopologyManager.topologyEventProcessed(messageQueue.isEmpty());
+                    }
+                    requestCompleteTopologyIfRequired();
                 } catch (InterruptedException ignore) {
                     log.info("Shutting down topology event message delegator...");
                     terminate();
@@ -85,10 +137,86 @@ class TopologyEventMessageDelegator implements Runnable {
         }
     }
 
+    /**
+     * Apply a complete topology event. It is applied if the topology has not been initialized
+     * yet, or events have been lost since the topology was initialized; in the latter case the
+     * current topology is replaced under the topology write lock.
+     */
+    private void processCompleteTopology(String type, String json, long sequenceNumber) {
+        Topology topology = TopologyManager.getTopology();
+        if (!topology.isInitialized()) {
+            processorChain.process(type, json, topology);
+            if (topology.isInitialized()) {
+                sequenceTracker.reset(sequenceNumber);
+            }
+            return;
+        }
+
+        if (!sequenceTracker.hasGap()) {
+            // Topology is up to date, listeners are still notified
+            processorChain.process(type, json, topology);
+            return;
+        }
+
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Re-initializing topology from complete topology event: " +
+                            "[last-sequence-number] %d [missing-events] %d [complete-topology-sequence-number] %d",
+                    sequenceTracker.getLastSequenceNumber(), sequenceTracker.getMissingEventCount(),
+                    sequenceNumber));
+        }
+        TopologyUpdater.acquireWriteLock();
+        try {
+            topology.clear();
+            topology.setInitialized(false);
+            processorChain.process(type, json, topology);
+        } finally {
+            TopologyUpdater.releaseWriteLock();
+        }
+        sequenceTracker.reset(sequenceNumber);
+    }
+
+    /**
+     * Request a complete topology from the cloud controller if the topology has not been
+     * initialized or events have been lost, at most once per resync interval.
+     */
+    private void requestCompleteTopologyIfRequired() {
+        if (!resyncEnabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (TopologyManager.getTopology().isInitialized() && !sequenceTracker.isResyncRequired(now)) {
+            return;
+        }
+        if (now - lastResyncRequestTime < resyncInterval) {
+            return;
+        }
+        lastResyncRequestTime = now;
+
+        try {
+            CompleteTopologyRequestEvent event = new CompleteTopologyRequestEvent(
+                    sequenceTracker.getLastSequenceNumber());
+            if (log.isInfoEnabled()) {
+                log.info(String.format("Requesting complete topology: %s", event));
+            }
+            EventPublisher eventPublisher = EventPublisherPool.getPublisher(Util.getMessageTopicName(event));
+            // Do not block the delegator if the message broker is not available, request is sent again later
+            eventPublisher.publish(event, false);
+        } catch (Exception e) {
+            log.warn("Could not send complete topology request", e);
+        }
+    }
+
     /**
      * Terminate topology event message delegator thread.
      */
     public void terminate() {
         terminated = true;
     }
+
+    /**
+     * Return message processing statistics by event class name.
+     */
+    public Map<String, LatencyHistogram> getProcessingStatistics() {
+        return processorChain.getProcessingStatistics();
+    }
 }
@@ -24,6 +24,9 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.domain.topology.Topology;
 import org.apache.stratos.messaging.domain.topology.locking.TopologyLock;
 import org.apache.stratos.messaging.domain.topology.locking.TopologyLockHierarchy;
+import org.apache.stratos.messaging.util.Util;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  *  A singleton class for managing the topology data structure.
@@ -57,6 +60,16 @@ import org.apache.stratos.messaging.domain.topology.locking.TopologyLockHierarch
  *
  *          releasing:
  *          public static void releaseReadLockForService (String serviceName)
+ *
+ *  Lock free reads:
+ *
+ *  If snapshots are enabled, once topology events are processed an immutable copy of the topology
+ *  is published, which could be read without acquiring any locks using getTopologySnapshot().
+ *  Snapshots are refreshed once the topology event queue has been drained, and at least every
+ *  stratos.messaging.topology.snapshot.maxAge milliseconds while processing a burst of events.
+ *  Since each snapshot copies the complete topology, snapshots are disabled by default and are
+ *  enabled by components reading the topology on their request path using setSnapshotEnabled(),
+ *  or using the stratos.messaging.topology.snapshot.enabled system property.
  */
 public class TopologyManager {
     private static final Log log = LogFactory.getLog(TopologyManager.class);
@@ -65,6 +78,16 @@ public class TopologyManager {
     private static volatile TopologyLockHierarchy topologyLockHierarchy =
             TopologyLockHierarchy.getInstance();
 
+    private static final String SNAPSHOT_ENABLED_PROPERTY = "stratos.messaging.topology.snapshot.enabled";
+    private static final String SNAPSHOT_MAX_AGE_PROPERTY = "stratos.messaging.topology.snapshot.maxAge";
+    private static final int DEFAULT_SNAPSHOT_MAX_AGE = 1000;
+
+    private static volatile boolean snapshotEnabled = Boolean.getBoolean(SNAPSHOT_ENABLED_PROPERTY);
+    private static final int snapshotMaxAge =
+            Util.getNumericSystemProperty(DEFAULT_SNAPSHOT_MAX_AGE, SNAPSHOT_MAX_AGE_PROPERTY);
+    private static final AtomicLong topologyVersion = new AtomicLong();
+    private static volatile TopologySnapshot topologySnapshot = new TopologySnapshot(new Topology(), 0);
+
     /**
      * Acquires read lock for the Complete Topology
      */
@@ -221,4 +244,85 @@ public class TopologyManager {
         }
         return topology;
     }
+
+    /**
+     * Return the latest immutable topology snapshot. Snapshots could be read without
+     * acquiring topology locks and may lag behind the topology while a burst of events
+     * is being processed.
+     *
+     * @return topology snapshot
+     */
+    public static TopologySnapshot getTopologySnapshot() {
+        return topologySnapshot;
+    }
+
+    /**
+     * Enable or disable publishing topology snapshots once topology events are processed. A snapshot
+     * of the current topology is published immediately when enabled.
+     *
+     * @param enabled true to publish topology snapshots
+     */
+    public static void setSnapshotEnabled(boolean enabled) {
+        snapshotEnabled = enabled;
+        if (enabled) {
+            updateTopologySnapshot();
+        }
+        if (log.isInfoEnabled()) {
+            log.info(String.format("Topology snapshots %s", enabled ? "enabled" : "disabled"));
+        }
+    }
+
+    public static boolean isSnapshotEnabled() {
+        return snapshotEnabled;
+    }
+
+    /**
+     * @return number of topology events processed
+     */
+    public static long getTopologyVersion() {
+        return topologyVersion.get();
+    }
+
+    /**
+     * Take a copy of the current topology and publish it as the latest snapshot. Components
+     * which update the topology without topology events should invoke this once updated.
+     *
+     * @return published topology snapshot
+     */
+    public static synchronized TopologySnapshot updateTopologySnapshot() {
+        try {
+            acquireReadLock();
+            long version = topologyVersion.get();
+            Topology copy = Util.getGson().fromJson(Util.getGson().toJsonTree(getTopology()), Topology.class);
+            TopologySnapshot snapshot = new TopologySnapshot(copy, version);
+            topologySnapshot = snapshot;
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Topology snapshot updated: [version] %d", version));
+            }
+            return snapshot;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    /**
+     * Invoked by the topology event message delegator once an event has been processed.
+     *
+     * @param queueDrained true if there are no more events waiting to be processed
+     */
+    static void topologyEventProcessed(boolean queueDrained) {
+        topologyVersion.incrementAndGet();
+        if (!snapshotEnabled) {
+            return;
+        }
+
+        long snapshotAge = System.currentTimeMillis() - topologySnapshot.getTimestamp();
+        if (queueDrained || (snapshotAge >= snapshotMaxAge)) {
+            try {
+                updateTopologySnapshot();
+            } catch (Exception e) {
+                log.error("Could not update topology snapshot", e);
+            }
+        }
+    }
 }
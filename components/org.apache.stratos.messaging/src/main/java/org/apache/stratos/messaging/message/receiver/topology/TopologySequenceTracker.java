@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver.topology;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Tracks sequence numbers of the topology events applied by a subscriber to detect
+ * lost events. Topology events of different types are published to different topics,
+ * hence they may arrive out of order; a missing sequence number is only considered
+ * lost if it does not arrive within the given timeout. A resync is also required if
+ * too many events are missing or the publisher has restarted with a new sequence.
+ * This class is not thread safe, it is used by the topology event message delegator.
+ */
+class TopologySequenceTracker {
+
+    private static final Log log = LogFactory.getLog(TopologySequenceTracker.class);
+
+    private static final String SEQUENCE_NUMBER_FIELD = "sequenceNumber";
+
+    private final long gapTimeout;
+    private final int maxMissingEvents;
+    private final SortedSet<Long> missingSequenceNumbers;
+    private long lastSequenceNumber;
+    private long snapshotSequenceNumber;
+    private long gapDetectedTime;
+    private boolean resyncRequired;
+
+    TopologySequenceTracker(long gapTimeout, int maxMissingEvents) {
+        this.gapTimeout = gapTimeout;
+        this.maxMissingEvents = maxMissingEvents;
+        this.missingSequenceNumbers = new TreeSet<Long>();
+    }
+
+    /**
+     * Start tracking from the sequence number of an applied complete topology event.
+     * @param sequenceNumber sequence number of the complete topology event
+     */
+    void reset(long sequenceNumber) {
+        lastSequenceNumber = sequenceNumber;
+        snapshotSequenceNumber = sequenceNumber;
+        missingSequenceNumbers.clear();
+        gapDetectedTime = 0;
+        resyncRequired = false;
+    }
+
+    /**
+     * Record a topology event received, events without a sequence number and events
+     * received before a complete topology event has been applied are ignored.
+     * @param sequenceNumber sequence number of the event
+     * @param time current time in milliseconds
+     */
+    void eventReceived(long sequenceNumber, long time) {
+        if ((sequenceNumber <= 0) || (lastSequenceNumber <= 0)) {
+            return;
+        }
+
+        long expected = lastSequenceNumber + 1;
+        if (sequenceNumber == expected) {
+            lastSequenceNumber = sequenceNumber;
+        } else if (sequenceNumber > expected) {
+            long gap = sequenceNumber - expected;
+            if (gap + missingSequenceNumbers.size() > maxMissingEvents) {
+                if (log.isWarnEnabled()) {
+                    log.warn(String.format("Topology event sequence gap is too large, resync required: " +
+                            "[expected] %d [received] %d", expected, sequenceNumber));
+                }
+                resyncRequired = true;
+            } else {
+                for (long missing = expected; missing < sequenceNumber; missing++) {
+                    missingSequenceNumbers.add(missing);
+                }
+                if (gapDetectedTime == 0) {
+                    gapDetectedTime = time;
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Topology event sequence gap detected: [expected] %d [received] %d",
+                            expected, sequenceNumber));
+                }
+            }
+            lastSequenceNumber = sequenceNumber;
+        } else if (missingSequenceNumbers.remove(sequenceNumber)) {
+            // A late event filled a gap
+            if (missingSequenceNumbers.isEmpty()) {
+                gapDetectedTime = 0;
+            }
+        } else if (lastSequenceNumber - sequenceNumber > maxMissingEvents) {
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Topology event sequence has been reset by the publisher, resync required: " +
+                        "[last] %d [received] %d", lastSequenceNumber, sequenceNumber));
+            }
+            resyncRequired = true;
+        }
+    }
+
+    /**
+     * Check whether an event is already contained in the last applied complete topology. Such
+     * events may still be buffered when a complete topology is applied and must not be applied
+     * again. Events far below the complete topology sequence number are not taken as contained,
+     * they are sent by a restarted publisher and detected as a sequence reset.
+     * @param sequenceNumber sequence number of the event
+     * @return true if the event should be dropped
+     */
+    boolean isContainedInSnapshot(long sequenceNumber) {
+        if ((sequenceNumber <= 0) || (snapshotSequenceNumber <= 0)) {
+            return false;
+        }
+        return (sequenceNumber <= snapshotSequenceNumber) &&
+                (snapshotSequenceNumber - sequenceNumber <= maxMissingEvents);
+    }
+
+    /**
+     * @return true if events are still missing
+     */
+    boolean hasGap() {
+        return resyncRequired || !missingSequenceNumbers.isEmpty();
+    }
+
+    /**
+     * @param time current time in milliseconds
+     * @return true if a complete topology is needed to recover from lost events
+     */
+    boolean isResyncRequired(long time) {
+        if (resyncRequired) {
+            return true;
+        }
+        return (gapDetectedTime > 0) && (time - gapDetectedTime >= gapTimeout);
+    }
+
+    long getLastSequenceNumber() {
+        return lastSequenceNumber;
+    }
+
+    int getMissingEventCount() {
+        return missingSequenceNumbers.size();
+    }
+
+    /**
+     * Read the sequence number of a topology event message without binding the whole message.
+     * Only the top level sequence number field of the event is read, values of the other fields
+     * are skipped, hence fields and values of nested objects are never taken for the sequence number.
+     * @param json topology event message
+     * @return sequence number or zero if the message does not have one
+     */
+    static long readSequenceNumber(String json) {
+        if (json == null) {
+            return 0;
+        }
+        JsonReader reader = new JsonReader(new StringReader(json));
+        try {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return 0;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (SEQUENCE_NUMBER_FIELD.equals(reader.nextName()) && (reader.peek() == JsonToken.NUMBER)) {
+                    return reader.nextLong();
+                }
+                reader.skipValue();
+            }
+            return 0;
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Could not read sequence number of topology event message", e);
+            }
+            return 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver.topology;
+
+import org.apache.stratos.messaging.domain.topology.Cluster;
+import org.apache.stratos.messaging.domain.topology.Service;
+import org.apache.stratos.messaging.domain.topology.Topology;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A point in time copy of the topology. Snapshots are never modified once published,
+ * hence they can be read without acquiring topology locks. Readers must not modify
+ * the topology objects returned by a snapshot.
+ */
+public class TopologySnapshot {
+
+    private final Topology topology;
+    private final long version;
+    private final long timestamp;
+    // Key: Cluster.clusterId
+    private final Map<String, Cluster> clusterIdClusterMap;
+
+    TopologySnapshot(Topology topology, long version) {
+        this.topology = topology;
+        this.version = version;
+        this.timestamp = System.currentTimeMillis();
+
+        Map<String, Cluster> clusterMap = new HashMap<String, Cluster>();
+        for (Service service : topology.getServices()) {
+            for (Cluster cluster : service.getClusters()) {
+                clusterMap.put(cluster.getClusterId(), cluster);
+            }
+        }
+        this.clusterIdClusterMap = clusterMap;
+    }
+
+    /**
+     * @return topology copy of this snapshot, must not be modified
+     */
+    public Topology getTopology() {
+        return topology;
+    }
+
+    public Collection<Service> getServices() {
+        return Collections.unmodifiableCollection(topology.getServices());
+    }
+
+    public Service getService(String serviceName) {
+        return topology.getService(serviceName);
+    }
+
+    /**
+     * Find a cluster by its id without knowing the service name.
+     * @param clusterId cluster id
+     * @return cluster or null if not found
+     */
+    public Cluster getCluster(String clusterId) {
+        return clusterIdClusterMap.get(clusterId);
+    }
+
+    public boolean isInitialized() {
+        return topology.isInitialized();
+    }
+
+    /**
+     * @return number of topology events processed when this snapshot was taken
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return time at which this snapshot was taken
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
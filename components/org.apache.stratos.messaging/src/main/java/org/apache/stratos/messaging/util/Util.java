@@ -22,7 +22,6 @@ import com.google.gson.Gson;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.stratos.messaging.event.Event;
-import org.apache.stratos.messaging.message.JsonMessage;
 import org.apache.commons.lang.math.NumberUtils;
 
 import java.io.File;
@@ -50,6 +49,10 @@ public class Util {
 	private static final int DEFAULT_AVERAGE_PING_INTERVAL = 1000;
 	private static final int DEFAULT_FAILOVER_PING_INTERVAL = 30000;
 
+	// Gson instances are thread safe and cache the type adapters they build, hence a single
+	// instance is shared for serializing and de-serializing all messages.
+	private static final Gson gson = new Gson();
+
 	// Time interval between each ping message sent to topic.
 	private static int averagePingInterval;
 	// Time interval between each ping message after an error had occurred.
@@ -67,7 +70,8 @@ public class Util {
 		APPLICATION_SIGNUP_TOPIC("application/signup/#"),
 		CLUSTER_STATUS_TOPIC("cluster/status/#"),
 		TENANT_TOPIC("tenant/#"),
-		DOMAIN_MAPPING_TOPIC("domain/mapping/#");
+		DOMAIN_MAPPING_TOPIC("domain/mapping/#"),
+		INITIALIZER_TOPIC("initializer/#");
 
 		private String topicName;
 
@@ -147,6 +151,15 @@ public class Util {
 	}
 
 
+	/**
+	 * Return the shared Gson instance used for message serialization.
+	 *
+	 * @return Gson instance
+	 */
+	public static Gson getGson() {
+		return gson;
+	}
+
 	/**
 	 * Transform json into an object of given type.
 	 *
@@ -155,7 +168,7 @@ public class Util {
 	 * @return Object of the json String
 	 */
 	public static Object jsonToObject(String json, Class type) {
-		return (new JsonMessage(json, type)).getObject();
+		return gson.fromJson(json, type);
 	}
 
 	/**
@@ -165,9 +178,7 @@ public class Util {
 	 * @return JSON string
 	 */
 	public static String ObjectToJson(Object obj) {
-		Gson gson = new Gson();
-		String result = gson.toJson(obj);
-		return result;
+		return gson.toJson(obj);
 	}
 
 	/**
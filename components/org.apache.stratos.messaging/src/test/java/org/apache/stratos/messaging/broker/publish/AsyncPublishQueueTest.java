@@ -0,0 +1,341 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.broker.publish;
+
+import org.apache.stratos.messaging.broker.connect.TopicPublisher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the ordering and overflow policies of the asynchronous publish queue.
+ */
+public class AsyncPublishQueueTest {
+
+    private static final String QUEUE_NAME = "async/publish/queue";
+    private static final String TOPIC_NAME = QUEUE_NAME + "/TestEvent";
+    private static final int QUEUE_CAPACITY = 5;
+    private static final String[] PROPERTIES = {
+            "stratos.messaging.publisher.async.queueCapacity",
+            "stratos.messaging.publisher.async.batchSize",
+            "stratos.messaging.publisher.async.overflowPolicy",
+            "stratos.messaging.publisher.async.spillDirectory",
+            "stratos.messaging.publisher.retryInterval"
+    };
+
+    private File spillDirectory;
+    private MockTopicPublisher topicPublisher;
+    private Publisher publisher;
+    private AsyncPublishQueue queue;
+
+    @Before
+    public void setUp() throws IOException {
+        spillDirectory = File.createTempFile("async-publish-queue-test", "");
+        spillDirectory.delete();
+        System.setProperty("stratos.messaging.publisher.async.queueCapacity", String.valueOf(QUEUE_CAPACITY));
+        System.setProperty("stratos.messaging.publisher.async.batchSize", "2");
+        System.setProperty("stratos.messaging.publisher.async.spillDirectory", spillDirectory.getAbsolutePath());
+        System.setProperty("stratos.messaging.publisher.retryInterval", "50");
+        topicPublisher = new MockTopicPublisher();
+        publisher = new Publisher(TOPIC_NAME, topicPublisher);
+    }
+
+    @After
+    public void tearDown() {
+        topicPublisher.release();
+        if (queue != null) {
+            queue.stop();
+        }
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+        delete(spillDirectory);
+    }
+
+    @Test
+    public void testDropWhenQueueFull() throws Exception {
+        queue = createQueue(OverflowPolicy.DROP);
+        fillQueue();
+
+        queue.enqueue(publisher, "message-6");
+        queue.enqueue(publisher, "message-7");
+        assertEquals(2, queue.getDroppedCount());
+        assertEquals(QUEUE_CAPACITY, queue.getQueueDepth());
+
+        topicPublisher.release();
+        awaitQueueDrained();
+        assertEquals(createMessages(0, 5), topicPublisher.getPublishedMessages());
+    }
+
+    @Test
+    public void testBlockWhenQueueFull() throws Exception {
+        queue = createQueue(OverflowPolicy.BLOCK);
+        fillQueue();
+
+        final CountDownLatch enqueued = new CountDownLatch(1);
+        Thread caller = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                queue.enqueue(publisher, "message-6");
+                enqueued.countDown();
+            }
+        });
+        caller.start();
+        assertFalse("Caller was not blocked on a full queue", enqueued.await(200, TimeUnit.MILLISECONDS));
+
+        topicPublisher.release();
+        assertTrue("Caller was not released", enqueued.await(5, TimeUnit.SECONDS));
+        awaitQueueDrained();
+        assertEquals(createMessages(0, 6), topicPublisher.getPublishedMessages());
+        assertEquals(0, queue.getDroppedCount());
+    }
+
+    @Test
+    public void testSpillWhenQueueFullAndDrainAfterSpill() throws Exception {
+        queue = createQueue(OverflowPolicy.SPILL);
+        fillQueue();
+
+        queue.enqueue(publisher, "message-6");
+        queue.enqueue(publisher, "message-7");
+        assertEquals(2, queue.getSpilledCount());
+        assertEquals(0, queue.getDroppedCount());
+        assertEquals(QUEUE_CAPACITY + 2, queue.getQueueDepth());
+        assertTrue("Spill file was not created", getSpillFile().exists());
+
+        // Messages received after spilling has started are spilled to keep the order
+        topicPublisher.release();
+        queue.enqueue(publisher, "message-8");
+        awaitQueueDrained();
+
+        assertEquals(createMessages(0, 8), topicPublisher.getPublishedMessages());
+        assertEquals(3, queue.getSpilledCount());
+        assertFalse("Spill file was not removed", getSpillFile().exists());
+
+        // Queue is used again once the spilled messages are published
+        queue.enqueue(publisher, "message-9");
+        awaitQueueDrained();
+        assertEquals(createMessages(0, 9), topicPublisher.getPublishedMessages());
+        assertEquals(3, queue.getSpilledCount());
+    }
+
+    @Test
+    public void testSpilledMessagesOfStoppedQueuePublishedFirst() throws Exception {
+        writeSpillFile(getSpillFile(), createMessages(0, 2));
+
+        topicPublisher.release();
+        queue = createQueue(OverflowPolicy.SPILL);
+        queue.enqueue(publisher, "message-3");
+        awaitQueueDrained();
+
+        assertEquals(createMessages(0, 3), topicPublisher.getPublishedMessages());
+        assertFalse("Spill file was not removed", getSpillFile().exists());
+    }
+
+    @Test
+    public void testSpilledMessagesOfOtherInstancesNotPublished() throws Exception {
+        String fileName = getSpillFile().getName();
+        File previousRunFile = new File(spillDirectory, fileName);
+        File otherInstanceFile = new File(new File(spillDirectory, "1234@other-host-1"), fileName);
+        writeSpillFile(previousRunFile, createMessages(0, 1));
+        writeSpillFile(otherInstanceFile, createMessages(2, 3));
+
+        topicPublisher.release();
+        queue = createQueue(OverflowPolicy.SPILL);
+        queue.enqueue(publisher, "message-4");
+        awaitQueueDrained();
+
+        assertEquals(createMessages(4, 4), topicPublisher.getPublishedMessages());
+        assertTrue("Spill file of a previous run was removed", previousRunFile.exists());
+        assertTrue("Spill file of another instance was removed", otherInstanceFile.exists());
+    }
+
+    @Test
+    public void testFailedBatchRetried() throws Exception {
+        topicPublisher.release();
+        topicPublisher.failures = 1;
+        queue = createQueue(OverflowPolicy.DROP);
+        queue.enqueue(publisher, "message-0");
+        awaitQueueDrained();
+
+        assertEquals(createMessages(0, 0), topicPublisher.getPublishedMessages());
+        assertEquals(1, publisher.getFailedCount());
+    }
+
+    @Test
+    public void testMessagesOfEventFamilyPublishedInOrder() throws Exception {
+        topicPublisher.release();
+        Publisher otherPublisher = new Publisher(QUEUE_NAME + "/OtherTestEvent", topicPublisher);
+        queue = createQueue(OverflowPolicy.DROP);
+        queue.enqueue(publisher, "message-0");
+        queue.enqueue(otherPublisher, "message-1");
+        queue.enqueue(otherPublisher, "message-2");
+        queue.enqueue(publisher, "message-3");
+        queue.enqueue(otherPublisher, "message-4");
+        awaitQueueDrained();
+
+        assertEquals(createMessages(0, 4), topicPublisher.getPublishedMessages());
+        assertEquals(2, publisher.getPublishedCount());
+        assertEquals(3, otherPublisher.getPublishedCount());
+    }
+
+    @Test
+    public void testQueueSharedByEventFamily() {
+        assertEquals("topology", AsyncPublishQueue.getQueueName("topology/MemberActivatedEvent"));
+        assertEquals("topology", AsyncPublishQueue.getQueueName("topology/MemberInitializedEvent"));
+        assertEquals("health/stat", AsyncPublishQueue.getQueueName("health/stat/MemberFaultEvent"));
+        assertEquals("summarized-health-stats", AsyncPublishQueue.getQueueName("summarized-health-stats"));
+    }
+
+    private AsyncPublishQueue createQueue(OverflowPolicy overflowPolicy) {
+        System.setProperty("stratos.messaging.publisher.async.overflowPolicy", overflowPolicy.name());
+        return new AsyncPublishQueue(QUEUE_NAME);
+    }
+
+    /**
+     * Hold the first message in the publisher and fill the queue up to its capacity.
+     */
+    private void fillQueue() throws InterruptedException {
+        queue.enqueue(publisher, "message-0");
+        assertTrue("Worker did not start publishing", topicPublisher.awaitPublishing());
+        for (int i = 1; i <= QUEUE_CAPACITY; i++) {
+            queue.enqueue(publisher, "message-" + i);
+        }
+        assertEquals(QUEUE_CAPACITY, queue.getQueueDepth());
+    }
+
+    private void awaitQueueDrained() throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 10000;
+        while ((queue.getQueueDepth() > 0) && (System.currentTimeMillis() < timeout)) {
+            Thread.sleep(10);
+        }
+        assertEquals("Queue was not drained", 0, queue.getQueueDepth());
+        // Last batch is removed from the queue before it is published
+        Thread.sleep(100);
+    }
+
+    private File getSpillFile() {
+        return new File(AsyncPublishQueue.getSpillDirectory(),
+                QUEUE_NAME.replaceAll("[^A-Za-z0-9._-]", "_") + ".spill");
+    }
+
+    private static void writeSpillFile(File file, List<String> messages) throws IOException {
+        file.getParentFile().mkdirs();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            for (String message : messages) {
+                writer.write(TOPIC_NAME + "\t" + message + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static List<String> createMessages(int from, int to) {
+        List<String> messages = new ArrayList<String>();
+        for (int i = from; i <= to; i++) {
+            messages.add("message-" + i);
+        }
+        return messages;
+    }
+
+    /**
+     * Topic publisher holding messages until released and failing the given number of publish calls.
+     */
+    private static class MockTopicPublisher implements TopicPublisher {
+
+        private final List<String> publishedMessages = Collections.synchronizedList(new ArrayList<String>());
+        private final CountDownLatch publishing = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private volatile int failures;
+        private volatile boolean connected;
+
+        @Override
+        public void publish(String topicName, String message) {
+            publishing.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            if (failures > 0) {
+                failures--;
+                throw new RuntimeException("Could not publish message");
+            }
+            publishedMessages.add(message);
+        }
+
+        boolean awaitPublishing() throws InterruptedException {
+            return publishing.await(5, TimeUnit.SECONDS);
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        List<String> getPublishedMessages() {
+            synchronized (publishedMessages) {
+                return new ArrayList<String>(publishedMessages);
+            }
+        }
+
+        @Override
+        public void create() {
+        }
+
+        @Override
+        public String getServerURI() {
+            return "mock://localhost";
+        }
+
+        @Override
+        public void connect() {
+            connected = true;
+        }
+
+        @Override
+        public void disconnect() {
+            connected = false;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+    }
+}
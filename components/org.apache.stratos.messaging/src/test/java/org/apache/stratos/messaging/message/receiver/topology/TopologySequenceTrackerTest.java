@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.message.receiver.topology;
+
+import org.apache.stratos.messaging.event.topology.MemberActivatedEvent;
+import org.apache.stratos.messaging.util.Util;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Topology event sequence tracker tests.
+ */
+@RunWith(JUnit4.class)
+public class TopologySequenceTrackerTest {
+
+    private static final long GAP_TIMEOUT = 5000;
+
+    @Test
+    public final void testEventsInSequence() {
+        TopologySequenceTracker tracker = new TopologySequenceTracker(GAP_TIMEOUT, 100);
+        tracker.reset(10);
+        tracker.eventReceived(11, 0);
+        tracker.eventReceived(12, 0);
+        Assert.assertFalse(tracker.hasGap());
+        Assert.assertFalse(tracker.isResyncRequired(Long.MAX_VALUE));
+        Assert.assertEquals(12, tracker.getLastSequenceNumber());
+    }
+
+    @Test
+    public final void testReorderedEventFillsGap() {
+        TopologySequenceTracker tracker = new TopologySequenceTracker(GAP_TIMEOUT, 100);
+        tracker.reset(10);
+        tracker.eventReceived(12, 1000);
+        Assert.assertTrue(tracker.hasGap());
+        Assert.assertFalse(tracker.isResyncRequired(1000));
+
+        tracker.eventReceived(11, 2000);
+        Assert.assertFalse(tracker.hasGap());
+        Assert.assertFalse(tracker.isResyncRequired(1000 + GAP_TIMEOUT));
+    }
+
+    @Test
+    public final void testEventsContainedInSnapshot() {
+        TopologySequenceTracker tracker = new TopologySequenceTracker(GAP_TIMEOUT, 100);
+        Assert.assertFalse(tracker.isContainedInSnapshot(5));
+
+        tracker.reset(10);
+        Assert.assertTrue(tracker.isContainedInSnapshot(9));
+        Assert.assertTrue(tracker.isContainedInSnapshot(10));
+        Assert.assertFalse(tracker.isContainedInSnapshot(11));
+        Assert.assertFalse(tracker.isContainedInSnapshot(0));
+
+        tracker.reset(1000);
+        // Far below the snapshot, sent by a restarted publisher
+        Assert.assertFalse(tracker.isContainedInSnapshot(1));
+    }
+
+    @Test
+    public final void testLostEventRequiresResync() {
+        TopologySequenceTracker tracker = new TopologySequenceTracker(GAP_TIMEOUT, 100);
+        tracker.reset(10);
+        tracker.eventReceived(13, 1000);
+        Assert.assertEquals(2, tracker.getMissingEventCount());
+        Assert.assertFalse(tracker.isResyncRequired(1000 + GAP_TIMEOUT - 1));
+        Assert.assertTrue(tracker.isResyncRequired(1000 + GAP_TIMEOUT));
+
+        tracker.reset(20);
+        Assert.assertFalse(tracker.hasGap());
+        Assert.assertFalse(tracker.isResyncRequired(Long.MAX_VALUE));
+    }
+
+    @Test
+    public final void testLargeGapRequiresResync() {
+        TopologySequenceTracker tracker = new TopologySequenceTracker(GAP_TIMEOUT, 100);
+        tracker.reset(10);
+        tracker.eventReceived(500, 1000);
+        Assert.assertTrue(tracker.isResyncRequired(1000));
+    }
+
+    @Test
+    public final void testPublisherRestartRequiresResync() {
+        TopologySequenceTracker tracker = new TopologySequenceTracker(GAP_TIMEOUT, 100);
+        tracker.reset(1000);
+        // Duplicate events are ignored
+        tracker.eventReceived(999, 0);
+        Assert.assertFalse(tracker.hasGap());
+
+        tracker.eventReceived(1, 0);
+        Assert.assertTrue(tracker.isResyncRequired(0));
+    }
+
+    @Test
+    public final void testUnsequencedEventsAreIgnored() {
+        TopologySequenceTracker tracker = new TopologySequenceTracker(GAP_TIMEOUT, 100);
+        // Not initialized from a complete topology yet
+        tracker.eventReceived(15, 0);
+        Assert.assertFalse(tracker.hasGap());
+
+        tracker.reset(10);
+        tracker.eventReceived(0, 0);
+        Assert.assertFalse(tracker.hasGap());
+    }
+
+    @Test
+    public final void testReadSequenceNumber() {
+        MemberActivatedEvent event = new MemberActivatedEvent("service", "cluster", "cluster-instance",
+                "member", "network-partition", "partition");
+        event.setSequenceNumber(1234567890123L);
+        String json = Util.ObjectToJson(event);
+        Assert.assertEquals(1234567890123L, TopologySequenceTracker.readSequenceNumber(json));
+
+        Assert.assertEquals(0, TopologySequenceTracker.readSequenceNumber("{\"serviceName\":\"service\"}"));
+        Assert.assertEquals(0, TopologySequenceTracker.readSequenceNumber(null));
+    }
+
+    @Test
+    public final void testReadSequenceNumberIgnoresNestedFields() {
+        // Nested objects and string values containing the field name are not taken for the sequence number
+        Assert.assertEquals(5, TopologySequenceTracker.readSequenceNumber(
+                "{\"topology\":{\"sequenceNumber\":9},\"sequenceNumber\":5}"));
+        Assert.assertEquals(5, TopologySequenceTracker.readSequenceNumber(
+                "{\"sequenceNumber\":5,\"properties\":[{\"sequenceNumber\":9}]}"));
+        Assert.assertEquals(0, TopologySequenceTracker.readSequenceNumber(
+                "{\"memberId\":\"\\\"sequenceNumber\\\":7\",\"topology\":{\"sequenceNumber\":9}}"));
+        Assert.assertEquals(0, TopologySequenceTracker.readSequenceNumber("{\"sequenceNumber\":"));
+        Assert.assertEquals(0, TopologySequenceTracker.readSequenceNumber("[1,2]"));
+    }
+}
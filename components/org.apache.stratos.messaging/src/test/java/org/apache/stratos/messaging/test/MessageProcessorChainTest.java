@@ -0,0 +1,151 @@
+/**
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+
+ *  http://www.apache.org/licenses/LICENSE-2.0
+
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.stratos.messaging.listener.EventListener;
+import org.apache.stratos.messaging.message.processor.MessageProcessor;
+import org.apache.stratos.messaging.message.processor.MessageProcessorChain;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message processor chain dispatch tests.
+ */
+@RunWith(JUnit4.class)
+public class MessageProcessorChainTest {
+
+    private static final List<String> visited = new ArrayList<String>();
+
+    @Before
+    public void setUp() {
+        visited.clear();
+    }
+
+    @Test
+    public final void testDirectDispatch() {
+        TestMessageProcessorChain chain = new TestMessageProcessorChain();
+
+        Assert.assertTrue(chain.process("event3", "{}", null));
+        // Only the processor of the event should be visited
+        Assert.assertEquals(1, visited.size());
+        Assert.assertEquals("event3", visited.get(0));
+        Assert.assertEquals(1, chain.getProcessingStatistics().get("event3").getCount());
+    }
+
+    @Test
+    public final void testChainWalkForUnindexedProcessor() {
+        TestMessageProcessorChain chain = new TestMessageProcessorChain();
+
+        // Custom processor without an event class name is reached by walking the chain
+        Assert.assertTrue(chain.process("custom", "{}", null));
+        Assert.assertEquals(4, visited.size());
+        Assert.assertEquals("custom", visited.get(3));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public final void testUnknownMessage() {
+        TestMessageProcessorChain chain = new TestMessageProcessorChain();
+        chain.process("unknown", "{}", null);
+    }
+
+    @Test
+    public final void testProcessingStatisticsBounded() {
+        TestMessageProcessorChain chain = new TestMessageProcessorChain();
+        for (int i = 0; i < 1000; i++) {
+            try {
+                chain.process("unknown" + i, "{}", null);
+            } catch (RuntimeException ignore) {
+            }
+        }
+        int size = chain.getProcessingStatistics().size();
+        Assert.assertTrue("Processing statistics are not bounded: " + size, size < 300);
+        Assert.assertTrue(chain.getProcessingStatistics().containsKey(MessageProcessorChain.OTHER_EVENT_TYPES));
+
+        // Event types of the chain are still recorded individually
+        Assert.assertTrue(chain.process("event2", "{}", null));
+        Assert.assertEquals(1, chain.getProcessingStatistics().get("event2").getCount());
+    }
+
+    @Test
+    public final void testProcessingStatisticsRemovedWithProcessor() {
+        TestMessageProcessorChain chain = new TestMessageProcessorChain();
+        chain.removeLast();
+        Assert.assertTrue(chain.process("event3", "{}", null));
+        Assert.assertTrue(chain.getProcessingStatistics().containsKey("event3"));
+
+        chain.removeLast();
+        Assert.assertFalse(chain.getProcessingStatistics().containsKey("event3"));
+    }
+
+    private static class TestMessageProcessorChain extends MessageProcessorChain {
+
+        @Override
+        protected void initialize() {
+            for (int i = 1; i <= 3; i++) {
+                add(new TestMessageProcessor("event" + i, true));
+            }
+            add(new TestMessageProcessor("custom", false));
+        }
+
+        @Override
+        public void addEventListener(EventListener eventListener) {
+        }
+    }
+
+    private static class TestMessageProcessor extends MessageProcessor {
+
+        private final String type;
+        private final boolean indexed;
+        private MessageProcessor nextProcessor;
+
+        TestMessageProcessor(String type, boolean indexed) {
+            this.type = type;
+            this.indexed = indexed;
+        }
+
+        @Override
+        public void setNext(MessageProcessor nextProcessor) {
+            this.nextProcessor = nextProcessor;
+        }
+
+        @Override
+        public String getEventClassName() {
+            return indexed ? type : null;
+        }
+
+        @Override
+        public boolean process(String type, String message, Object object) {
+            visited.add(this.type);
+            if (this.type.equals(type)) {
+                return true;
+            }
+            if (nextProcessor != null) {
+                return nextProcessor.process(type, message, object);
+            }
+            throw new RuntimeException("Failed to process message: " + type);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+
+ *  http://www.apache.org/licenses/LICENSE-2.0
+
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.stratos.messaging.test;
+
+import org.apache.stratos.messaging.domain.topology.*;
+import org.apache.stratos.messaging.message.receiver.topology.TopologyManager;
+import org.apache.stratos.messaging.message.receiver.topology.TopologySnapshot;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Topology snapshot tests.
+ */
+@RunWith(JUnit4.class)
+public class TopologySnapshotTest {
+
+    @Test
+    public final void testSnapshotIsIsolatedFromTopology() {
+        Topology topology = TopologyManager.getTopology();
+        Service service = new Service("snapshot-service", ServiceType.SingleTenant);
+        Cluster cluster = new Cluster("snapshot-service", "snapshot-cluster", "deployment-policy",
+                "autoscale-policy", "app1");
+        Member member = new Member("snapshot-service", "snapshot-cluster", "member1", "instance1",
+                "network-partition1", "partition1", System.currentTimeMillis());
+        member.setStatus(MemberStatus.Initialized);
+        cluster.addMember(member);
+        service.addCluster(cluster);
+        topology.addService(service);
+
+        TopologySnapshot snapshot = TopologyManager.updateTopologySnapshot();
+        Assert.assertSame(snapshot, TopologyManager.getTopologySnapshot());
+
+        Cluster snapshotCluster = snapshot.getCluster("snapshot-cluster");
+        Assert.assertNotNull(snapshotCluster);
+        Assert.assertNotSame(cluster, snapshotCluster);
+        Assert.assertSame(snapshotCluster, snapshot.getService("snapshot-service").getCluster("snapshot-cluster"));
+        Assert.assertEquals(MemberStatus.Initialized, snapshotCluster.getMember("member1").getStatus());
+
+        // Changes to the topology should not be visible in the snapshot taken earlier
+        member.setStatus(MemberStatus.Starting);
+        cluster.addMember(new Member("snapshot-service", "snapshot-cluster", "member2", "instance1",
+                "network-partition1", "partition1", System.currentTimeMillis()));
+        Assert.assertEquals(MemberStatus.Initialized, snapshotCluster.getMember("member1").getStatus());
+        Assert.assertNull(snapshotCluster.getMember("member2"));
+
+        TopologySnapshot nextSnapshot = TopologyManager.updateTopologySnapshot();
+        Assert.assertEquals(MemberStatus.Starting,
+                nextSnapshot.getCluster("snapshot-cluster").getMember("member1").getStatus());
+        Assert.assertNotNull(nextSnapshot.getCluster("snapshot-cluster").getMember("member2"));
+
+        topology.removeService("snapshot-service");
+    }
+}
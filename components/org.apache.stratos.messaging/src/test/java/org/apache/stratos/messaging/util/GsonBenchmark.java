@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.messaging.util;
+
+import com.google.gson.Gson;
+import org.apache.stratos.messaging.domain.topology.*;
+import org.apache.stratos.messaging.event.topology.CompleteTopologyEvent;
+import org.apache.stratos.messaging.event.topology.MemberActivatedEvent;
+
+/**
+ * Measures serialization and de-serialization time of messaging events using a new Gson instance
+ * per message and the Gson instance shared via {@link Util#getGson()}.
+ * This is not run as part of the build, run the main method from the module directory to execute it:
+ * java -cp ... org.apache.stratos.messaging.util.GsonBenchmark [messages] [members]
+ * The complete topology has 5000 members by default.
+ */
+public class GsonBenchmark {
+
+    private static final int MEMBERS_PER_CLUSTER = 100;
+
+    public static void main(String[] args) throws Exception {
+        int messageCount = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+        int memberCount = (args.length > 1) ? Integer.parseInt(args[1]) : 5000;
+
+        MemberActivatedEvent memberActivatedEvent = new MemberActivatedEvent("php", "php.cluster-0.domain",
+                "application-1-1", memberId(0), "network-partition-1", "partition-0");
+        CompleteTopologyEvent completeTopologyEvent = new CompleteTopologyEvent(createTopology(memberCount));
+        // Complete topology events are large, publish fewer of them
+        int topologyMessageCount = Math.max(1, messageCount / memberCount);
+
+        // Warm up
+        for (int i = 0; i < 2; i++) {
+            run(false, memberActivatedEvent, messageCount);
+            run(true, memberActivatedEvent, messageCount);
+            run(false, completeTopologyEvent, topologyMessageCount);
+            run(true, completeTopologyEvent, topologyMessageCount);
+        }
+
+        System.out.println(String.format("[messages] %d [members] %d", messageCount, memberCount));
+        print("member-activated", false, run(false, memberActivatedEvent, messageCount));
+        print("member-activated", true, run(true, memberActivatedEvent, messageCount));
+        print("complete-topology", false, run(false, completeTopologyEvent, topologyMessageCount));
+        print("complete-topology", true, run(true, completeTopologyEvent, topologyMessageCount));
+    }
+
+    private static void print(String event, boolean shared, Result result) {
+        System.out.println(String.format("Event %s, %s gson: %d messages, %d bytes, serialize %.2f us, " +
+                "de-serialize %.2f us", event, shared ? "shared" : "new", result.count, result.size,
+                result.serializeTime / 1000.0, result.deserializeTime / 1000.0));
+    }
+
+    private static Result run(boolean shared, Object event, int count) {
+        Result result = new Result();
+        result.count = count;
+        for (int i = 0; i < count; i++) {
+            long startTime = System.nanoTime();
+            String json = (shared ? Util.getGson() : new Gson()).toJson(event);
+            long serializedTime = System.nanoTime();
+            (shared ? Util.getGson() : new Gson()).fromJson(json, event.getClass());
+            long deserializedTime = System.nanoTime();
+
+            result.size = json.length();
+            result.serializeTime += serializedTime - startTime;
+            result.deserializeTime += deserializedTime - serializedTime;
+        }
+        result.serializeTime /= count;
+        result.deserializeTime /= count;
+        return result;
+    }
+
+    private static Topology createTopology(int memberCount) {
+        Topology topology = new Topology();
+        Service service = new Service("php", ServiceType.SingleTenant);
+        topology.addService(service);
+        Cluster cluster = null;
+        for (int i = 0; i < memberCount; i++) {
+            if ((i % MEMBERS_PER_CLUSTER) == 0) {
+                String clusterId = "php.cluster-" + (i / MEMBERS_PER_CLUSTER) + ".domain";
+                cluster = new Cluster(service.getServiceName(), clusterId, "deployment-policy-1",
+                        "autoscaling-policy-1", "application-1");
+                service.addCluster(cluster);
+            }
+            Member member = new Member(service.getServiceName(), cluster.getClusterId(), memberId(i),
+                    "application-1-1", "network-partition-1", "partition-" + (i % 3), System.currentTimeMillis());
+            member.setDefaultPrivateIP(privateIp(i));
+            cluster.addMember(member);
+        }
+        return topology;
+    }
+
+    private static String memberId(int index) {
+        return "php.member-" + index + ".4c5d6e7f-8a9b-0c1d-2e3f-4a5b6c7d8e9f";
+    }
+
+    private static String privateIp(int index) {
+        return "10.0." + (index / 256) + "." + (index % 256);
+    }
+
+    private static class Result {
+        private int count;
+        private long size;
+        private long serializeTime;
+        private long deserializeTime;
+    }
+}
@@ -333,6 +333,7 @@ public class ObjectConverter {
         autoscalePolicy.setIsPublic(autoscalePolicyBean.getIsPublic());
         autoscalePolicy.setDisplayName(autoscalePolicyBean.getDisplayName());
         autoscalePolicy.setInstanceRoundingFactor(autoscalePolicyBean.getInstanceRoundingFactor());
+        autoscalePolicy.setScalingDecisionEngine(autoscalePolicyBean.getScalingDecisionEngine());
 
         if (autoscalePolicyBean.getLoadThresholds() != null) {
 
@@ -845,6 +846,7 @@ public class ObjectConverter {
         autoscalePolicyBean.setDisplayName(autoscalePolicy.getDisplayName());
         autoscalePolicyBean.setDescription(autoscalePolicy.getDescription());
         autoscalePolicyBean.setInstanceRoundingFactor(autoscalePolicy.getInstanceRoundingFactor());
+        autoscalePolicyBean.setScalingDecisionEngine(autoscalePolicy.getScalingDecisionEngine());
         if (autoscalePolicy.getLoadThresholds() != null) {
             autoscalePolicyBean.setLoadThresholds(convertStubLoadThreasholdsToLoadThresholds(autoscalePolicy.getLoadThresholds()));
         }
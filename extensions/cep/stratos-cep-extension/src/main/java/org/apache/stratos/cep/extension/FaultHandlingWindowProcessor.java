@@ -220,7 +220,7 @@ public class FaultHandlingWindowProcessor extends WindowProcessor implements Run
                 member.getNetworkPartitionId(), 0);
 
         memberFaultEventMessageMap.put("message", memberFaultEvent);
-        healthStatPublisher.publish(MemberFaultEventMap, true);
+        healthStatPublisher.publishAsync(MemberFaultEventMap);
     }
 
     @Override
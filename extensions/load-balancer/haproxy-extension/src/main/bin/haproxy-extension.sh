@@ -42,6 +42,8 @@ properties="-Dhaproxy.private.ip=127.0.0.1
             -Dcluster.id=cluster
             -Dservice.name=service
             -Dload.balanced.service.type=lb-service-type
+            -Dincremental.reload.enabled=true
+            -Dreload.debounce.interval=2000
             -Dcep.stats.publisher.enabled=true"
 
 
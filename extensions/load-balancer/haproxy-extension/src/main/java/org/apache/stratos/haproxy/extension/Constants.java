@@ -36,6 +36,9 @@ public class Constants {
     public static final String NETWORK_PARTITION_ID = "network.partition.id";
     public static final String CLUSTER_ID = "cluster.id";
     public static final String SERVICE_NAME = "service.name";
+    public static final String INCREMENTAL_RELOAD_ENABLED = "incremental.reload.enabled";
+    public static final String RELOAD_DEBOUNCE_INTERVAL = "reload.debounce.interval";
+    public static final long DEFAULT_RELOAD_DEBOUNCE_INTERVAL = 2000;
 
     public static final String LOAD_BALANCER = "load.balancer";
     public static final String LOAD_BALANCER_REF = "load.balancer.ref";
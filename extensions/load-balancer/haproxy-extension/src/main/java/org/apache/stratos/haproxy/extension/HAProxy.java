@@ -21,6 +21,7 @@ package org.apache.stratos.haproxy.extension;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.stratos.common.threading.StratosThreadPool;
 import org.apache.stratos.common.util.CommandUtils;
 import org.apache.stratos.load.balancer.extension.api.LoadBalancer;
 import org.apache.stratos.load.balancer.extension.api.exception.LoadBalancerExtensionException;
@@ -29,10 +30,19 @@ import org.apache.stratos.messaging.domain.topology.Topology;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
- * HAProxy load balancer life-cycle implementation.
+ * HAProxy load balancer life-cycle implementation. If incremental reload is enabled, servers removed
+ * from backends are disabled using the stats socket and the remaining configuration changes are applied
+ * by reloads coalesced within the reload debounce interval.
  */
 public class HAProxy implements LoadBalancer {
     private static final Log log = LogFactory.getLog(HAProxy.class);
@@ -44,17 +54,37 @@ public class HAProxy implements LoadBalancer {
     private String templateName;
     private String confFilePath;
     private String statsSocketFilePath;
+    private String scriptsPath;
+    private boolean incrementalReloadEnabled;
+    private long reloadDebounceInterval;
+
+    private final Object reloadLock = new Object();
+    // Configuration last written to the configuration file
+    private HAProxyConfiguration writtenConfiguration;
+    // Configuration of the running haproxy process, excluding the servers disabled using the stats socket
+    private String liveSkeleton;
+    private Map<String, Map<String, String>> liveBackendToServersMap;
+    private ScheduledFuture<?> reloadFuture;
 
     public HAProxy() {
+        this(HAProxyContext.getInstance().getConfFilePath(),
+                HAProxyContext.getInstance().isIncrementalReloadEnabled(),
+                HAProxyContext.getInstance().getReloadDebounceInterval());
+    }
+
+    HAProxy(String confFilePath, boolean incrementalReloadEnabled, long reloadDebounceInterval) {
         this.executableFilePath = HAProxyContext.getInstance().getExecutableFilePath();
         this.templatePath = HAProxyContext.getInstance().getTemplatePath();
         this.templateName = HAProxyContext.getInstance().getTemplateName();
-        this.confFilePath = HAProxyContext.getInstance().getConfFilePath();
+        this.confFilePath = confFilePath;
         this.processIdFilePath = confFilePath.replace(".cfg", ".pid");
         this.statsSocketFilePath = HAProxyContext.getInstance().getStatsSocketFilePath();
+        this.scriptsPath = HAProxyContext.getInstance().getScriptsPath();
+        this.incrementalReloadEnabled = incrementalReloadEnabled;
+        this.reloadDebounceInterval = reloadDebounceInterval;
     }
 
-    private void reloadConfiguration() throws LoadBalancerExtensionException {
+    void reloadConfiguration() throws LoadBalancerExtensionException {
 
         try {
             if (log.isInfoEnabled()) {
@@ -84,11 +114,146 @@ public class HAProxy implements LoadBalancer {
     }
 
     public void reload(Topology topology) throws LoadBalancerExtensionException {
-        if(log.isDebugEnabled()) {
-           log.info("Reconfigure and Reload the Load Balancer ");
+        if (!incrementalReloadEnabled) {
+            if(log.isDebugEnabled()) {
+               log.info("Reconfigure and Reload the Load Balancer ");
+            }
+            configure(topology);
+            synchronized (reloadLock) {
+                reloadConfiguration();
+                setLiveConfiguration(writtenConfiguration);
+            }
+            return;
+        }
+        applyConfiguration(generateConfiguration(topology));
+    }
+
+    /**
+     * Write the given configuration and apply it to the running haproxy process, server removals are applied
+     * using the stats socket and the remaining changes by a coalesced reload.
+     */
+    void applyConfiguration(HAProxyConfiguration configuration) throws LoadBalancerExtensionException {
+        synchronized (reloadLock) {
+            if ((writtenConfiguration != null) && configuration.getContent().equals(writtenConfiguration.getContent())) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Configuration not changed, reload skipped");
+                }
+                return;
+            }
+            writeConfiguration(configuration);
+
+            boolean reloadRequired = (liveSkeleton == null) || !liveSkeleton.equals(configuration.getSkeleton());
+            if (liveBackendToServersMap != null) {
+                // Disable removed servers using the stats socket
+                for (Map.Entry<String, Map<String, String>> entry : liveBackendToServersMap.entrySet()) {
+                    String backendId = entry.getKey();
+                    Map<String, String> servers = configuration.getBackendToServersMap().get(backendId);
+                    Iterator<String> serverNames = entry.getValue().keySet().iterator();
+                    while (serverNames.hasNext()) {
+                        String serverName = serverNames.next();
+                        if ((servers == null) || !servers.containsKey(serverName)) {
+                            if (disableServer(backendId, serverName)) {
+                                serverNames.remove();
+                            } else {
+                                reloadRequired = true;
+                            }
+                        }
+                    }
+                }
+
+                // Servers added or moved can only be applied by a reload
+                for (Map.Entry<String, Map<String, String>> entry : configuration.getBackendToServersMap().entrySet()) {
+                    Map<String, String> liveServers = liveBackendToServersMap.get(entry.getKey());
+                    for (Map.Entry<String, String> server : entry.getValue().entrySet()) {
+                        if ((liveServers == null) || !server.getValue().equals(liveServers.get(server.getKey()))) {
+                            reloadRequired = true;
+                        }
+                    }
+                }
+            }
+
+            if (reloadRequired) {
+                scheduleReload();
+            } else if (log.isInfoEnabled()) {
+                log.info("Configuration changes applied using the stats socket");
+            }
+        }
+    }
+
+    /**
+     * Reload the configuration once the reload debounce interval is elapsed, reload requests received
+     * until then are served by the same reload.
+     */
+    private void scheduleReload() {
+        if (reloadFuture != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Reload already scheduled");
+            }
+            return;
+        }
+        ScheduledExecutorService scheduler = StratosThreadPool.getScheduledExecutorService("haproxy.reload.scheduler", 1);
+        reloadFuture = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (reloadLock) {
+                    reloadFuture = null;
+                    try {
+                        reloadConfiguration();
+                        setLiveConfiguration(writtenConfiguration);
+                    } catch (Exception e) {
+                        // Written configuration is not running, the next configuration received is applied
+                        // again even if it is not changed
+                        writtenConfiguration = null;
+                        log.error("Could not reload haproxy configuration", e);
+                    }
+                }
+            }
+        }, reloadDebounceInterval, TimeUnit.MILLISECONDS);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Reload scheduled: [delay] %d ms", reloadDebounceInterval));
+        }
+    }
+
+    boolean disableServer(String backendId, String serverName) {
+        // echo "disable server <backend>/<server>" | socat stdio <stats-socket>
+        String command = String.format("%s/disable-server.sh %s %s %s", scriptsPath, backendId, serverName,
+                statsSocketFilePath);
+        try {
+            // The stats socket answers a successful command with an empty line, otherwise with the reason
+            // e.g. "Permission denied" if the socket is not opened at admin level
+            String output = executeStatsSocketCommand(command);
+            if ((output != null) && (output.trim().length() > 0)) {
+                if (log.isWarnEnabled()) {
+                    log.warn(String.format("Could not disable server: [backend] %s [server] %s [output] %s",
+                            backendId, serverName, output.trim()));
+                }
+                return false;
+            }
+            if (log.isInfoEnabled()) {
+                log.info(String.format("Server disabled: [backend] %s [server] %s", backendId, serverName));
+            }
+            return true;
+        } catch (Exception e) {
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Could not disable server: [backend] %s [server] %s", backendId, serverName), e);
+            }
+            return false;
+        }
+    }
+
+    String executeStatsSocketCommand(String command) throws IOException {
+        return CommandUtils.executeCommand(command);
+    }
+
+    private void setLiveConfiguration(HAProxyConfiguration configuration) {
+        if (configuration == null) {
+            return;
+        }
+        liveSkeleton = configuration.getSkeleton();
+        liveBackendToServersMap = new LinkedHashMap<String, Map<String, String>>();
+        for (Map.Entry<String, Map<String, String>> entry : configuration.getBackendToServersMap().entrySet()) {
+            liveBackendToServersMap.put(entry.getKey(), new LinkedHashMap<String, String>(entry.getValue()));
         }
-        configure(topology);
-        reloadConfiguration();
     }
 
     public void configure(Topology topology) throws LoadBalancerExtensionException {
@@ -98,12 +263,15 @@ public class HAProxy implements LoadBalancer {
                 log.info("Configuring haproxy instance...");
             }
 
-            HAProxyConfigWriter writer = new HAProxyConfigWriter(templatePath, templateName, confFilePath, statsSocketFilePath);
-            writer.write(topology);
+            synchronized (reloadLock) {
+                writeConfiguration(generateConfiguration(topology));
+            }
 
             if (log.isInfoEnabled()) {
                 log.info("Configuration done");
             }
+        } catch (LoadBalancerExtensionException e) {
+            throw e;
         } catch (Exception e) {
             if (log.isErrorEnabled()) {
                 log.error("Could not configure haproxy");
@@ -112,6 +280,35 @@ public class HAProxy implements LoadBalancer {
         }
     }
 
+    private HAProxyConfiguration generateConfiguration(Topology topology) throws LoadBalancerExtensionException {
+        try {
+            return createConfigWriter().generate(topology);
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("Could not generate haproxy configuration");
+            }
+            throw new LoadBalancerExtensionException(e);
+        }
+    }
+
+    private void writeConfiguration(HAProxyConfiguration configuration) throws LoadBalancerExtensionException {
+        try {
+            createConfigWriter().write(configuration);
+            writtenConfiguration = configuration;
+        } catch (Exception e) {
+            if (log.isErrorEnabled()) {
+                log.error("Could not write haproxy configuration");
+            }
+            throw new LoadBalancerExtensionException(e);
+        }
+    }
+
+    private HAProxyConfigWriter createConfigWriter() {
+        // Servers can only be disabled using a stats socket opened at admin level
+        return new HAProxyConfigWriter(templatePath, templateName, confFilePath, statsSocketFilePath,
+                incrementalReloadEnabled);
+    }
+
     public void start() throws LoadBalancerExtensionException {
 
         // Check for configuration file
@@ -124,6 +321,9 @@ public class HAProxy implements LoadBalancer {
         try {
             String command = executableFilePath + " -f " + confFilePath + " -p " + processIdFilePath;
             CommandUtils.executeCommand(command);
+            synchronized (reloadLock) {
+                setLiveConfiguration(writtenConfiguration);
+            }
             if (log.isInfoEnabled()) {
                 log.info("haproxy started");
             }
@@ -137,6 +337,12 @@ public class HAProxy implements LoadBalancer {
 
     public void stop() throws LoadBalancerExtensionException {
 
+        synchronized (reloadLock) {
+            if (reloadFuture != null) {
+                reloadFuture.cancel(false);
+                reloadFuture = null;
+            }
+        }
         try {
             // Read the PIDs
             Vector<String> pids = new Vector<String>();
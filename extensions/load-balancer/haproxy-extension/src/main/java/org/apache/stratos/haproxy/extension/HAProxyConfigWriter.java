@@ -32,6 +32,8 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * HAProxy load balancer configuration writer.
@@ -44,6 +46,7 @@ public class HAProxyConfigWriter {
     private String templateName;
     private String confFilePath;
     private String statsSocketFilePath;
+    private boolean statsSocketAdminLevel;
 
     // Prepare frontend http collection
     private StringBuilder frontEndHttp = new StringBuilder();
@@ -54,6 +57,9 @@ public class HAProxyConfigWriter {
     // Prepare backend https collection
     private StringBuilder backEndHttps = new StringBuilder();
 
+    // Server addresses by server name by backend id
+    private Map<String, Map<String, String>> backendToServersMap = new LinkedHashMap<String, Map<String, String>>();
+
     private String frontEndHttpId, frontEndHttpsId;
     private boolean frontEndHttpAdded, frontEndHttpsAdded;
 
@@ -61,17 +67,37 @@ public class HAProxyConfigWriter {
     private String loadBalancedServiceType; // Service type if load balancer is a service aware
 
     public HAProxyConfigWriter(String templatePath, String templateName, String confFilePath, String statsSocketFilePath) {
+        this(templatePath, templateName, confFilePath, statsSocketFilePath, false);
+    }
+
+    /**
+     * @param statsSocketAdminLevel open the stats socket at admin level, required for disabling servers
+     *                              using the stats socket
+     */
+    public HAProxyConfigWriter(String templatePath, String templateName, String confFilePath, String statsSocketFilePath,
+                               boolean statsSocketAdminLevel) {
         this.templatePath = templatePath;
         this.templateName = templateName;
         this.confFilePath = confFilePath;
         this.statsSocketFilePath = statsSocketFilePath;
+        this.statsSocketAdminLevel = statsSocketAdminLevel;
     }
 
     public void write(Topology topology) {
+        write(generate(topology));
+    }
+
+    /**
+     * Generate the configuration of the given topology without writing it to the configuration file.
+     */
+    public HAProxyConfiguration generate(Topology topology) {
         // Prepare global parameters
         StringBuilder globalParameters = new StringBuilder();
         globalParameters.append("stats socket ");
         globalParameters.append(statsSocketFilePath);
+        if (statsSocketAdminLevel) {
+            globalParameters.append(" level admin");
+        }
 
         frontEndHttpId = "http_frontend";
         frontEndHttpsId = "https_frontend";
@@ -136,12 +162,14 @@ public class HAProxyConfigWriter {
         // Create a new string from the template
         StringWriter stringWriter = new StringWriter();
         t.merge(context, stringWriter);
-        String configuration = stringWriter.toString();
+        return new HAProxyConfiguration(stringWriter.toString(), backendToServersMap);
+    }
 
+    public void write(HAProxyConfiguration configuration) {
         // Write configuration file
         try {
             BufferedWriter writer = new BufferedWriter(new FileWriter(confFilePath));
-            writer.write(configuration);
+            writer.write(configuration.getContent());
             writer.close();
 
             if (log.isInfoEnabled()) {
@@ -180,6 +208,8 @@ public class HAProxyConfigWriter {
                         if (member.getNetworkPartitionId().equals(HAProxyContext.getInstance().getNetworkPartitionId())) {
                             backEndHttp.append("\tserver ").append(member.getMemberId()).append(" ")
                                     .append(member.getDefaultPrivateIP()).append(":").append(port.getValue()).append(NEW_LINE);
+                            addServer(hostname + "-http-members", member.getMemberId(),
+                                    member.getDefaultPrivateIP() + ":" + port.getValue());
                         }
                     }
                     backEndHttp.append(NEW_LINE);
@@ -203,6 +233,8 @@ public class HAProxyConfigWriter {
                         if (member.getNetworkPartitionId().equals(HAProxyContext.getInstance().getNetworkPartitionId())) {
                             backEndHttps.append("\tserver ").append(member.getMemberId()).append(" ")
                                     .append(member.getDefaultPrivateIP()).append(":").append(port.getValue()).append(NEW_LINE);
+                            addServer(hostname + "-http-members", member.getMemberId(),
+                                    member.getDefaultPrivateIP() + ":" + port.getValue());
                         }
                     }
                     backEndHttps.append(NEW_LINE);
@@ -210,4 +242,15 @@ public class HAProxyConfigWriter {
             }
         }
     }
+
+    private void addServer(String backendId, String serverName, String address) {
+        Map<String, String> servers = backendToServersMap.get(backendId);
+        if (servers == null) {
+            servers = new LinkedHashMap<String, String>();
+            backendToServersMap.put(backendId, servers);
+        }
+        // http and https backends of a host name share the same backend id
+        String existingAddress = servers.get(serverName);
+        servers.put(serverName, (existingAddress == null) ? address : (existingAddress + "," + address));
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.haproxy.extension;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * HAProxy configuration generated for a topology together with the servers of its backends.
+ */
+public class HAProxyConfiguration {
+    private static final String NEW_LINE = System.getProperty("line.separator");
+    private static final String SERVER_LINE_PREFIX = "\tserver ";
+
+    private final String content;
+    private final Map<String, Map<String, String>> backendToServersMap;
+    private String skeleton;
+
+    /**
+     * @param content             configuration file content
+     * @param backendToServersMap server addresses by server name by backend id
+     */
+    public HAProxyConfiguration(String content, Map<String, Map<String, String>> backendToServersMap) {
+        this.content = content;
+        this.backendToServersMap = Collections.unmodifiableMap(backendToServersMap);
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public Map<String, Map<String, String>> getBackendToServersMap() {
+        return backendToServersMap;
+    }
+
+    /**
+     * @return configuration content without the server lines of the backends, configurations having the same
+     * skeleton only differ by their servers
+     */
+    public synchronized String getSkeleton() {
+        if (skeleton == null) {
+            StringBuilder builder = new StringBuilder(content.length());
+            for (String line : content.split("\r?\n")) {
+                if (!line.startsWith(SERVER_LINE_PREFIX)) {
+                    builder.append(line).append(NEW_LINE);
+                }
+            }
+            skeleton = builder.toString();
+        }
+        return skeleton;
+    }
+}
@@ -44,6 +44,8 @@ public class HAProxyContext {
     private String clusterId;
     private String serviceName;
     private String lbserviceType;
+    private boolean incrementalReloadEnabled;
+    private long reloadDebounceInterval;
 
     private HAProxyContext() {
         this.haProxyPrivateIp = System.getProperty(Constants.HAPROXY_PRIVATE_IP);
@@ -60,6 +62,9 @@ public class HAProxyContext {
         this.clusterId = System.getProperty(Constants.CLUSTER_ID);
         this.serviceName = System.getProperty(Constants.SERVICE_NAME);
         this.lbserviceType = System.getProperty(Constants.LB_SERVICE_TYPE);
+        this.incrementalReloadEnabled = Boolean.getBoolean(Constants.INCREMENTAL_RELOAD_ENABLED);
+        this.reloadDebounceInterval = Long.getLong(Constants.RELOAD_DEBOUNCE_INTERVAL,
+                Constants.DEFAULT_RELOAD_DEBOUNCE_INTERVAL);
 
         if (log.isDebugEnabled()) {
             log.debug(Constants.HAPROXY_PRIVATE_IP + " = " + haProxyPrivateIp);
@@ -74,6 +79,8 @@ public class HAProxyContext {
             log.debug(Constants.THRIFT_RECEIVER_PORT + " = " + thriftReceiverPort);
             log.debug(Constants.NETWORK_PARTITION_ID + " = " + networkPartitionId);
             log.debug(Constants.CLUSTER_ID + " = " + clusterId);
+            log.debug(Constants.INCREMENTAL_RELOAD_ENABLED + " = " + incrementalReloadEnabled);
+            log.debug(Constants.RELOAD_DEBOUNCE_INTERVAL + " = " + reloadDebounceInterval);
         }
     }
 
@@ -158,4 +165,16 @@ public class HAProxyContext {
     }
 
     public String getLbserviceType() { return  lbserviceType;}
+
+    /**
+     * @return true if member changes should be applied using the stats socket where possible and the remaining
+     * reloads should be coalesced
+     */
+    public boolean isIncrementalReloadEnabled() {
+        return incrementalReloadEnabled;
+    }
+
+    public long getReloadDebounceInterval() {
+        return reloadDebounceInterval;
+    }
 }
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.haproxy.extension;
+
+import org.apache.stratos.messaging.domain.topology.Topology;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the skeleton of the haproxy configuration used to decide whether a configuration change requires a reload
+ * and the stats socket level of the generated configuration.
+ */
+public class HAProxyConfigurationTest {
+
+    static final String BACKEND_ID = "app.example.org-http-members";
+
+    @Test
+    public void testSkeletonExcludesServerLines() {
+        HAProxyConfiguration configuration = createConfiguration(80, BACKEND_ID,
+                "member-1", "10.0.0.1:8080", "member-2", "10.0.0.2:8080");
+        String skeleton = configuration.getSkeleton();
+
+        assertTrue(configuration.getContent().contains("server member-1 10.0.0.1:8080"));
+        assertFalse(skeleton.contains("server member-1"));
+        assertFalse(skeleton.contains("server member-2"));
+        assertTrue(skeleton.contains("backend " + BACKEND_ID));
+        assertTrue(skeleton.contains("bind 10.0.0.10:80"));
+        assertSame(skeleton, configuration.getSkeleton());
+    }
+
+    @Test
+    public void testConfigurationsDifferingByServersHaveSameSkeleton() {
+        HAProxyConfiguration configuration = createConfiguration(80, BACKEND_ID, "member-1", "10.0.0.1:8080");
+        HAProxyConfiguration memberAdded = createConfiguration(80, BACKEND_ID,
+                "member-1", "10.0.0.1:8080", "member-2", "10.0.0.2:8080");
+        HAProxyConfiguration memberRemoved = createConfiguration(80, BACKEND_ID);
+
+        assertFalse(configuration.getContent().equals(memberAdded.getContent()));
+        assertEquals(configuration.getSkeleton(), memberAdded.getSkeleton());
+        assertEquals(configuration.getSkeleton(), memberRemoved.getSkeleton());
+    }
+
+    @Test
+    public void testPortOrClusterChangeChangesSkeleton() {
+        HAProxyConfiguration configuration = createConfiguration(80, BACKEND_ID, "member-1", "10.0.0.1:8080");
+        HAProxyConfiguration proxyPortChanged = createConfiguration(8280, BACKEND_ID, "member-1", "10.0.0.1:8080");
+        HAProxyConfiguration clusterChanged = createConfiguration(80, "other.example.org-http-members",
+                "member-1", "10.0.0.1:8080");
+
+        assertFalse(configuration.getSkeleton().equals(proxyPortChanged.getSkeleton()));
+        assertFalse(configuration.getSkeleton().equals(clusterChanged.getSkeleton()));
+    }
+
+    @Test
+    public void testBackendToServersMap() {
+        HAProxyConfiguration configuration = createConfiguration(80, BACKEND_ID,
+                "member-1", "10.0.0.1:8080", "member-2", "10.0.0.2:8080");
+        Map<String, String> servers = configuration.getBackendToServersMap().get(BACKEND_ID);
+
+        assertEquals(2, servers.size());
+        assertEquals("10.0.0.1:8080", servers.get("member-1"));
+        assertEquals("10.0.0.2:8080", servers.get("member-2"));
+        try {
+            configuration.getBackendToServersMap().clear();
+            fail("Backend to servers map should not be modifiable");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    @Test
+    public void testStatsSocketLevel() {
+        String content = createConfigWriter(true).generate(new Topology()).getContent();
+        assertTrue(content.contains("stats socket /tmp/haproxy-stats.socket level admin"));
+
+        content = createConfigWriter(false).generate(new Topology()).getContent();
+        assertTrue(content.contains("stats socket /tmp/haproxy-stats.socket"));
+        assertFalse(content.contains("level admin"));
+    }
+
+    private static HAProxyConfigWriter createConfigWriter(boolean statsSocketAdminLevel) {
+        return new HAProxyConfigWriter("src/main/templates", "haproxy.cfg.template", "/tmp/haproxy-test.cfg",
+                "/tmp/haproxy-stats.socket", statsSocketAdminLevel);
+    }
+
+    /**
+     * Create a configuration with a http frontend and a single backend in the layout of the haproxy template.
+     *
+     * @param proxyPort       port of the http frontend
+     * @param backendId       id of the backend
+     * @param serverAddresses server names followed by their addresses
+     */
+    static HAProxyConfiguration createConfiguration(int proxyPort, String backendId, String... serverAddresses) {
+        Map<String, String> servers = new LinkedHashMap<String, String>();
+        StringBuilder content = new StringBuilder();
+        content.append("global\n");
+        content.append("\tstats socket /tmp/haproxy-stats.socket\n");
+        content.append("frontend http_frontend\n");
+        content.append("\tbind 10.0.0.10:").append(proxyPort).append("\n");
+        content.append("\tmode http\n");
+        content.append("\tuse_backend ").append(backendId).append("\n");
+        content.append("backend ").append(backendId).append("\n");
+        content.append("\tmode http\n");
+        for (int i = 0; i < serverAddresses.length; i += 2) {
+            content.append("\tserver ").append(serverAddresses[i]).append(" ").append(serverAddresses[i + 1])
+                    .append("\n");
+            servers.put(serverAddresses[i], serverAddresses[i + 1]);
+        }
+        content.append("\n");
+
+        Map<String, Map<String, String>> backendToServersMap = new LinkedHashMap<String, Map<String, String>>();
+        backendToServersMap.put(backendId, servers);
+        return new HAProxyConfiguration(content.toString(), backendToServersMap);
+    }
+}
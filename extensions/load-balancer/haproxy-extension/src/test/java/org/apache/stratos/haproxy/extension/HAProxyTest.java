@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.stratos.haproxy.extension;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.stratos.load.balancer.extension.api.exception.LoadBalancerExtensionException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.stratos.haproxy.extension.HAProxyConfigurationTest.BACKEND_ID;
+import static org.apache.stratos.haproxy.extension.HAProxyConfigurationTest.createConfiguration;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the decision between applying configuration changes using the stats socket and reloading haproxy
+ * when incremental reload is enabled.
+ */
+public class HAProxyTest {
+
+    private static final long RELOAD_DEBOUNCE_INTERVAL = 200;
+
+    private File confFile;
+    private MockHAProxy haProxy;
+
+    @Before
+    public void setUp() throws Exception {
+        confFile = File.createTempFile("haproxy-test", ".cfg");
+        haProxy = new MockHAProxy(confFile.getAbsolutePath());
+
+        // Initial configuration is applied by a reload
+        haProxy.applyConfiguration(createConfiguration(80, BACKEND_ID, "member-1", "10.0.0.1:8080"));
+        awaitReloads(1);
+    }
+
+    @After
+    public void tearDown() {
+        confFile.delete();
+    }
+
+    @Test
+    public void testMemberAddedReloads() throws Exception {
+        haProxy.applyConfiguration(createConfiguration(80, BACKEND_ID,
+                "member-1", "10.0.0.1:8080", "member-2", "10.0.0.2:8080"));
+        awaitReloads(2);
+        assertTrue(haProxy.disabledServers.isEmpty());
+    }
+
+    @Test
+    public void testMemberRemovedDisablesServerWithoutReload() throws Exception {
+        haProxy.applyConfiguration(createConfiguration(80, BACKEND_ID,
+                "member-1", "10.0.0.1:8080", "member-2", "10.0.0.2:8080"));
+        awaitReloads(2);
+
+        haProxy.applyConfiguration(createConfiguration(80, BACKEND_ID, "member-1", "10.0.0.1:8080"));
+        awaitReloads(2);
+        assertEquals(Collections.singletonList(BACKEND_ID + "/member-2"), haProxy.disabledServers);
+
+        // Server already disabled is not disabled again
+        haProxy.applyConfiguration(createConfiguration(80, BACKEND_ID));
+        awaitReloads(2);
+        assertEquals(2, haProxy.disabledServers.size());
+        assertEquals(BACKEND_ID + "/member-1", haProxy.disabledServers.get(1));
+    }
+
+    @Test
+    public void testMemberRemovedReloadsWhenServerCouldNotBeDisabled() throws Exception {
+        haProxy.disableServerResult = false;
+        haProxy.applyConfiguration(createConfiguration(80, BACKEND_ID));
+        awaitReloads(2);
+    }
+
+    @Test
+    public void testMemberPortChangeReloads() throws Exception {
+        haProxy.applyConfiguration(createConfiguration(80, BACKEND_ID, "member-1", "10.0.0.1:9090"));
+        awaitReloads(2);
+    }
+
+    @Test
+    public void testProxyPortChangeReloads() throws Exception {
+        haProxy.applyConfiguration(createConfiguration(8280, BACKEND_ID, "member-1", "10.0.0.1:8080"));
+        awaitReloads(2);
+    }
+
+    @Test
+    public void testClusterChangeReloads() throws Exception {
+        haProxy.applyConfiguration(createConfiguration(80, "other.example.org-http-members",
+                "member-1", "10.0.0.1:8080"));
+        awaitReloads(2);
+    }
+
+    @Test
+    public void testUnchangedConfigurationSkipped() throws Exception {
+        haProxy.applyConfiguration(createConfiguration(80, BACKEND_ID, "member-1", "10.0.0.1:8080"));
+        awaitReloads(1);
+        assertTrue(haProxy.disabledServers.isEmpty());
+    }
+
+    @Test
+    public void testUnchangedConfigurationReloadedAfterFailedReload() throws Exception {
+        haProxy.reloadFailures.set(1);
+        haProxy.applyConfiguration(createConfiguration(80, BACKEND_ID,
+                "member-1", "10.0.0.1:8080", "member-2", "10.0.0.2:8080"));
+        awaitReloads(1);
+        assertEquals(0, haProxy.reloadFailures.get());
+
+        haProxy.applyConfiguration(createConfiguration(80, BACKEND_ID,
+                "member-1", "10.0.0.1:8080", "member-2", "10.0.0.2:8080"));
+        awaitReloads(2);
+        assertEquals(2, haProxy.reloadedServerCount);
+
+        // Configuration is skipped again once it is running
+        haProxy.applyConfiguration(createConfiguration(80, BACKEND_ID,
+                "member-1", "10.0.0.1:8080", "member-2", "10.0.0.2:8080"));
+        awaitReloads(2);
+    }
+
+    @Test
+    public void testBurstOfUpdatesCoalescedToOneReload() throws Exception {
+        for (int i = 2; i <= 10; i++) {
+            String[] serverAddresses = new String[i * 2];
+            for (int j = 0; j < i; j++) {
+                serverAddresses[j * 2] = "member-" + (j + 1);
+                serverAddresses[(j * 2) + 1] = "10.0.0." + (j + 1) + ":8080";
+            }
+            haProxy.applyConfiguration(createConfiguration(80, BACKEND_ID, serverAddresses));
+        }
+        awaitReloads(2);
+
+        // Reloaded configuration is the last one written
+        assertEquals(10, haProxy.reloadedServerCount);
+    }
+
+    @Test
+    public void testDisableServerSucceedsOnEmptyOutput() {
+        StatsSocketHAProxy statsSocketHAProxy = new StatsSocketHAProxy(confFile.getAbsolutePath(), "\n");
+        assertTrue(statsSocketHAProxy.disableServer(BACKEND_ID, "member-1"));
+        assertTrue(statsSocketHAProxy.command.contains("disable-server.sh " + BACKEND_ID + " member-1 "));
+    }
+
+    @Test
+    public void testDisableServerFailsOnErrorOutput() {
+        assertFalse(new StatsSocketHAProxy(confFile.getAbsolutePath(), "Permission denied.\n")
+                .disableServer(BACKEND_ID, "member-1"));
+        assertFalse(new StatsSocketHAProxy(confFile.getAbsolutePath(), "No such server.\n")
+                .disableServer(BACKEND_ID, "member-1"));
+    }
+
+    @Test
+    public void testDisableServerFailsOnCommandError() {
+        assertFalse(new StatsSocketHAProxy(confFile.getAbsolutePath(), null).disableServer(BACKEND_ID, "member-1"));
+    }
+
+    /**
+     * Wait for the expected number of reloads and verify that no further reload follows within the reload
+     * debounce interval.
+     */
+    private void awaitReloads(int expected) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 5000;
+        while ((haProxy.reloadCount.get() < expected) && (System.currentTimeMillis() < timeout)) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(RELOAD_DEBOUNCE_INTERVAL * 2);
+        assertEquals(expected, haProxy.reloadCount.get());
+    }
+
+    /**
+     * HAProxy recording reloads and server disable requests instead of executing the haproxy commands.
+     */
+    private static class MockHAProxy extends HAProxy {
+        private final AtomicInteger reloadCount = new AtomicInteger();
+        private final AtomicInteger reloadFailures = new AtomicInteger();
+        private final List<String> disabledServers = Collections.synchronizedList(new ArrayList<String>());
+        private volatile boolean disableServerResult = true;
+        private volatile int reloadedServerCount;
+        private final File confFile;
+
+        MockHAProxy(String confFilePath) {
+            super(confFilePath, true, RELOAD_DEBOUNCE_INTERVAL);
+            this.confFile = new File(confFilePath);
+        }
+
+        @Override
+        void reloadConfiguration() throws LoadBalancerExtensionException {
+            if (reloadFailures.get() > 0) {
+                reloadFailures.decrementAndGet();
+                throw new LoadBalancerExtensionException("haproxy reload failed");
+            }
+            try {
+                reloadedServerCount = countServers(confFile);
+            } catch (IOException e) {
+                throw new LoadBalancerExtensionException(e);
+            }
+            reloadCount.incrementAndGet();
+        }
+
+        @Override
+        boolean disableServer(String backendId, String serverName) {
+            disabledServers.add(backendId + "/" + serverName);
+            return disableServerResult;
+        }
+
+        private static int countServers(File file) throws IOException {
+            int count = 0;
+            for (String line : FileUtils.readLines(file)) {
+                if (line.startsWith("\tserver ")) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * HAProxy answering stats socket commands with the given output, fails the command if the output is null.
+     */
+    private static class StatsSocketHAProxy extends HAProxy {
+        private final String output;
+        private String command;
+
+        StatsSocketHAProxy(String confFilePath, String output) {
+            super(confFilePath, true, RELOAD_DEBOUNCE_INTERVAL);
+            this.output = output;
+        }
+
+        @Override
+        String executeStatsSocketCommand(String command) throws IOException {
+            this.command = command;
+            if (output == null) {
+                throw new IOException("socat: No such file or directory");
+            }
+            return output;
+        }
+    }
+}